@@ -117,6 +117,7 @@ public abstract class ContinuousRequestHandlerBase<StatementT extends Request, R
 
   protected final String logPrefix;
   protected final StatementT initialStatement;
+  private final DriverExecutionProfile executionProfile;
   protected final DefaultSession session;
   private final CqlIdentifier keyspace;
   protected final InternalDriverContext context;
@@ -193,8 +194,7 @@ public abstract class ContinuousRequestHandlerBase<StatementT extends Request, R
     this.session = session;
     this.keyspace = session.getKeyspace().orElse(null);
     this.context = context;
-    DriverExecutionProfile executionProfile =
-        Conversions.resolveExecutionProfile(statement, context);
+    this.executionProfile = Conversions.resolveExecutionProfile(statement, context);
     this.queryPlan =
         statement.getNode() != null
             ? new SimpleQueryPlan(statement.getNode())
@@ -250,8 +250,6 @@ public abstract class ContinuousRequestHandlerBase<StatementT extends Request, R
 
   @Override
   public void onThrottleReady(boolean wasDelayed) {
-    DriverExecutionProfile executionProfile =
-        Conversions.resolveExecutionProfile(initialStatement, context);
     if (wasDelayed
         // avoid call to nanoTime() if metric is disabled:
         && sessionMetricUpdater.isEnabled(
@@ -268,10 +266,14 @@ public abstract class ContinuousRequestHandlerBase<StatementT extends Request, R
     sendRequest(initialStatement, null, 0, 0, specExecEnabled);
   }
 
+  @NonNull
+  @Override
+  public DriverExecutionProfile getExecutionProfile() {
+    return executionProfile;
+  }
+
   @Override
   public void onThrottleFailure(@NonNull RequestThrottlingException error) {
-    DriverExecutionProfile executionProfile =
-        Conversions.resolveExecutionProfile(initialStatement, context);
     session
         .getMetricUpdater()
         .incrementCounter(DefaultSessionMetric.THROTTLING_ERRORS, executionProfile.getName());
@@ -526,6 +528,8 @@ public abstract class ContinuousRequestHandlerBase<StatementT extends Request, R
 
     @GuardedBy("lock")
     private int streamId = -1;
+    // Only accessed from the channel's event loop, see ResponseCallback.setInFlightStreamId
+    private int inFlightStreamId = -1;
 
     // These are set when the first page arrives, and are never modified after.
     private volatile ColumnDefinitions columnDefinitions;
@@ -774,6 +778,16 @@ public abstract class ContinuousRequestHandlerBase<StatementT extends Request, R
       }
     }
 
+    @Override
+    public void setInFlightStreamId(int streamId) {
+      this.inFlightStreamId = streamId;
+    }
+
+    @Override
+    public int getInFlightStreamId() {
+      return inFlightStreamId;
+    }
+
     /**
      * Invoked when a continuous paging request hits an unexpected error.
      *
@@ -101,6 +101,7 @@ public class GraphRequestHandler implements Throttled {
   private final long startTimeNanos;
   private final String logPrefix;
   private final GraphStatement<?> initialStatement;
+  private final DriverExecutionProfile executionProfile;
   private final DefaultSession session;
   private final InternalDriverContext context;
   protected final CompletableFuture<AsyncGraphResultSet> result;
@@ -144,6 +145,7 @@ public class GraphRequestHandler implements Throttled {
     this.logPrefix = sessionLogPrefix + "|" + this.hashCode();
     LOG.trace("[{}] Creating new Graph request handler for request {}", logPrefix, statement);
     this.initialStatement = statement;
+    this.executionProfile = Conversions.resolveExecutionProfile(statement, context);
     this.session = dseSession;
     this.context = context;
     this.graphSupportChecker = graphSupportChecker;
@@ -179,8 +181,6 @@ public class GraphRequestHandler implements Throttled {
 
   @Override
   public void onThrottleReady(boolean wasDelayed) {
-    DriverExecutionProfile executionProfile =
-        Conversions.resolveExecutionProfile(initialStatement, context);
     if (wasDelayed
         // avoid call to nanoTime() if metric is disabled:
         && sessionMetricUpdater.isEnabled(
@@ -433,10 +433,14 @@ public class GraphRequestHandler implements Throttled {
         executionProfile);
   }
 
+  @NonNull
+  @Override
+  public DriverExecutionProfile getExecutionProfile() {
+    return executionProfile;
+  }
+
   @Override
   public void onThrottleFailure(@NonNull RequestThrottlingException error) {
-    DriverExecutionProfile executionProfile =
-        Conversions.resolveExecutionProfile(initialStatement, context);
     sessionMetricUpdater.incrementCounter(
         DefaultSessionMetric.THROTTLING_ERRORS, executionProfile.getName());
     setFinalError(initialStatement, error, null, NO_SUCCESSFUL_EXECUTION);
@@ -500,6 +504,8 @@ public class GraphRequestHandler implements Throttled {
     private final boolean scheduleNextExecution;
     private final String logPrefix;
     private final DriverExecutionProfile executionProfile;
+    // Only accessed from the channel's event loop, see ResponseCallback.setInFlightStreamId
+    private int inFlightStreamId = -1;
 
     private NodeResponseCallback(
         GraphStatement<?> statement,
@@ -802,6 +808,16 @@ public class GraphRequestHandler implements Throttled {
       }
     }
 
+    @Override
+    public void setInFlightStreamId(int streamId) {
+      this.inFlightStreamId = streamId;
+    }
+
+    @Override
+    public int getInFlightStreamId() {
+      return inFlightStreamId;
+    }
+
     @Override
     public void onFailure(Throwable error) {
       inFlightCallbacks.remove(this);
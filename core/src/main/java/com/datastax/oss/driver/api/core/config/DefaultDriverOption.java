@@ -994,7 +994,379 @@ public enum DefaultDriverOption implements DriverOption {
    * <p>Value type: {@link java.util.List List}&#60;{@link String}&#62;
    */
   LOAD_BALANCING_DC_FAILOVER_PREFERRED_REMOTE_DCS(
-      "advanced.load-balancing-policy.dc-failover.preferred-remote-dcs");
+      "advanced.load-balancing-policy.dc-failover.preferred-remote-dcs"),
+  /**
+   * Whether to open connections to the shard-aware port advertised by Scylla nodes, choosing the
+   * local port so that each connection lands on the shard it was opened for.
+   *
+   * <p>Value-type: boolean
+   */
+  CONNECTION_ADVANCED_SHARD_AWARENESS_ENABLED(
+      "advanced.connection.advanced-shard-awareness.enabled"),
+  /**
+   * The lowest local port that can be used for shard-aware connections.
+   *
+   * <p>Value-type: int
+   */
+  CONNECTION_ADVANCED_SHARD_AWARENESS_PORT_LOW(
+      "advanced.connection.advanced-shard-awareness.port-low"),
+  /**
+   * The highest local port that can be used for shard-aware connections.
+   *
+   * <p>Value-type: int
+   */
+  CONNECTION_ADVANCED_SHARD_AWARENESS_PORT_HIGH(
+      "advanced.connection.advanced-shard-awareness.port-high"),
+  /**
+   * The Netty transport used by the I/O event loop group: AUTO, NIO, EPOLL or IO_URING.
+   *
+   * <p>Value-type: {@link String}
+   */
+  NETTY_IO_TRANSPORT("advanced.netty.io-group.transport"),
+  /**
+   * Whether to send TCP acknowledgements immediately (native transports only).
+   *
+   * <p>Value-type: boolean
+   */
+  SOCKET_TCP_QUICK_ACK("advanced.socket.tcp-quick-ack"),
+  /**
+   * The busy-poll timeout in microseconds when reading from a socket (epoll transport only).
+   *
+   * <p>Value-type: int
+   */
+  SOCKET_BUSY_POLL("advanced.socket.busy-poll"),
+  /**
+   * Whether to use the adaptive write coalescer.
+   *
+   * <p>Value-type: boolean
+   */
+  COALESCER_ADAPTIVE_ENABLED("advanced.coalescer.adaptive.enabled"),
+  /**
+   * The maximum number of writes to a connection before the adaptive coalescer flushes it.
+   *
+   * <p>Value-type: int
+   */
+  COALESCER_ADAPTIVE_MAX_MESSAGES("advanced.coalescer.adaptive.max-pending-messages"),
+  /**
+   * The maximum number of unflushed bytes on a connection before the adaptive coalescer flushes it.
+   *
+   * <p>Value-type: long
+   */
+  COALESCER_ADAPTIVE_MAX_BYTES("advanced.coalescer.adaptive.max-pending-bytes"),
+  /**
+   * The maximum reschedule interval of the adaptive coalescer.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  COALESCER_ADAPTIVE_MAX_INTERVAL("advanced.coalescer.adaptive.max-reschedule-interval"),
+  /**
+   * How a connection pool picks a channel among the connections to a given shard.
+   *
+   * <p>Value-type: {@link String}
+   */
+  CONNECTION_POOL_CHANNEL_SELECTION("advanced.connection.pool.channel-selection"),
+  /**
+   * Whether connection pools grow and shrink automatically based on their load.
+   *
+   * <p>Value-type: boolean
+   */
+  CONNECTION_POOL_AUTOSCALING_ENABLED("advanced.connection.pool.autoscaling.enabled"),
+  /**
+   * The maximum number of connections per shard (or per node, if it is not sharded) in an
+   * autoscaling pool.
+   *
+   * <p>Value-type: int
+   */
+  CONNECTION_POOL_AUTOSCALING_MAX_SIZE("advanced.connection.pool.autoscaling.max-size"),
+  /**
+   * The average number of in-flight requests per connection above which an autoscaling pool grows.
+   *
+   * <p>Value-type: int
+   */
+  CONNECTION_POOL_AUTOSCALING_HIGH_WATER_MARK(
+      "advanced.connection.pool.autoscaling.high-water-mark"),
+  /**
+   * The average number of in-flight requests per connection below which an autoscaling pool
+   * considers its extra connections idle.
+   *
+   * <p>Value-type: int
+   */
+  CONNECTION_POOL_AUTOSCALING_LOW_WATER_MARK("advanced.connection.pool.autoscaling.low-water-mark"),
+  /**
+   * How long extra connections must stay idle before an autoscaling pool closes one.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  CONNECTION_POOL_AUTOSCALING_COOL_DOWN("advanced.connection.pool.autoscaling.cool-down"),
+  /**
+   * How often an autoscaling pool checks its load.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  CONNECTION_POOL_AUTOSCALING_INTERVAL("advanced.connection.pool.autoscaling.interval"),
+  /**
+   * Whether requests wait for a stream id when all the connections to their target shard are busy.
+   *
+   * <p>Value-type: boolean
+   */
+  CONNECTION_POOL_WAIT_QUEUE_ENABLED("advanced.connection.pool.wait-queue.enabled"),
+  /**
+   * The maximum number of requests waiting for a stream id on a shard.
+   *
+   * <p>Value-type: int
+   */
+  CONNECTION_POOL_WAIT_QUEUE_MAX_SIZE("advanced.connection.pool.wait-queue.max-size"),
+  /**
+   * How long a request waits for a stream id before moving to the next node.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  CONNECTION_POOL_WAIT_QUEUE_MAX_WAIT("advanced.connection.pool.wait-queue.max-wait"),
+  /**
+   * The compression level, when the zstd compression algorithm is used.
+   *
+   * <p>Value-type: int
+   */
+  PROTOCOL_ZSTD_LEVEL("advanced.protocol.zstd.level"),
+  /**
+   * The path of a dictionary file, when the zstd compression algorithm is used.
+   *
+   * <p>Value-type: {@link String}
+   */
+  PROTOCOL_ZSTD_DICTIONARY("advanced.protocol.zstd.dictionary"),
+  /**
+   * The size, in bytes, below which outgoing payloads are sent uncompressed.
+   *
+   * <p>Value-type: long
+   */
+  PROTOCOL_COMPRESSION_MIN_SIZE("advanced.protocol.adaptive-compression.min-size"),
+  /**
+   * Whether to measure the compression ratio on each connection, and bypass compression when it
+   * doesn't pay off.
+   *
+   * <p>Value-type: boolean
+   */
+  PROTOCOL_COMPRESSION_ADAPTIVE_ENABLED("advanced.protocol.adaptive-compression.enabled"),
+  /**
+   * The compression ratio below which adaptive compression bypasses compression.
+   *
+   * <p>Value-type: double
+   */
+  PROTOCOL_COMPRESSION_ADAPTIVE_MIN_RATIO("advanced.protocol.adaptive-compression.min-ratio"),
+  /**
+   * The number of compressed payloads over which adaptive compression measures the ratio.
+   *
+   * <p>Value-type: int
+   */
+  PROTOCOL_COMPRESSION_ADAPTIVE_SAMPLE_SIZE("advanced.protocol.adaptive-compression.sample-size"),
+  /**
+   * The number of payloads that adaptive compression sends uncompressed before measuring the ratio
+   * again.
+   *
+   * <p>Value-type: int
+   */
+  PROTOCOL_COMPRESSION_ADAPTIVE_BYPASS_COUNT("advanced.protocol.adaptive-compression.bypass-count"),
+  /**
+   * Whether to decode the cells of ROWS responses on demand, instead of when the response is
+   * received.
+   *
+   * <p>Value-type: boolean
+   */
+  PROTOCOL_LAZY_ROW_DECODING("advanced.protocol.lazy-row-decoding"),
+
+  /**
+   * Whether the built-in load balancing policies should route lightweight transactions to replicas
+   * in a fixed order, instead of shuffling them.
+   *
+   * <p>Value-type: boolean
+   */
+  LOAD_BALANCING_POLICY_LWT_DETERMINISTIC_ROUTING(
+      "basic.load-balancing-policy.lwt-deterministic-routing"),
+
+  /**
+   * The keyspaces or tables whose tablets should be loaded from {@code system.tablets} when the
+   * session starts and when the topology or schema changes.
+   *
+   * <p>Value-type: List of {@link String}
+   */
+  METADATA_TABLETS_PRELOAD("advanced.metadata.tablets.preload"),
+
+  /**
+   * The largest duration that we expect to record for token map rebuilds.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  METRICS_SESSION_TOKEN_MAP_REBUILD_HIGHEST(
+      "advanced.metrics.session.token-map-rebuild.highest-latency"),
+  /**
+   * The shortest duration that we expect to record for token map rebuilds.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  METRICS_SESSION_TOKEN_MAP_REBUILD_LOWEST(
+      "advanced.metrics.session.token-map-rebuild.lowest-latency"),
+  /**
+   * The number of significant decimal digits to which internal structures will maintain for token
+   * map rebuilds.
+   *
+   * <p>Value-type: int
+   */
+  METRICS_SESSION_TOKEN_MAP_REBUILD_DIGITS(
+      "advanced.metrics.session.token-map-rebuild.significant-digits"),
+  /**
+   * The interval at which percentile data is refreshed for token map rebuilds.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  METRICS_SESSION_TOKEN_MAP_REBUILD_INTERVAL(
+      "advanced.metrics.session.token-map-rebuild.refresh-interval"),
+  /**
+   * Optional service-level objectives to meet for token map rebuilds, as a list of durations to
+   * track.
+   *
+   * <p>Value-type: List of {@link java.time.Duration Duration}
+   */
+  METRICS_SESSION_TOKEN_MAP_REBUILD_SLO("advanced.metrics.session.token-map-rebuild.slo"),
+  /**
+   * Optional list of percentiles to publish for the token map rebuild metric.
+   *
+   * <p>Value type: {@link java.util.List List}&#60;{@link Double}&#62;
+   */
+  METRICS_SESSION_TOKEN_MAP_REBUILD_PUBLISH_PERCENTILES(
+      "advanced.metrics.session.token-map-rebuild.publish-percentiles"),
+  /**
+   * How much slower than the fastest replica a replica must be to be moved to the back of the
+   * replicas by the latency-aware load balancing policy.
+   *
+   * <p>Value-type: double
+   */
+  LOAD_BALANCING_LATENCY_AWARENESS_EXCLUSION_THRESHOLD(
+      "advanced.load-balancing-policy.latency-awareness.exclusion-threshold"),
+  /**
+   * The time scale used to weight older latencies in the latency-aware load balancing policy.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  LOAD_BALANCING_LATENCY_AWARENESS_SCALE("advanced.load-balancing-policy.latency-awareness.scale"),
+  /**
+   * How long a penalized replica stays penalized before the latency-aware load balancing policy
+   * tries it again.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  LOAD_BALANCING_LATENCY_AWARENESS_RETRY_PERIOD(
+      "advanced.load-balancing-policy.latency-awareness.retry-period"),
+  /**
+   * The number of latency measurements needed before the latency-aware load balancing policy takes
+   * a node's average latency into account.
+   *
+   * <p>Value-type: int
+   */
+  LOAD_BALANCING_LATENCY_AWARENESS_MIN_MEASUREMENTS(
+      "advanced.load-balancing-policy.latency-awareness.minimum-measurements"),
+
+  /**
+   * The percentile of a node's latencies used as the speculative execution delay.
+   *
+   * <p>Value-type: double
+   */
+  SPECULATIVE_EXECUTION_PERCENTILE("advanced.speculative-execution-policy.percentile"),
+  /**
+   * The lower bound of the delay computed by the percentile speculative execution policy.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  SPECULATIVE_EXECUTION_MIN_DELAY("advanced.speculative-execution-policy.min-delay"),
+  /**
+   * The upper bound of the delay computed by the percentile speculative execution policy.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  SPECULATIVE_EXECUTION_MAX_DELAY("advanced.speculative-execution-policy.max-delay"),
+  /**
+   * The largest latency that the percentile speculative execution policy expects to record.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  SPECULATIVE_EXECUTION_HIGHEST_LATENCY("advanced.speculative-execution-policy.highest-latency"),
+  /**
+   * The number of significant decimal digits to which the percentile speculative execution policy
+   * maintains value resolution.
+   *
+   * <p>Value-type: int
+   */
+  SPECULATIVE_EXECUTION_SIGNIFICANT_DIGITS(
+      "advanced.speculative-execution-policy.significant-digits"),
+  /**
+   * The interval at which the percentile speculative execution policy refreshes its latency data.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  SPECULATIVE_EXECUTION_REFRESH_INTERVAL("advanced.speculative-execution-policy.refresh-interval"),
+  /**
+   * The number of latency measurements needed before the percentile speculative execution policy
+   * uses a node's data.
+   *
+   * <p>Value-type: int
+   */
+  SPECULATIVE_EXECUTION_MIN_MEASUREMENTS(
+      "advanced.speculative-execution-policy.minimum-measurements"),
+
+  /**
+   * Whether the session-wide budget for speculative executions and retries is enabled.
+   *
+   * <p>Value-type: boolean
+   */
+  RETRY_BUDGET_ENABLED("advanced.retry-budget.enabled"),
+  /**
+   * The maximum number of speculative executions and retries, as a percentage of primary requests.
+   *
+   * <p>Value-type: double
+   */
+  RETRY_BUDGET_PERCENTAGE("advanced.retry-budget.percentage"),
+  /**
+   * The maximum number of speculative executions and retries that can be spent in a burst.
+   *
+   * <p>Value-type: int
+   */
+  RETRY_BUDGET_BURST("advanced.retry-budget.burst"),
+
+  /**
+   * The lower bound of the concurrency limit of the adaptive throttler.
+   *
+   * <p>Value-type: int
+   */
+  REQUEST_THROTTLER_MIN_CONCURRENT_REQUESTS("advanced.throttler.min-concurrent-requests"),
+  /**
+   * The initial concurrency limit of the adaptive throttler.
+   *
+   * <p>Value-type: int
+   */
+  REQUEST_THROTTLER_INITIAL_CONCURRENT_REQUESTS("advanced.throttler.initial-concurrent-requests"),
+  /**
+   * The latency above which the adaptive throttler decreases its concurrency limit.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  REQUEST_THROTTLER_LATENCY_THRESHOLD("advanced.throttler.latency-threshold"),
+  /**
+   * The factor applied to the concurrency limit of the adaptive throttler when it decreases.
+   *
+   * <p>Value-type: double
+   */
+  REQUEST_THROTTLER_BACKOFF_RATIO("advanced.throttler.backoff-ratio"),
+  /**
+   * The priority class of the requests executed with a profile, for the priority-aware throttler.
+   *
+   * <p>Value-type: {@link String}
+   */
+  REQUEST_THROTTLER_PRIORITY_CLASS("advanced.throttler.priority-class"),
+  /**
+   * The dispatch weight of each priority class of the priority-aware throttler.
+   *
+   * <p>Value-type: Map of {@link String} to {@link String}
+   */
+  REQUEST_THROTTLER_PRIORITY_WEIGHTS("advanced.throttler.priority-weights");
 
   private final String path;
 
@@ -383,6 +383,44 @@ public class OptionsMap implements Serializable {
     map.put(TypedDriverOption.METRICS_GENERATE_AGGREGABLE_HISTOGRAMS, true);
     map.put(
         TypedDriverOption.LOAD_BALANCING_DC_FAILOVER_PREFERRED_REMOTE_DCS, ImmutableList.of(""));
+    map.put(TypedDriverOption.CONNECTION_ADVANCED_SHARD_AWARENESS_ENABLED, true);
+    map.put(TypedDriverOption.CONNECTION_ADVANCED_SHARD_AWARENESS_PORT_LOW, 10000);
+    map.put(TypedDriverOption.CONNECTION_ADVANCED_SHARD_AWARENESS_PORT_HIGH, 65535);
+    map.put(TypedDriverOption.NETTY_IO_TRANSPORT, "NIO");
+    map.put(TypedDriverOption.COALESCER_ADAPTIVE_ENABLED, false);
+    map.put(TypedDriverOption.COALESCER_ADAPTIVE_MAX_MESSAGES, 128);
+    map.put(TypedDriverOption.COALESCER_ADAPTIVE_MAX_BYTES, 64L * 1024);
+    map.put(TypedDriverOption.COALESCER_ADAPTIVE_MAX_INTERVAL, Duration.of(100, ChronoUnit.MICROS));
+    map.put(TypedDriverOption.CONNECTION_POOL_CHANNEL_SELECTION, "least-busy");
+    map.put(TypedDriverOption.CONNECTION_POOL_AUTOSCALING_ENABLED, false);
+    map.put(TypedDriverOption.CONNECTION_POOL_AUTOSCALING_MAX_SIZE, 8);
+    map.put(TypedDriverOption.CONNECTION_POOL_AUTOSCALING_HIGH_WATER_MARK, 256);
+    map.put(TypedDriverOption.CONNECTION_POOL_AUTOSCALING_LOW_WATER_MARK, 64);
+    map.put(TypedDriverOption.CONNECTION_POOL_AUTOSCALING_COOL_DOWN, Duration.ofMinutes(1));
+    map.put(TypedDriverOption.CONNECTION_POOL_AUTOSCALING_INTERVAL, Duration.ofSeconds(1));
+    map.put(TypedDriverOption.CONNECTION_POOL_WAIT_QUEUE_ENABLED, false);
+    map.put(TypedDriverOption.CONNECTION_POOL_WAIT_QUEUE_MAX_SIZE, 256);
+    map.put(TypedDriverOption.CONNECTION_POOL_WAIT_QUEUE_MAX_WAIT, Duration.ofMillis(5));
+    map.put(TypedDriverOption.PROTOCOL_ZSTD_LEVEL, 3);
+    map.put(TypedDriverOption.PROTOCOL_COMPRESSION_MIN_SIZE, 0L);
+    map.put(TypedDriverOption.PROTOCOL_COMPRESSION_ADAPTIVE_ENABLED, false);
+    map.put(TypedDriverOption.PROTOCOL_COMPRESSION_ADAPTIVE_MIN_RATIO, 1.1);
+    map.put(TypedDriverOption.PROTOCOL_COMPRESSION_ADAPTIVE_SAMPLE_SIZE, 64);
+    map.put(TypedDriverOption.PROTOCOL_COMPRESSION_ADAPTIVE_BYPASS_COUNT, 1024);
+    map.put(TypedDriverOption.PROTOCOL_LAZY_ROW_DECODING, false);
+    map.put(TypedDriverOption.LOAD_BALANCING_POLICY_LWT_DETERMINISTIC_ROUTING, false);
+    map.put(TypedDriverOption.METRICS_SESSION_TOKEN_MAP_REBUILD_HIGHEST, Duration.ofSeconds(10));
+    map.put(TypedDriverOption.METRICS_SESSION_TOKEN_MAP_REBUILD_LOWEST, Duration.ofMillis(1));
+    map.put(TypedDriverOption.METRICS_SESSION_TOKEN_MAP_REBUILD_DIGITS, 3);
+    map.put(TypedDriverOption.METRICS_SESSION_TOKEN_MAP_REBUILD_INTERVAL, Duration.ofMinutes(5));
+    map.put(TypedDriverOption.LOAD_BALANCING_LATENCY_AWARENESS_EXCLUSION_THRESHOLD, 2.0);
+    map.put(TypedDriverOption.LOAD_BALANCING_LATENCY_AWARENESS_SCALE, Duration.ofMillis(100));
+    map.put(
+        TypedDriverOption.LOAD_BALANCING_LATENCY_AWARENESS_RETRY_PERIOD, Duration.ofSeconds(10));
+    map.put(TypedDriverOption.LOAD_BALANCING_LATENCY_AWARENESS_MIN_MEASUREMENTS, 50);
+    map.put(TypedDriverOption.RETRY_BUDGET_ENABLED, false);
+    map.put(TypedDriverOption.RETRY_BUDGET_PERCENTAGE, 10.0);
+    map.put(TypedDriverOption.RETRY_BUDGET_BURST, 100);
   }
 
   @Immutable
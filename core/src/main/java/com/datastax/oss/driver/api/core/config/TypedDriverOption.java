@@ -905,6 +905,262 @@ public class TypedDriverOption<ValueT> {
               DefaultDriverOption.LOAD_BALANCING_DC_FAILOVER_PREFERRED_REMOTE_DCS,
               GenericType.listOf(String.class));
 
+  /** Whether to open connections to the shard-aware port advertised by Scylla nodes. */
+  public static final TypedDriverOption<Boolean> CONNECTION_ADVANCED_SHARD_AWARENESS_ENABLED =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_ADVANCED_SHARD_AWARENESS_ENABLED, GenericType.BOOLEAN);
+  /** The lowest local port that can be used for shard-aware connections. */
+  public static final TypedDriverOption<Integer> CONNECTION_ADVANCED_SHARD_AWARENESS_PORT_LOW =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_ADVANCED_SHARD_AWARENESS_PORT_LOW, GenericType.INTEGER);
+  /** The highest local port that can be used for shard-aware connections. */
+  public static final TypedDriverOption<Integer> CONNECTION_ADVANCED_SHARD_AWARENESS_PORT_HIGH =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_ADVANCED_SHARD_AWARENESS_PORT_HIGH, GenericType.INTEGER);
+
+  /** The Netty transport used by the I/O event loop group. */
+  public static final TypedDriverOption<String> NETTY_IO_TRANSPORT =
+      new TypedDriverOption<>(DefaultDriverOption.NETTY_IO_TRANSPORT, GenericType.STRING);
+  /** Whether to send TCP acknowledgements immediately (native transports only). */
+  public static final TypedDriverOption<Boolean> SOCKET_TCP_QUICK_ACK =
+      new TypedDriverOption<>(DefaultDriverOption.SOCKET_TCP_QUICK_ACK, GenericType.BOOLEAN);
+  /** The busy-poll timeout in microseconds when reading from a socket (epoll transport only). */
+  public static final TypedDriverOption<Integer> SOCKET_BUSY_POLL =
+      new TypedDriverOption<>(DefaultDriverOption.SOCKET_BUSY_POLL, GenericType.INTEGER);
+
+  /** Whether to use the adaptive write coalescer. */
+  public static final TypedDriverOption<Boolean> COALESCER_ADAPTIVE_ENABLED =
+      new TypedDriverOption<>(DefaultDriverOption.COALESCER_ADAPTIVE_ENABLED, GenericType.BOOLEAN);
+  /** The maximum number of writes to a connection before the adaptive coalescer flushes it. */
+  public static final TypedDriverOption<Integer> COALESCER_ADAPTIVE_MAX_MESSAGES =
+      new TypedDriverOption<>(
+          DefaultDriverOption.COALESCER_ADAPTIVE_MAX_MESSAGES, GenericType.INTEGER);
+  /**
+   * The maximum number of unflushed bytes on a connection before the adaptive coalescer flushes it.
+   */
+  public static final TypedDriverOption<Long> COALESCER_ADAPTIVE_MAX_BYTES =
+      new TypedDriverOption<>(DefaultDriverOption.COALESCER_ADAPTIVE_MAX_BYTES, GenericType.LONG);
+  /** The maximum reschedule interval of the adaptive coalescer. */
+  public static final TypedDriverOption<Duration> COALESCER_ADAPTIVE_MAX_INTERVAL =
+      new TypedDriverOption<>(
+          DefaultDriverOption.COALESCER_ADAPTIVE_MAX_INTERVAL, GenericType.DURATION);
+  /** How a connection pool picks a channel among the connections to a given shard. */
+  public static final TypedDriverOption<String> CONNECTION_POOL_CHANNEL_SELECTION =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_POOL_CHANNEL_SELECTION, GenericType.STRING);
+  /** Whether connection pools grow and shrink automatically based on their load. */
+  public static final TypedDriverOption<Boolean> CONNECTION_POOL_AUTOSCALING_ENABLED =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_POOL_AUTOSCALING_ENABLED, GenericType.BOOLEAN);
+  /** The maximum number of connections in an autoscaling pool. */
+  public static final TypedDriverOption<Integer> CONNECTION_POOL_AUTOSCALING_MAX_SIZE =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_POOL_AUTOSCALING_MAX_SIZE, GenericType.INTEGER);
+  /**
+   * The average number of in-flight requests per connection above which an autoscaling pool grows.
+   */
+  public static final TypedDriverOption<Integer> CONNECTION_POOL_AUTOSCALING_HIGH_WATER_MARK =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_POOL_AUTOSCALING_HIGH_WATER_MARK, GenericType.INTEGER);
+  /**
+   * The average number of in-flight requests per connection below which an autoscaling pool
+   * considers its extra connections idle.
+   */
+  public static final TypedDriverOption<Integer> CONNECTION_POOL_AUTOSCALING_LOW_WATER_MARK =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_POOL_AUTOSCALING_LOW_WATER_MARK, GenericType.INTEGER);
+  /** How long extra connections must stay idle before an autoscaling pool closes one. */
+  public static final TypedDriverOption<Duration> CONNECTION_POOL_AUTOSCALING_COOL_DOWN =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_POOL_AUTOSCALING_COOL_DOWN, GenericType.DURATION);
+  /** How often an autoscaling pool checks its load. */
+  public static final TypedDriverOption<Duration> CONNECTION_POOL_AUTOSCALING_INTERVAL =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_POOL_AUTOSCALING_INTERVAL, GenericType.DURATION);
+  /**
+   * Whether requests wait for a stream id when all the connections to their target shard are busy.
+   */
+  public static final TypedDriverOption<Boolean> CONNECTION_POOL_WAIT_QUEUE_ENABLED =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_POOL_WAIT_QUEUE_ENABLED, GenericType.BOOLEAN);
+  /** The maximum number of requests waiting for a stream id on a shard. */
+  public static final TypedDriverOption<Integer> CONNECTION_POOL_WAIT_QUEUE_MAX_SIZE =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_POOL_WAIT_QUEUE_MAX_SIZE, GenericType.INTEGER);
+  /** How long a request waits for a stream id before moving to the next node. */
+  public static final TypedDriverOption<Duration> CONNECTION_POOL_WAIT_QUEUE_MAX_WAIT =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_POOL_WAIT_QUEUE_MAX_WAIT, GenericType.DURATION);
+  /** The compression level, when the zstd compression algorithm is used. */
+  public static final TypedDriverOption<Integer> PROTOCOL_ZSTD_LEVEL =
+      new TypedDriverOption<>(DefaultDriverOption.PROTOCOL_ZSTD_LEVEL, GenericType.INTEGER);
+  /** The path of a dictionary file, when the zstd compression algorithm is used. */
+  public static final TypedDriverOption<String> PROTOCOL_ZSTD_DICTIONARY =
+      new TypedDriverOption<>(DefaultDriverOption.PROTOCOL_ZSTD_DICTIONARY, GenericType.STRING);
+  /** The size, in bytes, below which outgoing payloads are sent uncompressed. */
+  public static final TypedDriverOption<Long> PROTOCOL_COMPRESSION_MIN_SIZE =
+      new TypedDriverOption<>(DefaultDriverOption.PROTOCOL_COMPRESSION_MIN_SIZE, GenericType.LONG);
+  /**
+   * Whether to measure the compression ratio on each connection, and bypass compression when it
+   * doesn't pay off.
+   */
+  public static final TypedDriverOption<Boolean> PROTOCOL_COMPRESSION_ADAPTIVE_ENABLED =
+      new TypedDriverOption<>(
+          DefaultDriverOption.PROTOCOL_COMPRESSION_ADAPTIVE_ENABLED, GenericType.BOOLEAN);
+  /** The compression ratio below which adaptive compression bypasses compression. */
+  public static final TypedDriverOption<Double> PROTOCOL_COMPRESSION_ADAPTIVE_MIN_RATIO =
+      new TypedDriverOption<>(
+          DefaultDriverOption.PROTOCOL_COMPRESSION_ADAPTIVE_MIN_RATIO, GenericType.DOUBLE);
+  /** The number of compressed payloads over which adaptive compression measures the ratio. */
+  public static final TypedDriverOption<Integer> PROTOCOL_COMPRESSION_ADAPTIVE_SAMPLE_SIZE =
+      new TypedDriverOption<>(
+          DefaultDriverOption.PROTOCOL_COMPRESSION_ADAPTIVE_SAMPLE_SIZE, GenericType.INTEGER);
+  /**
+   * The number of payloads that adaptive compression sends uncompressed before measuring the ratio
+   * again.
+   */
+  public static final TypedDriverOption<Integer> PROTOCOL_COMPRESSION_ADAPTIVE_BYPASS_COUNT =
+      new TypedDriverOption<>(
+          DefaultDriverOption.PROTOCOL_COMPRESSION_ADAPTIVE_BYPASS_COUNT, GenericType.INTEGER);
+  /**
+   * Whether to decode the cells of ROWS responses on demand, instead of when the response is
+   * received.
+   */
+  public static final TypedDriverOption<Boolean> PROTOCOL_LAZY_ROW_DECODING =
+      new TypedDriverOption<>(DefaultDriverOption.PROTOCOL_LAZY_ROW_DECODING, GenericType.BOOLEAN);
+  /**
+   * Whether the built-in load balancing policies should route lightweight transactions to replicas
+   * in a fixed order, instead of shuffling them.
+   */
+  public static final TypedDriverOption<Boolean> LOAD_BALANCING_POLICY_LWT_DETERMINISTIC_ROUTING =
+      new TypedDriverOption<>(
+          DefaultDriverOption.LOAD_BALANCING_POLICY_LWT_DETERMINISTIC_ROUTING, GenericType.BOOLEAN);
+  /**
+   * The keyspaces or tables whose tablets should be loaded from {@code system.tablets} when the
+   * session starts and when the topology or schema changes.
+   */
+  public static final TypedDriverOption<List<String>> METADATA_TABLETS_PRELOAD =
+      new TypedDriverOption<>(
+          DefaultDriverOption.METADATA_TABLETS_PRELOAD, GenericType.listOf(String.class));
+  /** The largest duration that we expect to record for token map rebuilds. */
+  public static final TypedDriverOption<Duration> METRICS_SESSION_TOKEN_MAP_REBUILD_HIGHEST =
+      new TypedDriverOption<>(
+          DefaultDriverOption.METRICS_SESSION_TOKEN_MAP_REBUILD_HIGHEST, GenericType.DURATION);
+  /** The shortest duration that we expect to record for token map rebuilds. */
+  public static final TypedDriverOption<Duration> METRICS_SESSION_TOKEN_MAP_REBUILD_LOWEST =
+      new TypedDriverOption<>(
+          DefaultDriverOption.METRICS_SESSION_TOKEN_MAP_REBUILD_LOWEST, GenericType.DURATION);
+  /**
+   * The number of significant decimal digits to which internal structures will maintain for token
+   * map rebuilds.
+   */
+  public static final TypedDriverOption<Integer> METRICS_SESSION_TOKEN_MAP_REBUILD_DIGITS =
+      new TypedDriverOption<>(
+          DefaultDriverOption.METRICS_SESSION_TOKEN_MAP_REBUILD_DIGITS, GenericType.INTEGER);
+  /** The interval at which percentile data is refreshed for token map rebuilds. */
+  public static final TypedDriverOption<Duration> METRICS_SESSION_TOKEN_MAP_REBUILD_INTERVAL =
+      new TypedDriverOption<>(
+          DefaultDriverOption.METRICS_SESSION_TOKEN_MAP_REBUILD_INTERVAL, GenericType.DURATION);
+  /** Optional service-level objectives to meet for token map rebuilds. */
+  public static final TypedDriverOption<List<Duration>> METRICS_SESSION_TOKEN_MAP_REBUILD_SLO =
+      new TypedDriverOption<>(
+          DefaultDriverOption.METRICS_SESSION_TOKEN_MAP_REBUILD_SLO,
+          GenericType.listOf(GenericType.DURATION));
+  /** Optional pre-defined percentiles of token map rebuild durations to publish. */
+  public static final TypedDriverOption<List<Double>>
+      METRICS_SESSION_TOKEN_MAP_REBUILD_PUBLISH_PERCENTILES =
+          new TypedDriverOption<>(
+              DefaultDriverOption.METRICS_SESSION_TOKEN_MAP_REBUILD_PUBLISH_PERCENTILES,
+              GenericType.listOf(GenericType.DOUBLE));
+  /**
+   * How much slower than the fastest replica a replica must be to be penalized by the latency-aware
+   * load balancing policy.
+   */
+  public static final TypedDriverOption<Double>
+      LOAD_BALANCING_LATENCY_AWARENESS_EXCLUSION_THRESHOLD =
+          new TypedDriverOption<>(
+              DefaultDriverOption.LOAD_BALANCING_LATENCY_AWARENESS_EXCLUSION_THRESHOLD,
+              GenericType.DOUBLE);
+  /** The time scale used to weight older latencies in the latency-aware load balancing policy. */
+  public static final TypedDriverOption<Duration> LOAD_BALANCING_LATENCY_AWARENESS_SCALE =
+      new TypedDriverOption<>(
+          DefaultDriverOption.LOAD_BALANCING_LATENCY_AWARENESS_SCALE, GenericType.DURATION);
+  /** How long the latency-aware load balancing policy penalizes a slow replica. */
+  public static final TypedDriverOption<Duration> LOAD_BALANCING_LATENCY_AWARENESS_RETRY_PERIOD =
+      new TypedDriverOption<>(
+          DefaultDriverOption.LOAD_BALANCING_LATENCY_AWARENESS_RETRY_PERIOD, GenericType.DURATION);
+  /** The number of latency measurements needed before a node's average is taken into account. */
+  public static final TypedDriverOption<Integer> LOAD_BALANCING_LATENCY_AWARENESS_MIN_MEASUREMENTS =
+      new TypedDriverOption<>(
+          DefaultDriverOption.LOAD_BALANCING_LATENCY_AWARENESS_MIN_MEASUREMENTS,
+          GenericType.INTEGER);
+
+  /** The percentile of a node's latencies used as the speculative execution delay. */
+  public static final TypedDriverOption<Double> SPECULATIVE_EXECUTION_PERCENTILE =
+      new TypedDriverOption<>(
+          DefaultDriverOption.SPECULATIVE_EXECUTION_PERCENTILE, GenericType.DOUBLE);
+  /** The lower bound of the delay computed by the percentile speculative execution policy. */
+  public static final TypedDriverOption<Duration> SPECULATIVE_EXECUTION_MIN_DELAY =
+      new TypedDriverOption<>(
+          DefaultDriverOption.SPECULATIVE_EXECUTION_MIN_DELAY, GenericType.DURATION);
+  /** The upper bound of the delay computed by the percentile speculative execution policy. */
+  public static final TypedDriverOption<Duration> SPECULATIVE_EXECUTION_MAX_DELAY =
+      new TypedDriverOption<>(
+          DefaultDriverOption.SPECULATIVE_EXECUTION_MAX_DELAY, GenericType.DURATION);
+  /** The largest latency that the percentile speculative execution policy expects to record. */
+  public static final TypedDriverOption<Duration> SPECULATIVE_EXECUTION_HIGHEST_LATENCY =
+      new TypedDriverOption<>(
+          DefaultDriverOption.SPECULATIVE_EXECUTION_HIGHEST_LATENCY, GenericType.DURATION);
+  /** The number of significant digits of the percentile speculative execution policy's data. */
+  public static final TypedDriverOption<Integer> SPECULATIVE_EXECUTION_SIGNIFICANT_DIGITS =
+      new TypedDriverOption<>(
+          DefaultDriverOption.SPECULATIVE_EXECUTION_SIGNIFICANT_DIGITS, GenericType.INTEGER);
+  /** The interval at which the percentile speculative execution policy refreshes its data. */
+  public static final TypedDriverOption<Duration> SPECULATIVE_EXECUTION_REFRESH_INTERVAL =
+      new TypedDriverOption<>(
+          DefaultDriverOption.SPECULATIVE_EXECUTION_REFRESH_INTERVAL, GenericType.DURATION);
+  /** The number of measurements needed before a node's latency percentile is used. */
+  public static final TypedDriverOption<Integer> SPECULATIVE_EXECUTION_MIN_MEASUREMENTS =
+      new TypedDriverOption<>(
+          DefaultDriverOption.SPECULATIVE_EXECUTION_MIN_MEASUREMENTS, GenericType.INTEGER);
+
+  /** Whether the session-wide budget for speculative executions and retries is enabled. */
+  public static final TypedDriverOption<Boolean> RETRY_BUDGET_ENABLED =
+      new TypedDriverOption<>(DefaultDriverOption.RETRY_BUDGET_ENABLED, GenericType.BOOLEAN);
+  /** The maximum number of extra attempts, as a percentage of primary requests. */
+  public static final TypedDriverOption<Double> RETRY_BUDGET_PERCENTAGE =
+      new TypedDriverOption<>(DefaultDriverOption.RETRY_BUDGET_PERCENTAGE, GenericType.DOUBLE);
+  /** The maximum number of extra attempts that can be spent in a burst. */
+  public static final TypedDriverOption<Integer> RETRY_BUDGET_BURST =
+      new TypedDriverOption<>(DefaultDriverOption.RETRY_BUDGET_BURST, GenericType.INTEGER);
+
+  /** The lower bound of the concurrency limit of the adaptive throttler. */
+  public static final TypedDriverOption<Integer> REQUEST_THROTTLER_MIN_CONCURRENT_REQUESTS =
+      new TypedDriverOption<>(
+          DefaultDriverOption.REQUEST_THROTTLER_MIN_CONCURRENT_REQUESTS, GenericType.INTEGER);
+  /** The initial concurrency limit of the adaptive throttler. */
+  public static final TypedDriverOption<Integer> REQUEST_THROTTLER_INITIAL_CONCURRENT_REQUESTS =
+      new TypedDriverOption<>(
+          DefaultDriverOption.REQUEST_THROTTLER_INITIAL_CONCURRENT_REQUESTS, GenericType.INTEGER);
+  /** The latency above which the adaptive throttler decreases its concurrency limit. */
+  public static final TypedDriverOption<Duration> REQUEST_THROTTLER_LATENCY_THRESHOLD =
+      new TypedDriverOption<>(
+          DefaultDriverOption.REQUEST_THROTTLER_LATENCY_THRESHOLD, GenericType.DURATION);
+  /** The factor applied to the concurrency limit of the adaptive throttler when it decreases. */
+  public static final TypedDriverOption<Double> REQUEST_THROTTLER_BACKOFF_RATIO =
+      new TypedDriverOption<>(
+          DefaultDriverOption.REQUEST_THROTTLER_BACKOFF_RATIO, GenericType.DOUBLE);
+
+  /** The priority class of the requests executed with a profile. */
+  public static final TypedDriverOption<String> REQUEST_THROTTLER_PRIORITY_CLASS =
+      new TypedDriverOption<>(
+          DefaultDriverOption.REQUEST_THROTTLER_PRIORITY_CLASS, GenericType.STRING);
+  /** The dispatch weight of each priority class of the priority-aware throttler. */
+  public static final TypedDriverOption<Map<String, String>> REQUEST_THROTTLER_PRIORITY_WEIGHTS =
+      new TypedDriverOption<>(
+          DefaultDriverOption.REQUEST_THROTTLER_PRIORITY_WEIGHTS,
+          GenericType.mapOf(GenericType.STRING, GenericType.STRING));
+
   private static Iterable<TypedDriverOption<?>> introspectBuiltInValues() {
     try {
       ImmutableList.Builder<TypedDriverOption<?>> result = ImmutableList.builder();
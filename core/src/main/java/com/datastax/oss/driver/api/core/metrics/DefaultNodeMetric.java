@@ -51,6 +51,9 @@ public enum DefaultNodeMetric implements NodeMetric {
   SPECULATIVE_EXECUTIONS("speculative-executions"),
   CONNECTION_INIT_ERRORS("errors.connection.init"),
   AUTHENTICATION_ERRORS("errors.connection.auth"),
+  WAIT_QUEUE_DEPTH("pool.wait-queue-depth"),
+  COMPRESSION_RAW_BYTES("compression.raw-bytes"),
+  COMPRESSION_COMPRESSED_BYTES("compression.compressed-bytes"),
   ;
 
   private static final Map<String, DefaultNodeMetric> BY_PATH = sortByPath();
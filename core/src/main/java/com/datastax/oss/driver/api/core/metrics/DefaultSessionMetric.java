@@ -32,6 +32,11 @@ public enum DefaultSessionMetric implements SessionMetric {
   THROTTLING_QUEUE_SIZE("throttling.queue-size"),
   THROTTLING_ERRORS("throttling.errors"),
   CQL_PREPARED_CACHE_SIZE("cql-prepared-cache-size"),
+  TABLET_MAP_SIZE("tablet-map-size"),
+  TOKEN_MAP_REBUILD("token-map-rebuild"),
+  RETRY_BUDGET_SUPPRESSED_RETRIES("retry-budget.suppressed-retries"),
+  RETRY_BUDGET_SUPPRESSED_SPECULATIVE_EXECUTIONS("retry-budget.suppressed-speculative-executions"),
+  THROTTLING_CONCURRENCY_LIMIT("throttling.concurrency-limit"),
   ;
 
   private static final Map<String, DefaultSessionMetric> BY_PATH = sortByPath();
@@ -18,7 +18,9 @@
 package com.datastax.oss.driver.api.core.session.throttling;
 
 import com.datastax.oss.driver.api.core.RequestThrottlingException;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 
 /**
  * A request that may be subjected to throttling by a {@link
@@ -43,4 +45,15 @@ public interface Throttled {
    * @param error the error that the request should be completed (exceptionally) with.
    */
   void onThrottleFailure(@NonNull RequestThrottlingException error);
+
+  /**
+   * The execution profile of the request, if it has one.
+   *
+   * <p>Throttlers may use it to treat requests differently depending on their profile. The default
+   * implementation returns {@code null}, which throttlers should treat as the default profile.
+   */
+  @Nullable
+  default DriverExecutionProfile getExecutionProfile() {
+    return null;
+  }
 }
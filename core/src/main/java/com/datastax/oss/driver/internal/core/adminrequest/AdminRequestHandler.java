@@ -42,6 +42,7 @@ import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
@@ -100,6 +101,8 @@ public class AdminRequestHandler<ResultT> implements ResponseCallback {
   private final String debugString;
   private final Class<? extends Result> expectedResponseType;
   protected final CompletableFuture<ResultT> result = new CompletableFuture<>();
+  // Only accessed from the channel's event loop, see ResponseCallback.setInFlightStreamId
+  private int inFlightStreamId = -1;
 
   // This is only ever accessed on the channel's event loop, so it doesn't need to be volatile
   private ScheduledFuture<?> timeoutFuture;
@@ -159,6 +162,16 @@ public class AdminRequestHandler<ResultT> implements ResponseCallback {
     }
   }
 
+  @Override
+  public void setInFlightStreamId(int streamId) {
+    this.inFlightStreamId = streamId;
+  }
+
+  @Override
+  public int getInFlightStreamId() {
+    return inFlightStreamId;
+  }
+
   @Override
   public void onFailure(Throwable error) {
     if (timeoutFuture != null) {
@@ -259,6 +272,8 @@ public class AdminRequestHandler<ResultT> implements ResponseCallback {
       return AdminRow.LIST_OF_TEXT.encode(l, protocolVersion);
     } else if (parameter instanceof Integer) {
       return TypeCodecs.INT.encode((Integer) parameter, protocolVersion);
+    } else if (parameter instanceof UUID) {
+      return TypeCodecs.UUID.encode((UUID) parameter, protocolVersion);
     } else {
       throw new IllegalArgumentException(
           "Unsupported variable type for admin query: " + parameter.getClass());
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.channel;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoop;
+import io.netty.util.internal.PlatformDependent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A write coalescing strategy that adapts to the load.
+ *
+ * <p>Like {@link DefaultWriteCoalescer}, it maintains a queue per event loop, and a task that
+ * drains the queue and flushes the channels. The differences are:
+ *
+ * <ul>
+ *   <li>the queue is an array-based MPSC queue, that doesn't allocate a node for each write;
+ *   <li>while the queue is drained, a channel is flushed as soon as its pending writes exceed a
+ *       message count or a byte size, so that large batches start hitting the socket early;
+ *   <li>when writes keep arriving while the task runs, the next run is delayed in proportion to the
+ *       average number of writes per run: under light load, writes are flushed immediately; under
+ *       heavy load, the task waits up to the configured interval to accumulate bigger batches, and
+ *       therefore issue fewer system calls.
+ * </ul>
+ */
+@ThreadSafe
+public class AdaptiveWriteCoalescer implements WriteCoalescer {
+
+  // The weight of the last run in the average number of writes per run
+  private static final double ALPHA = 0.25;
+
+  private final long maxRescheduleIntervalNanos;
+  private final int maxPendingMessages;
+  private final long maxPendingBytes;
+  private final ConcurrentMap<EventLoop, Flusher> flushers = new ConcurrentHashMap<>();
+
+  public AdaptiveWriteCoalescer(DriverContext context) {
+    DriverExecutionProfile config = context.getConfig().getDefaultProfile();
+    this.maxRescheduleIntervalNanos =
+        config.getDuration(DefaultDriverOption.COALESCER_ADAPTIVE_MAX_INTERVAL).toNanos();
+    this.maxPendingMessages = config.getInt(DefaultDriverOption.COALESCER_ADAPTIVE_MAX_MESSAGES);
+    this.maxPendingBytes = config.getBytes(DefaultDriverOption.COALESCER_ADAPTIVE_MAX_BYTES);
+  }
+
+  @Override
+  public ChannelFuture writeAndFlush(Channel channel, Object message) {
+    ChannelPromise writePromise = channel.newPromise();
+    Write write = new Write(channel, message, writePromise);
+    enqueue(write, channel.eventLoop());
+    return writePromise;
+  }
+
+  private void enqueue(Write write, EventLoop eventLoop) {
+    Flusher flusher = flushers.computeIfAbsent(eventLoop, Flusher::new);
+    flusher.enqueue(write);
+  }
+
+  /**
+   * The delay before the next run, given the average number of writes per run: 0 for one write per
+   * run or less, growing linearly up to the maximum interval when runs drain {@code
+   * maxPendingMessages} writes or more.
+   */
+  @VisibleForTesting
+  static long rescheduleDelayNanos(
+      double averageWritesPerRun, int maxPendingMessages, long maxRescheduleIntervalNanos) {
+    if (averageWritesPerRun <= 1 || maxPendingMessages <= 1) {
+      return 0;
+    }
+    double ratio = Math.min(1.0, (averageWritesPerRun - 1) / (maxPendingMessages - 1));
+    return (long) (ratio * maxRescheduleIntervalNanos);
+  }
+
+  private class Flusher {
+    private final EventLoop eventLoop;
+
+    // These variables are accessed both from client threads and the event loop
+    private final Queue<Write> writes = PlatformDependent.newMpscQueue();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // These variables are accessed only from the event loop, they don't need to be thread-safe.
+    // The entries of `channels` are reused across runs, and removed when their channel closes;
+    // `dirtyChannels` holds the entries written to during the current run.
+    private final Map<Channel, PendingWrites> channels = new HashMap<>();
+    private final List<PendingWrites> dirtyChannels = new ArrayList<>();
+    private double averageWritesPerRun;
+
+    private Flusher(EventLoop eventLoop) {
+      this.eventLoop = eventLoop;
+    }
+
+    private void enqueue(Write write) {
+      boolean added = writes.offer(write);
+      assert added; // always true (the capacity of the queue is practically unbounded)
+      if (running.compareAndSet(false, true)) {
+        eventLoop.execute(this::runOnEventLoop);
+      }
+    }
+
+    private void runOnEventLoop() {
+      assert eventLoop.inEventLoop();
+
+      int writeCount = 0;
+      Write write;
+      while ((write = writes.poll()) != null) {
+        writeCount += 1;
+        Channel channel = write.channel;
+        channel.write(write.message, write.writePromise);
+        PendingWrites pending = channels.get(channel);
+        if (pending == null) {
+          pending = newPendingWrites(channel);
+        }
+        if (!pending.dirty) {
+          pending.dirty = true;
+          dirtyChannels.add(pending);
+        }
+        pending.messages += 1;
+        if (pending.messages >= maxPendingMessages || pendingBytes(channel) >= maxPendingBytes) {
+          channel.flush();
+          pending.messages = 0;
+        }
+      }
+
+      for (PendingWrites pending : dirtyChannels) {
+        if (pending.messages > 0) {
+          pending.channel.flush();
+          pending.messages = 0;
+        }
+        pending.dirty = false;
+      }
+      dirtyChannels.clear();
+
+      averageWritesPerRun = ALPHA * writeCount + (1 - ALPHA) * averageWritesPerRun;
+
+      // Prepare to stop
+      running.set(false);
+
+      // enqueue() can be called concurrently with this method: see DefaultWriteCoalescer for an
+      // explanation of the race condition that we need to handle here.
+      if (writes.isEmpty()) {
+        return;
+      }
+
+      boolean shouldRestartMyself = running.compareAndSet(false, true);
+
+      if (shouldRestartMyself && !eventLoop.isShuttingDown()) {
+        long delayNanos =
+            rescheduleDelayNanos(
+                averageWritesPerRun, maxPendingMessages, maxRescheduleIntervalNanos);
+        if (delayNanos == 0) {
+          eventLoop.execute(this::runOnEventLoop);
+        } else {
+          eventLoop.schedule(this::runOnEventLoop, delayNanos, TimeUnit.NANOSECONDS);
+        }
+      }
+    }
+
+    private PendingWrites newPendingWrites(Channel channel) {
+      PendingWrites pending = new PendingWrites(channel);
+      channels.put(channel, pending);
+      // The channel is registered to this event loop, so the listener runs on it too
+      channel.closeFuture().addListener(f -> channels.remove(channel));
+      return pending;
+    }
+
+    private long pendingBytes(Channel channel) {
+      ChannelOutboundBuffer outboundBuffer = channel.unsafe().outboundBuffer();
+      return (outboundBuffer == null) ? 0 : outboundBuffer.totalPendingWriteBytes();
+    }
+  }
+
+  private static class PendingWrites {
+    private final Channel channel;
+    // Number of writes since the last flush
+    private int messages;
+    // Whether the channel was written to during the current run
+    private boolean dirty;
+
+    private PendingWrites(Channel channel) {
+      this.channel = channel;
+    }
+  }
+
+  private static class Write {
+    private final Channel channel;
+    private final Object message;
+    private final ChannelPromise writePromise;
+
+    private Write(Channel channel, Object message, ChannelPromise writePromise) {
+      this.channel = channel;
+      this.message = message;
+      this.writePromise = writePromise;
+    }
+  }
+}
@@ -31,32 +31,45 @@ import com.datastax.oss.driver.api.core.config.DriverConfig;
 import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.metadata.EndPoint;
 import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.NodeState;
 import com.datastax.oss.driver.api.core.metrics.DefaultNodeMetric;
 import com.datastax.oss.driver.api.core.metrics.DefaultSessionMetric;
 import com.datastax.oss.driver.internal.core.config.typesafe.TypesafeDriverConfig;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
 import com.datastax.oss.driver.internal.core.context.NettyOptions;
+import com.datastax.oss.driver.internal.core.metadata.DefaultEndPoint;
 import com.datastax.oss.driver.internal.core.metadata.DefaultNode;
+import com.datastax.oss.driver.internal.core.metadata.NodeStateEvent;
 import com.datastax.oss.driver.internal.core.metrics.NodeMetricUpdater;
 import com.datastax.oss.driver.internal.core.metrics.NoopNodeMetricUpdater;
 import com.datastax.oss.driver.internal.core.metrics.SessionMetricUpdater;
+import com.datastax.oss.driver.internal.core.protocol.AdaptiveCompression;
 import com.datastax.oss.driver.internal.core.protocol.FrameDecoder;
 import com.datastax.oss.driver.internal.core.protocol.FrameEncoder;
+import com.datastax.oss.driver.internal.core.protocol.ShardingInfo;
 import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
 import com.datastax.oss.driver.shaded.guava.common.base.Preconditions;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ConnectTimeoutException;
+import java.net.BindException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import net.jcip.annotations.ThreadSafe;
 import org.slf4j.Logger;
@@ -82,6 +95,18 @@ public class ChannelFactory {
    */
   private static final String UNKNOWN_PRODUCT_TYPE = "UNKNOWN";
 
+  /**
+   * How many local ports we try for a single shard-aware connection before falling back to the
+   * regular port, if binding keeps failing because the ports are already in use.
+   */
+  private static final int MAX_SHARD_AWARE_BIND_ATTEMPTS = 8;
+
+  /**
+   * How long we connect to the regular port of a node after its shard-aware port refused a
+   * connection, before trying the shard-aware port again.
+   */
+  private static final long SHARD_AWARE_PORT_RETRY_DELAY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
   // The names of the handlers on the pipeline:
   public static final String SSL_HANDLER_NAME = "ssl";
   public static final String INBOUND_TRAFFIC_METER_NAME = "inboundTrafficMeter";
@@ -112,9 +137,36 @@ public class ChannelFactory {
    */
   @VisibleForTesting volatile String productType;
 
+  private final ShardAwarePortAllocator portAllocator;
+
+  /**
+   * The nodes that refused a connection on their shard-aware port (either because it is blocked by
+   * a firewall, or because the node is restarting), and when that happened. We connect to their
+   * regular port directly until the retry delay has elapsed, or the node comes back up.
+   */
+  private final Map<EndPoint, Long> shardAwarePortRefusals = new ConcurrentHashMap<>();
+
+  private final long shardAwarePortRetryDelayNanos;
+
   public ChannelFactory(InternalDriverContext context) {
+    this(context, new ShardAwarePortAllocator(), SHARD_AWARE_PORT_RETRY_DELAY_NANOS);
+  }
+
+  @VisibleForTesting
+  ChannelFactory(InternalDriverContext context, ShardAwarePortAllocator portAllocator) {
+    this(context, portAllocator, SHARD_AWARE_PORT_RETRY_DELAY_NANOS);
+  }
+
+  @VisibleForTesting
+  ChannelFactory(
+      InternalDriverContext context,
+      ShardAwarePortAllocator portAllocator,
+      long shardAwarePortRetryDelayNanos) {
     this.logPrefix = context.getSessionName();
     this.context = context;
+    this.portAllocator = portAllocator;
+    this.shardAwarePortRetryDelayNanos = shardAwarePortRetryDelayNanos;
+    context.getEventBus().register(NodeStateEvent.class, this::onNodeStateEvent);
 
     DriverExecutionProfile defaultConfig = context.getConfig().getDefaultProfile();
     if (defaultConfig.isDefined(DefaultDriverOption.PROTOCOL_VERSION)) {
@@ -156,9 +208,45 @@ public class ChannelFactory {
     return connect(node.getEndPoint(), options, nodeMetricUpdater);
   }
 
+  /**
+   * Opens a channel that should be assigned to the given shard of the node.
+   *
+   * <p>If the node advertises a shard-aware port (and {@link
+   * DefaultDriverOption#CONNECTION_ADVANCED_SHARD_AWARENESS_ENABLED} is set), the channel connects
+   * to that port from a local port that the node maps to {@code shardId}. Otherwise, this behaves
+   * like {@link #connect(Node, DriverChannelOptions)}, and the channel lands on an arbitrary shard.
+   * In any case, the caller must check {@link DriverChannel#getShardId()} on the resulting channel.
+   */
+  public CompletionStage<DriverChannel> connect(
+      Node node,
+      @Nullable ShardingInfo shardingInfo,
+      @Nullable Integer shardId,
+      DriverChannelOptions options) {
+    if (shardingInfo == null || shardId == null) {
+      return connect(node, options);
+    }
+    NodeMetricUpdater nodeMetricUpdater;
+    if (node instanceof DefaultNode) {
+      nodeMetricUpdater = ((DefaultNode) node).getMetricUpdater();
+    } else {
+      nodeMetricUpdater = NoopNodeMetricUpdater.INSTANCE;
+    }
+    return connect(node.getEndPoint(), shardingInfo, shardId, options, nodeMetricUpdater);
+  }
+
   @VisibleForTesting
   CompletionStage<DriverChannel> connect(
       EndPoint endPoint, DriverChannelOptions options, NodeMetricUpdater nodeMetricUpdater) {
+    return connect(endPoint, null, null, options, nodeMetricUpdater);
+  }
+
+  @VisibleForTesting
+  CompletionStage<DriverChannel> connect(
+      EndPoint endPoint,
+      @Nullable ShardingInfo shardingInfo,
+      @Nullable Integer shardId,
+      DriverChannelOptions options,
+      NodeMetricUpdater nodeMetricUpdater) {
     CompletableFuture<DriverChannel> resultFuture = new CompletableFuture<>();
 
     ProtocolVersion currentVersion;
@@ -174,6 +262,9 @@ public class ChannelFactory {
 
     connect(
         endPoint,
+        shardingInfo,
+        shardId,
+        0,
         options,
         nodeMetricUpdater,
         currentVersion,
@@ -185,6 +276,9 @@ public class ChannelFactory {
 
   private void connect(
       EndPoint endPoint,
+      @Nullable ShardingInfo shardingInfo,
+      @Nullable Integer shardId,
+      int bindAttempts,
       DriverChannelOptions options,
       NodeMetricUpdater nodeMetricUpdater,
       ProtocolVersion currentVersion,
@@ -204,7 +298,52 @@ public class ChannelFactory {
 
     nettyOptions.afterBootstrapInitialized(bootstrap);
 
-    ChannelFuture connectFuture = bootstrap.connect(endPoint.resolve());
+    SocketAddress remoteAddress = endPoint.resolve();
+    InetSocketAddress localAddress = null;
+    if (shardingInfo != null && shardId != null) {
+      DriverExecutionProfile defaultConfig = context.getConfig().getDefaultProfile();
+      int shardAwarePort =
+          shardingInfo.getShardAwarePort(context.getSslHandlerFactory().isPresent());
+      // Only for direct connections: other endpoints (e.g. SNI or cloud proxies) connect through
+      // a proxy, and the proxy's ports don't match the node's shard-aware port
+      if (shardAwarePort > 0
+          && endPoint instanceof DefaultEndPoint
+          && remoteAddress instanceof InetSocketAddress
+          && !isShardAwarePortRefused(endPoint)
+          && defaultConfig.getBoolean(
+              DefaultDriverOption.CONNECTION_ADVANCED_SHARD_AWARENESS_ENABLED)) {
+        int localPort =
+            portAllocator.next(
+                defaultConfig.getInt(
+                    DefaultDriverOption.CONNECTION_ADVANCED_SHARD_AWARENESS_PORT_LOW),
+                defaultConfig.getInt(
+                    DefaultDriverOption.CONNECTION_ADVANCED_SHARD_AWARENESS_PORT_HIGH),
+                shardingInfo.getShardsCount(),
+                shardId);
+        if (localPort > 0) {
+          InetSocketAddress regularAddress = (InetSocketAddress) remoteAddress;
+          remoteAddress =
+              regularAddress.isUnresolved()
+                  ? InetSocketAddress.createUnresolved(
+                      regularAddress.getHostString(), shardAwarePort)
+                  : new InetSocketAddress(regularAddress.getAddress(), shardAwarePort);
+          localAddress = new InetSocketAddress(localPort);
+        } else {
+          LOG.warn(
+              "[{}] No local port available for shard {} of {}, check the configured port range. "
+                  + "Connecting to the regular port instead.",
+              logPrefix,
+              shardId,
+              endPoint);
+        }
+      }
+    }
+
+    ChannelFuture connectFuture =
+        (localAddress == null)
+            ? bootstrap.connect(remoteAddress)
+            : bootstrap.connect(remoteAddress, localAddress);
+    boolean isShardAware = localAddress != null;
 
     connectFuture.addListener(
         cf -> {
@@ -253,6 +392,9 @@ public class ChannelFactory {
                     downgraded.get());
                 connect(
                     endPoint,
+                    shardingInfo,
+                    shardId,
+                    bindAttempts,
                     options,
                     nodeMetricUpdater,
                     downgraded.get(),
@@ -264,6 +406,66 @@ public class ChannelFactory {
                     UnsupportedProtocolVersionException.forNegotiation(
                         endPoint, attemptedVersions));
               }
+            } else if (isShardAware && isBindFailure(error)) {
+              if (bindAttempts + 1 < MAX_SHARD_AWARE_BIND_ATTEMPTS) {
+                LOG.debug(
+                    "[{}] Could not bind local port for shard {} of {}, trying another one",
+                    logPrefix,
+                    shardId,
+                    endPoint);
+                connect(
+                    endPoint,
+                    shardingInfo,
+                    shardId,
+                    bindAttempts + 1,
+                    options,
+                    nodeMetricUpdater,
+                    currentVersion,
+                    isNegotiating,
+                    attemptedVersions,
+                    resultFuture);
+              } else {
+                LOG.debug(
+                    "[{}] Could not bind any local port for shard {} of {} after {} attempts, "
+                        + "connecting to the regular port instead",
+                    logPrefix,
+                    shardId,
+                    endPoint,
+                    MAX_SHARD_AWARE_BIND_ATTEMPTS);
+                connect(
+                    endPoint,
+                    null,
+                    null,
+                    0,
+                    options,
+                    nodeMetricUpdater,
+                    currentVersion,
+                    isNegotiating,
+                    attemptedVersions,
+                    resultFuture);
+              }
+            } else if (isShardAware && isConnectionRefused(error)) {
+              // The shard-aware port might be blocked by a firewall or NAT, while the regular port
+              // is reachable. Don't try it again for this node for a while.
+              if (shardAwarePortRefusals.put(endPoint, System.nanoTime()) == null) {
+                LOG.debug(
+                    "[{}] The shard-aware port of {} refused the connection, "
+                        + "connecting to the regular port for now",
+                    logPrefix,
+                    endPoint,
+                    error);
+              }
+              connect(
+                  endPoint,
+                  null,
+                  null,
+                  0,
+                  options,
+                  nodeMetricUpdater,
+                  currentVersion,
+                  isNegotiating,
+                  attemptedVersions,
+                  resultFuture);
             } else {
               // Note: might be completed already if the failure happened in initializer(), this is
               // fine
@@ -273,6 +475,44 @@ public class ChannelFactory {
         });
   }
 
+  private boolean isShardAwarePortRefused(EndPoint endPoint) {
+    Long refusedAt = shardAwarePortRefusals.get(endPoint);
+    if (refusedAt == null) {
+      return false;
+    } else if (System.nanoTime() - refusedAt >= shardAwarePortRetryDelayNanos) {
+      shardAwarePortRefusals.remove(endPoint, refusedAt);
+      return false;
+    } else {
+      return true;
+    }
+  }
+
+  private void onNodeStateEvent(NodeStateEvent event) {
+    // A node that was restarting refused connections on every port: try the shard-aware port
+    // again as soon as it's back. Also forget the nodes that are removed from the cluster.
+    if (event.newState == null || event.newState == NodeState.UP) {
+      shardAwarePortRefusals.remove(event.node.getEndPoint());
+    }
+  }
+
+  private static boolean isConnectionRefused(Throwable error) {
+    // The JDK and Netty's native transports report a refused connection as a ConnectException.
+    // Timeouts are a subclass, but they don't mean that the port is closed: the node might just
+    // be slow to accept connections, and the regular port wouldn't do better.
+    return error instanceof ConnectException && !(error instanceof ConnectTimeoutException);
+  }
+
+  private boolean isBindFailure(Throwable error) {
+    NettyOptions nettyOptions = context.getNettyOptions();
+    // Netty wraps the original exception to annotate it with the remote address
+    for (Throwable t = error; t != null; t = t.getCause()) {
+      if (t instanceof BindException || nettyOptions.isAddressInUse(t)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @VisibleForTesting
   ChannelInitializer<Channel> initializer(
       EndPoint endPoint,
@@ -371,10 +611,19 @@ public class ChannelFactory {
               new OutboundTrafficMeter(nodeMetricUpdater, sessionMetricUpdater));
         }
 
+        AdaptiveCompression compression =
+            AdaptiveCompression.newInstance(context, defaultConfig, nodeMetricUpdater);
+        FrameEncoder frameEncoder =
+            (compression == null)
+                ? new FrameEncoder(context.getFrameCodec(), maxFrameLength)
+                : new FrameEncoder(
+                    context.getFrameCodec(),
+                    maxFrameLength,
+                    context.getUncompressedFrameCodec(),
+                    compression);
+
         pipeline
-            .addLast(
-                FRAME_TO_BYTES_ENCODER_NAME,
-                new FrameEncoder(context.getFrameCodec(), maxFrameLength))
+            .addLast(FRAME_TO_BYTES_ENCODER_NAME, frameEncoder)
             .addLast(
                 BYTES_TO_FRAME_DECODER_NAME,
                 new FrameDecoder(context.getFrameCodec(), maxFrameLength))
@@ -42,6 +42,8 @@ abstract class ChannelHandlerRequest implements ResponseCallback {
   private final long timeoutMillis;
 
   private ScheduledFuture<?> timeoutFuture;
+  // Only accessed from the channel's event loop, see ResponseCallback.setInFlightStreamId
+  private int inFlightStreamId = -1;
 
   ChannelHandlerRequest(ChannelHandlerContext ctx, long timeoutMillis) {
     this.ctx = ctx;
@@ -96,6 +98,16 @@ abstract class ChannelHandlerRequest implements ResponseCallback {
     onResponse(responseFrame.message);
   }
 
+  @Override
+  public void setInFlightStreamId(int streamId) {
+    this.inFlightStreamId = streamId;
+  }
+
+  @Override
+  public int getInFlightStreamId() {
+    return inFlightStreamId;
+  }
+
   @Override
   public final void onFailure(Throwable error) {
     // timeoutFuture may not have been assigned if write failed.
@@ -56,7 +56,17 @@ public abstract class ConnectInitHandler extends ChannelDuplexHandler {
     // the completion of the real underlying connection:
     ChannelPromise realConnectPromise = ctx.channel().newPromise();
     super.connect(ctx, remoteAddress, localAddress, realConnectPromise);
-    realConnectPromise.addListener(future -> onRealConnect(ctx));
+    realConnectPromise.addListener(
+        future -> {
+          if (future.isSuccess()) {
+            onRealConnect(ctx);
+          } else {
+            // Don't start the initialization on a channel that is not connected: the caller must
+            // see the original connection error (e.g. to fall back to another port), not a write
+            // failure.
+            initPromise.tryFailure(future.cause());
+          }
+        });
 
     // Make the caller's promise wait on the other two:
     PromiseCombiner.combine(callerPromise, realConnectPromise, initPromise);
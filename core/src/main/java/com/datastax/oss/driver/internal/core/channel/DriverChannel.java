@@ -37,6 +37,7 @@ import com.datastax.oss.driver.internal.core.protocol.ShardingInfo.ConnectionSha
 import com.datastax.oss.driver.internal.core.session.DefaultSession;
 import com.datastax.oss.driver.internal.core.util.concurrent.UncaughtExceptions;
 import com.datastax.oss.protocol.internal.Message;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelConfig;
 import io.netty.channel.ChannelFuture;
@@ -204,6 +205,24 @@ public class DriverChannel {
     return inFlightHandler.preAcquireId();
   }
 
+  /**
+   * Gives back a stream id obtained with {@link #preAcquireId()}, when the client finally decides
+   * not to proceed with the write.
+   */
+  public void cancelPreAcquireId() {
+    inFlightHandler.cancelPreAcquireId();
+  }
+
+  /**
+   * Registers a callback that will be invoked on the channel's event loop each time a stream id is
+   * released. This replaces any previous listener.
+   *
+   * <p>The callback is invoked on the response path, it must be very cheap and not block.
+   */
+  public void setStreamIdReleaseListener(@Nullable Runnable listener) {
+    inFlightHandler.setStreamIdReleaseListener(listener);
+  }
+
   /**
    * @return the number of requests currently executing on this channel (including {@link
    *     #getOrphanedIds() orphaned ids}).
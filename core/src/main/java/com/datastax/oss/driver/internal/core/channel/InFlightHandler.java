@@ -27,9 +27,6 @@ import com.datastax.oss.driver.internal.core.channel.DriverChannel.RequestMessag
 import com.datastax.oss.driver.internal.core.channel.DriverChannel.SetKeyspaceEvent;
 import com.datastax.oss.driver.internal.core.protocol.FrameDecodingException;
 import com.datastax.oss.driver.internal.core.util.Loggers;
-import com.datastax.oss.driver.shaded.guava.common.collect.BiMap;
-import com.datastax.oss.driver.shaded.guava.common.collect.HashBiMap;
-import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
 import com.datastax.oss.protocol.internal.Frame;
 import com.datastax.oss.protocol.internal.Message;
 import com.datastax.oss.protocol.internal.request.Query;
@@ -40,9 +37,10 @@ import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.util.concurrent.Promise;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import net.jcip.annotations.NotThreadSafe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,9 +54,14 @@ public class InFlightHandler extends ChannelDuplexHandler {
   private final StreamIdGenerator streamIds;
   final ChannelPromise closeStartedFuture;
   private final String ownerLogPrefix;
-  private final BiMap<Integer, ResponseCallback> inFlight;
+  // Indexed by stream id. Each callback also carries its own index (see
+  // ResponseCallback.setInFlightStreamId), so that cancellations don't need a reverse lookup.
+  private final ResponseCallback[] inFlight;
+  private int inFlightCount;
   private final Map<Integer, ResponseCallback> orphaned;
   private volatile int orphanedSize; // thread-safe view for metrics
+  // Notified each time a stream id is released (used by the pool's wait queue)
+  private volatile Runnable streamIdReleaseListener;
   private final long setKeyspaceTimeoutMillis;
   private final EventCallback eventCallback;
   private final int maxOrphanStreamIds;
@@ -80,7 +83,7 @@ public class InFlightHandler extends ChannelDuplexHandler {
     this.closeStartedFuture = closeStartedFuture;
     this.ownerLogPrefix = ownerLogPrefix;
     this.logPrefix = ownerLogPrefix + "|connecting...";
-    this.inFlight = HashBiMap.create(streamIds.getMaxAvailableIds());
+    this.inFlight = new ResponseCallback[streamIds.getMaxAvailableIds()];
     this.orphaned = new HashMap<>(maxOrphanStreamIds);
     this.setKeyspaceTimeoutMillis = setKeyspaceTimeoutMillis;
     this.eventCallback = eventCallback;
@@ -133,7 +136,7 @@ public class InFlightHandler extends ChannelDuplexHandler {
       return;
     }
 
-    if (inFlight.containsKey(streamId)) {
+    if (getInFlight(streamId) != null) {
       promise.setFailure(
           new IllegalStateException("Found pending callback for stream id " + streamId));
       streamIds.cancelPreAcquire();
@@ -149,7 +152,7 @@ public class InFlightHandler extends ChannelDuplexHandler {
             message.customPayload,
             message.request);
 
-    inFlight.put(streamId, message.responseCallback);
+    putInFlight(streamId, message.responseCallback);
     ChannelFuture writeFuture = ctx.write(frame, promise);
     writeFuture.addListener(
         future -> {
@@ -163,8 +166,8 @@ public class InFlightHandler extends ChannelDuplexHandler {
 
   private void cancel(
       ChannelHandlerContext ctx, ResponseCallback responseCallback, ChannelPromise promise) {
-    Integer streamId = inFlight.inverse().remove(responseCallback);
-    if (streamId == null) {
+    int streamId = removeInFlight(responseCallback);
+    if (streamId < 0) {
       LOG.trace(
           "[{}] Received cancellation for unknown or already cancelled callback {}, skipping",
           logPrefix,
@@ -172,7 +175,7 @@ public class InFlightHandler extends ChannelDuplexHandler {
     } else {
       LOG.trace(
           "[{}] Cancelled callback {} for stream id {}", logPrefix, responseCallback, streamId);
-      if (closingGracefully && inFlight.isEmpty()) {
+      if (closingGracefully && inFlightCount == 0) {
         LOG.debug("[{}] Last pending query was cancelled, closing channel", logPrefix);
         ctx.channel().close();
       } else {
@@ -195,7 +198,7 @@ public class InFlightHandler extends ChannelDuplexHandler {
   }
 
   private void startGracefulShutdown(ChannelHandlerContext ctx) {
-    if (inFlight.isEmpty()) {
+    if (inFlightCount == 0) {
       LOG.debug("[{}] No pending queries, completing graceful shutdown now", logPrefix);
       ctx.channel().close();
     } else {
@@ -231,7 +234,7 @@ public class InFlightHandler extends ChannelDuplexHandler {
       }
     } else {
       boolean wasInFlight = true;
-      ResponseCallback callback = inFlight.get(streamId);
+      ResponseCallback callback = getInFlight(streamId);
       if (callback == null) {
         wasInFlight = false;
         callback = orphaned.get(streamId);
@@ -284,7 +287,7 @@ public class InFlightHandler extends ChannelDuplexHandler {
       LOG.debug("[{}] Error while decoding response on stream id {}", logPrefix, streamId);
       if (streamId >= 0) {
         // We know which request matches the failing response, fail that one only
-        ResponseCallback responseCallback = inFlight.get(streamId);
+        ResponseCallback responseCallback = getInFlight(streamId);
         if (responseCallback != null) {
           fail(responseCallback, exception.getCause());
         }
@@ -336,10 +339,10 @@ public class InFlightHandler extends ChannelDuplexHandler {
 
   private void release(int streamId, ChannelHandlerContext ctx) {
     LOG.trace("[{}] Releasing stream id {}", logPrefix, streamId);
-    if (inFlight.remove(streamId) != null) {
+    if (removeInFlight(streamId) != null) {
       // If we're in the middle of an orderly close and this was the last request, actually close
       // the channel now
-      if (closingGracefully && inFlight.isEmpty()) {
+      if (closingGracefully && inFlightCount == 0) {
         LOG.debug("[{}] Done handling the last pending query, closing channel", logPrefix);
         ctx.channel().close();
       }
@@ -349,6 +352,10 @@ public class InFlightHandler extends ChannelDuplexHandler {
     // Note: it's possible that the callback is in neither map, if we get here after a call to
     // abortAllInFlight that already cleared the map (see JAVA-2000)
     streamIds.release(streamId);
+    Runnable listener = streamIdReleaseListener;
+    if (listener != null) {
+      listener.run();
+    }
   }
 
   private void abortAllInFlight(DriverException cause) {
@@ -360,13 +367,20 @@ public class InFlightHandler extends ChannelDuplexHandler {
    *     loop)
    */
   private void abortAllInFlight(DriverException cause, ResponseCallback ignore) {
-    if (!inFlight.isEmpty()) {
+    if (inFlightCount > 0) {
 
-      // Create a local copy and clear the map immediately. This prevents
-      // ConcurrentModificationException if aborting one of the handlers recurses back into this
-      // method.
-      Set<ResponseCallback> responseCallbacks = ImmutableSet.copyOf(inFlight.values());
-      inFlight.clear();
+      // Create a local copy and clear the array immediately. This prevents failing the same
+      // callback twice if aborting one of the handlers recurses back into this method.
+      List<ResponseCallback> responseCallbacks = new ArrayList<>(inFlightCount);
+      for (int i = 0; i < inFlight.length && responseCallbacks.size() < inFlightCount; i++) {
+        ResponseCallback responseCallback = inFlight[i];
+        if (responseCallback != null) {
+          responseCallbacks.add(responseCallback);
+          responseCallback.setInFlightStreamId(-1);
+          inFlight[i] = null;
+        }
+      }
+      inFlightCount = 0;
 
       for (ResponseCallback responseCallback : responseCallbacks) {
         if (responseCallback != ignore) {
@@ -378,6 +392,39 @@ public class InFlightHandler extends ChannelDuplexHandler {
     }
   }
 
+  private ResponseCallback getInFlight(int streamId) {
+    return (streamId < inFlight.length) ? inFlight[streamId] : null;
+  }
+
+  private void putInFlight(int streamId, ResponseCallback callback) {
+    inFlight[streamId] = callback;
+    callback.setInFlightStreamId(streamId);
+    inFlightCount += 1;
+  }
+
+  private ResponseCallback removeInFlight(int streamId) {
+    ResponseCallback callback = getInFlight(streamId);
+    if (callback != null) {
+      inFlight[streamId] = null;
+      callback.setInFlightStreamId(-1);
+      inFlightCount -= 1;
+    }
+    return callback;
+  }
+
+  /** @return the stream id that the callback was removed from, or -1 if it wasn't in flight. */
+  private int removeInFlight(ResponseCallback callback) {
+    int streamId = callback.getInFlightStreamId();
+    // Check the slot, in case the callback was reused since (or is a test double)
+    if (streamId < 0 || getInFlight(streamId) != callback) {
+      return -1;
+    }
+    inFlight[streamId] = null;
+    callback.setInFlightStreamId(-1);
+    inFlightCount -= 1;
+    return streamId;
+  }
+
   private void fail(ResponseCallback callback, Throwable failure) {
     try {
       callback.onFailure(failure);
@@ -396,6 +443,14 @@ public class InFlightHandler extends ChannelDuplexHandler {
     return streamIds.preAcquire();
   }
 
+  void cancelPreAcquireId() {
+    streamIds.cancelPreAcquire();
+  }
+
+  void setStreamIdReleaseListener(Runnable listener) {
+    this.streamIdReleaseListener = listener;
+  }
+
   int getInFlight() {
     return streamIds.getMaxAvailableIds() - streamIds.getAvailableIds();
   }
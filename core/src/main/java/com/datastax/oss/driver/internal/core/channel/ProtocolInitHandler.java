@@ -38,7 +38,9 @@ import com.datastax.oss.driver.api.core.metadata.EndPoint;
 import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
 import com.datastax.oss.driver.internal.core.DefaultProtocolFeature;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.protocol.AdaptiveCompression;
 import com.datastax.oss.driver.internal.core.protocol.BytesToSegmentDecoder;
+import com.datastax.oss.driver.internal.core.protocol.FrameEncoder;
 import com.datastax.oss.driver.internal.core.protocol.FrameToSegmentEncoder;
 import com.datastax.oss.driver.internal.core.protocol.LwtInfo;
 import com.datastax.oss.driver.internal.core.protocol.SegmentToBytesEncoder;
@@ -51,6 +53,7 @@ import com.datastax.oss.driver.internal.core.util.concurrent.UncaughtExceptions;
 import com.datastax.oss.protocol.internal.Message;
 import com.datastax.oss.protocol.internal.ProtocolConstants;
 import com.datastax.oss.protocol.internal.ProtocolConstants.ErrorCode;
+import com.datastax.oss.protocol.internal.SegmentCodec;
 import com.datastax.oss.protocol.internal.request.AuthResponse;
 import com.datastax.oss.protocol.internal.request.Options;
 import com.datastax.oss.protocol.internal.request.Query;
@@ -64,6 +67,8 @@ import com.datastax.oss.protocol.internal.response.Ready;
 import com.datastax.oss.protocol.internal.response.Supported;
 import com.datastax.oss.protocol.internal.response.result.Rows;
 import com.datastax.oss.protocol.internal.response.result.SetKeyspace;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
 import java.nio.ByteBuffer;
@@ -425,15 +430,26 @@ class ProtocolInitHandler extends ConnectInitHandler {
 
       // We basically add one conversion step in the middle: frames <-> *segments* <-> bytes
       // Outbound:
-      pipeline.replace(
-          ChannelFactory.FRAME_TO_BYTES_ENCODER_NAME,
-          ChannelFactory.FRAME_TO_SEGMENT_ENCODER_NAME,
-          new FrameToSegmentEncoder(
-              context.getPrimitiveCodec(), context.getFrameCodec(), logPrefix));
+      ChannelHandler frameEncoder =
+          pipeline.replace(
+              ChannelFactory.FRAME_TO_BYTES_ENCODER_NAME,
+              ChannelFactory.FRAME_TO_SEGMENT_ENCODER_NAME,
+              new FrameToSegmentEncoder(
+                  context.getPrimitiveCodec(), context.getFrameCodec(), logPrefix));
+      // Compression decisions are now taken per segment, carry over the connection's state
+      AdaptiveCompression compression =
+          (frameEncoder instanceof FrameEncoder)
+              ? ((FrameEncoder) frameEncoder).getCompression()
+              : null;
+      SegmentCodec<ByteBuf> segmentCodec =
+          (compression == null)
+              ? context.getSegmentCodec()
+              : new SegmentCodec<>(
+                  context.getPrimitiveCodec(), compression.wrap(context.getCompressor()));
       pipeline.addBefore(
           ChannelFactory.FRAME_TO_SEGMENT_ENCODER_NAME,
           ChannelFactory.SEGMENT_TO_BYTES_ENCODER_NAME,
-          new SegmentToBytesEncoder(context.getSegmentCodec()));
+          new SegmentToBytesEncoder(segmentCodec));
 
       // Inbound:
       pipeline.replace(
@@ -24,9 +24,9 @@ import com.datastax.oss.protocol.internal.Frame;
  *
  * <p>This comes into play after the request has been successfully written to the channel.
  *
- * <p>Due to internal implementation constraints, different instances of this type must not be equal
- * to each other (they are stored in a {@code BiMap} in {@link InFlightHandler}); reference equality
- * should be appropriate in all cases.
+ * <p>Due to internal implementation constraints, instances of this type are identified by reference
+ * (see how cancellations are handled in {@link InFlightHandler}); a given instance must not be in
+ * flight more than once at the same time.
  */
 public interface ResponseCallback {
 
@@ -78,4 +78,17 @@ public interface ResponseCallback {
   default boolean isLastResponse(Frame responseFrame) {
     return true;
   }
+
+  /**
+   * Records the stream id under which {@link InFlightHandler} tracks this callback, or -1 once it
+   * is no longer in flight.
+   *
+   * <p>This is an internal slot that allows cancellations to find the request without a reverse
+   * lookup. It is only accessed from the channel's event loop, implementations just need to store
+   * the value in a plain field, initialized to -1.
+   */
+  void setInFlightStreamId(int streamId);
+
+  /** @see #setInFlightStreamId(int) */
+  int getInFlightStreamId();
 }
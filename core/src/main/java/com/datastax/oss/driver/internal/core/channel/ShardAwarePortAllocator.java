@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.channel;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Picks local ports for connections to a Scylla shard-aware port.
+ *
+ * <p>The node assigns such a connection to shard {@code localPort % shardsCount}. Successive calls
+ * walk through the configured range, so that concurrent connection attempts (possibly from other
+ * sessions on the same host) don't keep competing for the same port.
+ */
+@ThreadSafe
+class ShardAwarePortAllocator {
+
+  private final AtomicInteger cursor;
+
+  ShardAwarePortAllocator() {
+    this(ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE));
+  }
+
+  ShardAwarePortAllocator(int initialCursor) {
+    this.cursor = new AtomicInteger(initialCursor);
+  }
+
+  /**
+   * Returns the next candidate local port in {@code [low, high]} for the given shard, or -1 if the
+   * range does not contain any suitable port.
+   */
+  int next(int low, int high, int shardsCount, int shardId) {
+    if (low < 1 || high > 65535 || low > high || shardId < 0 || shardId >= shardsCount) {
+      return -1;
+    }
+    int firstCandidate = align(low, shardsCount, shardId);
+    if (firstCandidate > high) {
+      return -1;
+    }
+    // Number of ports in the range that map to the shard
+    int candidates = (high - firstCandidate) / shardsCount + 1;
+    int index = Math.floorMod(cursor.getAndIncrement(), candidates);
+    return firstCandidate + index * shardsCount;
+  }
+
+  /** The smallest port p >= from such that p % shardsCount == shardId. */
+  private static int align(int from, int shardsCount, int shardId) {
+    int port = from - Math.floorMod(from, shardsCount) + shardId;
+    return (port < from) ? port + shardsCount : port;
+  }
+}
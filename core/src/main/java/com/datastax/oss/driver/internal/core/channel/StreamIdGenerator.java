@@ -29,17 +29,30 @@ import net.jcip.annotations.NotThreadSafe;
  *
  * <p>Other methods are not synchronized, they are only called by {@link InFlightHandler} on the I/O
  * thread.
+ *
+ * <p>Available ids are kept in a stack, so that {@link #acquire()} and {@link #release(int)} run in
+ * constant time and don't allocate. The most recently released id is reused first, which keeps the
+ * ids in use (and the corresponding slots in {@link InFlightHandler}) as low as possible.
  */
 @NotThreadSafe
 class StreamIdGenerator {
 
   private final int maxAvailableIds;
+  // The ids that are not borrowed; the next one to hand out is at freeCount - 1
+  private final int[] freeIds;
+  private int freeCount;
   // unset = available, set = borrowed (note that this is the opposite of the 3.x implementation)
   private final BitSet ids;
   private final AtomicInteger availableIds;
 
   StreamIdGenerator(int maxAvailableIds) {
     this.maxAvailableIds = maxAvailableIds;
+    this.freeIds = new int[maxAvailableIds];
+    // Push in reverse order so that the initial ids come out in sequence
+    for (int i = 0; i < maxAvailableIds; i++) {
+      freeIds[i] = maxAvailableIds - 1 - i;
+    }
+    this.freeCount = maxAvailableIds;
     this.ids = new BitSet(this.maxAvailableIds);
     this.availableIds = new AtomicInteger(this.maxAvailableIds);
   }
@@ -63,19 +76,20 @@ class StreamIdGenerator {
 
   int acquire() {
     assert availableIds.get() < maxAvailableIds;
-    int id = ids.nextClearBit(0);
-    if (id >= maxAvailableIds) {
+    if (freeCount == 0) {
       return -1;
     }
+    int id = freeIds[--freeCount];
     ids.set(id);
     return id;
   }
 
   void release(int id) {
-    if (!ids.get(id)) {
+    if (id < 0 || id >= maxAvailableIds || !ids.get(id)) {
       throw new IllegalStateException("Tried to release id that hadn't been borrowed: " + id);
     }
     ids.clear(id);
+    freeIds[freeCount++] = id;
     int available = availableIds.incrementAndGet();
     assert available <= maxAvailableIds;
   }
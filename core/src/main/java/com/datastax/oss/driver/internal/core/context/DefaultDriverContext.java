@@ -52,6 +52,7 @@ import com.datastax.oss.driver.internal.core.ConsistencyLevelRegistry;
 import com.datastax.oss.driver.internal.core.DefaultConsistencyLevelRegistry;
 import com.datastax.oss.driver.internal.core.DefaultProtocolVersionRegistry;
 import com.datastax.oss.driver.internal.core.ProtocolVersionRegistry;
+import com.datastax.oss.driver.internal.core.channel.AdaptiveWriteCoalescer;
 import com.datastax.oss.driver.internal.core.channel.ChannelFactory;
 import com.datastax.oss.driver.internal.core.channel.DefaultWriteCoalescer;
 import com.datastax.oss.driver.internal.core.channel.WriteCoalescer;
@@ -78,6 +79,8 @@ import com.datastax.oss.driver.internal.core.metrics.MetricsFactory;
 import com.datastax.oss.driver.internal.core.pool.ChannelPoolFactory;
 import com.datastax.oss.driver.internal.core.protocol.BuiltInCompressors;
 import com.datastax.oss.driver.internal.core.protocol.ByteBufPrimitiveCodec;
+import com.datastax.oss.driver.internal.core.protocol.LazyRowsCodecGroup;
+import com.datastax.oss.driver.internal.core.retry.RetryBudget;
 import com.datastax.oss.driver.internal.core.servererrors.DefaultWriteTypeRegistry;
 import com.datastax.oss.driver.internal.core.servererrors.WriteTypeRegistry;
 import com.datastax.oss.driver.internal.core.session.BuiltInRequestProcessors;
@@ -169,6 +172,9 @@ public class DefaultDriverContext implements InternalDriverContext {
       new LazyReference<>("primitiveCodec", this::buildPrimitiveCodec, cycleDetector);
   private final LazyReference<FrameCodec<ByteBuf>> frameCodecRef =
       new LazyReference<>("frameCodec", this::buildFrameCodec, cycleDetector);
+  private final LazyReference<FrameCodec<ByteBuf>> uncompressedFrameCodecRef =
+      new LazyReference<>(
+          "uncompressedFrameCodec", this::buildUncompressedFrameCodec, cycleDetector);
   private final LazyReference<SegmentCodec<ByteBuf>> segmentCodecRef =
       new LazyReference<>("segmentCodec", this::buildSegmentCodec, cycleDetector);
   private final LazyReference<ProtocolVersionRegistry> protocolVersionRegistryRef =
@@ -240,6 +246,8 @@ public class DefaultDriverContext implements InternalDriverContext {
   private final InetSocketAddress cloudProxyAddress;
   private final LazyReference<RequestLogFormatter> requestLogFormatterRef =
       new LazyReference<>("requestLogFormatter", this::buildRequestLogFormatter, cycleDetector);
+  private final LazyReference<RetryBudget> retryBudgetRef =
+      new LazyReference<>("retryBudget", this::buildRetryBudget, cycleDetector);
   private final UUID startupClientId;
   private final String startupApplicationName;
   private final String startupApplicationVersion;
@@ -443,15 +451,30 @@ public class DefaultDriverContext implements InternalDriverContext {
   }
 
   protected FrameCodec<ByteBuf> buildFrameCodec() {
-    return new FrameCodec<>(
-        getPrimitiveCodec(),
-        getCompressor(),
-        new ProtocolV3ClientCodecs(),
-        new ProtocolV4ClientCodecsForDse(),
-        new ProtocolV5ClientCodecs(),
-        new ProtocolV6ClientCodecs(),
-        new DseProtocolV1ClientCodecs(),
-        new DseProtocolV2ClientCodecs());
+    return newFrameCodec(getCompressor());
+  }
+
+  protected FrameCodec<ByteBuf> buildUncompressedFrameCodec() {
+    return newFrameCodec(Compressor.none());
+  }
+
+  private FrameCodec<ByteBuf> newFrameCodec(Compressor<ByteBuf> compressor) {
+    FrameCodec.CodecGroup[] codecGroups = {
+      new ProtocolV3ClientCodecs(),
+      new ProtocolV4ClientCodecsForDse(),
+      new ProtocolV5ClientCodecs(),
+      new ProtocolV6ClientCodecs(),
+      new DseProtocolV1ClientCodecs(),
+      new DseProtocolV2ClientCodecs()
+    };
+    if (getConfig()
+        .getDefaultProfile()
+        .getBoolean(DefaultDriverOption.PROTOCOL_LAZY_ROW_DECODING)) {
+      for (int i = 0; i < codecGroups.length; i++) {
+        codecGroups[i] = new LazyRowsCodecGroup(codecGroups[i]);
+      }
+    }
+    return new FrameCodec<>(getPrimitiveCodec(), compressor, codecGroups);
   }
 
   protected SegmentCodec<ByteBuf> buildSegmentCodec() {
@@ -483,6 +506,11 @@ public class DefaultDriverContext implements InternalDriverContext {
   }
 
   protected WriteCoalescer buildWriteCoalescer() {
+    if (getConfig()
+        .getDefaultProfile()
+        .getBoolean(DefaultDriverOption.COALESCER_ADAPTIVE_ENABLED)) {
+      return new AdaptiveWriteCoalescer(this);
+    }
     return new DefaultWriteCoalescer(this);
   }
 
@@ -676,6 +704,12 @@ public class DefaultDriverContext implements InternalDriverContext {
     for (LoadBalancingPolicy lbp : this.getLoadBalancingPolicies().values()) {
       lbp.getRequestTracker().ifPresent(trackers::add);
     }
+    for (SpeculativeExecutionPolicy policy : this.getSpeculativeExecutionPolicies().values()) {
+      // Profiles that share a configuration share the same policy instance
+      if (policy instanceof RequestTracker && !trackers.contains(policy)) {
+        trackers.add((RequestTracker) policy);
+      }
+    }
     DefaultDriverOption newOption = DefaultDriverOption.REQUEST_TRACKER_CLASSES;
     @SuppressWarnings("deprecation")
     DefaultDriverOption legacyOption = DefaultDriverOption.REQUEST_TRACKER_CLASS;
@@ -823,6 +857,12 @@ public class DefaultDriverContext implements InternalDriverContext {
     return frameCodecRef.get();
   }
 
+  @NonNull
+  @Override
+  public FrameCodec<ByteBuf> getUncompressedFrameCodec() {
+    return uncompressedFrameCodecRef.get();
+  }
+
   @NonNull
   @Override
   public SegmentCodec<ByteBuf> getSegmentCodec() {
@@ -1026,6 +1066,16 @@ public class DefaultDriverContext implements InternalDriverContext {
     return requestLogFormatterRef.get();
   }
 
+  protected RetryBudget buildRetryBudget() {
+    return new RetryBudget(this);
+  }
+
+  @NonNull
+  @Override
+  public RetryBudget getRetryBudget() {
+    return retryBudgetRef.get();
+  }
+
   @NonNull
   @Override
   public List<LifecycleListener> getLifecycleListeners() {
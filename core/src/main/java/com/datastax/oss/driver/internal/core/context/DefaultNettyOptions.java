@@ -19,6 +19,7 @@ package com.datastax.oss.driver.internal.core.context;
 
 import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.config.DriverOption;
 import com.datastax.oss.driver.internal.core.util.concurrent.BlockingOperation;
 import com.datastax.oss.driver.internal.core.util.concurrent.PromiseCombiner;
 import com.datastax.oss.driver.shaded.guava.common.util.concurrent.ThreadFactoryBuilder;
@@ -29,8 +30,6 @@ import io.netty.channel.ChannelOption;
 import io.netty.channel.DefaultEventLoopGroup;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.FixedRecvByteBufAllocator;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.util.HashedWheelTimer;
 import io.netty.util.Timer;
 import io.netty.util.concurrent.DefaultPromise;
@@ -39,6 +38,7 @@ import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GlobalEventExecutor;
 import io.netty.util.internal.PlatformDependent;
 import java.time.Duration;
+import java.util.Locale;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import net.jcip.annotations.Immutable;
@@ -51,6 +51,7 @@ public class DefaultNettyOptions implements NettyOptions {
   private static final Logger LOG = LoggerFactory.getLogger(DefaultNettyOptions.class);
 
   private final DriverExecutionProfile config;
+  private final NettyTransport transport;
   private final EventLoopGroup ioEventLoopGroup;
   private final EventLoopGroup adminEventLoopGroup;
   private final int ioShutdownQuietPeriod;
@@ -83,7 +84,22 @@ public class DefaultNettyOptions implements NettyOptions {
             .setNameFormat(context.getSessionName() + "-io-%d")
             .setDaemon(daemon)
             .build();
-    this.ioEventLoopGroup = new NioEventLoopGroup(ioGroupSize, ioThreadFactory);
+    this.transport =
+        selectTransport(
+            config.getString(DefaultDriverOption.NETTY_IO_TRANSPORT), context.getSessionName());
+    for (DriverOption option :
+        new DriverOption[] {
+          DefaultDriverOption.SOCKET_TCP_QUICK_ACK, DefaultDriverOption.SOCKET_BUSY_POLL
+        }) {
+      if (config.isDefined(option) && !transport.supports(option)) {
+        LOG.warn(
+            "[{}] {} is not supported by the {} transport, it will be ignored",
+            context.getSessionName(),
+            option.getPath(),
+            transport.name());
+      }
+    }
+    this.ioEventLoopGroup = transport.newEventLoopGroup(ioGroupSize, ioThreadFactory);
 
     ThreadFactory adminThreadFactory =
         new ThreadFactoryBuilder()
@@ -113,6 +129,44 @@ public class DefaultNettyOptions implements NettyOptions {
     this.timer = createTimer(timerThreadFactory, tickDuration);
   }
 
+  /**
+   * Picks the transport of the I/O event loop group.
+   *
+   * @param name the value of {@link DefaultDriverOption#NETTY_IO_TRANSPORT}.
+   */
+  protected NettyTransport selectTransport(String name, String sessionName) {
+    NettyTransport result;
+    switch (name.toUpperCase(Locale.ROOT)) {
+      case "AUTO":
+        if (EpollTransport.isAvailable()) {
+          result = new EpollTransport();
+        } else if (IoUringTransport.isAvailable()) {
+          result = new IoUringTransport();
+        } else {
+          result = NioTransport.INSTANCE;
+        }
+        break;
+      case "NIO":
+        result = NioTransport.INSTANCE;
+        break;
+      case "EPOLL":
+        result = new EpollTransport();
+        break;
+      case "IO_URING":
+        result = new IoUringTransport();
+        break;
+      default:
+        throw new IllegalArgumentException(
+            String.format(
+                "Unsupported transport '%s' (from configuration option %s)",
+                name, DefaultDriverOption.NETTY_IO_TRANSPORT.getPath()));
+    }
+    if (result != NioTransport.INSTANCE) {
+      LOG.info("[{}] Using native {} transport", sessionName, result.name());
+    }
+    return result;
+  }
+
   private HashedWheelTimer createTimer(ThreadFactory timerThreadFactory, Duration tickDuration) {
     HashedWheelTimer timer =
         new HashedWheelTimer(
@@ -138,7 +192,7 @@ public class DefaultNettyOptions implements NettyOptions {
 
   @Override
   public Class<? extends Channel> channelClass() {
-    return NioSocketChannel.class;
+    return transport.channelClass();
   }
 
   @Override
@@ -177,6 +231,7 @@ public class DefaultNettyOptions implements NettyOptions {
       bootstrap.option(
           ChannelOption.CONNECT_TIMEOUT_MILLIS, Long.valueOf(connectTimeout.toMillis()).intValue());
     }
+    transport.afterBootstrapInitialized(bootstrap, config);
   }
 
   @Override
@@ -184,6 +239,11 @@ public class DefaultNettyOptions implements NettyOptions {
     // nothing to do
   }
 
+  @Override
+  public boolean isAddressInUse(Throwable error) {
+    return transport.isAddressInUse(error);
+  }
+
   @Override
   public Future<Void> onClose() {
     DefaultPromise<Void> closeFuture = new DefaultPromise<>(GlobalEventExecutor.INSTANCE);
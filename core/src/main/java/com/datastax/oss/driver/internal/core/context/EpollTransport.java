@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.context;
+
+import static com.datastax.oss.driver.internal.core.util.Dependency.EPOLL;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.config.DriverOption;
+import com.datastax.oss.driver.internal.core.util.DefaultDependencyChecker;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
+import java.util.concurrent.ThreadFactory;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Netty's native epoll transport (Linux only). It requires {@code netty-transport-native-epoll}
+ * with the classifier of the current platform on the classpath.
+ */
+@ThreadSafe
+public class EpollTransport implements NettyTransport {
+
+  /** Whether the library and its native code can be loaded on this platform. */
+  public static boolean isAvailable() {
+    return DefaultDependencyChecker.isPresent(EPOLL) && Epoll.isAvailable();
+  }
+
+  public EpollTransport() {
+    if (!DefaultDependencyChecker.isPresent(EPOLL)) {
+      throw new IllegalStateException(
+          "Could not find the Netty epoll transport on the classpath "
+              + "(the driver declares it as an optional dependency, "
+              + "so you need to declare it explicitly)");
+    }
+    if (!Epoll.isAvailable()) {
+      throw new IllegalStateException(
+          "The Netty epoll transport is not available on this platform",
+          Epoll.unavailabilityCause());
+    }
+  }
+
+  @Override
+  public String name() {
+    return "epoll";
+  }
+
+  @Override
+  public EventLoopGroup newEventLoopGroup(int size, ThreadFactory threadFactory) {
+    return new EpollEventLoopGroup(size, threadFactory);
+  }
+
+  @Override
+  public Class<? extends Channel> channelClass() {
+    return EpollSocketChannel.class;
+  }
+
+  @Override
+  public boolean supports(DriverOption option) {
+    return option == DefaultDriverOption.SOCKET_TCP_QUICK_ACK
+        || option == DefaultDriverOption.SOCKET_BUSY_POLL;
+  }
+
+  @Override
+  public void afterBootstrapInitialized(Bootstrap bootstrap, DriverExecutionProfile config) {
+    if (config.isDefined(DefaultDriverOption.SOCKET_TCP_QUICK_ACK)) {
+      boolean quickAck = config.getBoolean(DefaultDriverOption.SOCKET_TCP_QUICK_ACK);
+      bootstrap.option(EpollChannelOption.TCP_QUICKACK, quickAck);
+    }
+    if (config.isDefined(DefaultDriverOption.SOCKET_BUSY_POLL)) {
+      int busyPoll = config.getInt(DefaultDriverOption.SOCKET_BUSY_POLL);
+      bootstrap.option(EpollChannelOption.SO_BUSY_POLL, busyPoll);
+    }
+  }
+
+  @Override
+  public boolean isAddressInUse(Throwable error) {
+    return NativeErrors.isAddressInUse(error);
+  }
+}
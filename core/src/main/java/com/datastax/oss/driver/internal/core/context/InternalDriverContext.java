@@ -36,6 +36,7 @@ import com.datastax.oss.driver.internal.core.metadata.token.TokenFactoryRegistry
 import com.datastax.oss.driver.internal.core.metrics.MetricIdGenerator;
 import com.datastax.oss.driver.internal.core.metrics.MetricsFactory;
 import com.datastax.oss.driver.internal.core.pool.ChannelPoolFactory;
+import com.datastax.oss.driver.internal.core.retry.RetryBudget;
 import com.datastax.oss.driver.internal.core.servererrors.WriteTypeRegistry;
 import com.datastax.oss.driver.internal.core.session.PoolManager;
 import com.datastax.oss.driver.internal.core.session.RequestProcessorRegistry;
@@ -69,6 +70,13 @@ public interface InternalDriverContext extends DriverContext {
   @NonNull
   FrameCodec<ByteBuf> getFrameCodec();
 
+  /**
+   * A variant of {@link #getFrameCodec()} that never compresses outgoing frames; this is used to
+   * skip compression on a per-frame basis in protocol v4 and below.
+   */
+  @NonNull
+  FrameCodec<ByteBuf> getUncompressedFrameCodec();
+
   @NonNull
   SegmentCodec<ByteBuf> getSegmentCodec();
 
@@ -200,6 +208,14 @@ public interface InternalDriverContext extends DriverContext {
   @NonNull
   RequestLogFormatter getRequestLogFormatter();
 
+  /**
+   * The session-wide budget for speculative executions and retries.
+   *
+   * <p>This is controlled by the advanced.retry-budget section of the configuration.
+   */
+  @NonNull
+  RetryBudget getRetryBudget();
+
   /**
    * A metric registry for storing metrics.
    *
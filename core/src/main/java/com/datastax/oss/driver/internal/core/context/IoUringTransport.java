@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.context;
+
+import static com.datastax.oss.driver.internal.core.util.Dependency.IO_URING;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.config.DriverOption;
+import com.datastax.oss.driver.internal.core.util.DefaultDependencyChecker;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.incubator.channel.uring.IOUring;
+import io.netty.incubator.channel.uring.IOUringChannelOption;
+import io.netty.incubator.channel.uring.IOUringEventLoopGroup;
+import io.netty.incubator.channel.uring.IOUringSocketChannel;
+import java.util.concurrent.ThreadFactory;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Netty's native io_uring transport (Linux 5.9+ only). It requires {@code
+ * netty-incubator-transport-native-io_uring} with the classifier of the current platform on the
+ * classpath.
+ */
+@ThreadSafe
+public class IoUringTransport implements NettyTransport {
+
+  /** Whether the library and its native code can be loaded on this platform. */
+  public static boolean isAvailable() {
+    return DefaultDependencyChecker.isPresent(IO_URING) && IOUring.isAvailable();
+  }
+
+  public IoUringTransport() {
+    if (!DefaultDependencyChecker.isPresent(IO_URING)) {
+      throw new IllegalStateException(
+          "Could not find the Netty io_uring transport on the classpath "
+              + "(the driver declares it as an optional dependency, "
+              + "so you need to declare it explicitly)");
+    }
+    if (!IOUring.isAvailable()) {
+      throw new IllegalStateException(
+          "The Netty io_uring transport is not available on this platform",
+          IOUring.unavailabilityCause());
+    }
+  }
+
+  @Override
+  public String name() {
+    return "io_uring";
+  }
+
+  @Override
+  public EventLoopGroup newEventLoopGroup(int size, ThreadFactory threadFactory) {
+    return new IOUringEventLoopGroup(size, threadFactory);
+  }
+
+  @Override
+  public Class<? extends Channel> channelClass() {
+    return IOUringSocketChannel.class;
+  }
+
+  @Override
+  public boolean supports(DriverOption option) {
+    return option == DefaultDriverOption.SOCKET_TCP_QUICK_ACK;
+  }
+
+  @Override
+  public void afterBootstrapInitialized(Bootstrap bootstrap, DriverExecutionProfile config) {
+    if (config.isDefined(DefaultDriverOption.SOCKET_TCP_QUICK_ACK)) {
+      boolean quickAck = config.getBoolean(DefaultDriverOption.SOCKET_TCP_QUICK_ACK);
+      bootstrap.option(IOUringChannelOption.TCP_QUICKACK, quickAck);
+    }
+  }
+
+  @Override
+  public boolean isAddressInUse(Throwable error) {
+    return NativeErrors.isAddressInUse(error);
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.context;
+
+import io.netty.channel.unix.Errors;
+
+/**
+ * Errors reported by the native transports. This class must only be loaded when one of them is in
+ * use, since it references Netty's native unix classes.
+ */
+final class NativeErrors {
+
+  /**
+   * EADDRINUSE on every Linux architecture that Netty ships native libraries for (x86_64, aarch64,
+   * riscv64). Netty's {@link Errors} doesn't expose it.
+   */
+  private static final int ERRNO_EADDRINUSE = 98;
+
+  static boolean isAddressInUse(Throwable error) {
+    // Native system calls that fail throw this exception with the negated errno
+    return error instanceof Errors.NativeIoException
+        && ((Errors.NativeIoException) error).expectedErr() == -ERRNO_EADDRINUSE;
+  }
+
+  private NativeErrors() {}
+}
@@ -77,6 +77,18 @@ public interface NettyOptions {
    */
   void afterChannelInitialized(Channel channel);
 
+  /**
+   * Whether the given error, reported when connecting a channel from a specific local port, means
+   * that this port is already in use. The driver then tries another local port (see {@code
+   * advanced.connection.advanced-shard-awareness}).
+   *
+   * <p>{@link java.net.BindException} is always recognized; this is for transports that report the
+   * error differently. The default implementation returns false.
+   */
+  default boolean isAddressInUse(Throwable error) {
+    return false;
+  }
+
   /**
    * A hook involved when the driver instance shuts down. This is a good place to free any resources
    * that you have allocated elsewhere in this component, for example shut down custom event loop
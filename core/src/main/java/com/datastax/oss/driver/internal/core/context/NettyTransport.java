@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.context;
+
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.config.DriverOption;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A Netty transport that {@link DefaultNettyOptions} can use for I/O: the JDK's NIO, or one of the
+ * native Linux transports.
+ *
+ * @see DefaultNettyOptions#selectTransport(String, String)
+ */
+public interface NettyTransport {
+
+  /** A short name for logs. */
+  String name();
+
+  EventLoopGroup newEventLoopGroup(int size, ThreadFactory threadFactory);
+
+  Class<? extends Channel> channelClass();
+
+  /** Whether this transport can apply the given socket option. */
+  boolean supports(DriverOption option);
+
+  /**
+   * Sets the transport-specific socket options. This is invoked after the generic options have been
+   * set by {@link DefaultNettyOptions#afterBootstrapInitialized(Bootstrap)}.
+   */
+  void afterBootstrapInitialized(Bootstrap bootstrap, DriverExecutionProfile config);
+
+  /** @see NettyOptions#isAddressInUse(Throwable) */
+  default boolean isAddressInUse(Throwable error) {
+    return false;
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.context;
+
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.config.DriverOption;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import java.util.concurrent.ThreadFactory;
+import net.jcip.annotations.ThreadSafe;
+
+/** The JDK's NIO transport, available on every platform. */
+@ThreadSafe
+public class NioTransport implements NettyTransport {
+
+  public static final NioTransport INSTANCE = new NioTransport();
+
+  private NioTransport() {}
+
+  @Override
+  public String name() {
+    return "NIO";
+  }
+
+  @Override
+  public EventLoopGroup newEventLoopGroup(int size, ThreadFactory threadFactory) {
+    return new NioEventLoopGroup(size, threadFactory);
+  }
+
+  @Override
+  public Class<? extends Channel> channelClass() {
+    return NioSocketChannel.class;
+  }
+
+  @Override
+  public boolean supports(DriverOption option) {
+    return false;
+  }
+
+  @Override
+  public void afterBootstrapInitialized(Bootstrap bootstrap, DriverExecutionProfile config) {
+    // nothing to do
+  }
+}
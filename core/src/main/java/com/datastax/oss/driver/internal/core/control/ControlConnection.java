@@ -19,6 +19,7 @@ package com.datastax.oss.driver.internal.core.control;
 
 import com.datastax.oss.driver.api.core.AllNodesFailedException;
 import com.datastax.oss.driver.api.core.AsyncAutoCloseable;
+import com.datastax.oss.driver.api.core.CqlIdentifier;
 import com.datastax.oss.driver.api.core.auth.AuthenticationException;
 import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverConfig;
@@ -226,6 +227,17 @@ public class ControlConnection implements EventCallback, AsyncAutoCloseable {
 
   private void processSchemaChange(Event event) {
     SchemaChangeEvent sce = (SchemaChangeEvent) event;
+    if (ProtocolConstants.SchemaChangeType.DROPPED.equals(sce.changeType)) {
+      // Forget about the tablets right away, even if schema metadata is disabled
+      if (ProtocolConstants.SchemaChangeTarget.KEYSPACE.equals(sce.target)) {
+        context.getMetadataManager().removeTablets(CqlIdentifier.fromInternal(sce.keyspace), null);
+      } else if (ProtocolConstants.SchemaChangeTarget.TABLE.equals(sce.target)) {
+        context
+            .getMetadataManager()
+            .removeTablets(
+                CqlIdentifier.fromInternal(sce.keyspace), CqlIdentifier.fromInternal(sce.object));
+      }
+    }
     context
         .getMetadataManager()
         .refreshSchema(sce.keyspace, false, false)
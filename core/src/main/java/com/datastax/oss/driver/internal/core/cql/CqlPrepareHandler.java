@@ -84,6 +84,7 @@ public class CqlPrepareHandler implements Throttled {
   private final long startTimeNanos;
   private final String logPrefix;
   private final PrepareRequest initialRequest;
+  private final DriverExecutionProfile executionProfile;
   private final DefaultSession session;
   private final InternalDriverContext context;
   private final Queue<Node> queryPlan;
@@ -111,7 +112,7 @@ public class CqlPrepareHandler implements Throttled {
     this.initialRequest = request;
     this.session = session;
     this.context = context;
-    DriverExecutionProfile executionProfile = Conversions.resolveExecutionProfile(request, context);
+    this.executionProfile = Conversions.resolveExecutionProfile(request, context);
     this.queryPlan =
         context
             .getLoadBalancingPolicyWrapper()
@@ -141,8 +142,6 @@ public class CqlPrepareHandler implements Throttled {
 
   @Override
   public void onThrottleReady(boolean wasDelayed) {
-    DriverExecutionProfile executionProfile =
-        Conversions.resolveExecutionProfile(initialRequest, context);
     if (wasDelayed) {
       session
           .getMetricUpdater()
@@ -311,10 +310,14 @@ public class CqlPrepareHandler implements Throttled {
     }
   }
 
+  @NonNull
+  @Override
+  public DriverExecutionProfile getExecutionProfile() {
+    return executionProfile;
+  }
+
   @Override
   public void onThrottleFailure(@NonNull RequestThrottlingException error) {
-    DriverExecutionProfile executionProfile =
-        Conversions.resolveExecutionProfile(initialRequest, context);
     session
         .getMetricUpdater()
         .incrementCounter(DefaultSessionMetric.THROTTLING_ERRORS, executionProfile.getName());
@@ -340,6 +343,8 @@ public class CqlPrepareHandler implements Throttled {
     // How many times we've invoked the retry policy and it has returned a "retry" decision (0 for
     // the first attempt of each execution).
     private final int retryCount;
+    // Only accessed from the channel's event loop, see ResponseCallback.setInFlightStreamId
+    private int inFlightStreamId = -1;
 
     private InitialPrepareCallback(
         PrepareRequest request, Node node, DriverChannel channel, int retryCount) {
@@ -449,6 +454,16 @@ public class CqlPrepareHandler implements Throttled {
       }
     }
 
+    @Override
+    public void setInFlightStreamId(int streamId) {
+      this.inFlightStreamId = streamId;
+    }
+
+    @Override
+    public int getInFlightStreamId() {
+      return inFlightStreamId;
+    }
+
     @Override
     public void onFailure(Throwable error) {
       if (result.isDone()) {
@@ -67,12 +67,14 @@ import com.datastax.oss.driver.internal.core.metadata.token.TokenLong64;
 import com.datastax.oss.driver.internal.core.metrics.NodeMetricUpdater;
 import com.datastax.oss.driver.internal.core.metrics.SessionMetricUpdater;
 import com.datastax.oss.driver.internal.core.protocol.TabletInfo;
+import com.datastax.oss.driver.internal.core.retry.RetryBudget;
 import com.datastax.oss.driver.internal.core.session.DefaultSession;
 import com.datastax.oss.driver.internal.core.session.RepreparePayload;
 import com.datastax.oss.driver.internal.core.tracker.NoopRequestTracker;
 import com.datastax.oss.driver.internal.core.tracker.RequestLogger;
 import com.datastax.oss.driver.internal.core.util.Loggers;
 import com.datastax.oss.driver.internal.core.util.collection.SimpleQueryPlan;
+import com.datastax.oss.driver.internal.core.util.concurrent.UncaughtExceptions;
 import com.datastax.oss.protocol.internal.Frame;
 import com.datastax.oss.protocol.internal.Message;
 import com.datastax.oss.protocol.internal.ProtocolConstants;
@@ -116,8 +118,10 @@ public class CqlRequestHandler implements Throttled {
   private static final long NANOTIME_NOT_MEASURED_YET = -1;
 
   private final long startTimeNanos;
+  private final long timeoutNanos;
   private final String logPrefix;
   private final Statement<?> initialStatement;
+  private final DriverExecutionProfile executionProfile;
   private final DefaultSession session;
   private final CqlIdentifier keyspace;
   private final InternalDriverContext context;
@@ -140,9 +144,13 @@ public class CqlRequestHandler implements Throttled {
   final List<Timeout> scheduledExecutions;
   private final List<NodeResponseCallback> inFlightCallbacks;
   private final RequestThrottler throttler;
+  private final RetryBudget retryBudget;
   private final RequestTracker requestTracker;
   private final SessionMetricUpdater sessionMetricUpdater;
 
+  // Whether an execution already waited in a pool's wait queue (we only do it once per request)
+  private volatile boolean waitedForChannel;
+
   // The errors on the nodes that were already tried (lazily initialized on the first error).
   // We don't use a map because nodes can appear multiple times.
   private volatile List<Map.Entry<Node, Throwable>> errors;
@@ -158,6 +166,7 @@ public class CqlRequestHandler implements Throttled {
     LOG.trace("[{}] Creating new handler for request {}", logPrefix, statement);
 
     this.initialStatement = statement;
+    this.executionProfile = Conversions.resolveExecutionProfile(statement, context);
     this.session = session;
     this.keyspace = session.getKeyspace().orElse(null);
     this.context = context;
@@ -184,16 +193,16 @@ public class CqlRequestHandler implements Throttled {
 
     this.timer = context.getNettyOptions().getTimer();
     Duration timeout = Conversions.resolveRequestTimeout(statement, context);
+    this.timeoutNanos = timeout.toNanos();
     this.scheduledTimeout = scheduleTimeout(timeout);
 
+    this.retryBudget = context.getRetryBudget();
     this.throttler = context.getRequestThrottler();
     this.throttler.register(this);
   }
 
   @Override
   public void onThrottleReady(boolean wasDelayed) {
-    DriverExecutionProfile executionProfile =
-        Conversions.resolveExecutionProfile(initialStatement, context);
     if (wasDelayed
         // avoid call to nanoTime() if metric is disabled:
         && sessionMetricUpdater.isEnabled(
@@ -207,7 +216,10 @@ public class CqlRequestHandler implements Throttled {
     Queue<Node> queryPlan;
     if (this.initialStatement.getNode() != null) {
       queryPlan = new SimpleQueryPlan(this.initialStatement.getNode());
-    } else if (this.initialStatement.isLWT()) {
+    } else if (this.initialStatement.isLWT()
+        && !executionProfile.getBoolean(
+            DefaultDriverOption.LOAD_BALANCING_POLICY_LWT_DETERMINISTIC_ROUTING, false)) {
+      // When enabled, the load balancing policy orders the replicas of LWTs itself
       queryPlan =
           getReplicas(
               session.getKeyspace().orElse(null),
@@ -222,6 +234,7 @@ public class CqlRequestHandler implements Throttled {
               .newQueryPlan(initialStatement, executionProfile.getName(), session);
     }
 
+    retryBudget.onPrimaryRequest();
     sendRequest(initialStatement, null, queryPlan, 0, 0, true);
   }
 
@@ -368,14 +381,21 @@ public class CqlRequestHandler implements Throttled {
                     getShardFromTabletMap(statement, node, getRoutingToken(statement))))
             == null) {
       while (!result.isDone() && (node = queryPlan.poll()) != null) {
-        channel =
-            session.getChannel(
-                node,
-                logPrefix,
-                getRoutingToken(statement),
-                getShardFromTabletMap(statement, node, getRoutingToken(statement)));
+        Token routingToken = getRoutingToken(statement);
+        Integer shard = getShardFromTabletMap(statement, node, routingToken);
+        channel = session.getChannel(node, logPrefix, routingToken, shard);
         if (channel != null) {
           break;
+        } else if (waitForChannel(
+            statement,
+            node,
+            routingToken,
+            shard,
+            queryPlan,
+            currentExecutionIndex,
+            retryCount,
+            scheduleNextExecution)) {
+          return;
         } else {
           recordError(node, new NodeUnavailableException(node));
         }
@@ -388,23 +408,99 @@ public class CqlRequestHandler implements Throttled {
         setFinalError(statement, AllNodesFailedException.fromErrors(this.errors), null, -1);
       }
     } else {
-      NodeResponseCallback nodeResponseCallback =
-          new NodeResponseCallback(
-              statement,
-              node,
-              queryPlan,
-              channel,
-              currentExecutionIndex,
-              retryCount,
-              scheduleNextExecution,
-              logPrefix);
-      DriverExecutionProfile executionProfile =
-          Conversions.resolveExecutionProfile(statement, context);
-      Message message = Conversions.toMessage(statement, executionProfile, context);
-      channel
-          .write(message, statement.isTracing(), statement.getCustomPayload(), nodeResponseCallback)
-          .addListener(nodeResponseCallback);
+      sendRequest(
+          statement,
+          node,
+          channel,
+          queryPlan,
+          currentExecutionIndex,
+          retryCount,
+          scheduleNextExecution);
+    }
+  }
+
+  private void sendRequest(
+      Statement<?> statement,
+      Node node,
+      DriverChannel channel,
+      Queue<Node> queryPlan,
+      int currentExecutionIndex,
+      int retryCount,
+      boolean scheduleNextExecution) {
+    NodeResponseCallback nodeResponseCallback =
+        new NodeResponseCallback(
+            statement,
+            node,
+            queryPlan,
+            channel,
+            currentExecutionIndex,
+            retryCount,
+            scheduleNextExecution,
+            logPrefix);
+    DriverExecutionProfile executionProfile =
+        Conversions.resolveExecutionProfile(statement, context);
+    Message message = Conversions.toMessage(statement, executionProfile, context);
+    channel
+        .write(message, statement.isTracing(), statement.getCustomPayload(), nodeResponseCallback)
+        .addListener(nodeResponseCallback);
+  }
+
+  /**
+   * If the node's pool has a wait queue, waits for a stream id on the target shard instead of
+   * moving on to the next node right away. This is only done for the first busy node of the
+   * request, and never past the request timeout.
+   *
+   * @return whether the execution is now waiting, in which case it will resume asynchronously (on
+   *     the same node if a stream id was released, on the rest of the query plan otherwise).
+   */
+  private boolean waitForChannel(
+      Statement<?> statement,
+      Node node,
+      Token routingToken,
+      Integer shard,
+      Queue<Node> queryPlan,
+      int currentExecutionIndex,
+      int retryCount,
+      boolean scheduleNextExecution) {
+    if (waitedForChannel) {
+      return false;
     }
+    long maxWaitNanos =
+        (timeoutNanos > 0) ? timeoutNanos - (System.nanoTime() - startTimeNanos) : Long.MAX_VALUE;
+    CompletionStage<DriverChannel> channelFuture =
+        session.waitForChannel(node, logPrefix, routingToken, shard, maxWaitNanos);
+    if (channelFuture == null) {
+      return false;
+    }
+    waitedForChannel = true;
+    channelFuture
+        .thenAccept(
+            channel -> {
+              if (channel == null || channel.closeFuture().isDone()) {
+                LOG.trace("[{}] No stream id was released on {}, skipping", logPrefix, node);
+                recordError(node, new NodeUnavailableException(node));
+                sendRequest(
+                    statement,
+                    null,
+                    queryPlan,
+                    currentExecutionIndex,
+                    retryCount,
+                    scheduleNextExecution);
+              } else if (result.isDone()) {
+                channel.cancelPreAcquireId();
+              } else {
+                sendRequest(
+                    statement,
+                    node,
+                    channel,
+                    queryPlan,
+                    currentExecutionIndex,
+                    retryCount,
+                    scheduleNextExecution);
+              }
+            })
+        .exceptionally(UncaughtExceptions::log);
+    return true;
   }
 
   private void recordError(Node node, Throwable error) {
@@ -555,10 +651,14 @@ public class CqlRequestHandler implements Throttled {
         callback.executionProfile);
   }
 
+  @NonNull
+  @Override
+  public DriverExecutionProfile getExecutionProfile() {
+    return executionProfile;
+  }
+
   @Override
   public void onThrottleFailure(@NonNull RequestThrottlingException error) {
-    DriverExecutionProfile executionProfile =
-        Conversions.resolveExecutionProfile(initialStatement, context);
     sessionMetricUpdater.incrementCounter(
         DefaultSessionMetric.THROTTLING_ERRORS, executionProfile.getName());
     setFinalError(initialStatement, error, null, -1);
@@ -621,6 +721,8 @@ public class CqlRequestHandler implements Throttled {
     private final int retryCount;
     private final boolean scheduleNextExecution;
     private final String logPrefix;
+    // Only accessed from the channel's event loop, see ResponseCallback.setInFlightStreamId
+    private int inFlightStreamId = -1;
 
     private NodeResponseCallback(
         Statement<?> statement,
@@ -714,6 +816,16 @@ public class CqlRequestHandler implements Throttled {
             timer.newTimeout(
                 (Timeout timeout1) -> {
                   if (!result.isDone()) {
+                    if (!retryBudget.tryAcquire()) {
+                      LOG.trace(
+                          "[{}] Retry budget exhausted, not starting speculative execution {}",
+                          CqlRequestHandler.this.logPrefix,
+                          index);
+                      sessionMetricUpdater.incrementCounter(
+                          DefaultSessionMetric.RETRY_BUDGET_SUPPRESSED_SPECULATIVE_EXECUTIONS,
+                          executionProfile.getName());
+                      return;
+                    }
                     LOG.trace(
                         "[{}] Starting speculative execution {}",
                         CqlRequestHandler.this.logPrefix,
@@ -906,13 +1018,14 @@ public class CqlRequestHandler implements Throttled {
         if (error instanceof ReadTimeoutException) {
           ReadTimeoutException readTimeout = (ReadTimeoutException) error;
           verdict =
-              retryPolicy.onReadTimeoutVerdict(
-                  statement,
-                  readTimeout.getConsistencyLevel(),
-                  readTimeout.getBlockFor(),
-                  readTimeout.getReceived(),
-                  readTimeout.wasDataPresent(),
-                  retryCount);
+              applyRetryBudget(
+                  retryPolicy.onReadTimeoutVerdict(
+                      statement,
+                      readTimeout.getConsistencyLevel(),
+                      readTimeout.getBlockFor(),
+                      readTimeout.getReceived(),
+                      readTimeout.wasDataPresent(),
+                      retryCount));
           updateErrorMetrics(
               metricUpdater,
               verdict,
@@ -923,13 +1036,14 @@ public class CqlRequestHandler implements Throttled {
           WriteTimeoutException writeTimeout = (WriteTimeoutException) error;
           verdict =
               Conversions.resolveIdempotence(statement, context)
-                  ? retryPolicy.onWriteTimeoutVerdict(
-                      statement,
-                      writeTimeout.getConsistencyLevel(),
-                      writeTimeout.getWriteType(),
-                      writeTimeout.getBlockFor(),
-                      writeTimeout.getReceived(),
-                      retryCount)
+                  ? applyRetryBudget(
+                      retryPolicy.onWriteTimeoutVerdict(
+                          statement,
+                          writeTimeout.getConsistencyLevel(),
+                          writeTimeout.getWriteType(),
+                          writeTimeout.getBlockFor(),
+                          writeTimeout.getReceived(),
+                          retryCount))
                   : RetryVerdict.RETHROW;
           updateErrorMetrics(
               metricUpdater,
@@ -940,12 +1054,13 @@ public class CqlRequestHandler implements Throttled {
         } else if (error instanceof UnavailableException) {
           UnavailableException unavailable = (UnavailableException) error;
           verdict =
-              retryPolicy.onUnavailableVerdict(
-                  statement,
-                  unavailable.getConsistencyLevel(),
-                  unavailable.getRequired(),
-                  unavailable.getAlive(),
-                  retryCount);
+              applyRetryBudget(
+                  retryPolicy.onUnavailableVerdict(
+                      statement,
+                      unavailable.getConsistencyLevel(),
+                      unavailable.getRequired(),
+                      unavailable.getAlive(),
+                      retryCount));
           updateErrorMetrics(
               metricUpdater,
               verdict,
@@ -955,7 +1070,8 @@ public class CqlRequestHandler implements Throttled {
         } else {
           verdict =
               Conversions.resolveIdempotence(statement, context)
-                  ? retryPolicy.onErrorResponseVerdict(statement, error, retryCount)
+                  ? applyRetryBudget(
+                      retryPolicy.onErrorResponseVerdict(statement, error, retryCount))
                   : RetryVerdict.RETHROW;
           updateErrorMetrics(
               metricUpdater,
@@ -968,6 +1084,26 @@ public class CqlRequestHandler implements Throttled {
       }
     }
 
+    /**
+     * Turns a retry decision into {@link RetryVerdict#RETHROW} if the session-wide retry budget is
+     * exhausted.
+     */
+    private RetryVerdict applyRetryBudget(RetryVerdict verdict) {
+      switch (verdict.getRetryDecision()) {
+        case RETRY_SAME:
+        case RETRY_NEXT:
+          if (!retryBudget.tryAcquire()) {
+            LOG.trace("[{}] Retry budget exhausted, rethrowing instead of retrying", logPrefix);
+            sessionMetricUpdater.incrementCounter(
+                DefaultSessionMetric.RETRY_BUDGET_SUPPRESSED_RETRIES, executionProfile.getName());
+            return RetryVerdict.RETHROW;
+          }
+          return verdict;
+        default:
+          return verdict;
+      }
+    }
+
     private void processRetryVerdict(RetryVerdict verdict, Throwable error) {
       LOG.trace("[{}] Processing retry decision {}", logPrefix, verdict);
       switch (verdict.getRetryDecision()) {
@@ -1025,6 +1161,16 @@ public class CqlRequestHandler implements Throttled {
       }
     }
 
+    @Override
+    public void setInFlightStreamId(int streamId) {
+      this.inFlightStreamId = streamId;
+    }
+
+    @Override
+    public int getInFlightStreamId() {
+      return inFlightStreamId;
+    }
+
     @Override
     public void onFailure(Throwable error) {
       inFlightCallbacks.remove(this);
@@ -1039,7 +1185,8 @@ public class CqlRequestHandler implements Throttled {
       } else {
         try {
           RetryPolicy retryPolicy = Conversions.resolveRetryPolicy(statement, context);
-          verdict = retryPolicy.onRequestAbortedVerdict(statement, error, retryCount);
+          verdict =
+              applyRetryBudget(retryPolicy.onRequestAbortedVerdict(statement, error, retryCount));
         } catch (Throwable cause) {
           setFinalError(
               statement,
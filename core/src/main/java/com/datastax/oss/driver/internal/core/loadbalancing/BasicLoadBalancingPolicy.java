@@ -54,6 +54,7 @@ import com.datastax.oss.driver.internal.core.util.ArrayUtils;
 import com.datastax.oss.driver.internal.core.util.collection.CompositeQueryPlan;
 import com.datastax.oss.driver.internal.core.util.collection.LazyQueryPlan;
 import com.datastax.oss.driver.internal.core.util.collection.QueryPlan;
+import com.datastax.oss.driver.internal.core.util.collection.ReplicasFirstQueryPlan;
 import com.datastax.oss.driver.internal.core.util.collection.SimpleQueryPlan;
 import com.datastax.oss.driver.shaded.guava.common.base.Predicates;
 import com.datastax.oss.driver.shaded.guava.common.collect.Lists;
@@ -72,6 +73,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.IntUnaryOperator;
+import net.jcip.annotations.NotThreadSafe;
 import net.jcip.annotations.ThreadSafe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -106,6 +108,11 @@ import org.slf4j.LoggerFactory;
  * will only include local nodes, never remote ones; if it is unspecified however, query plans may
  * contain nodes from different datacenters.
  *
+ * <p>If {@code basic.load-balancing-policy.lwt-deterministic-routing} is enabled, replicas of
+ * {@linkplain Statement#isLWT() lightweight transactions} are not shuffled: they are kept in the
+ * order returned by the tablet or token map (primary replica first), so that all clients use the
+ * same coordinator for a given partition.
+ *
  * <p><b>This class is not recommended for normal users who should always prefer {@link
  * DefaultLoadBalancingPolicy}</b>.
  */
@@ -115,7 +122,7 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
   private static final Logger LOG = LoggerFactory.getLogger(BasicLoadBalancingPolicy.class);
 
   protected static final IntUnaryOperator INCREMENT = i -> (i == Integer.MAX_VALUE) ? 0 : i + 1;
-  private static final Object[] EMPTY_NODES = new Object[0];
+  protected static final Object[] EMPTY_NODES = new Object[0];
 
   @NonNull protected final InternalDriverContext context;
   @NonNull protected final DriverExecutionProfile profile;
@@ -126,6 +133,7 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
   private final int maxNodesPerRemoteDc;
   private final boolean allowDcFailoverForLocalCl;
   private final ConsistencyLevel defaultConsistencyLevel;
+  private final boolean lwtDeterministicRouting;
 
   // private because they should be set in init() and never be modified after
   private volatile DistanceReporter distanceReporter;
@@ -148,6 +156,9 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
         this.context
             .getConsistencyLevelRegistry()
             .nameToLevel(profile.getString(DefaultDriverOption.REQUEST_CONSISTENCY));
+    lwtDeterministicRouting =
+        profile.getBoolean(
+            DefaultDriverOption.LOAD_BALANCING_POLICY_LWT_DETERMINISTIC_ROUTING, false);
 
     preferredRemoteDcs =
         new LinkedHashSet<>(
@@ -259,29 +270,94 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
   @NonNull
   @Override
   public Queue<Node> newQueryPlan(@Nullable Request request, @Nullable Session session) {
-    // Take a snapshot since the set is concurrent:
-    Object[] currentNodes = liveNodes.dc(localDc).toArray();
+    if (isDeterministicLwt(request)) {
+      return newLwtQueryPlan(request, session);
+    }
+
+    // Shared snapshot of the live nodes, must not be modified
+    Object[] currentNodes = liveNodes.snapshot(localDc);
 
     Set<Node> allReplicas = getReplicas(request, session);
-    int replicaCount = 0; // in currentNodes
+    Object[] replicas = EMPTY_NODES;
+    int replicaCount = 0; // in replicas
 
     if (!allReplicas.isEmpty()) {
-      // Move replicas to the beginning
-      for (int i = 0; i < currentNodes.length; i++) {
-        Node node = (Node) currentNodes[i];
+      for (Object node : currentNodes) {
         if (allReplicas.contains(node)) {
-          ArrayUtils.bubbleUp(currentNodes, i, replicaCount);
+          if (replicaCount == 0) {
+            replicas = new Object[Math.min(allReplicas.size(), currentNodes.length)];
+          }
+          replicas[replicaCount] = node;
           replicaCount += 1;
         }
       }
 
       if (replicaCount > 1) {
-        shuffleHead(currentNodes, replicaCount);
+        shuffleHead(replicas, replicaCount);
       }
     }
 
     LOG.trace("[{}] Prioritizing {} local replicas", logPrefix, replicaCount);
 
+    // Round-robin the remaining nodes (lazily)
+    int roundRobin = roundRobinAmount.getAndUpdate(INCREMENT);
+    QueryPlan plan =
+        currentNodes.length == 0
+            ? QueryPlan.EMPTY
+            : new ReplicasFirstQueryPlan(replicas, replicaCount, currentNodes, roundRobin);
+    return maybeAddDcFailover(request, allReplicas, plan);
+  }
+
+  /**
+   * Whether the given request is a lightweight transaction that should be routed with {@link
+   * #newLwtQueryPlan(Request, Session)}.
+   */
+  protected boolean isDeterministicLwt(@Nullable Request request) {
+    if (!lwtDeterministicRouting || !(request instanceof Statement)) {
+      return false;
+    }
+    try {
+      return ((Statement<?>) request).isLWT();
+    } catch (Exception e) {
+      // Protect against poorly-implemented Statement instances
+      LOG.warn(
+          "[{}] Unexpected error while checking if the request is a lightweight transaction, "
+              + "routing it as a regular request",
+          logPrefix,
+          e);
+      return false;
+    }
+  }
+
+  /**
+   * Builds the query plan of a lightweight transaction: live local replicas come first, in the
+   * order returned by {@link #getReplicas(Request, Session)}, followed by the other local nodes in
+   * a round-robin fashion and, if enabled, by remote nodes.
+   *
+   * <p>Replicas are never shuffled, so that concurrent Paxos rounds on the same partition are
+   * coordinated by the same node, and get to use the same shard.
+   */
+  @NonNull
+  protected Queue<Node> newLwtQueryPlan(@Nullable Request request, @Nullable Session session) {
+    // Take a snapshot since the set is concurrent:
+    Object[] currentNodes = liveNodes.dc(localDc).toArray();
+
+    Set<Node> allReplicas = getReplicas(request, session);
+    int replicaCount = 0; // in currentNodes
+
+    // Move replicas to the beginning, following the iteration order of allReplicas
+    for (Node replica : allReplicas) {
+      for (int i = replicaCount; i < currentNodes.length; i++) {
+        if (currentNodes[i] == replica) {
+          ArrayUtils.bubbleUp(currentNodes, i, replicaCount);
+          replicaCount += 1;
+          break;
+        }
+      }
+    }
+
+    LOG.trace("[{}] Prioritizing {} local replicas for LWT", logPrefix, replicaCount);
+
     // Round-robin the remaining nodes
     ArrayUtils.rotate(
         currentNodes,
@@ -290,11 +366,21 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
         roundRobinAmount.getAndUpdate(INCREMENT));
 
     QueryPlan plan = currentNodes.length == 0 ? QueryPlan.EMPTY : new SimpleQueryPlan(currentNodes);
-    return maybeAddDcFailover(request, plan);
+    return maybeAddDcFailover(request, allReplicas, plan);
   }
 
   @NonNull
   protected Set<Node> getReplicas(@Nullable Request request, @Nullable Session session) {
+    return getReplicas(request, session, null);
+  }
+
+  /**
+   * @param lookup if not null, filled with the routing information that was resolved to find the
+   *     replicas, so that the caller can reuse it instead of resolving the request again.
+   */
+  @NonNull
+  protected Set<Node> getReplicas(
+      @Nullable Request request, @Nullable Session session, @Nullable ReplicaLookup lookup) {
     if (request == null || session == null) {
       return Collections.emptySet();
     }
@@ -348,8 +434,14 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
         Tablet targetTablet =
             tabletMap.getTablet(keyspace, table, ((TokenLong64) token).getValue());
         if (targetTablet != null) {
+          if (lookup != null) {
+            lookup.tablet = targetTablet;
+          }
           Set<Node> replicas = targetTablet.getReplicaNodes();
           if (!replicas.isEmpty()) {
+            if (lookup != null) {
+              lookup.token = token;
+            }
             return replicas;
           }
         }
@@ -360,13 +452,66 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
       return Collections.emptySet();
     }
     TokenMap tokenMap = maybeTokenMap.get();
+    if (lookup != null) {
+      lookup.token = token;
+      lookup.key = key;
+      lookup.partitioner = partitioner;
+      lookup.tokenMap = tokenMap;
+    }
     return token != null
         ? tokenMap.getReplicas(keyspace, token)
         : tokenMap.getReplicas(keyspace, partitioner, key);
   }
 
+  /**
+   * The routing information resolved by {@link #getReplicas(Request, Session, ReplicaLookup)}.
+   *
+   * <p>If the replicas were found without computing the token (the token map hashes the routing
+   * key internally), it is only computed if {@link #getToken()} is called.
+   */
+  @NotThreadSafe
+  protected static class ReplicaLookup {
+    private Token token;
+    private Tablet tablet;
+    private ByteBuffer key;
+    private Partitioner partitioner;
+    private TokenMap tokenMap;
+
+    /** The request's token, or null if it has no routing information or no replicas. */
+    @Nullable
+    public Token getToken() {
+      if (token == null && key != null) {
+        token = (partitioner != null) ? partitioner.hash(key) : tokenMap.newToken(key);
+        key = null;
+      }
+      return token;
+    }
+
+    /** The tablet that owns the request's data, or null if it isn't in a tablet table. */
+    @Nullable
+    public Tablet getTablet() {
+      return tablet;
+    }
+  }
+
   @NonNull
   protected Queue<Node> maybeAddDcFailover(@Nullable Request request, @NonNull Queue<Node> local) {
+    return maybeAddDcFailover(request, Collections.emptySet(), local);
+  }
+
+  /**
+   * Appends remote nodes to the given local query plan, if DC failover is enabled for this request.
+   *
+   * <p>In the remote part of the plan, the live nodes that are replicas of the request come first
+   * (in the order of {@code replicas} for a {@linkplain #isDeterministicLwt(Request) lightweight
+   * transaction}, shuffled otherwise), followed by the other remote nodes, shuffled.
+   *
+   * @param replicas the replicas of the request, in all DCs, as returned by {@link
+   *     #getReplicas(Request, Session)}.
+   */
+  @NonNull
+  protected Queue<Node> maybeAddDcFailover(
+      @Nullable Request request, @NonNull Set<Node> replicas, @NonNull Queue<Node> local) {
     if (maxNodesPerRemoteDc <= 0 || localDc == null) {
       return local;
     }
@@ -380,13 +525,14 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
         return local;
       }
     }
+    boolean keepReplicaOrder = !replicas.isEmpty() && isDeterministicLwt(request);
     if (preferredRemoteDcs.isEmpty()) {
-      return new CompositeQueryPlan(local, buildRemoteQueryPlanAll());
+      return new CompositeQueryPlan(local, buildRemoteQueryPlanAll(replicas, keepReplicaOrder));
     }
-    return new CompositeQueryPlan(local, buildRemoteQueryPlanPreferred());
+    return new CompositeQueryPlan(local, buildRemoteQueryPlanPreferred(replicas, keepReplicaOrder));
   }
 
-  private QueryPlan buildRemoteQueryPlanAll() {
+  private QueryPlan buildRemoteQueryPlanAll(Set<Node> replicas, boolean keepReplicaOrder) {
 
     return new LazyQueryPlan() {
       @Override
@@ -400,13 +546,13 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
         if (remoteNodes.length == 0) {
           return EMPTY_NODES;
         }
-        shuffleHead(remoteNodes, remoteNodes.length);
+        prioritizeRemoteReplicas(remoteNodes, replicas, keepReplicaOrder);
         return remoteNodes;
       }
     };
   }
 
-  private QueryPlan buildRemoteQueryPlanPreferred() {
+  private QueryPlan buildRemoteQueryPlanPreferred(Set<Node> replicas, boolean keepReplicaOrder) {
 
     Set<String> dcs = liveNodes.dcs();
     List<String> orderedDcs = Lists.newArrayListWithCapacity(dcs.size());
@@ -425,7 +571,7 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
                       if (rv.length == 0) {
                         return EMPTY_NODES;
                       }
-                      shuffleHead(rv, rv.length);
+                      prioritizeRemoteReplicas(rv, replicas, keepReplicaOrder);
                       return rv;
                     }
                   };
@@ -435,6 +581,45 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
     return new CompositeQueryPlan(queryPlans);
   }
 
+  /**
+   * Moves the replicas to the beginning of the given remote nodes, so that a failed over request
+   * reaches a coordinator that owns the data (and, with shard awareness, the right shard) without
+   * an extra hop.
+   */
+  private void prioritizeRemoteReplicas(
+      Object[] remoteNodes, Set<Node> replicas, boolean keepReplicaOrder) {
+    int replicaCount = 0;
+    if (keepReplicaOrder) {
+      for (Node replica : replicas) {
+        for (int i = replicaCount; i < remoteNodes.length; i++) {
+          if (remoteNodes[i] == replica) {
+            ArrayUtils.bubbleUp(remoteNodes, i, replicaCount);
+            replicaCount += 1;
+            break;
+          }
+        }
+      }
+    } else if (!replicas.isEmpty()) {
+      for (int i = 0; i < remoteNodes.length; i++) {
+        if (replicas.contains(remoteNodes[i])) {
+          ArrayUtils.bubbleUp(remoteNodes, i, replicaCount);
+          replicaCount += 1;
+        }
+      }
+    }
+    if (replicaCount == 0) {
+      shuffleHead(remoteNodes, remoteNodes.length);
+      return;
+    }
+    LOG.trace("[{}] Prioritizing {} remote replicas", logPrefix, replicaCount);
+    if (replicaCount > 1 && !keepReplicaOrder) {
+      shuffleHead(remoteNodes, replicaCount);
+    }
+    if (remoteNodes.length - replicaCount > 1) {
+      shuffleInRange(remoteNodes, replicaCount, remoteNodes.length - 1);
+    }
+  }
+
   /** Exposed as a protected method so that it can be accessed by tests */
   protected void shuffleHead(Object[] currentNodes, int headLength) {
     ArrayUtils.shuffleHead(currentNodes, headLength);
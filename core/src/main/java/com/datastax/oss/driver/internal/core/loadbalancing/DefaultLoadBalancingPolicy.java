@@ -24,6 +24,8 @@ import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.context.DriverContext;
 import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.Tablet;
+import com.datastax.oss.driver.api.core.metadata.token.Token;
 import com.datastax.oss.driver.api.core.session.Request;
 import com.datastax.oss.driver.api.core.session.Session;
 import com.datastax.oss.driver.api.core.tracker.RequestTracker;
@@ -32,7 +34,7 @@ import com.datastax.oss.driver.internal.core.pool.ChannelPool;
 import com.datastax.oss.driver.internal.core.session.DefaultSession;
 import com.datastax.oss.driver.internal.core.util.ArrayUtils;
 import com.datastax.oss.driver.internal.core.util.collection.QueryPlan;
-import com.datastax.oss.driver.internal.core.util.collection.SimpleQueryPlan;
+import com.datastax.oss.driver.internal.core.util.collection.ReplicasFirstQueryPlan;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.util.BitSet;
@@ -87,6 +89,8 @@ import org.slf4j.LoggerFactory;
  * node avoidance algorithm). Non-replica nodes will be included in a round-robin fashion. If the
  * local datacenter is defined (see above), query plans will only include local nodes, never remote
  * ones; if it is unspecified however, query plans may contain nodes from different datacenters.
+ * Replicas of lightweight transactions are neither shuffled nor reordered, see {@link
+ * BasicLoadBalancingPolicy}.
  */
 @ThreadSafe
 public class DefaultLoadBalancingPolicy extends BasicLoadBalancingPolicy implements RequestTracker {
@@ -126,31 +130,35 @@ public class DefaultLoadBalancingPolicy extends BasicLoadBalancingPolicy impleme
   @NonNull
   @Override
   public Queue<Node> newQueryPlan(@Nullable Request request, @Nullable Session session) {
-    if (!avoidSlowReplicas) {
+    if (!avoidSlowReplicas || isDeterministicLwt(request)) {
       return super.newQueryPlan(request, session);
     }
 
-    // Take a snapshot since the set is concurrent:
-    Object[] currentNodes = getLiveNodes().dc(getLocalDatacenter()).toArray();
+    // Shared snapshot of the live nodes, must not be modified
+    Object[] currentNodes = getLiveNodes().snapshot(getLocalDatacenter());
 
-    Set<Node> allReplicas = getReplicas(request, session);
-    int replicaCount = 0; // in currentNodes
-    int localRackReplicaCount = 0; // in currentNodes
+    ReplicaLookup lookup = new ReplicaLookup();
+    Set<Node> allReplicas = getReplicas(request, session, lookup);
+    Object[] replicas = EMPTY_NODES;
+    int replicaCount = 0; // in replicas
+    int localRackReplicaCount = 0; // in replicas
     String localRack = getLocalRack();
 
     if (!allReplicas.isEmpty()) {
 
-      // Move replicas to the beginning of the plan
+      // Collect the replicas at the beginning of the plan
       // Replicas in local rack should precede other replicas
-      for (int i = 0; i < currentNodes.length; i++) {
-        Node node = (Node) currentNodes[i];
+      for (Object o : currentNodes) {
+        Node node = (Node) o;
         if (allReplicas.contains(node)) {
+          if (replicaCount == 0) {
+            replicas = new Object[Math.min(allReplicas.size(), currentNodes.length)];
+          }
+          replicas[replicaCount] = node;
           if (Objects.equals(node.getRack(), localRack)
               && Objects.equals(node.getDatacenter(), getLocalDatacenter())) {
-            ArrayUtils.bubbleUp(currentNodes, i, localRackReplicaCount);
+            ArrayUtils.bubbleUp(replicas, replicaCount, localRackReplicaCount);
             localRackReplicaCount++;
-          } else {
-            ArrayUtils.bubbleUp(currentNodes, i, replicaCount);
           }
           replicaCount++;
         }
@@ -159,11 +167,11 @@ public class DefaultLoadBalancingPolicy extends BasicLoadBalancingPolicy impleme
       if (replicaCount > 1) {
         if (localRack != null && localRackReplicaCount > 0) {
           // Shuffle only replicas that are in the local rack
-          shuffleHead(currentNodes, localRackReplicaCount);
+          shuffleHead(replicas, localRackReplicaCount);
           // Shuffles only replicas that are not in local rack
-          shuffleInRange(currentNodes, localRackReplicaCount, replicaCount - 1);
+          shuffleInRange(replicas, localRackReplicaCount, replicaCount - 1);
         } else {
-          shuffleHead(currentNodes, replicaCount);
+          shuffleHead(replicas, replicaCount);
         }
 
         if (replicaCount > 2) {
@@ -176,7 +184,7 @@ public class DefaultLoadBalancingPolicy extends BasicLoadBalancingPolicy impleme
           long mostRecentUpTimeNanos = -1;
           long now = nanoTime();
           for (int i = 0; i < replicaCount; i++) {
-            Node node = (Node) currentNodes[i];
+            Node node = (Node) replicas[i];
             assert node != null;
             Long upTimeNanos = upTimes.get(node);
             if (upTimeNanos != null
@@ -185,7 +193,8 @@ public class DefaultLoadBalancingPolicy extends BasicLoadBalancingPolicy impleme
               newestUpReplica = node;
               mostRecentUpTimeNanos = upTimeNanos;
             }
-            if (newestUpReplica == null && isUnhealthy(node, session, now)) {
+            if (newestUpReplica == null
+                && isUnhealthy(node, session, getTargetShard(node, session, lookup), now)) {
               if (unhealthyReplicas == null) {
                 unhealthyReplicas = new BitSet(replicaCount);
               }
@@ -209,7 +218,7 @@ public class DefaultLoadBalancingPolicy extends BasicLoadBalancingPolicy impleme
             int counter = 0;
             for (int i = replicaCount - 1; i >= 0 && counter < unhealthyReplicasCount; i--) {
               if (unhealthyReplicas.get(i)) {
-                ArrayUtils.bubbleDown(currentNodes, i, replicaCount - 1 - counter);
+                ArrayUtils.bubbleDown(replicas, i, replicaCount - 1 - counter);
                 counter++;
               }
             }
@@ -219,35 +228,37 @@ public class DefaultLoadBalancingPolicy extends BasicLoadBalancingPolicy impleme
           // - there is a newly UP replica and
           // - the replica in first or second position is the most recent replica marked as UP and
           // - dice roll 1d4 != 1
-          else if ((newestUpReplica == currentNodes[0] || newestUpReplica == currentNodes[1])
+          else if ((newestUpReplica == replicas[0] || newestUpReplica == replicas[1])
               && diceRoll1d4() != 1) {
 
             // Send it to the back of the replicas
             ArrayUtils.bubbleDown(
-                currentNodes, newestUpReplica == currentNodes[0] ? 0 : 1, replicaCount - 1);
+                replicas, newestUpReplica == replicas[0] ? 0 : 1, replicaCount - 1);
           }
 
           // Reorder the first two replicas in the shuffled list based on the number of
           // in-flight requests
-          if (getInFlight((Node) currentNodes[0], session)
-              > getInFlight((Node) currentNodes[1], session)) {
-            ArrayUtils.swap(currentNodes, 0, 1);
+          Node first = (Node) replicas[0];
+          Node second = (Node) replicas[1];
+          if (getInFlight(first, session, getTargetShard(first, session, lookup))
+              > getInFlight(second, session, getTargetShard(second, session, lookup))) {
+            ArrayUtils.swap(replicas, 0, 1);
           }
         }
+
+        reorderReplicas(replicas, replicaCount);
       }
     }
 
     LOG.trace("[{}] Prioritizing {} local replicas", logPrefix, replicaCount);
 
-    // Round-robin the remaining nodes
-    ArrayUtils.rotate(
-        currentNodes,
-        replicaCount,
-        currentNodes.length - replicaCount,
-        roundRobinAmount.getAndUpdate(INCREMENT));
-
-    QueryPlan plan = currentNodes.length == 0 ? QueryPlan.EMPTY : new SimpleQueryPlan(currentNodes);
-    return maybeAddDcFailover(request, plan);
+    // Round-robin the remaining nodes (lazily)
+    int roundRobin = roundRobinAmount.getAndUpdate(INCREMENT);
+    QueryPlan plan =
+        currentNodes.length == 0
+            ? QueryPlan.EMPTY
+            : new ReplicasFirstQueryPlan(replicas, replicaCount, currentNodes, roundRobin);
+    return maybeAddDcFailover(request, allReplicas, plan);
   }
 
   @Override
@@ -271,6 +282,18 @@ public class DefaultLoadBalancingPolicy extends BasicLoadBalancingPolicy impleme
     updateResponseTimes(node);
   }
 
+  /**
+   * Gives subclasses a chance to reorder the replicas at the beginning of a query plan, after they
+   * have been shuffled and sorted by health. Only invoked if there are at least 2 local replicas.
+   * This implementation does nothing.
+   *
+   * @param replicas the local replicas of the query plan.
+   * @param replicaCount the number of replicas at the beginning of {@code replicas}.
+   */
+  protected void reorderReplicas(@NonNull Object[] replicas, int replicaCount) {
+    // nothing by default
+  }
+
   /** Exposed as a protected method so that it can be accessed by tests */
   protected long nanoTime() {
     return System.nanoTime();
@@ -282,11 +305,38 @@ public class DefaultLoadBalancingPolicy extends BasicLoadBalancingPolicy impleme
   }
 
   protected boolean isUnhealthy(@NonNull Node node, @NonNull Session session, long now) {
-    return isBusy(node, session) && isResponseRateInsufficient(node, now);
+    return isUnhealthy(node, session, -1, now);
+  }
+
+  /**
+   * @param shardId the shard of the node that owns the request's data, or -1 to consider the whole
+   *     node.
+   */
+  protected boolean isUnhealthy(
+      @NonNull Node node, @NonNull Session session, int shardId, long now) {
+    return isBusy(node, session, shardId) && isResponseRateInsufficient(node, now);
   }
 
   protected boolean isBusy(@NonNull Node node, @NonNull Session session) {
-    return getInFlight(node, session) >= MAX_IN_FLIGHT_THRESHOLD;
+    return isBusy(node, session, -1);
+  }
+
+  /**
+   * @param shardId the shard of the node that owns the request's data, or -1 to consider the whole
+   *     node.
+   */
+  protected boolean isBusy(@NonNull Node node, @NonNull Session session, int shardId) {
+    if (shardId < 0) {
+      return getInFlight(node, session) >= MAX_IN_FLIGHT_THRESHOLD;
+    }
+    ChannelPool pool = ((DefaultSession) session).getPools().get(node);
+    if (pool == null) {
+      return false;
+    }
+    int inFlight = pool.getInFlight(shardId);
+    // A shard with in-flight requests but no available ids has exhausted its connections
+    return inFlight >= MAX_IN_FLIGHT_THRESHOLD
+        || (inFlight > 0 && pool.getAvailableIds(shardId) == 0);
   }
 
   protected boolean isResponseRateInsufficient(@NonNull Node node, long now) {
@@ -334,4 +384,41 @@ public class DefaultLoadBalancingPolicy extends BasicLoadBalancingPolicy impleme
     // processing them).
     return (pool == null) ? 0 : pool.getInFlight();
   }
+
+  /**
+   * @param shardId the shard of the node that owns the request's data, or -1 to consider the whole
+   *     node.
+   */
+  protected int getInFlight(@NonNull Node node, @NonNull Session session, int shardId) {
+    if (shardId < 0) {
+      return getInFlight(node, session);
+    }
+    ChannelPool pool = ((DefaultSession) session).getPools().get(node);
+    return (pool == null) ? 0 : pool.getInFlight(shardId);
+  }
+
+  /**
+   * Returns the shard of the given node that owns the request's data, or -1 if the node is not
+   * sharded, or the shard can't be determined. Like the request handler, this uses the shard of the
+   * tablet if there is one, and otherwise the shard that owns the token on the node.
+   */
+  protected int getTargetShard(
+      @NonNull Node node, @NonNull Session session, @NonNull ReplicaLookup lookup) {
+    ChannelPool pool = ((DefaultSession) session).getPools().get(node);
+    if (pool == null || pool.getShardCount() <= 1) {
+      return -1;
+    }
+    int shardId;
+    Tablet tablet = lookup.getTablet();
+    if (tablet != null) {
+      shardId = tablet.getShardForNode(node);
+    } else {
+      Token token = lookup.getToken();
+      if (token == null) {
+        return -1;
+      }
+      shardId = pool.getShardId(token);
+    }
+    return (shardId < pool.getShardCount()) ? shardId : -1;
+  }
 }
@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.loadbalancing;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.session.Request;
+import com.datastax.oss.driver.api.core.tracker.RequestTracker;
+import com.datastax.oss.driver.internal.core.util.ArrayUtils;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A variant of {@link DefaultLoadBalancingPolicy} that also avoids replicas that are much slower
+ * than the others.
+ *
+ * <p>To activate this policy, modify the {@code basic.load-balancing-policy} section in the driver
+ * configuration, for example:
+ *
+ * <pre>
+ * datastax-java-driver {
+ *   basic.load-balancing-policy {
+ *     class = LatencyAwareLoadBalancingPolicy
+ *     local-datacenter = datacenter1
+ *   }
+ *   advanced.load-balancing-policy.latency-awareness {
+ *     exclusion-threshold = 2.0
+ *   }
+ * }
+ * </pre>
+ *
+ * See {@code reference.conf} (in the manual or core driver JAR) for more details.
+ *
+ * <p><b>Latency tracking</b>: this policy keeps an exponentially weighted moving average of the
+ * latency of successful responses from each node. The weight of the previous average decreases with
+ * the time elapsed since the previous measurement, relatively to the configured {@code scale}. A
+ * node's average is only taken into account once it has at least {@code minimum-measurements}
+ * measurements, and as long as its latest measurement is more recent than {@code retry-period}.
+ *
+ * <p><b>Query plan</b>: query plans are computed as in {@link DefaultLoadBalancingPolicy}; in
+ * addition, the replicas whose average latency is more than {@code exclusion-threshold} times the
+ * one of the fastest replica are moved after the other replicas (but before non-replicas). Since a
+ * penalized node receives few requests, its latest measurement eventually gets older than {@code
+ * retry-period}; the node is then no longer penalized until its new average is known, which gives
+ * it a chance to show that it recovered.
+ *
+ * <p>The replicas are reordered as part of the slow replica avoidance mechanism of {@link
+ * DefaultLoadBalancingPolicy}, which must therefore be enabled (this is the default).
+ */
+@ThreadSafe
+public class LatencyAwareLoadBalancingPolicy extends DefaultLoadBalancingPolicy {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LatencyAwareLoadBalancingPolicy.class);
+
+  protected final Map<Node, TimestampedAverage> latencies = new ConcurrentHashMap<>();
+
+  private final double exclusionThreshold;
+  private final long scaleNanos;
+  private final long retryPeriodNanos;
+  private final int minMeasurements;
+
+  public LatencyAwareLoadBalancingPolicy(
+      @NonNull DriverContext context, @NonNull String profileName) {
+    super(context, profileName);
+    this.exclusionThreshold =
+        profile.getDouble(
+            DefaultDriverOption.LOAD_BALANCING_LATENCY_AWARENESS_EXCLUSION_THRESHOLD, 2.0);
+    this.scaleNanos =
+        profile
+            .getDuration(
+                DefaultDriverOption.LOAD_BALANCING_LATENCY_AWARENESS_SCALE, Duration.ofMillis(100))
+            .toNanos();
+    this.retryPeriodNanos =
+        profile
+            .getDuration(
+                DefaultDriverOption.LOAD_BALANCING_LATENCY_AWARENESS_RETRY_PERIOD,
+                Duration.ofSeconds(10))
+            .toNanos();
+    this.minMeasurements =
+        profile.getInt(DefaultDriverOption.LOAD_BALANCING_LATENCY_AWARENESS_MIN_MEASUREMENTS, 50);
+    if (exclusionThreshold < 1.0) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Invalid exclusion threshold, expected a value >= 1.0, got %s (check '%s')",
+              exclusionThreshold,
+              DefaultDriverOption.LOAD_BALANCING_LATENCY_AWARENESS_EXCLUSION_THRESHOLD.getPath()));
+    }
+    if (scaleNanos <= 0) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Invalid scale, expected a strictly positive duration (check '%s')",
+              DefaultDriverOption.LOAD_BALANCING_LATENCY_AWARENESS_SCALE.getPath()));
+    }
+    if (!profile.getBoolean(DefaultDriverOption.LOAD_BALANCING_POLICY_SLOW_AVOIDANCE, true)) {
+      LOG.warn(
+          "[{}] Slow replica avoidance is disabled (check '{}'), "
+              + "latencies will not be used to order replicas",
+          logPrefix,
+          DefaultDriverOption.LOAD_BALANCING_POLICY_SLOW_AVOIDANCE.getPath());
+    }
+  }
+
+  @NonNull
+  @Override
+  public Optional<RequestTracker> getRequestTracker() {
+    return Optional.of(this);
+  }
+
+  @Override
+  public void onNodeSuccess(
+      @NonNull Request request,
+      long latencyNanos,
+      @NonNull DriverExecutionProfile executionProfile,
+      @NonNull Node node,
+      @NonNull String logPrefix) {
+    super.onNodeSuccess(request, latencyNanos, executionProfile, node, logPrefix);
+    updateLatency(node, latencyNanos);
+  }
+
+  @Override
+  public void onUp(@NonNull Node node) {
+    // Latencies measured before the node went down are not relevant anymore
+    latencies.remove(node);
+    super.onUp(node);
+  }
+
+  @Override
+  public void onRemove(@NonNull Node node) {
+    latencies.remove(node);
+    super.onRemove(node);
+  }
+
+  @Override
+  protected void reorderReplicas(@NonNull Object[] replicas, int replicaCount) {
+    long now = nanoTime();
+    long[] averages = new long[replicaCount];
+    long fastest = Long.MAX_VALUE;
+    for (int i = 0; i < replicaCount; i++) {
+      long average = getAverageLatency((Node) replicas[i], now);
+      averages[i] = average;
+      if (average >= 0 && average < fastest) {
+        fastest = average;
+      }
+    }
+    if (fastest == Long.MAX_VALUE) {
+      return;
+    }
+    double threshold = fastest * exclusionThreshold;
+    BitSet slowReplicas = null;
+    for (int i = 0; i < replicaCount; i++) {
+      if (averages[i] > threshold) {
+        if (slowReplicas == null) {
+          slowReplicas = new BitSet(replicaCount);
+        }
+        slowReplicas.set(i);
+      }
+    }
+    if (slowReplicas != null) {
+      // Move the slow replicas to the back of the replicas, preserving the relative order of both
+      // the slow and the other replicas
+      int slowReplicaCount = slowReplicas.cardinality();
+      int counter = 0;
+      for (int i = replicaCount - 1; i >= 0 && counter < slowReplicaCount; i--) {
+        if (slowReplicas.get(i)) {
+          ArrayUtils.bubbleDown(replicas, i, replicaCount - 1 - counter);
+          counter++;
+        }
+      }
+      LOG.trace("[{}] Penalizing {} slow replicas", logPrefix, slowReplicaCount);
+    }
+  }
+
+  /**
+   * Returns the average latency of the given node, or -1 if it is unknown: either not enough
+   * measurements were made yet, or the latest one is older than the retry period.
+   */
+  protected long getAverageLatency(@NonNull Node node, long now) {
+    TimestampedAverage latency = latencies.get(node);
+    if (latency == null || latency.average < 0 || now - latency.timestamp - retryPeriodNanos > 0) {
+      return -1;
+    }
+    return latency.average;
+  }
+
+  protected void updateLatency(@NonNull Node node, long latencyNanos) {
+    long now = nanoTime();
+    latencies.compute(node, (n, previous) -> computeNextAverage(previous, latencyNanos, now));
+  }
+
+  @NonNull
+  private TimestampedAverage computeNextAverage(
+      @Nullable TimestampedAverage previous, long latencyNanos, long now) {
+    long measurements = (previous == null) ? 1 : previous.measurements + 1;
+    if (measurements < minMeasurements) {
+      return new TimestampedAverage(now, -1, measurements);
+    }
+    if (previous == null || previous.average < 0) {
+      return new TimestampedAverage(now, latencyNanos, measurements);
+    }
+    long delay = now - previous.timestamp;
+    if (delay <= 0) {
+      // Concurrent measurements: the previous average keeps all its weight
+      return new TimestampedAverage(previous.timestamp, previous.average, measurements);
+    }
+    // The weight of the previous average decreases as the delay grows compared to the scale
+    double scaledDelay = ((double) delay) / scaleNanos;
+    double previousWeight = Math.log(scaledDelay + 1) / scaledDelay;
+    long average =
+        (long) ((1.0 - previousWeight) * latencyNanos + previousWeight * previous.average);
+    return new TimestampedAverage(now, average, measurements);
+  }
+
+  @Immutable
+  protected static class TimestampedAverage {
+
+    /** The {@link System#nanoTime()} of the latest measurement. */
+    final long timestamp;
+    /** The average latency in nanoseconds, or -1 if there aren't enough measurements yet. */
+    final long average;
+
+    final long measurements;
+
+    TimestampedAverage(long timestamp, long average, long measurements) {
+      this.timestamp = timestamp;
+      this.average = average;
+      this.measurements = measurements;
+    }
+  }
+}
@@ -29,15 +29,28 @@ import net.jcip.annotations.ThreadSafe;
 public class DcAgnosticNodeSet implements NodeSet {
 
   private final Set<Node> nodes = new CopyOnWriteArraySet<>();
+  private volatile Object[] snapshot = new Object[0];
 
   @Override
   public boolean add(@NonNull Node node) {
-    return nodes.add(node);
+    synchronized (nodes) {
+      if (nodes.add(node)) {
+        snapshot = nodes.toArray();
+        return true;
+      }
+      return false;
+    }
   }
 
   @Override
   public boolean remove(@NonNull Node node) {
-    return nodes.remove(node);
+    synchronized (nodes) {
+      if (nodes.remove(node)) {
+        snapshot = nodes.toArray();
+        return true;
+      }
+      return false;
+    }
   }
 
   @Override
@@ -46,6 +59,12 @@ public class DcAgnosticNodeSet implements NodeSet {
     return nodes;
   }
 
+  @Override
+  @NonNull
+  public Object[] snapshot(@Nullable String dc) {
+    return snapshot;
+  }
+
   @Override
   public Set<String> dcs() {
     return Collections.emptySet();
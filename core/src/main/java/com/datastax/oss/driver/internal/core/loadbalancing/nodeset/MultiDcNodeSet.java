@@ -33,7 +33,11 @@ public class MultiDcNodeSet implements NodeSet {
 
   private static final String UNKNOWN_DC = "";
 
+  private static final Object[] EMPTY = new Object[0];
+
   private final Map<String, Set<Node>> nodes = new ConcurrentHashMap<>();
+  // Updated in the same compute() calls as nodes, so that it can't go stale
+  private final Map<String, Object[]> snapshots = new ConcurrentHashMap<>();
 
   @Override
   public boolean add(@NonNull Node node) {
@@ -48,6 +52,7 @@ public class MultiDcNodeSet implements NodeSet {
             current = new CopyOnWriteArraySet<>();
           }
           if (current.add(node)) {
+            snapshots.put(key, current.toArray());
             added.set(true);
           }
           return current;
@@ -63,6 +68,7 @@ public class MultiDcNodeSet implements NodeSet {
         (key, current) -> {
           if (current != null) {
             if (current.remove(node)) {
+              snapshots.put(key, current.toArray());
               removed.set(true);
             }
           }
@@ -77,6 +83,12 @@ public class MultiDcNodeSet implements NodeSet {
     return nodes.getOrDefault(getMapKey(dc), Collections.emptySet());
   }
 
+  @Override
+  @NonNull
+  public Object[] snapshot(@Nullable String dc) {
+    return snapshots.getOrDefault(getMapKey(dc), EMPTY);
+  }
+
   @Override
   public Set<String> dcs() {
     return nodes.keySet();
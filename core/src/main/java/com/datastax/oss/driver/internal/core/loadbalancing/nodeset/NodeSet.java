@@ -63,6 +63,21 @@ public interface NodeSet {
   @NonNull
   Set<Node> dc(@Nullable String dc);
 
+  /**
+   * Returns the current nodes in the given datacenter, as an array that is not copied on each
+   * invocation.
+   *
+   * <p>This is the same as {@code dc(dc).toArray()}, but implementations can cache the array
+   * between modifications. Therefore, callers must never modify the returned array.
+   *
+   * @param dc The datacenter name, or null if the datacenter name is not known, or irrelevant.
+   * @return the current nodes in the given datacenter.
+   */
+  @NonNull
+  default Object[] snapshot(@Nullable String dc) {
+    return dc(dc).toArray();
+  }
+
   /**
    * Returns the current datacenter names known to this set. If datacenter awareness has been
    * disabled, this method returns an empty set.
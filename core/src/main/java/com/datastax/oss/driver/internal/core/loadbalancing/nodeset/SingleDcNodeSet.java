@@ -30,10 +30,13 @@ import net.jcip.annotations.ThreadSafe;
 @ThreadSafe
 public class SingleDcNodeSet implements NodeSet {
 
+  private static final Object[] EMPTY = new Object[0];
+
   private final Set<Node> nodes = new CopyOnWriteArraySet<>();
 
   private final String dc;
   private final Set<String> dcs;
+  private volatile Object[] snapshot = EMPTY;
 
   public SingleDcNodeSet(@NonNull String dc) {
     this.dc = dc;
@@ -43,7 +46,12 @@ public class SingleDcNodeSet implements NodeSet {
   @Override
   public boolean add(@NonNull Node node) {
     if (Objects.equals(node.getDatacenter(), dc)) {
-      return nodes.add(node);
+      synchronized (nodes) {
+        if (nodes.add(node)) {
+          snapshot = nodes.toArray();
+          return true;
+        }
+      }
     }
     return false;
   }
@@ -51,7 +59,12 @@ public class SingleDcNodeSet implements NodeSet {
   @Override
   public boolean remove(@NonNull Node node) {
     if (Objects.equals(node.getDatacenter(), dc)) {
-      return nodes.remove(node);
+      synchronized (nodes) {
+        if (nodes.remove(node)) {
+          snapshot = nodes.toArray();
+          return true;
+        }
+      }
     }
     return false;
   }
@@ -65,6 +78,12 @@ public class SingleDcNodeSet implements NodeSet {
     return Collections.emptySet();
   }
 
+  @Override
+  @NonNull
+  public Object[] snapshot(@Nullable String dc) {
+    return Objects.equals(this.dc, dc) ? snapshot : EMPTY;
+  }
+
   @Override
   public Set<String> dcs() {
     return dcs;
@@ -23,6 +23,7 @@ import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.api.core.metadata.TabletMap;
 import com.datastax.oss.driver.api.core.metadata.TokenMap;
 import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metrics.DefaultSessionMetric;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
 import com.datastax.oss.driver.internal.core.metadata.token.DefaultTokenMap;
 import com.datastax.oss.driver.internal.core.metadata.token.ReplicationStrategyFactory;
@@ -36,6 +37,7 @@ import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import net.jcip.annotations.Immutable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -180,6 +182,7 @@ public class DefaultMetadata implements Metadata {
       return this.tokenMap;
     }
     long start = System.nanoTime();
+    boolean topologyChanged = false;
     try {
       DefaultTokenMap oldTokenMap = (DefaultTokenMap) this.tokenMap;
       if (oldTokenMap == null) {
@@ -191,6 +194,7 @@ public class DefaultMetadata implements Metadata {
           return null;
         } else {
           LOG.debug("[{}] Building initial token map", logPrefix);
+          topologyChanged = true;
           return DefaultTokenMap.build(
               newNodes.values(),
               newKeyspaces.values(),
@@ -200,13 +204,10 @@ public class DefaultMetadata implements Metadata {
         }
       } else if (forceFullRebuild) {
         LOG.debug(
-            "[{}] Updating token map but some nodes/tokens have changed, full rebuild", logPrefix);
-        return DefaultTokenMap.build(
-            newNodes.values(),
-            newKeyspaces.values(),
-            oldTokenMap.getTokenFactory(),
-            replicationStrategyFactory,
-            logPrefix);
+            "[{}] Updating token map but some nodes/tokens have changed, rebuilding", logPrefix);
+        topologyChanged = true;
+        return oldTokenMap.rebuild(
+            newNodes.values(), newKeyspaces.values(), replicationStrategyFactory);
       } else {
         LOG.debug("[{}] Refreshing token map (only schema has changed)", logPrefix);
         return oldTokenMap.refresh(
@@ -221,6 +222,16 @@ public class DefaultMetadata implements Metadata {
       return this.tokenMap;
     } finally {
       LOG.debug("[{}] Rebuilding token map took {}", logPrefix, NanoTime.formatTimeSince(start));
+      if (topologyChanged) {
+        context
+            .getMetricsFactory()
+            .getSessionUpdater()
+            .updateTimer(
+                DefaultSessionMetric.TOKEN_MAP_REBUILD,
+                null,
+                System.nanoTime() - start,
+                TimeUnit.NANOSECONDS);
+      }
     }
   }
 }
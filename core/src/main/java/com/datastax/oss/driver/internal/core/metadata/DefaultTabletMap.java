@@ -9,19 +9,23 @@ import com.datastax.oss.driver.api.core.metadata.TabletMap;
 import com.datastax.oss.driver.shaded.guava.common.annotations.Beta;
 import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListSet;
+import net.jcip.annotations.Immutable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,23 +33,29 @@ import org.slf4j.LoggerFactory;
  * Holds currently known tablet mappings. Updated lazily through received custom payloads described
  * in Scylla's CQL protocol extensions (tablets-routing-v1).
  *
- * <p>Thread-safety notes: This class uses ConcurrentMap and ConcurrentSkipListSet underneath. It is
- * safe to have multiple threads accessing it. However, multiple modifications i.e. multiple calls
- * of {@link DefaultTabletMap#addTablet(CqlIdentifier, CqlIdentifier, Tablet) will race with each
- * other. This may result in unexpected state of this structure when used in a vacuum. For example
- * it may end up containing overlapping tablet ranges.</p> <p>In actual use by the driver {@link
- * MetadataManager} solves this by running modifications sequentially. It schedules them on {@link
+ * <p>The tablets of each table are stored in sorted primitive arrays ({@link TableTablets}), so
+ * that {@link #getTablet(CqlIdentifier, CqlIdentifier, long)}, which is called for every
+ * token-aware request to a tablet keyspace, is a single binary search that does not allocate.
+ *
+ * <p>Thread-safety notes: Lookups are lock-free and may run concurrently with modifications: each
+ * modification builds a new {@link TableTablets} and publishes it atomically (copy-on-write).
+ * However, multiple modifications i.e. multiple calls of {@link
+ * DefaultTabletMap#addTablet(CqlIdentifier, CqlIdentifier, Tablet)} for the same table will race
+ * with each other and some of them may be lost. In actual use by the driver {@link MetadataManager}
+ * solves this by running modifications sequentially. It schedules them on {@link
  * MetadataManager#adminExecutor}}'s thread.
  */
 @Beta
 public class DefaultTabletMap implements TabletMap {
   private static final Logger LOG = LoggerFactory.getLogger(DefaultTabletMap.class);
 
+  // keyspace -> table -> tablets. Two levels so that lookups don't need to allocate a composite
+  // key.
   @NonNull
-  private final ConcurrentMap<KeyspaceTableNamePair, ConcurrentSkipListSet<Tablet>> mapping;
+  private final ConcurrentMap<CqlIdentifier, ConcurrentMap<CqlIdentifier, TableTablets>> mapping;
 
   private DefaultTabletMap(
-      @NonNull ConcurrentMap<KeyspaceTableNamePair, ConcurrentSkipListSet<Tablet>> mapping) {
+      @NonNull ConcurrentMap<CqlIdentifier, ConcurrentMap<CqlIdentifier, TableTablets>> mapping) {
     this.mapping = mapping;
   }
 
@@ -53,29 +63,48 @@ public class DefaultTabletMap implements TabletMap {
     return new DefaultTabletMap(new ConcurrentHashMap<>());
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This implementation returns a snapshot built from the current state of the map: it is not
+   * updated when new tablets are added, and modifying it has no effect on the map.
+   */
   @Override
   @NonNull
   public ConcurrentMap<KeyspaceTableNamePair, ConcurrentSkipListSet<Tablet>> getMapping() {
-    return mapping;
+    ConcurrentMap<KeyspaceTableNamePair, ConcurrentSkipListSet<Tablet>> snapshot =
+        new ConcurrentHashMap<>();
+    for (Map.Entry<CqlIdentifier, ConcurrentMap<CqlIdentifier, TableTablets>> keyspaceEntry :
+        mapping.entrySet()) {
+      for (Map.Entry<CqlIdentifier, TableTablets> tableEntry :
+          keyspaceEntry.getValue().entrySet()) {
+        TableTablets tablets = tableEntry.getValue();
+        if (tablets.size() > 0) {
+          ConcurrentSkipListSet<Tablet> set = new ConcurrentSkipListSet<>();
+          Collections.addAll(set, tablets.tablets);
+          snapshot.put(new KeyspaceTableNamePair(keyspaceEntry.getKey(), tableEntry.getKey()), set);
+        }
+      }
+    }
+    return snapshot;
   }
 
   @Override
   public Tablet getTablet(CqlIdentifier keyspace, CqlIdentifier table, long token) {
-    KeyspaceTableNamePair key = new KeyspaceTableNamePair(keyspace, table);
-    NavigableSet<Tablet> set = mapping.get(key);
-    if (set == null) {
+    ConcurrentMap<CqlIdentifier, TableTablets> tables = mapping.get(keyspace);
+    TableTablets tablets = (tables == null) ? null : tables.get(table);
+    if (tablets == null) {
       LOG.trace(
           "There is no tablets for {}.{} in current mapping. Returning null.", keyspace, table);
       return null;
     }
-    Tablet result = mapping.get(key).ceiling(DefaultTablet.malformedTablet(token));
-    if (result == null || result.getFirstToken() >= token) {
+    Tablet result = tablets.find(token);
+    if (result == null && LOG.isTraceEnabled()) {
       LOG.trace(
           "Could not find tablet for {}.{} that owns token {}. Returning null.",
           keyspace,
           table,
           token);
-      return null;
     }
     return result;
   }
@@ -83,43 +112,200 @@ public class DefaultTabletMap implements TabletMap {
   @Override
   public void addTablet(CqlIdentifier keyspace, CqlIdentifier table, Tablet tablet) {
     LOG.trace("Adding tablet for {}.{} with contents {}", keyspace, table, tablet);
-    KeyspaceTableNamePair ktPair = new KeyspaceTableNamePair(keyspace, table);
-
-    // Get existing tablets for given table
-    NavigableSet<Tablet> existingTablets =
-        mapping.computeIfAbsent(ktPair, k -> new ConcurrentSkipListSet<>());
-    // Single tablet token range is represented by (firstToken, lastToken] interval
-    // We need to do two sweeps: remove overlapping tablets by looking at lastToken of existing
-    // tablets
-    // and then by looking at firstToken of existing tablets. Currently, the tablets are sorted
-    // according
-    // to their lastTokens.
-
-    // First sweep: remove all tablets whose lastToken is inside this interval
-    Iterator<Tablet> it = existingTablets.headSet(tablet, true).descendingIterator();
-    while (it.hasNext()) {
-      Tablet nextTablet = it.next();
-      if (nextTablet.getLastToken() <= tablet.getFirstToken()) {
-        break;
+    ConcurrentMap<CqlIdentifier, TableTablets> tables =
+        mapping.computeIfAbsent(keyspace, k -> new ConcurrentHashMap<>());
+    TableTablets existingTablets = tables.getOrDefault(table, TableTablets.EMPTY);
+    tables.put(table, existingTablets.with(tablet));
+  }
+
+  /**
+   * Replaces all the tablets of a table. The given tablets must not overlap.
+   *
+   * <p>This is used when the full tablet list of the table was read from {@code system.tablets}.
+   */
+  public void replaceTablets(
+      CqlIdentifier keyspace, CqlIdentifier table, Collection<? extends Tablet> tablets) {
+    LOG.trace("Replacing tablets for {}.{} with {} tablets", keyspace, table, tablets.size());
+    ConcurrentMap<CqlIdentifier, TableTablets> tables =
+        mapping.computeIfAbsent(keyspace, k -> new ConcurrentHashMap<>());
+    tables.put(table, TableTablets.of(tablets));
+  }
+
+  /** Removes all the tablets of a keyspace, for example when it was dropped. */
+  public void removeKeyspace(CqlIdentifier keyspace) {
+    if (mapping.remove(keyspace) != null) {
+      LOG.trace("Removed tablets for keyspace {}", keyspace);
+    }
+  }
+
+  /** Removes all the tablets of a table, for example when it was dropped. */
+  public void removeTable(CqlIdentifier keyspace, CqlIdentifier table) {
+    ConcurrentMap<CqlIdentifier, TableTablets> tables = mapping.get(keyspace);
+    if (tables != null && tables.remove(table) != null) {
+      LOG.trace("Removed tablets for {}.{}", keyspace, table);
+    }
+  }
+
+  /**
+   * Removes the tablets that have any of the given nodes as a replica, for example when they left
+   * the cluster. The tablets of the other nodes are left untouched.
+   */
+  public void removeNodes(Collection<Node> nodes) {
+    if (nodes.isEmpty()) {
+      return;
+    }
+    for (Map.Entry<CqlIdentifier, ConcurrentMap<CqlIdentifier, TableTablets>> keyspaceEntry :
+        mapping.entrySet()) {
+      ConcurrentMap<CqlIdentifier, TableTablets> tables = keyspaceEntry.getValue();
+      for (Map.Entry<CqlIdentifier, TableTablets> tableEntry : tables.entrySet()) {
+        TableTablets tablets = tableEntry.getValue();
+        TableTablets pruned = tablets.without(nodes);
+        if (pruned != tablets) {
+          LOG.trace(
+              "Removed {} tablets for {}.{} because of removed nodes",
+              tablets.size() - pruned.size(),
+              keyspaceEntry.getKey(),
+              tableEntry.getKey());
+          tables.put(tableEntry.getKey(), pruned);
+        }
+      }
+    }
+  }
+
+  /** Returns the tables that have at least one tablet replicated on the given node. */
+  @NonNull
+  public Set<KeyspaceTableNamePair> getTablesReplicatedOn(@NonNull Node node) {
+    Set<KeyspaceTableNamePair> result = new HashSet<>();
+    for (Map.Entry<CqlIdentifier, ConcurrentMap<CqlIdentifier, TableTablets>> keyspaceEntry :
+        mapping.entrySet()) {
+      for (Map.Entry<CqlIdentifier, TableTablets> tableEntry :
+          keyspaceEntry.getValue().entrySet()) {
+        for (Tablet tablet : tableEntry.getValue().tablets) {
+          if (tablet.getReplicaNodes().contains(node)) {
+            result.add(new KeyspaceTableNamePair(keyspaceEntry.getKey(), tableEntry.getKey()));
+            break;
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  /** Returns the total number of tablets in this map. */
+  public int size() {
+    int size = 0;
+    for (ConcurrentMap<CqlIdentifier, TableTablets> tables : mapping.values()) {
+      for (TableTablets tablets : tables.values()) {
+        size += tablets.size();
+      }
+    }
+    return size;
+  }
+
+  /**
+   * An immutable, sorted set of non-overlapping tablets of a single table.
+   *
+   * <p>Tablets are sorted by last token. The tokens are copied into primitive arrays, parallel to
+   * the array of tablets, so that lookups don't need to dereference tablet instances.
+   */
+  @Immutable
+  static class TableTablets {
+
+    static final TableTablets EMPTY = new TableTablets(new long[0], new long[0], new Tablet[0]);
+
+    private final long[] firstTokens;
+    private final long[] lastTokens;
+    private final Tablet[] tablets;
+
+    private TableTablets(long[] firstTokens, long[] lastTokens, Tablet[] tablets) {
+      this.firstTokens = firstTokens;
+      this.lastTokens = lastTokens;
+      this.tablets = tablets;
+    }
+
+    @NonNull
+    static TableTablets of(@NonNull Collection<? extends Tablet> tablets) {
+      Tablet[] sorted = tablets.toArray(new Tablet[0]);
+      Arrays.sort(sorted);
+      long[] firstTokens = new long[sorted.length];
+      long[] lastTokens = new long[sorted.length];
+      for (int i = 0; i < sorted.length; i++) {
+        firstTokens[i] = sorted[i].getFirstToken();
+        lastTokens[i] = sorted[i].getLastToken();
       }
-      it.remove();
-    }
-
-    // Second sweep: remove all tablets that have their lastToken greater than that of
-    // the tablet that is being added AND their firstToken is smaller than lastToken of new
-    // addition.
-    // After the first sweep, this theoretically should remove at most 1 tablet.
-    it = existingTablets.tailSet(tablet, true).iterator();
-    while (it.hasNext()) {
-      Tablet nextTablet = it.next();
-      if (nextTablet.getFirstToken() >= tablet.getLastToken()) {
-        break;
+      return new TableTablets(firstTokens, lastTokens, sorted);
+    }
+
+    int size() {
+      return tablets.length;
+    }
+
+    /** Returns the tablet that owns the given token, or null if there is none. */
+    @Nullable
+    Tablet find(long token) {
+      int i = Arrays.binarySearch(lastTokens, token);
+      if (i < 0) {
+        // Not an exact match: the first tablet whose last token is greater
+        i = -i - 1;
+        if (i == lastTokens.length) {
+          return null;
+        }
       }
-      it.remove();
+      // Single tablet token range is represented by (firstToken, lastToken] interval
+      return (firstTokens[i] < token) ? tablets[i] : null;
     }
 
-    // Add new (now) non-overlapping tablet
-    existingTablets.add(tablet);
+    /**
+     * Returns a copy of this set without the tablets replicated on any of the given nodes, or this
+     * instance if there are no such tablets.
+     */
+    @NonNull
+    TableTablets without(@NonNull Collection<Node> nodes) {
+      List<Tablet> kept = null;
+      for (int i = 0; i < tablets.length; i++) {
+        Tablet tablet = tablets[i];
+        boolean remove = !Collections.disjoint(tablet.getReplicaNodes(), nodes);
+        if (remove && kept == null) {
+          kept = new ArrayList<>(tablets.length);
+          kept.addAll(Arrays.asList(tablets).subList(0, i));
+        } else if (!remove && kept != null) {
+          kept.add(tablet);
+        }
+      }
+      return (kept == null) ? this : of(kept);
+    }
+
+    /** Returns a copy of this set, where the given tablet replaces any tablet it overlaps. */
+    @NonNull
+    TableTablets with(@NonNull Tablet tablet) {
+      long first = tablet.getFirstToken();
+      long last = tablet.getLastToken();
+      int n = tablets.length;
+
+      // Overlapping tablets form a contiguous range [start, end): tablets that end after the new
+      // one starts, and start before it ends.
+      int start = Arrays.binarySearch(lastTokens, first);
+      start = (start < 0) ? -start - 1 : start + 1;
+      int end = start;
+      while (end < n && firstTokens[end] < last) {
+        end += 1;
+      }
+
+      int newSize = n - (end - start) + 1;
+      long[] newFirstTokens = new long[newSize];
+      long[] newLastTokens = new long[newSize];
+      Tablet[] newTablets = new Tablet[newSize];
+      System.arraycopy(firstTokens, 0, newFirstTokens, 0, start);
+      System.arraycopy(lastTokens, 0, newLastTokens, 0, start);
+      System.arraycopy(tablets, 0, newTablets, 0, start);
+      newFirstTokens[start] = first;
+      newLastTokens[start] = last;
+      newTablets[start] = tablet;
+      System.arraycopy(firstTokens, end, newFirstTokens, start + 1, n - end);
+      System.arraycopy(lastTokens, end, newLastTokens, start + 1, n - end);
+      System.arraycopy(tablets, end, newTablets, start + 1, n - end);
+      return new TableTablets(newFirstTokens, newLastTokens, newTablets);
+    }
   }
 
   /**
@@ -157,12 +343,25 @@ public class DefaultTabletMap implements TabletMap {
 
       long firstToken = tupleValue.getLong(0);
       long lastToken = tupleValue.getLong(1);
-
-      Set<Node> replicaNodes = new HashSet<>();
-      Map<Node, Integer> replicaShards = new HashMap<>();
       List<TupleValue> list = tupleValue.getList(2, TupleValue.class);
       assert list != null;
-      for (TupleValue tuple : list) {
+      return fromReplicas(firstToken, lastToken, list, nodes);
+    }
+
+    /**
+     * Creates a new instance of DefaultTablet from a list of replicas, in the format used both by
+     * the tablets-routing-v1 payload and by the {@code replicas} column of {@code system.tablets}.
+     *
+     * @param replicas (host id, shard) tuples. Hosts absent from {@code nodes} are ignored.
+     * @param nodes Mapping of UUIDs to Node instances.
+     * @return the new DefaultTablet
+     */
+    public static DefaultTablet fromReplicas(
+        long firstToken, long lastToken, List<TupleValue> replicas, Map<UUID, Node> nodes) {
+      // Keep the order sent by the server, it is used to route LWTs deterministically
+      Set<Node> replicaNodes = new LinkedHashSet<>();
+      Map<Node, Integer> replicaShards = new HashMap<>();
+      for (TupleValue tuple : replicas) {
         Node node = nodes.get(tuple.getUuid(0));
         if (node != null) {
           int shard = tuple.getInt(1);
@@ -26,8 +26,10 @@ import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
 import com.datastax.oss.driver.shaded.guava.common.collect.Sets;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -112,14 +114,17 @@ class FullNodeListRefresh extends NodesRefresh {
       for (Node node : added.values()) {
         eventsBuilder.add(NodeStateEvent.added((DefaultNode) node));
       }
+      List<Node> removedNodes = new ArrayList<>(removed.size());
       for (UUID id : removed) {
         Node node = oldNodes.get(id);
+        removedNodes.add(node);
         eventsBuilder.add(NodeStateEvent.removed((DefaultNode) node));
       }
 
       return new Result(
-          oldMetadata.withNodes(
-              newNodesBuilder.build(), tokenMapEnabled, tokensChanged, tokenFactory, context),
+          removeTablets(oldMetadata, removedNodes)
+              .withNodes(
+                  newNodesBuilder.build(), tokenMapEnabled, tokensChanged, tokenFactory, context),
           eventsBuilder.build());
     }
   }
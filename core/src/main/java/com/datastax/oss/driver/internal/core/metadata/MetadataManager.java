@@ -23,12 +23,15 @@ import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.data.TupleValue;
 import com.datastax.oss.driver.api.core.metadata.EndPoint;
+import com.datastax.oss.driver.api.core.metadata.KeyspaceTableNamePair;
 import com.datastax.oss.driver.api.core.metadata.Metadata;
 import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.api.core.metadata.Tablet;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
 import com.datastax.oss.driver.api.core.type.DataTypes;
 import com.datastax.oss.driver.api.core.type.TupleType;
 import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.driver.internal.core.channel.DriverChannel;
 import com.datastax.oss.driver.internal.core.config.ConfigChangeEvent;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
 import com.datastax.oss.driver.internal.core.control.ControlConnection;
@@ -46,13 +49,18 @@ import com.datastax.oss.driver.internal.core.util.concurrent.RunOrSchedule;
 import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import io.netty.util.concurrent.EventExecutor;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import net.jcip.annotations.ThreadSafe;
@@ -83,6 +91,7 @@ public class MetadataManager implements AsyncAutoCloseable {
   private volatile Set<DefaultNode> contactPoints;
   private volatile boolean wasImplicitContactPoint;
   private volatile TypeCodec<TupleValue> tabletPayloadCodec = null;
+  private volatile TabletsLoader.Filter tabletsPreloadFilter;
 
   public MetadataManager(InternalDriverContext context) {
     this(context, DefaultMetadata.EMPTY);
@@ -102,6 +111,7 @@ public class MetadataManager implements AsyncAutoCloseable {
             DefaultDriverOption.METADATA_SCHEMA_REFRESHED_KEYSPACES, Collections.emptyList());
     this.keyspaceFilter = KeyspaceFilter.newInstance(logPrefix, refreshedKeyspaces);
     this.tokenMapEnabled = config.getBoolean(DefaultDriverOption.METADATA_TOKEN_MAP_ENABLED);
+    this.tabletsPreloadFilter = buildTabletsPreloadFilter();
 
     context.getEventBus().register(ConfigChangeEvent.class, this::onConfigChanged);
   }
@@ -117,6 +127,7 @@ public class MetadataManager implements AsyncAutoCloseable {
             DefaultDriverOption.METADATA_SCHEMA_REFRESHED_KEYSPACES, Collections.emptyList());
     this.keyspaceFilter = KeyspaceFilter.newInstance(logPrefix, refreshedKeyspaces);
     this.tokenMapEnabled = config.getBoolean(DefaultDriverOption.METADATA_TOKEN_MAP_ENABLED);
+    this.tabletsPreloadFilter = buildTabletsPreloadFilter();
 
     if ((!schemaEnabledBefore
             || !keyspacesBefore.equals(refreshedKeyspaces)
@@ -137,6 +148,12 @@ public class MetadataManager implements AsyncAutoCloseable {
     }
   }
 
+  private TabletsLoader.Filter buildTabletsPreloadFilter() {
+    List<String> entries =
+        config.getStringList(DefaultDriverOption.METADATA_TABLETS_PRELOAD, Collections.emptyList());
+    return entries.isEmpty() ? TabletsLoader.Filter.EMPTY : new TabletsLoader.Filter(entries);
+  }
+
   public Metadata getMetadata() {
     return this.metadata;
   }
@@ -229,6 +246,16 @@ public class MetadataManager implements AsyncAutoCloseable {
     RunOrSchedule.on(adminExecutor, () -> singleThreaded.removeNode(broadcastRpcAddress));
   }
 
+  /**
+   * Removes the tablets of a dropped keyspace or table. This does not depend on schema metadata
+   * being enabled.
+   *
+   * @param table the dropped table, or null if the whole keyspace was dropped.
+   */
+  public void removeTablets(@NonNull CqlIdentifier keyspace, @Nullable CqlIdentifier table) {
+    RunOrSchedule.on(adminExecutor, () -> apply(new RemoveTabletsRefresh(keyspace, table)));
+  }
+
   /**
    * @param keyspace if this refresh was triggered by an event, that event's keyspace, otherwise
    *     null (this is only used to discard the event if it targets a keyspace that we're ignoring)
@@ -246,6 +273,22 @@ public class MetadataManager implements AsyncAutoCloseable {
     return future;
   }
 
+  /**
+   * Loads the tablets of the tables configured in {@code advanced.metadata.tablets.preload} from
+   * {@code system.tablets}, and replaces their entries in the tablet map.
+   *
+   * <p>This bypasses the debouncer. If a load is already in progress, another one is scheduled
+   * after it. The returned future never fails: errors are logged, and the tablet map is left
+   * unchanged.
+   */
+  public CompletionStage<Void> preloadTablets() {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    RunOrSchedule.on(
+        adminExecutor,
+        () -> singleThreaded.requestTabletsLoad(new TabletsLoadRequest(null, future), true));
+    return future;
+  }
+
   public static class RefreshSchemaResult {
     private final Metadata metadata;
     private final boolean isSchemaInAgreement;
@@ -323,6 +366,18 @@ public class MetadataManager implements AsyncAutoCloseable {
 
     private boolean didFirstNodeListRefresh;
 
+    // Internal tablet load requests are debounced, because topology and schema events often come
+    // in bursts.
+    private final Debouncer<TabletsLoadRequest, TabletsLoadRequest> tabletsLoadDebouncer;
+
+    // Same as schema refreshes: tablet loads don't run concurrently, the next one is queued.
+    private TabletsLoadRequest currentTabletsLoad;
+    private TabletsLoadRequest queuedTabletsLoad;
+
+    // Tablets received in responses while a load is running. They are more recent than the data
+    // being loaded, so they are applied again on top of it.
+    private final Map<KeyspaceTableNamePair, List<Tablet>> tabletsAddedDuringLoad = new HashMap<>();
+
     private SingleThreaded(InternalDriverContext context, DriverExecutionProfile config) {
       this.schemaRefreshDebouncer =
           new Debouncer<>(
@@ -332,6 +387,14 @@ public class MetadataManager implements AsyncAutoCloseable {
               this::startSchemaRequest,
               config.getDuration(DefaultDriverOption.METADATA_SCHEMA_WINDOW),
               config.getInt(DefaultDriverOption.METADATA_SCHEMA_MAX_EVENTS));
+      this.tabletsLoadDebouncer =
+          new Debouncer<>(
+              logPrefix + "|tablets debouncer",
+              adminExecutor,
+              TabletsLoadRequest::merge,
+              this::startTabletsLoad,
+              config.getDuration(DefaultDriverOption.METADATA_SCHEMA_WINDOW),
+              config.getInt(DefaultDriverOption.METADATA_SCHEMA_MAX_EVENTS));
       this.schemaQueriesFactory = context.getSchemaQueriesFactory();
       this.schemaParserFactory = context.getSchemaParserFactory();
     }
@@ -358,6 +421,8 @@ public class MetadataManager implements AsyncAutoCloseable {
                 info.getBroadcastAddress());
           } else {
             apply(new AddNodeRefresh(info));
+            // Tablets are about to be migrated to the new node: all tables are affected
+            maybeLoadTablets(null);
           }
         } else {
           LOG.debug(
@@ -372,7 +437,25 @@ public class MetadataManager implements AsyncAutoCloseable {
     }
 
     private void removeNode(InetSocketAddress broadcastRpcAddress) {
+      // The tablets replicated on the node are removed with it, reload their tables
+      Set<KeyspaceTableNamePair> affectedTables = getTablesReplicatedOn(broadcastRpcAddress);
       apply(new RemoveNodeRefresh(broadcastRpcAddress));
+      if (!affectedTables.isEmpty()) {
+        maybeLoadTablets(affectedTables);
+      }
+    }
+
+    private Set<KeyspaceTableNamePair> getTablesReplicatedOn(
+        InetSocketAddress broadcastRpcAddress) {
+      if (tabletsPreloadFilter.isEmpty() || !(metadata.tabletMap instanceof DefaultTabletMap)) {
+        return Collections.emptySet();
+      }
+      for (Node node : metadata.getNodes().values()) {
+        if (broadcastRpcAddress.equals(node.getBroadcastRpcAddress().orElse(null))) {
+          return ((DefaultTabletMap) metadata.tabletMap).getTablesReplicatedOn(node);
+        }
+      }
+      return Collections.emptySet();
     }
 
     private void refreshSchema(
@@ -503,14 +586,148 @@ public class MetadataManager implements AsyncAutoCloseable {
     private Metadata parseAndApplySchemaRows(SchemaRows schemaRows) {
       assert adminExecutor.inEventLoop();
       SchemaRefresh schemaRefresh = schemaParserFactory.newInstance(schemaRows).parse();
+      Map<CqlIdentifier, KeyspaceMetadata> oldKeyspaces = metadata.getKeyspaces();
       long start = System.nanoTime();
       apply(schemaRefresh);
       LOG.debug("[{}] Applying schema refresh took {}", logPrefix, NanoTime.formatTimeSince(start));
+      // Load the tablets of the tables that were created. The first refresh happens during session
+      // init, which preloads tablets on its own.
+      if (firstSchemaRefreshFuture.isDone() && !tabletsPreloadFilter.isEmpty()) {
+        Set<KeyspaceTableNamePair> createdTables =
+            findCreatedTables(oldKeyspaces, metadata.getKeyspaces());
+        if (!createdTables.isEmpty()) {
+          maybeLoadTablets(createdTables);
+        }
+      }
       return metadata;
     }
 
+    private Set<KeyspaceTableNamePair> findCreatedTables(
+        Map<CqlIdentifier, KeyspaceMetadata> oldKeyspaces,
+        Map<CqlIdentifier, KeyspaceMetadata> newKeyspaces) {
+      Set<KeyspaceTableNamePair> result = new HashSet<>();
+      for (KeyspaceMetadata keyspace : newKeyspaces.values()) {
+        KeyspaceMetadata oldKeyspace = oldKeyspaces.get(keyspace.getName());
+        for (CqlIdentifier table : keyspace.getTables().keySet()) {
+          if (oldKeyspace == null || !oldKeyspace.getTables().containsKey(table)) {
+            result.add(new KeyspaceTableNamePair(keyspace.getName(), table));
+          }
+        }
+      }
+      return result;
+    }
+
     private void addTablet(CqlIdentifier keyspace, CqlIdentifier table, Tablet tablet) {
       apply(new AddTabletRefresh(keyspace, table, tablet));
+      if (currentTabletsLoad != null) {
+        tabletsAddedDuringLoad
+            .computeIfAbsent(new KeyspaceTableNamePair(keyspace, table), k -> new ArrayList<>())
+            .add(tablet);
+      }
+    }
+
+    // Triggered internally: only reload if some tables are configured, and nobody waits for it.
+    private void maybeLoadTablets(@Nullable Set<KeyspaceTableNamePair> tables) {
+      if (!tabletsPreloadFilter.isEmpty()) {
+        requestTabletsLoad(new TabletsLoadRequest(tables, new CompletableFuture<>()), false);
+      }
+    }
+
+    private void requestTabletsLoad(TabletsLoadRequest request, boolean flushNow) {
+      assert adminExecutor.inEventLoop();
+      if (closeWasCalled || tabletsPreloadFilter.isEmpty()) {
+        request.future.complete(null);
+      } else {
+        tabletsLoadDebouncer.receive(request);
+        if (flushNow) {
+          tabletsLoadDebouncer.flushNow();
+        }
+      }
+    }
+
+    // The debouncer has flushed, start the actual work.
+    private void startTabletsLoad(TabletsLoadRequest request) {
+      assert adminExecutor.inEventLoop();
+      if (closeWasCalled) {
+        request.future.complete(null);
+      } else if (currentTabletsLoad == null) {
+        currentTabletsLoad = request;
+        loadTablets(request);
+      } else if (queuedTabletsLoad == null) {
+        queuedTabletsLoad = request; // wait for our turn
+      } else {
+        queuedTabletsLoad = queuedTabletsLoad.merge(request); // join the queued request
+      }
+    }
+
+    private void loadTablets(TabletsLoadRequest request) {
+      TabletsLoader.Filter filter = tabletsPreloadFilter;
+      if (request.tables != null) {
+        filter = filter.restrictTo(request.tables);
+      }
+      if (filter.isEmpty()) {
+        onTabletsLoadDone(request);
+        return;
+      }
+      DriverChannel channel = controlConnection.channel();
+      if (channel == null) {
+        LOG.debug("[{}] Control connection not available, skipping tablets preload", logPrefix);
+        onTabletsLoadDone(request);
+        return;
+      }
+      // If the schema of all the keyspaces is known, read only the partitions of the tables we
+      // need. Otherwise, read the whole table.
+      List<UUID> tableIds = null;
+      if (isSchemaEnabled()) {
+        boolean allKeyspacesRefreshed = true;
+        for (String keyspace : filter.getKeyspaces()) {
+          allKeyspacesRefreshed &= keyspaceFilter.includes(keyspace);
+        }
+        if (allKeyspacesRefreshed) {
+          tableIds = filter.findTableIds(metadata.getKeyspaces());
+        }
+      }
+      long start = System.nanoTime();
+      new TabletsLoader(
+              channel,
+              filter,
+              tableIds,
+              metadata.getNodes(),
+              config.getDuration(DefaultDriverOption.METADATA_SCHEMA_REQUEST_TIMEOUT),
+              config.getInt(DefaultDriverOption.METADATA_SCHEMA_REQUEST_PAGE_SIZE),
+              logPrefix)
+          .load()
+          .whenCompleteAsync(
+              (tablets, error) -> {
+                if (error != null) {
+                  Loggers.warnWithException(
+                      LOG,
+                      "[{}] Error while preloading tablets, keeping previous version",
+                      logPrefix,
+                      error);
+                } else if (!closeWasCalled) {
+                  apply(new ReplaceTabletsRefresh(tablets, new HashMap<>(tabletsAddedDuringLoad)));
+                  LOG.debug(
+                      "[{}] Preloaded tablets of {} tables in {}",
+                      logPrefix,
+                      tablets.size(),
+                      NanoTime.formatTimeSince(start));
+                }
+                onTabletsLoadDone(request);
+              },
+              adminExecutor);
+    }
+
+    private void onTabletsLoadDone(TabletsLoadRequest request) {
+      request.future.complete(null);
+      currentTabletsLoad = null;
+      tabletsAddedDuringLoad.clear();
+      // If another load was enqueued during this one, run it now
+      if (queuedTabletsLoad != null) {
+        TabletsLoadRequest tmp = queuedTabletsLoad;
+        queuedTabletsLoad = null;
+        startTabletsLoad(tmp);
+      }
     }
 
     private void close() {
@@ -523,10 +740,53 @@ public class MetadataManager implements AsyncAutoCloseable {
       if (queuedSchemaRefresh != null) {
         queuedSchemaRefresh.completeExceptionally(new IllegalStateException("Cluster is closed"));
       }
+      tabletsLoadDebouncer.stop();
+      if (queuedTabletsLoad != null) {
+        queuedTabletsLoad.future.complete(null);
+      }
       closeFuture.complete(null);
     }
   }
 
+  /** A request to load the tablets of some of the tables configured for preloading. */
+  private static class TabletsLoadRequest {
+    // null means all the configured tables
+    @Nullable private final Set<KeyspaceTableNamePair> tables;
+    private final CompletableFuture<Void> future;
+
+    private TabletsLoadRequest(
+        @Nullable Set<KeyspaceTableNamePair> tables, CompletableFuture<Void> future) {
+      this.tables = tables;
+      this.future = future;
+    }
+
+    private TabletsLoadRequest merge(TabletsLoadRequest other) {
+      Set<KeyspaceTableNamePair> mergedTables = null;
+      if (tables != null && other.tables != null) {
+        mergedTables = new HashSet<>(tables);
+        mergedTables.addAll(other.tables);
+      }
+      TabletsLoadRequest merged = new TabletsLoadRequest(mergedTables, new CompletableFuture<>());
+      CompletableFutures.completeFrom(merged.future, future);
+      CompletableFutures.completeFrom(merged.future, other.future);
+      return merged;
+    }
+
+    private static TabletsLoadRequest merge(List<TabletsLoadRequest> requests) {
+      assert !requests.isEmpty();
+      TabletsLoadRequest result = requests.get(0);
+      for (int i = 1; i < requests.size(); i++) {
+        result = result.merge(requests.get(i));
+      }
+      return result;
+    }
+
+    @Override
+    public String toString() {
+      return "TabletsLoadRequest(" + ((tables == null) ? "all tables" : tables) + ")";
+    }
+  }
+
   @VisibleForTesting
   Void apply(MetadataRefresh refresh) {
     assert adminExecutor.inEventLoop();
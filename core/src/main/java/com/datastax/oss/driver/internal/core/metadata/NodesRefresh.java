@@ -18,8 +18,10 @@
 package com.datastax.oss.driver.internal.core.metadata;
 
 import com.datastax.oss.driver.api.core.Version;
+import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Objects;
 import net.jcip.annotations.ThreadSafe;
@@ -31,6 +33,25 @@ abstract class NodesRefresh implements MetadataRefresh {
 
   private static final Logger LOG = LoggerFactory.getLogger(NodesRefresh.class);
 
+  /**
+   * Drops the tablets that are replicated on removed nodes: they would keep routing requests to
+   * nodes that are gone. The other tablets are kept.
+   *
+   * @return the metadata to use from now on.
+   */
+  protected static DefaultMetadata removeTablets(
+      DefaultMetadata metadata, Collection<Node> removedNodes) {
+    if (removedNodes.isEmpty()) {
+      return metadata;
+    } else if (metadata.tabletMap instanceof DefaultTabletMap) {
+      ((DefaultTabletMap) metadata.tabletMap).removeNodes(removedNodes);
+      return metadata;
+    } else {
+      // We don't know how to prune a custom implementation, start over
+      return metadata.withTabletMap(DefaultTabletMap.emptyMap());
+    }
+  }
+
   /**
    * @return whether the node's token have changed as a result of this operation (unfortunately we
    *     mutate the tokens in-place, so there is no way to check this after the fact).
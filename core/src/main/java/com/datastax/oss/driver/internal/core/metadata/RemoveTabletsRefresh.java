@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.metadata;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.metadata.TabletMap;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/** Updates tablet metadata by removing the tablets of a dropped keyspace or table. */
+public class RemoveTabletsRefresh implements MetadataRefresh {
+
+  final CqlIdentifier keyspace;
+  @Nullable final CqlIdentifier table;
+
+  /** @param table the dropped table, or null if the whole keyspace was dropped. */
+  public RemoveTabletsRefresh(CqlIdentifier keyspace, @Nullable CqlIdentifier table) {
+    this.keyspace = keyspace;
+    this.table = table;
+  }
+
+  @Override
+  public Result compute(
+      DefaultMetadata oldMetadata, boolean tokenMapEnabled, InternalDriverContext context) {
+    TabletMap tabletMap = oldMetadata.tabletMap;
+    if (tabletMap instanceof DefaultTabletMap) {
+      if (table == null) {
+        ((DefaultTabletMap) tabletMap).removeKeyspace(keyspace);
+      } else {
+        ((DefaultTabletMap) tabletMap).removeTable(keyspace, table);
+      }
+    }
+    return new Result(oldMetadata);
+  }
+}
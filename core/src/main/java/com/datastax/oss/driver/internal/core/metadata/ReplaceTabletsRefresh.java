@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.metadata;
+
+import com.datastax.oss.driver.api.core.metadata.KeyspaceTableNamePair;
+import com.datastax.oss.driver.api.core.metadata.Tablet;
+import com.datastax.oss.driver.api.core.metadata.TabletMap;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Updates tablet metadata by replacing all the tablets of some tables, for example after they were
+ * read from {@code system.tablets}.
+ *
+ * <p>The replacement tablets are a snapshot that might be older than some tablets received in the
+ * meantime (from the custom payload of responses). Those newer tablets are applied again on top of
+ * the snapshot, so that they are never overwritten by older data.
+ */
+public class ReplaceTabletsRefresh implements MetadataRefresh {
+
+  final Map<KeyspaceTableNamePair, List<Tablet>> tablets;
+  final Map<KeyspaceTableNamePair, List<Tablet>> newerTablets;
+
+  public ReplaceTabletsRefresh(Map<KeyspaceTableNamePair, List<Tablet>> tablets) {
+    this(tablets, Collections.emptyMap());
+  }
+
+  /**
+   * @param newerTablets tablets that were received while the snapshot was being read, in the order
+   *     they were received.
+   */
+  public ReplaceTabletsRefresh(
+      Map<KeyspaceTableNamePair, List<Tablet>> tablets,
+      Map<KeyspaceTableNamePair, List<Tablet>> newerTablets) {
+    this.tablets = tablets;
+    this.newerTablets = newerTablets;
+  }
+
+  @Override
+  public Result compute(
+      DefaultMetadata oldMetadata, boolean tokenMapEnabled, InternalDriverContext context) {
+    TabletMap tabletMap = oldMetadata.tabletMap;
+    for (Map.Entry<KeyspaceTableNamePair, List<Tablet>> entry : tablets.entrySet()) {
+      KeyspaceTableNamePair key = entry.getKey();
+      if (tabletMap instanceof DefaultTabletMap) {
+        ((DefaultTabletMap) tabletMap)
+            .replaceTablets(key.getKeyspace(), key.getTableName(), entry.getValue());
+      } else {
+        for (Tablet tablet : entry.getValue()) {
+          tabletMap.addTablet(key.getKeyspace(), key.getTableName(), tablet);
+        }
+      }
+      for (Tablet tablet : newerTablets.getOrDefault(key, Collections.emptyList())) {
+        tabletMap.addTablet(key.getKeyspace(), key.getTableName(), tablet);
+      }
+    }
+    return new Result(oldMetadata);
+  }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.metadata;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.data.TupleValue;
+import com.datastax.oss.driver.api.core.metadata.KeyspaceTableNamePair;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.Tablet;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.driver.internal.core.adminrequest.AdminRequestHandler;
+import com.datastax.oss.driver.internal.core.adminrequest.AdminResult;
+import com.datastax.oss.driver.internal.core.adminrequest.AdminRow;
+import com.datastax.oss.driver.internal.core.channel.DriverChannel;
+import com.datastax.oss.driver.internal.core.metadata.DefaultTabletMap.DefaultTablet;
+import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import net.jcip.annotations.NotThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads the tablets of a set of tables from {@code system.tablets}, with the control connection.
+ *
+ * <p>This is used to fill the tablet map in bulk, instead of waiting for the server to send each
+ * tablet in the custom payload of a misrouted request.
+ *
+ * <p>If the ids of the tables are known (from schema metadata), each table's partition is read
+ * individually. Otherwise, the whole {@code system.tablets} table is read, and filtered on the
+ * client.
+ *
+ * <p>Each instance performs a single load.
+ */
+@NotThreadSafe
+class TabletsLoader {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TabletsLoader.class);
+
+  @VisibleForTesting
+  static final String QUERY =
+      "SELECT keyspace_name, table_name, last_token, replicas FROM system.tablets";
+
+  @VisibleForTesting static final String TABLE_QUERY = QUERY + " WHERE table_id = :table_id";
+
+  @VisibleForTesting
+  static final TypeCodec<List<TupleValue>> REPLICAS_CODEC =
+      TypeCodecs.listOf(TypeCodecs.tupleOf(DataTypes.tupleOf(DataTypes.UUID, DataTypes.INT)));
+
+  private final DriverChannel channel;
+  private final Filter filter;
+  @Nullable private final Iterator<UUID> tableIds;
+  private final Map<UUID, Node> nodes;
+  private final Duration timeout;
+  private final int pageSize;
+  private final String logPrefix;
+
+  // Replicas by last token, for each table
+  private final Map<KeyspaceTableNamePair, NavigableMap<Long, List<TupleValue>>> replicasByTable =
+      new HashMap<>();
+  private final CompletableFuture<Map<KeyspaceTableNamePair, List<Tablet>>> result =
+      new CompletableFuture<>();
+
+  TabletsLoader(
+      @NonNull DriverChannel channel,
+      @NonNull Filter filter,
+      @Nullable Collection<UUID> tableIds,
+      @NonNull Map<UUID, Node> nodes,
+      @NonNull Duration timeout,
+      int pageSize,
+      @NonNull String logPrefix) {
+    this.channel = channel;
+    this.filter = filter;
+    this.tableIds = (tableIds == null) ? null : tableIds.iterator();
+    this.nodes = nodes;
+    this.timeout = timeout;
+    this.pageSize = pageSize;
+    this.logPrefix = logPrefix;
+  }
+
+  /**
+   * Runs the queries and returns the tablets of each included table, sorted by last token. Tables
+   * that have no tablets (for example because they use vnodes) are absent from the result.
+   */
+  @NonNull
+  CompletionStage<Map<KeyspaceTableNamePair, List<Tablet>>> load() {
+    try {
+      if (tableIds == null) {
+        LOG.debug("[{}] Loading tablets from system.tablets", logPrefix);
+        AdminRequestHandler.query(channel, QUERY, timeout, pageSize, logPrefix)
+            .start()
+            .whenComplete(this::processPage);
+      } else {
+        loadNextTable();
+      }
+    } catch (Throwable t) {
+      result.completeExceptionally(t);
+    }
+    return result;
+  }
+
+  private void loadNextTable() {
+    assert tableIds != null;
+    if (tableIds.hasNext()) {
+      UUID tableId = tableIds.next();
+      LOG.debug("[{}] Loading tablets of table {} from system.tablets", logPrefix, tableId);
+      AdminRequestHandler.query(
+              channel,
+              TABLE_QUERY,
+              ImmutableMap.of("table_id", tableId),
+              timeout,
+              pageSize,
+              logPrefix)
+          .start()
+          .whenComplete(this::processPage);
+    } else {
+      result.complete(buildTablets());
+    }
+  }
+
+  private void processPage(AdminResult page, Throwable error) {
+    if (error != null) {
+      result.completeExceptionally(error);
+      return;
+    }
+    try {
+      for (AdminRow row : page) {
+        addRow(row);
+      }
+      if (page.hasNextPage()) {
+        page.nextPage().whenComplete(this::processPage);
+      } else if (tableIds != null) {
+        loadNextTable();
+      } else {
+        result.complete(buildTablets());
+      }
+    } catch (Throwable t) {
+      result.completeExceptionally(t);
+    }
+  }
+
+  @VisibleForTesting
+  void addRow(AdminRow row) {
+    String keyspace = row.getString("keyspace_name");
+    String table = row.getString("table_name");
+    Long lastToken = row.get("last_token", TypeCodecs.BIGINT);
+    if (keyspace == null || table == null || lastToken == null) {
+      LOG.debug("[{}] Skipping incomplete system.tablets row", logPrefix);
+      return;
+    }
+    if (!filter.includes(keyspace, table)) {
+      return;
+    }
+    List<TupleValue> replicas = row.get("replicas", REPLICAS_CODEC);
+    replicasByTable
+        .computeIfAbsent(
+            new KeyspaceTableNamePair(
+                CqlIdentifier.fromInternal(keyspace), CqlIdentifier.fromInternal(table)),
+            k -> new TreeMap<>())
+        .put(lastToken, (replicas == null) ? ImmutableList.of() : replicas);
+  }
+
+  @VisibleForTesting
+  Map<KeyspaceTableNamePair, List<Tablet>> buildTablets() {
+    ImmutableMap.Builder<KeyspaceTableNamePair, List<Tablet>> builder = ImmutableMap.builder();
+    for (Map.Entry<KeyspaceTableNamePair, NavigableMap<Long, List<TupleValue>>> entry :
+        replicasByTable.entrySet()) {
+      ImmutableList.Builder<Tablet> tablets = ImmutableList.builder();
+      // The tablets of a table cover the whole ring: each one starts where the previous one ends
+      long firstToken = Long.MIN_VALUE;
+      for (Map.Entry<Long, List<TupleValue>> tabletEntry : entry.getValue().entrySet()) {
+        long lastToken = tabletEntry.getKey();
+        tablets.add(
+            DefaultTablet.fromReplicas(firstToken, lastToken, tabletEntry.getValue(), nodes));
+        firstToken = lastToken;
+      }
+      builder.put(entry.getKey(), tablets.build());
+    }
+    return builder.build();
+  }
+
+  /**
+   * The tables to preload, as configured in {@code advanced.metadata.tablets.preload}: each entry
+   * is either a keyspace name (all tables of the keyspace), or a {@code keyspace.table} pair.
+   */
+  static class Filter {
+
+    static final Filter EMPTY = new Filter(ImmutableList.of());
+
+    private final Set<String> keyspaces = new HashSet<>();
+    private final Map<String, Set<String>> tables = new HashMap<>();
+
+    Filter(@NonNull List<String> entries) {
+      for (String entry : entries) {
+        int i = entry.indexOf('.');
+        if (i < 0) {
+          keyspaces.add(entry);
+        } else {
+          tables
+              .computeIfAbsent(entry.substring(0, i), k -> new HashSet<>())
+              .add(entry.substring(i + 1));
+        }
+      }
+    }
+
+    boolean isEmpty() {
+      return keyspaces.isEmpty() && tables.isEmpty();
+    }
+
+    /** The keyspaces that have at least one included table. */
+    @NonNull
+    Set<String> getKeyspaces() {
+      Set<String> result = new HashSet<>(keyspaces);
+      result.addAll(tables.keySet());
+      return result;
+    }
+
+    /** Returns a filter that only includes the tables of this filter that are in the given set. */
+    @NonNull
+    Filter restrictTo(@NonNull Collection<KeyspaceTableNamePair> candidates) {
+      List<String> entries = new ArrayList<>();
+      for (KeyspaceTableNamePair candidate : candidates) {
+        String keyspace = candidate.getKeyspace().asInternal();
+        String table = candidate.getTableName().asInternal();
+        if (includes(keyspace, table)) {
+          entries.add(keyspace + "." + table);
+        }
+      }
+      return new Filter(entries);
+    }
+
+    /** Returns the ids of the included tables that are present in the given schema metadata. */
+    @NonNull
+    List<UUID> findTableIds(@NonNull Map<CqlIdentifier, KeyspaceMetadata> schema) {
+      List<UUID> result = new ArrayList<>();
+      for (KeyspaceMetadata keyspace : schema.values()) {
+        String keyspaceName = keyspace.getName().asInternal();
+        for (TableMetadata table : keyspace.getTables().values()) {
+          if (includes(keyspaceName, table.getName().asInternal())) {
+            table.getId().ifPresent(result::add);
+          }
+        }
+      }
+      return result;
+    }
+
+    boolean includes(@NonNull String keyspace, @NonNull String table) {
+      if (keyspaces.contains(keyspace)) {
+        return true;
+      }
+      Set<String> keyspaceTables = tables.get(keyspace);
+      return keyspaceTables != null && keyspaceTables.contains(table);
+    }
+  }
+}
@@ -41,8 +41,10 @@ import com.datastax.oss.driver.shaded.guava.common.collect.SetMultimap;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -63,6 +65,16 @@ public class DefaultTokenMap implements TokenMap {
       @NonNull TokenFactory tokenFactory,
       @NonNull ReplicationStrategyFactory replicationStrategyFactory,
       @NonNull String logPrefix) {
+    return build(nodes, keyspaces, tokenFactory, replicationStrategyFactory, null, logPrefix);
+  }
+
+  private static DefaultTokenMap build(
+      Collection<Node> nodes,
+      Collection<KeyspaceMetadata> keyspaces,
+      TokenFactory tokenFactory,
+      ReplicationStrategyFactory replicationStrategyFactory,
+      @Nullable DefaultTokenMap previous,
+      String logPrefix) {
 
     TokenToPrimaryAndRing tmp = buildTokenToPrimaryAndRing(nodes, tokenFactory);
     Map<Token, Node> tokenToPrimary = tmp.tokenToPrimary;
@@ -86,6 +98,9 @@ public class DefaultTokenMap implements TokenMap {
     Map<CqlIdentifier, Map<String, String>> replicationConfigs =
         buildReplicationConfigs(keyspaces, logPrefix);
 
+    int[] distanceToChange =
+        (previous == null) ? null : previous.computeDistanceToChange(tokenToPrimary, ring);
+
     ImmutableMap.Builder<Map<String, String>, KeyspaceTokenMap> keyspaceMapsBuilder =
         ImmutableMap.builder();
     for (Map<String, String> config : ImmutableSet.copyOf(replicationConfigs.values())) {
@@ -99,6 +114,8 @@ public class DefaultTokenMap implements TokenMap {
               tokenRanges,
               tokenFactory,
               replicationStrategyFactory,
+              (distanceToChange == null) ? null : previous.keyspaceMaps.get(config),
+              distanceToChange,
               logPrefix));
     }
     return new DefaultTokenMap(
@@ -264,6 +281,74 @@ public class DefaultTokenMap implements TokenMap {
         logPrefix);
   }
 
+  /**
+   * Called when nodes were added or removed, or their tokens have changed.
+   *
+   * <p>For the replication strategies that support it, only the replicas of the tokens located
+   * shortly before a change are recomputed, the others are reused from this map.
+   */
+  public DefaultTokenMap rebuild(
+      @NonNull Collection<Node> nodes,
+      @NonNull Collection<KeyspaceMetadata> keyspaces,
+      @NonNull ReplicationStrategyFactory replicationStrategyFactory) {
+    return build(nodes, keyspaces, tokenFactory, replicationStrategyFactory, this, logPrefix);
+  }
+
+  /**
+   * For each position of the new ring, computes the number of positions to walk before reaching a
+   * token that is new, has a different primary, or follows a token that was removed.
+   *
+   * @return the distances, or null if they can't be computed from this map.
+   */
+  @Nullable
+  private int[] computeDistanceToChange(Map<Token, Node> newTokenToPrimary, List<Token> newRing) {
+    int n = newRing.size();
+    if (n == 0 || tokenRanges.size() <= 1) {
+      // Empty ring, or the previous ring was a single range that doesn't carry the node's token
+      return null;
+    }
+    Map<Token, Node> oldTokenToPrimary = new HashMap<>();
+    for (Map.Entry<Node, TokenRange> entry : tokenRangesByPrimary.entries()) {
+      oldTokenToPrimary.put(entry.getValue().getEnd(), entry.getKey());
+    }
+    boolean[] changed = new boolean[n];
+    boolean anyChange = false;
+    for (int i = 0; i < n; i++) {
+      Token token = newRing.get(i);
+      if (oldTokenToPrimary.get(token) != newTokenToPrimary.get(token)) {
+        changed[i] = true;
+        anyChange = true;
+      }
+    }
+    for (Token token : oldTokenToPrimary.keySet()) {
+      if (!newTokenToPrimary.containsKey(token)) {
+        // The walks that used to go through that token now go directly to the next one
+        int i = -Collections.binarySearch(newRing, token) - 1;
+        changed[i % n] = true;
+        anyChange = true;
+      }
+    }
+    int[] distances = new int[n];
+    if (!anyChange) {
+      Arrays.fill(distances, Integer.MAX_VALUE);
+      return distances;
+    }
+    // Walk backwards twice to handle the wrap-around
+    int distance = Integer.MAX_VALUE;
+    for (int k = 2 * n - 1; k >= 0; k--) {
+      int i = k % n;
+      if (changed[i]) {
+        distance = 0;
+      } else if (distance != Integer.MAX_VALUE) {
+        distance += 1;
+      }
+      if (k < n) {
+        distances[i] = distance;
+      }
+    }
+    return distances;
+  }
+
   private static TokenToPrimaryAndRing buildTokenToPrimaryAndRing(
       Collection<Node> nodes, TokenFactory tokenFactory) {
     ImmutableMap.Builder<Token, Node> tokenToPrimaryBuilder = ImmutableMap.builder();
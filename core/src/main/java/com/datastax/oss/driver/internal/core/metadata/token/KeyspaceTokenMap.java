@@ -28,10 +28,15 @@ import com.datastax.oss.driver.api.core.metadata.token.Partitioner;
 import com.datastax.oss.driver.api.core.metadata.token.Token;
 import com.datastax.oss.driver.api.core.metadata.token.TokenRange;
 import com.datastax.oss.driver.internal.core.util.NanoTime;
+import com.datastax.oss.driver.shaded.guava.common.base.Preconditions;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSetMultimap;
 import com.datastax.oss.driver.shaded.guava.common.collect.SetMultimap;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -42,9 +47,13 @@ import org.slf4j.LoggerFactory;
 /**
  * The token data for a given replication configuration. It's shared by all keyspaces that use that
  * configuration.
+ *
+ * <p>Replica lookups are specialized for {@link Murmur3TokenFactory}, which is by far the most
+ * common partitioner: the ring is stored as a sorted {@code long[]}, and partition keys are hashed
+ * to a primitive token, so that a lookup is a binary search that doesn't allocate.
  */
 @Immutable
-class KeyspaceTokenMap {
+abstract class KeyspaceTokenMap {
 
   private static final Logger LOG = LoggerFactory.getLogger(KeyspaceTokenMap.class);
 
@@ -56,12 +65,51 @@ class KeyspaceTokenMap {
       TokenFactory tokenFactory,
       ReplicationStrategyFactory replicationStrategyFactory,
       String logPrefix) {
+    return build(
+        replicationConfig,
+        tokenToPrimary,
+        ring,
+        tokenRanges,
+        tokenFactory,
+        replicationStrategyFactory,
+        null,
+        null,
+        logPrefix);
+  }
+
+  /**
+   * @param previous the data for the same replication configuration on the previous version of the
+   *     ring. If the replication strategy allows it, the replicas of the tokens that are far enough
+   *     from any change will be reused instead of recomputed.
+   * @param distanceToChange see {@link RingWalkingReplicationStrategy#computeReplicas}.
+   */
+  static KeyspaceTokenMap build(
+      Map<String, String> replicationConfig,
+      Map<Token, Node> tokenToPrimary,
+      List<Token> ring,
+      Set<TokenRange> tokenRanges,
+      TokenFactory tokenFactory,
+      ReplicationStrategyFactory replicationStrategyFactory,
+      @Nullable KeyspaceTokenMap previous,
+      @Nullable int[] distanceToChange,
+      String logPrefix) {
 
     long start = System.nanoTime();
     try {
       ReplicationStrategy strategy = replicationStrategyFactory.newInstance(replicationConfig);
 
-      Map<Token, Set<Node>> replicasByToken = strategy.computeReplicasByToken(tokenToPrimary, ring);
+      Map<Token, Set<Node>> replicasByToken;
+      WalkInfo walkInfo;
+      if (strategy instanceof RingWalkingReplicationStrategy) {
+        RingWalkingReplicationStrategy.Replicas replicas =
+            ((RingWalkingReplicationStrategy) strategy)
+                .computeReplicas(tokenToPrimary, ring, previous, distanceToChange);
+        replicasByToken = replicas.replicasByToken;
+        walkInfo = new WalkInfo(replicas.maxWalk, ring.size(), replicas.ringData);
+      } else {
+        replicasByToken = strategy.computeReplicasByToken(tokenToPrimary, ring);
+        walkInfo = WalkInfo.UNKNOWN;
+      }
       SetMultimap<Node, TokenRange> tokenRangesByNode;
       if (ring.size() == 1) {
         // We forced the single range to ]minToken,minToken], make sure to use that instead of
@@ -75,7 +123,15 @@ class KeyspaceTokenMap {
       } else {
         tokenRangesByNode = buildTokenRangesByNode(tokenRanges, replicasByToken);
       }
-      return new KeyspaceTokenMap(ring, tokenRangesByNode, replicasByToken, tokenFactory);
+      return (tokenFactory instanceof Murmur3TokenFactory)
+          ? new Murmur3KeyspaceTokenMap(
+              ring,
+              tokenRangesByNode,
+              replicasByToken,
+              (Murmur3TokenFactory) tokenFactory,
+              walkInfo)
+          : new GenericKeyspaceTokenMap(
+              ring, tokenRangesByNode, replicasByToken, tokenFactory, walkInfo);
     } finally {
       LOG.debug(
           "[{}] Computing keyspace-level data for {} took {}",
@@ -85,50 +141,36 @@ class KeyspaceTokenMap {
     }
   }
 
-  private final List<Token> ring;
   private final SetMultimap<Node, TokenRange> tokenRangesByNode;
-  private final Map<Token, Set<Node>> replicasByToken;
-  private final TokenFactory tokenFactory;
+  private final WalkInfo walkInfo;
 
-  private KeyspaceTokenMap(
-      List<Token> ring,
-      SetMultimap<Node, TokenRange> tokenRangesByNode,
-      Map<Token, Set<Node>> replicasByToken,
-      TokenFactory tokenFactory) {
-    this.ring = ring;
+  private KeyspaceTokenMap(SetMultimap<Node, TokenRange> tokenRangesByNode, WalkInfo walkInfo) {
     this.tokenRangesByNode = tokenRangesByNode;
-    this.replicasByToken = replicasByToken;
-    this.tokenFactory = tokenFactory;
+    this.walkInfo = walkInfo;
   }
 
-  Set<TokenRange> getTokenRanges(Node replica) {
-    return tokenRangesByNode.get(replica);
+  /** The number of positions visited by the longest replica walk, or -1 if unknown. */
+  int getMaxWalk() {
+    return walkInfo.maxWalk;
   }
 
-  Set<Node> getReplicas(Partitioner partitioner, ByteBuffer partitionKey) {
-    if (partitioner == null) {
-      partitioner = tokenFactory;
-    }
-    return getReplicas(partitioner.hash(partitionKey));
+  int getRingSize() {
+    return walkInfo.ringSize;
   }
 
-  Set<Node> getReplicas(Token token) {
-    // If the token happens to be one of the "primary" tokens, get result directly
-    Set<Node> nodes = replicasByToken.get(token);
-    if (nodes != null) {
-      return nodes;
-    }
-    // Otherwise, find the closest "primary" token on the ring
-    int i = Collections.binarySearch(ring, token);
-    if (i < 0) {
-      i = -i - 1;
-      if (i >= ring.size()) {
-        i = 0;
-      }
-    }
-    return replicasByToken.get(ring.get(i));
+  @Nullable
+  Object getRingData() {
+    return walkInfo.ringData;
   }
 
+  Set<TokenRange> getTokenRanges(Node replica) {
+    return tokenRangesByNode.get(replica);
+  }
+
+  abstract Set<Node> getReplicas(Partitioner partitioner, ByteBuffer partitionKey);
+
+  abstract Set<Node> getReplicas(Token token);
+
   private static SetMultimap<Node, TokenRange> buildTokenRangesByNode(
       Set<TokenRange> tokenRanges, Map<Token, Set<Node>> replicasByToken) {
     ImmutableSetMultimap.Builder<Node, TokenRange> result = ImmutableSetMultimap.builder();
@@ -139,4 +181,129 @@ class KeyspaceTokenMap {
     }
     return result.build();
   }
+
+  private static class WalkInfo {
+    static final WalkInfo UNKNOWN = new WalkInfo(-1, 0, null);
+
+    final int maxWalk;
+    final int ringSize;
+    final Object ringData;
+
+    WalkInfo(int maxWalk, int ringSize, Object ringData) {
+      this.maxWalk = maxWalk;
+      this.ringSize = ringSize;
+      this.ringData = ringData;
+    }
+  }
+
+  /** Works with any token type, at the cost of a boxed token and a map lookup per query. */
+  @Immutable
+  static class GenericKeyspaceTokenMap extends KeyspaceTokenMap {
+
+    private final List<Token> ring;
+    private final Map<Token, Set<Node>> replicasByToken;
+    private final TokenFactory tokenFactory;
+
+    private GenericKeyspaceTokenMap(
+        List<Token> ring,
+        SetMultimap<Node, TokenRange> tokenRangesByNode,
+        Map<Token, Set<Node>> replicasByToken,
+        TokenFactory tokenFactory,
+        WalkInfo walkInfo) {
+      super(tokenRangesByNode, walkInfo);
+      this.ring = ring;
+      this.replicasByToken = replicasByToken;
+      this.tokenFactory = tokenFactory;
+    }
+
+    @Override
+    Set<Node> getReplicas(Partitioner partitioner, ByteBuffer partitionKey) {
+      if (partitioner == null) {
+        partitioner = tokenFactory;
+      }
+      return getReplicas(partitioner.hash(partitionKey));
+    }
+
+    @Override
+    Set<Node> getReplicas(Token token) {
+      // If the token happens to be one of the "primary" tokens, get result directly
+      Set<Node> nodes = replicasByToken.get(token);
+      if (nodes != null) {
+        return nodes;
+      }
+      // Otherwise, find the closest "primary" token on the ring
+      int i = Collections.binarySearch(ring, token);
+      if (i < 0) {
+        i = -i - 1;
+        if (i >= ring.size()) {
+          i = 0;
+        }
+      }
+      return replicasByToken.get(ring.get(i));
+    }
+  }
+
+  /**
+   * Specialized for 64-bit tokens: the ring is a sorted {@code long[]}, and the replicas of the
+   * range ending at {@code ring[i]} are at {@code replicas[i]}. Identical replica sets share the
+   * same instance.
+   */
+  @Immutable
+  static class Murmur3KeyspaceTokenMap extends KeyspaceTokenMap {
+
+    private final long[] ring;
+    private final Set<Node>[] replicas;
+    private final Murmur3TokenFactory tokenFactory;
+
+    @SuppressWarnings("unchecked")
+    private Murmur3KeyspaceTokenMap(
+        List<Token> ring,
+        SetMultimap<Node, TokenRange> tokenRangesByNode,
+        Map<Token, Set<Node>> replicasByToken,
+        Murmur3TokenFactory tokenFactory,
+        WalkInfo walkInfo) {
+      super(tokenRangesByNode, walkInfo);
+      this.tokenFactory = tokenFactory;
+      this.ring = new long[ring.size()];
+      this.replicas = new Set[ring.size()];
+      // Keyed by list because the order of the replicas matters
+      Map<List<Node>, Set<Node>> canonicalSets = new HashMap<>();
+      for (int i = 0; i < this.ring.length; i++) {
+        Token token = ring.get(i);
+        this.ring[i] = ((TokenLong64) token).getValue();
+        Set<Node> nodes = replicasByToken.get(token);
+        this.replicas[i] = canonicalSets.computeIfAbsent(new ArrayList<>(nodes), k -> nodes);
+      }
+    }
+
+    @Override
+    Set<Node> getReplicas(Partitioner partitioner, ByteBuffer partitionKey) {
+      if (partitioner == null || partitioner instanceof Murmur3TokenFactory) {
+        return getReplicas(tokenFactory.hashToLong(partitionKey));
+      }
+      return getReplicas(partitioner.hash(partitionKey));
+    }
+
+    @Override
+    Set<Node> getReplicas(Token token) {
+      Preconditions.checkArgument(
+          token instanceof TokenLong64, "Cannot compare with non-64-bit-integer token");
+      return getReplicas(((TokenLong64) token).getValue());
+    }
+
+    Set<Node> getReplicas(long token) {
+      if (ring.length == 0) {
+        return Collections.emptySet();
+      }
+      // Find the closest "primary" token on the ring (or the token itself)
+      int i = Arrays.binarySearch(ring, token);
+      if (i < 0) {
+        i = -i - 1;
+        if (i >= ring.length) {
+          i = 0;
+        }
+      }
+      return replicas[i];
+    }
+  }
 }
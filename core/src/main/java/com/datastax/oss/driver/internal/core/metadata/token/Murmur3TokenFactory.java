@@ -38,8 +38,16 @@ public class Murmur3TokenFactory implements TokenFactory {
 
   @Override
   public Token hash(ByteBuffer partitionKey) {
+    return new Murmur3Token(hashToLong(partitionKey));
+  }
+
+  /**
+   * Same as {@link #hash(ByteBuffer)}, but returns the token value as a primitive, without
+   * allocating a token instance.
+   */
+  public long hashToLong(ByteBuffer partitionKey) {
     long v = murmur(partitionKey);
-    return new Murmur3Token(v == Long.MIN_VALUE ? Long.MAX_VALUE : v);
+    return v == Long.MIN_VALUE ? Long.MAX_VALUE : v;
   }
 
   @Override
@@ -19,12 +19,14 @@ package com.datastax.oss.driver.internal.core.metadata.token;
 
 import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.api.core.metadata.token.Token;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
 import com.datastax.oss.driver.shaded.guava.common.collect.Maps;
 import com.datastax.oss.driver.shaded.guava.common.collect.Sets;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -34,7 +36,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @ThreadSafe
-class NetworkTopologyReplicationStrategy implements ReplicationStrategy {
+class NetworkTopologyReplicationStrategy extends RingWalkingReplicationStrategy {
 
   private static final Logger LOG =
       LoggerFactory.getLogger(NetworkTopologyReplicationStrategy.class);
@@ -56,36 +58,68 @@ class NetworkTopologyReplicationStrategy implements ReplicationStrategy {
   }
 
   @Override
-  public Map<Token, Set<Node>> computeReplicasByToken(
-      Map<Token, Node> tokenToPrimary, List<Token> ring) {
-
-    // The implementation of this method was adapted from
-    // org.apache.cassandra.locator.NetworkTopologyStrategy
-
-    ImmutableMap.Builder<Token, Set<Node>> result = ImmutableMap.builder();
-    Map<String, Set<String>> racks = getRacksInDcs(tokenToPrimary.values());
-    Map<String, Integer> dcNodeCount = Maps.newHashMapWithExpectedSize(replicationFactors.size());
-    Set<String> warnedDcs = Sets.newHashSetWithExpectedSize(replicationFactors.size());
-    CanonicalNodeSetBuilder replicasBuilder = new CanonicalNodeSetBuilder();
-
-    // find maximum number of nodes in each DC
-    for (Node node : Sets.newHashSet(tokenToPrimary.values())) {
-      String dc = node.getDatacenter();
-      dcNodeCount.merge(dc, 1, Integer::sum);
+  RingWalker newWalker(Map<Token, Node> tokenToPrimary, List<Token> ring) {
+    return new NetworkTopologyWalker(tokenToPrimary, ring);
+  }
+
+  private class NetworkTopologyWalker implements RingWalker {
+
+    private final Map<Token, Node> tokenToPrimary;
+    private final List<Token> ring;
+    private final Map<String, Set<String>> racks;
+    private final Map<String, Integer> dcNodeCount;
+    private final Set<String> warnedDcs;
+
+    private NetworkTopologyWalker(Map<Token, Node> tokenToPrimary, List<Token> ring) {
+      this.tokenToPrimary = tokenToPrimary;
+      this.ring = ring;
+      this.racks = getRacksInDcs(tokenToPrimary.values());
+      this.dcNodeCount = Maps.newHashMapWithExpectedSize(replicationFactors.size());
+      this.warnedDcs = Sets.newHashSetWithExpectedSize(replicationFactors.size());
+      // find maximum number of nodes in each DC
+      for (Node node : Sets.newHashSet(tokenToPrimary.values())) {
+        String dc = node.getDatacenter();
+        dcNodeCount.merge(dc, 1, Integer::sum);
+      }
     }
-    for (int i = 0; i < ring.size(); i++) {
-      replicasBuilder.clear();
 
-      Map<String, Set<Node>> allDcReplicas = new HashMap<>();
-      Map<String, Set<String>> seenRacks = new HashMap<>();
-      Map<String, Set<Node>> skippedDcEndpoints = new HashMap<>();
+    @Override
+    public Object getRingData() {
+      // For each replicated DC: the number of replicas that can be achieved, and the number of
+      // racks
+      ImmutableMap.Builder<String, List<Integer>> builder = ImmutableMap.builder();
+      for (Map.Entry<String, ReplicationFactor> entry : replicationFactors.entrySet()) {
+        String dc = entry.getKey();
+        int nodeCount = dcNodeCount.getOrDefault(dc, 0);
+        Set<String> dcRacks = racks.get(dc);
+        builder.put(
+            dc,
+            ImmutableList.of(
+                Math.min(entry.getValue().fullReplicas(), nodeCount),
+                (dcRacks == null) ? 0 : dcRacks.size()));
+      }
+      return builder.build();
+    }
+
+    @Override
+    public int walk(int i, CanonicalNodeSetBuilder replicasBuilder) {
+
+      // The implementation of this method was adapted from
+      // org.apache.cassandra.locator.NetworkTopologyStrategy
+
+      // Use ordered collections throughout, so that the outcome never depends on hash codes: the
+      // replicas must come out in the same order on every client (see lwt-deterministic-routing)
+      Map<String, Set<Node>> allDcReplicas = new LinkedHashMap<>();
+      Map<String, Set<String>> seenRacks = new LinkedHashMap<>();
+      Map<String, Set<Node>> skippedDcEndpoints = new LinkedHashMap<>();
       for (String dc : replicationFactors.keySet()) {
-        allDcReplicas.put(dc, new HashSet<>());
-        seenRacks.put(dc, new HashSet<>());
+        allDcReplicas.put(dc, new LinkedHashSet<>());
+        seenRacks.put(dc, new LinkedHashSet<>());
         skippedDcEndpoints.put(dc, new LinkedHashSet<>()); // preserve order
       }
 
-      for (int j = 0; j < ring.size() && !allDone(allDcReplicas, dcNodeCount); j++) {
+      int j = 0;
+      for (; j < ring.size() && !allDone(allDcReplicas, dcNodeCount); j++) {
         Node h = tokenToPrimary.get(getTokenWrapping(i + j, ring));
         String dc = h.getDatacenter();
         if (dc == null || !allDcReplicas.containsKey(dc)) {
@@ -143,10 +177,8 @@ class NetworkTopologyReplicationStrategy implements ReplicationStrategy {
           warnedDcs.add(dcName);
         }
       }
-
-      result.put(ring.get(i), replicasBuilder.build());
+      return j;
     }
-    return result.build();
   }
 
   private boolean allDone(Map<String, Set<Node>> map, Map<String, Integer> dcNodeCount) {
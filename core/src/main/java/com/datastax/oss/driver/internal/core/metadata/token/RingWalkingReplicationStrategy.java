@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.metadata.token;
+
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.token.Token;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.jcip.annotations.NotThreadSafe;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A replication strategy that finds the replicas of each token by walking the ring clockwise from
+ * that token.
+ *
+ * <p>The replicas of a token only depend on the primaries of the tokens visited by the walk, and on
+ * some ring-wide data (see {@link RingWalker#getRingData()}). So after a topology change, as long
+ * as that data is the same, only the tokens that are followed by a change within the length of the
+ * longest walk can have different replicas; the others keep their previous replicas.
+ */
+@ThreadSafe
+abstract class RingWalkingReplicationStrategy implements ReplicationStrategy {
+
+  @Override
+  public Map<Token, Set<Node>> computeReplicasByToken(
+      Map<Token, Node> tokenToPrimary, List<Token> ring) {
+    return computeReplicas(tokenToPrimary, ring, null, null).replicasByToken;
+  }
+
+  /**
+   * Computes the replicas of every token of the ring.
+   *
+   * @param previous the data computed for the previous version of the ring, or null if it is not
+   *     available.
+   * @param distanceToChange for each position of the new ring, the number of positions to walk
+   *     before reaching a token that was added, removed or changed primary since the previous ring
+   *     (0 if the token at that position changed itself). Null if it is not available.
+   */
+  Replicas computeReplicas(
+      Map<Token, Node> tokenToPrimary,
+      List<Token> ring,
+      @Nullable KeyspaceTokenMap previous,
+      @Nullable int[] distanceToChange) {
+
+    RingWalker walker = newWalker(tokenToPrimary, ring);
+    Object ringData = walker.getRingData();
+    boolean incremental =
+        previous != null
+            && distanceToChange != null
+            && ringData.equals(previous.getRingData())
+            // If a walk went around the whole ring, it might have a different outcome with a
+            // different ring size
+            && previous.getMaxWalk() < previous.getRingSize()
+            && previous.getMaxWalk() < ring.size();
+    int maxWalk = incremental ? previous.getMaxWalk() : 0;
+
+    ImmutableMap.Builder<Token, Set<Node>> result = ImmutableMap.builder();
+    CanonicalNodeSetBuilder replicasBuilder = new CanonicalNodeSetBuilder();
+    for (int i = 0; i < ring.size(); i++) {
+      Token token = ring.get(i);
+      if (incremental && distanceToChange[i] >= previous.getMaxWalk()) {
+        result.put(token, previous.getReplicas(token));
+      } else {
+        replicasBuilder.clear();
+        maxWalk = Math.max(maxWalk, walker.walk(i, replicasBuilder));
+        result.put(token, replicasBuilder.build());
+      }
+    }
+    return new Replicas(result.build(), maxWalk, ringData);
+  }
+
+  abstract RingWalker newWalker(Map<Token, Node> tokenToPrimary, List<Token> ring);
+
+  /** Computes replicas on a particular ring. */
+  @NotThreadSafe
+  interface RingWalker {
+
+    /**
+     * The ring-wide data that walks depend on, besides the primaries of the tokens they visit. It
+     * must implement {@code equals}.
+     */
+    Object getRingData();
+
+    /**
+     * Adds the replicas of the token at the given position to the builder.
+     *
+     * @return the number of positions that were visited, starting at (and including) {@code index}.
+     */
+    int walk(int index, CanonicalNodeSetBuilder replicas);
+  }
+
+  static class Replicas {
+    final Map<Token, Set<Node>> replicasByToken;
+    /** The number of positions visited by the longest walk. */
+    final int maxWalk;
+
+    final Object ringData;
+
+    Replicas(Map<Token, Set<Node>> replicasByToken, int maxWalk, Object ringData) {
+      this.replicasByToken = replicasByToken;
+      this.maxWalk = maxWalk;
+      this.ringData = ringData;
+    }
+  }
+}
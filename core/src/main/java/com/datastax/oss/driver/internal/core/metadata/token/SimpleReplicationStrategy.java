@@ -21,14 +21,12 @@ import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.api.core.metadata.token.Token;
 import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
 import com.datastax.oss.driver.shaded.guava.common.base.Preconditions;
-import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import net.jcip.annotations.ThreadSafe;
 
 @ThreadSafe
-class SimpleReplicationStrategy implements ReplicationStrategy {
+class SimpleReplicationStrategy extends RingWalkingReplicationStrategy {
 
   private final ReplicationFactor replicationFactor;
 
@@ -42,22 +40,23 @@ class SimpleReplicationStrategy implements ReplicationStrategy {
   }
 
   @Override
-  public Map<Token, Set<Node>> computeReplicasByToken(
-      Map<Token, Node> tokenToPrimary, List<Token> ring) {
-
+  RingWalker newWalker(Map<Token, Node> tokenToPrimary, List<Token> ring) {
     int rf = Math.min(replicationFactor.fullReplicas(), ring.size());
+    return new RingWalker() {
+      @Override
+      public Object getRingData() {
+        return rf;
+      }
 
-    ImmutableMap.Builder<Token, Set<Node>> result = ImmutableMap.builder();
-    CanonicalNodeSetBuilder replicasBuilder = new CanonicalNodeSetBuilder();
-
-    for (int i = 0; i < ring.size(); i++) {
-      replicasBuilder.clear();
-      for (int j = 0; j < ring.size() && replicasBuilder.size() < rf; j++) {
-        replicasBuilder.add(tokenToPrimary.get(getTokenWrapping(i + j, ring)));
+      @Override
+      public int walk(int index, CanonicalNodeSetBuilder replicas) {
+        int j = 0;
+        for (; j < ring.size() && replicas.size() < rf; j++) {
+          replicas.add(tokenToPrimary.get(getTokenWrapping(index + j, ring)));
+        }
+        return j;
       }
-      result.put(ring.get(i), replicasBuilder.build());
-    }
-    return result.build();
+    };
   }
 
   private static Token getTokenWrapping(int i, List<Token> ring) {
@@ -20,14 +20,21 @@ package com.datastax.oss.driver.internal.core.metrics;
 import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.Tablet;
+import com.datastax.oss.driver.api.core.metadata.TabletMap;
 import com.datastax.oss.driver.api.core.metrics.DefaultSessionMetric;
 import com.datastax.oss.driver.api.core.session.throttling.RequestThrottler;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
 import com.datastax.oss.driver.internal.core.cql.CqlPrepareAsyncProcessor;
 import com.datastax.oss.driver.internal.core.cql.CqlPrepareSyncProcessor;
+import com.datastax.oss.driver.internal.core.metadata.DefaultTabletMap;
 import com.datastax.oss.driver.internal.core.pool.ChannelPool;
 import com.datastax.oss.driver.internal.core.session.RequestProcessor;
+import com.datastax.oss.driver.internal.core.session.throttling.AdaptiveConcurrencyLimitingRequestThrottler;
 import com.datastax.oss.driver.internal.core.session.throttling.ConcurrencyLimitingRequestThrottler;
+import com.datastax.oss.driver.internal.core.session.throttling.LockFreeConcurrencyLimitingRequestThrottler;
+import com.datastax.oss.driver.internal.core.session.throttling.LockFreeRateLimitingRequestThrottler;
+import com.datastax.oss.driver.internal.core.session.throttling.PriorityConcurrencyLimitingRequestThrottler;
 import com.datastax.oss.driver.internal.core.session.throttling.RateLimitingRequestThrottler;
 import com.datastax.oss.driver.shaded.guava.common.cache.Cache;
 import edu.umd.cs.findbugs.annotations.Nullable;
@@ -96,6 +103,18 @@ public abstract class AbstractMetricUpdater<MetricT> implements MetricUpdater<Me
     if (requestThrottler instanceof RateLimitingRequestThrottler) {
       return ((RateLimitingRequestThrottler) requestThrottler).getQueueSize();
     }
+    if (requestThrottler instanceof AdaptiveConcurrencyLimitingRequestThrottler) {
+      return ((AdaptiveConcurrencyLimitingRequestThrottler) requestThrottler).getQueueSize();
+    }
+    if (requestThrottler instanceof LockFreeConcurrencyLimitingRequestThrottler) {
+      return ((LockFreeConcurrencyLimitingRequestThrottler) requestThrottler).getQueueSize();
+    }
+    if (requestThrottler instanceof LockFreeRateLimitingRequestThrottler) {
+      return ((LockFreeRateLimitingRequestThrottler) requestThrottler).getQueueSize();
+    }
+    if (requestThrottler instanceof PriorityConcurrencyLimitingRequestThrottler) {
+      return ((PriorityConcurrencyLimitingRequestThrottler) requestThrottler).getQueueSize();
+    }
     LOG.warn(
         "[{}] Metric {} does not support {}, it will always return 0",
         context.getSessionName(),
@@ -104,6 +123,42 @@ public abstract class AbstractMetricUpdater<MetricT> implements MetricUpdater<Me
     return 0;
   }
 
+  protected int throttlingConcurrencyLimit() {
+    RequestThrottler requestThrottler = context.getRequestThrottler();
+    if (requestThrottler instanceof AdaptiveConcurrencyLimitingRequestThrottler) {
+      return ((AdaptiveConcurrencyLimitingRequestThrottler) requestThrottler).getConcurrencyLimit();
+    }
+    if (requestThrottler instanceof ConcurrencyLimitingRequestThrottler) {
+      return ((ConcurrencyLimitingRequestThrottler) requestThrottler).getMaxConcurrentRequests();
+    }
+    if (requestThrottler instanceof LockFreeConcurrencyLimitingRequestThrottler) {
+      return ((LockFreeConcurrencyLimitingRequestThrottler) requestThrottler)
+          .getMaxConcurrentRequests();
+    }
+    if (requestThrottler instanceof PriorityConcurrencyLimitingRequestThrottler) {
+      return ((PriorityConcurrencyLimitingRequestThrottler) requestThrottler)
+          .getMaxConcurrentRequests();
+    }
+    LOG.warn(
+        "[{}] Metric {} does not support {}, it will always return 0",
+        context.getSessionName(),
+        DefaultSessionMetric.THROTTLING_CONCURRENCY_LIMIT.getPath(),
+        requestThrottler.getClass().getName());
+    return 0;
+  }
+
+  protected int tabletMapSize() {
+    TabletMap tabletMap = context.getMetadataManager().getMetadata().getTabletMap();
+    if (tabletMap instanceof DefaultTabletMap) {
+      return ((DefaultTabletMap) tabletMap).size();
+    }
+    int size = 0;
+    for (Set<Tablet> tablets : tabletMap.getMapping().values()) {
+      size += tablets.size();
+    }
+    return size;
+  }
+
   protected long preparedStatementCacheSize() {
     Cache<?, ?> cache = getPreparedStatementCache();
     if (cache == null) {
@@ -147,6 +202,11 @@ public abstract class AbstractMetricUpdater<MetricT> implements MetricUpdater<Me
     return (pool == null) ? 0 : pool.getOrphanedIds();
   }
 
+  protected int waitQueueDepth(Node node) {
+    ChannelPool pool = context.getPoolManager().getPools().get(node);
+    return (pool == null) ? 0 : pool.getWaitQueueDepth();
+  }
+
   protected void startMetricsExpirationTimeout() {
     metricsExpirationTimeoutRef.accumulateAndGet(
         newTimeout(),
@@ -40,11 +40,18 @@ public class DropwizardSessionMetricUpdater extends DropwizardMetricUpdater<Sess
 
     initializeGauge(DefaultSessionMetric.CONNECTED_NODES, profile, this::connectedNodes);
     initializeGauge(DefaultSessionMetric.THROTTLING_QUEUE_SIZE, profile, this::throttlingQueueSize);
+    initializeGauge(
+        DefaultSessionMetric.THROTTLING_CONCURRENCY_LIMIT,
+        profile,
+        this::throttlingConcurrencyLimit);
     initializeGauge(
         DefaultSessionMetric.CQL_PREPARED_CACHE_SIZE, profile, this::preparedStatementCacheSize);
+    initializeGauge(DefaultSessionMetric.TABLET_MAP_SIZE, profile, this::tabletMapSize);
 
     initializeCounter(DefaultSessionMetric.CQL_CLIENT_TIMEOUTS, profile);
     initializeCounter(DefaultSessionMetric.THROTTLING_ERRORS, profile);
+    initializeCounter(DefaultSessionMetric.RETRY_BUDGET_SUPPRESSED_RETRIES, profile);
+    initializeCounter(DefaultSessionMetric.RETRY_BUDGET_SUPPRESSED_SPECULATIVE_EXECUTIONS, profile);
     initializeCounter(DseSessionMetric.GRAPH_CLIENT_TIMEOUTS, profile);
 
     initializeHdrTimer(
@@ -59,6 +66,12 @@ public class DropwizardSessionMetricUpdater extends DropwizardMetricUpdater<Sess
         DefaultDriverOption.METRICS_SESSION_THROTTLING_HIGHEST,
         DefaultDriverOption.METRICS_SESSION_THROTTLING_DIGITS,
         DefaultDriverOption.METRICS_SESSION_THROTTLING_INTERVAL);
+    initializeHdrTimer(
+        DefaultSessionMetric.TOKEN_MAP_REBUILD,
+        profile,
+        DefaultDriverOption.METRICS_SESSION_TOKEN_MAP_REBUILD_HIGHEST,
+        DefaultDriverOption.METRICS_SESSION_TOKEN_MAP_REBUILD_DIGITS,
+        DefaultDriverOption.METRICS_SESSION_TOKEN_MAP_REBUILD_INTERVAL);
     initializeHdrTimer(
         DseSessionMetric.CONTINUOUS_CQL_REQUESTS,
         profile,
@@ -30,6 +30,7 @@ import com.datastax.oss.driver.api.core.UnsupportedProtocolVersionException;
 import com.datastax.oss.driver.api.core.auth.AuthenticationException;
 import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.connection.ReconnectionPolicy;
 import com.datastax.oss.driver.api.core.loadbalancing.NodeDistance;
 import com.datastax.oss.driver.api.core.metadata.Node;
@@ -52,20 +53,24 @@ import com.datastax.oss.driver.internal.core.util.concurrent.Reconnection;
 import com.datastax.oss.driver.internal.core.util.concurrent.RunOrSchedule;
 import com.datastax.oss.driver.internal.core.util.concurrent.UncaughtExceptions;
 import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
-import com.datastax.oss.driver.shaded.guava.common.collect.Sets;
+import com.datastax.oss.driver.shaded.guava.common.collect.Iterables;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GenericFutureListener;
+import io.netty.util.concurrent.ScheduledFuture;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import net.jcip.annotations.ThreadSafe;
@@ -83,6 +88,7 @@ import org.slf4j.LoggerFactory;
 @ThreadSafe
 public class ChannelPool implements AsyncAutoCloseable {
   private static final Logger LOG = LoggerFactory.getLogger(ChannelPool.class);
+  private static final long NOT_IDLE = Long.MIN_VALUE;
 
   /**
    * Initializes a new pool.
@@ -104,6 +110,9 @@ public class ChannelPool implements AsyncAutoCloseable {
 
   // This is read concurrently, but only mutated on adminExecutor (by methods in SingleThreaded)
   @VisibleForTesting ChannelSet[] channels;
+  // Same, null if the wait queue is disabled
+  @VisibleForTesting volatile ShardWaitQueue[] waitQueues;
+  private volatile long waitQueueMaxWaitNanos;
 
   private final Node node;
   private final CqlIdentifier initialKeyspaceName;
@@ -177,21 +186,7 @@ public class ChannelPool implements AsyncAutoCloseable {
       return channels[0].next();
     }
 
-    int shardId = -1;
-    if (shardSuggestion != null) {
-      if (shardSuggestion >= channels.length) {
-        LOG.warn("Shard suggestion is out of channels array bounds. Ignoring.");
-      } else {
-        shardId = shardSuggestion;
-      }
-    }
-    if (shardId == -1) {
-      shardId =
-          routingKey != null
-              ? singleThreaded.shardingInfo.shardId(routingKey)
-              : ThreadLocalRandom.current().nextInt(channels.length);
-    }
-
+    int shardId = targetShard(routingKey, shardSuggestion);
     if (channels[shardId].size() > 0) {
       return channels[shardId].next();
     }
@@ -207,6 +202,45 @@ public class ChannelPool implements AsyncAutoCloseable {
     return null;
   }
 
+  /**
+   * Waits for a stream id to become available on the shard targeted by {@link #next(Token,
+   * Integer)}, if the wait queue is enabled. This is meant to be called after {@code next} returned
+   * null, to give a busy replica a chance before moving to the next node.
+   *
+   * @param maxWaitNanos an upper bound for the wait, typically the time left before the request
+   *     times out (the configured maximum wait applies as well).
+   * @return null if the request can't wait on this pool: wait queue disabled, or no channels to the
+   *     target shard. Otherwise, a future that completes with a channel on which a stream id was
+   *     pre-acquired, or with null if the queue was full or the wait timed out.
+   */
+  @Nullable
+  public CompletionStage<DriverChannel> nextWhenAvailable(
+      @Nullable Token routingKey, @Nullable Integer shardSuggestion, long maxWaitNanos) {
+    ShardWaitQueue[] queues = waitQueues;
+    if (!singleThreaded.initialized || queues == null) {
+      return null;
+    }
+    int shardId =
+        (singleThreaded.shardingInfo == null) ? 0 : targetShard(routingKey, shardSuggestion);
+    if (channels[shardId].size() == 0) {
+      return null;
+    }
+    return queues[shardId].enqueue(Math.min(maxWaitNanos, waitQueueMaxWaitNanos));
+  }
+
+  private int targetShard(@Nullable Token routingKey, @Nullable Integer shardSuggestion) {
+    if (shardSuggestion != null) {
+      if (shardSuggestion >= channels.length) {
+        LOG.warn("Shard suggestion is out of channels array bounds. Ignoring.");
+      } else {
+        return shardSuggestion;
+      }
+    }
+    return routingKey != null
+        ? singleThreaded.shardingInfo.shardId(routingKey)
+        : ThreadLocalRandom.current().nextInt(channels.length);
+  }
+
   /** @return the number of active channels in the pool. */
   public int size() {
     return Arrays.stream(channels).mapToInt(ChannelSet::size).sum();
@@ -234,6 +268,47 @@ public class ChannelPool implements AsyncAutoCloseable {
     return Arrays.stream(channels).mapToInt(ChannelSet::getOrphanedIds).sum();
   }
 
+  /**
+   * @return the number of shards of the node, as reported when the pool was initialized; 1 if the
+   *     node is not sharded.
+   */
+  public int getShardCount() {
+    return channels.length;
+  }
+
+  /**
+   * @return the shard that owns the given token on this node, in the same way as {@link
+   *     #next(Token, Integer)} would compute it; 0 if the node is not sharded.
+   */
+  public int getShardId(@NonNull Token routingKey) {
+    ShardingInfo shardingInfo = singleThreaded.shardingInfo;
+    return (shardingInfo == null) ? 0 : shardingInfo.shardId(routingKey);
+  }
+
+  /**
+   * @return the number of available stream ids on the channels to the given shard, or 0 if the
+   *     shard does not exist.
+   */
+  public int getAvailableIds(int shardId) {
+    ChannelSet[] current = channels;
+    return (shardId >= 0 && shardId < current.length) ? current[shardId].getAvailableIds() : 0;
+  }
+
+  /**
+   * @return the number of requests currently executing on the channels to the given shard
+   *     (including orphaned ids), or 0 if the shard does not exist.
+   */
+  public int getInFlight(int shardId) {
+    ChannelSet[] current = channels;
+    return (shardId >= 0 && shardId < current.length) ? current[shardId].getInFlight() : 0;
+  }
+
+  /** @return the number of requests waiting for a stream id on any shard of this pool. */
+  public int getWaitQueueDepth() {
+    ShardWaitQueue[] queues = waitQueues;
+    return (queues == null) ? 0 : Arrays.stream(queues).mapToInt(ShardWaitQueue::size).sum();
+  }
+
   /**
    * Sets a new distance for the node this pool belongs to. This method returns immediately, the new
    * distance will be set asynchronously.
@@ -259,6 +334,14 @@ public class ChannelPool implements AsyncAutoCloseable {
     RunOrSchedule.on(adminExecutor, singleThreaded::reconnectNow);
   }
 
+  /**
+   * Runs one autoscaling check now (normally this happens periodically if autoscaling is enabled).
+   */
+  @VisibleForTesting
+  void autoscale() {
+    RunOrSchedule.on(adminExecutor, singleThreaded::autoscale);
+  }
+
   @NonNull
   @Override
   public CompletionStage<Void> closeFuture() {
@@ -287,6 +370,9 @@ public class ChannelPool implements AsyncAutoCloseable {
     private final EventBus eventBus;
     // The channels that are currently connecting
     private final List<CompletionStage<DriverChannel>> pendingChannels = new ArrayList<>();
+    // The channels that are currently connecting for an autoscaling growth (kept apart because
+    // growth doesn't go through the reconnection, which can run at the same time)
+    private final List<CompletionStage<DriverChannel>> growingChannels = new ArrayList<>();
     private final Set<DriverChannel> closingChannels = new HashSet<>();
     private final Reconnection reconnection;
     private final Object configListenerKey;
@@ -305,6 +391,13 @@ public class ChannelPool implements AsyncAutoCloseable {
 
     private volatile ShardingInfo shardingInfo;
 
+    // Autoscaling state, only initialized if the feature is enabled: the number of channels added
+    // on top of wantedCount for each shard, and when each shard's load went below the low-water
+    // mark (NOT_IDLE if it is above).
+    private int[] extraCounts;
+    private long[] idleSince;
+    private ScheduledFuture<?> autoscalingTask;
+
     private SingleThreaded(
         CqlIdentifier keyspaceName, NodeDistance distance, InternalDriverContext context) {
       this.keyspaceName = keyspaceName;
@@ -335,6 +428,10 @@ public class ChannelPool implements AsyncAutoCloseable {
 
     private void addChannel(DriverChannel c) {
       channels[c.getShardId()].add(c);
+      if (waitQueues != null) {
+        ShardWaitQueue waitQueue = waitQueues[c.getShardId()];
+        c.setStreamIdReleaseListener(() -> waitQueue.onStreamIdReleased(c));
+      }
       eventBus.fire(ChannelEvent.channelOpened(node));
       c.closeStartedFuture()
           .addListener(
@@ -353,15 +450,180 @@ public class ChannelPool implements AsyncAutoCloseable {
     private void initialize(DriverChannel c) {
       shardingInfo = c.getShardingInfo();
       ((DefaultNode) node).setShardingInfo(shardingInfo);
-      int wanted = getConfiguredSize(distance);
+      DriverExecutionProfile profile = config.getDefaultProfile();
       int shardsCount = shardingInfo == null ? 1 : shardingInfo.getShardsCount();
-      wantedCount = wanted / shardsCount + (wanted % shardsCount > 0 ? 1 : 0);
+      wantedCount = perShard(getConfiguredSize(distance));
+      ChannelSelectionStrategy selectionStrategy =
+          ChannelSelectionStrategy.fromName(
+              profile.getString(DefaultDriverOption.CONNECTION_POOL_CHANNEL_SELECTION));
       channels = new ChannelSet[shardsCount];
       for (int i = 0; i < channels.length; ++i) {
-        channels[i] = new ChannelSet();
+        channels[i] = new ChannelSet(selectionStrategy);
+      }
+      if (profile.getBoolean(DefaultDriverOption.CONNECTION_POOL_WAIT_QUEUE_ENABLED)) {
+        int maxSize = profile.getInt(DefaultDriverOption.CONNECTION_POOL_WAIT_QUEUE_MAX_SIZE);
+        waitQueueMaxWaitNanos =
+            profile.getDuration(DefaultDriverOption.CONNECTION_POOL_WAIT_QUEUE_MAX_WAIT).toNanos();
+        ShardWaitQueue[] queues = new ShardWaitQueue[shardsCount];
+        for (int i = 0; i < queues.length; ++i) {
+          // Expire waiters on an I/O event loop, like the releases that serve them, instead of
+          // competing with the pool's administrative tasks
+          queues[i] = new ShardWaitQueue(channels[i], maxSize, c.eventLoop());
+        }
+        waitQueues = queues;
       }
       addChannel(c);
       initialized = true;
+      if (profile.getBoolean(DefaultDriverOption.CONNECTION_POOL_AUTOSCALING_ENABLED)) {
+        startAutoscaling(shardsCount);
+      }
+    }
+
+    private void startAutoscaling(int shardsCount) {
+      assert adminExecutor.inEventLoop();
+      extraCounts = new int[shardsCount];
+      idleSince = new long[shardsCount];
+      Arrays.fill(idleSince, NOT_IDLE);
+      Duration interval =
+          config
+              .getDefaultProfile()
+              .getDuration(DefaultDriverOption.CONNECTION_POOL_AUTOSCALING_INTERVAL);
+      LOG.debug("[{}] Starting autoscaling with interval {}", logPrefix, interval);
+      autoscalingTask =
+          adminExecutor.scheduleAtFixedRate(
+              this::autoscale, interval.toNanos(), interval.toNanos(), TimeUnit.NANOSECONDS);
+      autoscalingTask.addListener(UncaughtExceptions::log);
+    }
+
+    /**
+     * Adjusts the number of extra channels of each shard according to its average number of
+     * in-flight requests per channel: grow by one channel when it reaches the high-water mark, and
+     * remove one extra channel once it has stayed below the low-water mark for the cool-down
+     * period. The total per shard always stays between the configured pool size and the autoscaling
+     * maximum.
+     */
+    private void autoscale() {
+      assert adminExecutor.inEventLoop();
+      if (!initialized || isClosing || extraCounts == null) {
+        return;
+      }
+      DriverExecutionProfile profile = config.getDefaultProfile();
+      int highWaterMark =
+          profile.getInt(DefaultDriverOption.CONNECTION_POOL_AUTOSCALING_HIGH_WATER_MARK);
+      int lowWaterMark =
+          profile.getInt(DefaultDriverOption.CONNECTION_POOL_AUTOSCALING_LOW_WATER_MARK);
+      long coolDownNanos =
+          profile.getDuration(DefaultDriverOption.CONNECTION_POOL_AUTOSCALING_COOL_DOWN).toNanos();
+      // Unlike the configured size, the maximum is per shard: dividing it among the shards would
+      // leave no room to grow on nodes that have at least as many shards as connections.
+      int maxExtraCount =
+          Math.max(
+              0,
+              profile.getInt(DefaultDriverOption.CONNECTION_POOL_AUTOSCALING_MAX_SIZE)
+                  - wantedCount);
+      long now = System.nanoTime();
+      boolean grow = false;
+      boolean shrink = false;
+      for (int shardId = 0; shardId < channels.length; shardId++) {
+        if (extraCounts[shardId] > maxExtraCount) {
+          // The bounds were changed in the configuration
+          extraCounts[shardId] = maxExtraCount;
+          shrink = true;
+        }
+        int size = channels[shardId].size();
+        if (size == 0) {
+          idleSince[shardId] = NOT_IDLE;
+          continue;
+        }
+        int averageInFlight = channels[shardId].getInFlight() / size;
+        if (averageInFlight >= highWaterMark) {
+          idleSince[shardId] = NOT_IDLE;
+          // Don't grow again until the previous growth is complete
+          if (size >= wantedCount(shardId)
+              && growingChannels.isEmpty()
+              && extraCounts[shardId] < maxExtraCount) {
+            extraCounts[shardId] += 1;
+            LOG.debug(
+                "[{}] Average in-flight {} on shard {}, growing to {} channels",
+                logPrefix,
+                averageInFlight,
+                shardId,
+                wantedCount(shardId));
+            grow = true;
+          }
+        } else if (averageInFlight < lowWaterMark && extraCounts[shardId] > 0) {
+          if (idleSince[shardId] == NOT_IDLE) {
+            idleSince[shardId] = now;
+          } else if (now - idleSince[shardId] >= coolDownNanos) {
+            extraCounts[shardId] -= 1;
+            // Wait for another cool-down period before removing the next one
+            idleSince[shardId] = now;
+            LOG.debug(
+                "[{}] Average in-flight {} on shard {}, shrinking to {} channels",
+                logPrefix,
+                averageInFlight,
+                shardId,
+                wantedCount(shardId));
+            shrink = true;
+          }
+        } else {
+          idleSince[shardId] = NOT_IDLE;
+        }
+      }
+      if (grow) {
+        grow();
+      } else if (shrink && !reconnection.isRunning()) {
+        shrinkIfTooManyChannels();
+      } // else it will be handled at the end of the reconnection attempt
+    }
+
+    /**
+     * Makes a single attempt to open the channels added by autoscaling.
+     *
+     * <p>This doesn't go through {@link #reconnection}: the node is healthy, so it must not be
+     * reported as reconnecting, and failed channels are not retried. Instead, the extra channels
+     * that couldn't be opened are forgotten, and the next check decides if they are still needed.
+     */
+    private void grow() {
+      assert adminExecutor.inEventLoop();
+      if (reconnection.isRunning()) {
+        // The next attempt will open the extra channels along with the missing ones
+        return;
+      }
+      addMissingChannels(growingChannels)
+          .thenAcceptAsync(
+              allConnected -> {
+                if (!allConnected && !isClosing) {
+                  for (int shardId = 0; shardId < channels.length; shardId++) {
+                    int size = channels[shardId].size();
+                    if (size < wantedCount(shardId)) {
+                      extraCounts[shardId] = Math.max(0, size - wantedCount);
+                    }
+                  }
+                }
+              },
+              adminExecutor)
+          .exceptionally(UncaughtExceptions::log);
+    }
+
+    /** The number of channels wanted for the given shard, including autoscaling. */
+    private int wantedCount(int shardId) {
+      return (extraCounts == null) ? wantedCount : wantedCount + extraCounts[shardId];
+    }
+
+    /** The number of channels wanted for all shards, including autoscaling. */
+    private int totalWantedCount() {
+      int total = 0;
+      for (int shardId = 0; shardId < channels.length; shardId++) {
+        total += wantedCount(shardId);
+      }
+      return total;
+    }
+
+    /** Converts a number of channels for the whole node into a number per shard (rounded up). */
+    private int perShard(int nodeCount) {
+      int shardsCount = shardingInfo == null ? 1 : shardingInfo.getShardsCount();
+      return nodeCount / shardsCount + (nodeCount % shardsCount > 0 ? 1 : 0);
     }
 
     private CompletionStage<Boolean> reconnect() {
@@ -481,20 +743,37 @@ public class ChannelPool implements AsyncAutoCloseable {
     }
 
     private CompletionStage<Boolean> addMissingChannels() {
+      return addMissingChannels(pendingChannels);
+    }
+
+    private CompletionStage<Boolean> addMissingChannels(
+        List<CompletionStage<DriverChannel>> pending) {
       assert adminExecutor.inEventLoop();
       // We always wait for all attempts to succeed or fail before scheduling a reconnection
-      assert pendingChannels.isEmpty();
+      assert pending.isEmpty();
 
-      int missing =
-          channels.length * wantedCount - Arrays.stream(channels).mapToInt(ChannelSet::size).sum();
+      int missing = totalWantedCount() - Arrays.stream(channels).mapToInt(ChannelSet::size).sum();
       LOG.debug("[{}] Trying to create {} missing channels", logPrefix, missing);
       DriverChannelOptions options = buildDriverOptions();
-      for (int i = 0; i < missing; i++) {
-        CompletionStage<DriverChannel> channelFuture = channelFactory.connect(node, options);
-        pendingChannels.add(channelFuture);
+      if (shardingInfo == null) {
+        for (int i = 0; i < missing; i++) {
+          CompletionStage<DriverChannel> channelFuture = channelFactory.connect(node, options);
+          pending.add(channelFuture);
+        }
+      } else {
+        // Target each shard explicitly: if the node has a shard-aware port, the channel factory
+        // will make the new channels land on the right shard.
+        for (int shardId = 0; shardId < channels.length; shardId++) {
+          int missingForShard = wantedCount(shardId) - channels[shardId].size();
+          for (int i = 0; i < missingForShard; i++) {
+            CompletionStage<DriverChannel> channelFuture =
+                channelFactory.connect(node, shardingInfo, shardId, options);
+            pending.add(channelFuture);
+          }
+        }
       }
-      return CompletableFutures.allDone(pendingChannels)
-          .thenApplyAsync(this::onAllConnected, adminExecutor);
+      return CompletableFutures.allDone(pending)
+          .thenApplyAsync(v -> onAllConnected(pending), adminExecutor);
     }
 
     private void handleError(
@@ -525,11 +804,11 @@ public class ChannelPool implements AsyncAutoCloseable {
       }
     }
 
-    private boolean onAllConnected(@SuppressWarnings("unused") Void v) {
+    private boolean onAllConnected(List<CompletionStage<DriverChannel>> pending) {
       assert adminExecutor.inEventLoop();
       Throwable[] fatalError = new Throwable[1];
       int[] invalidKeyspaceErrors = new int[] {0};
-      for (CompletionStage<DriverChannel> pendingChannel : pendingChannels) {
+      for (CompletionStage<DriverChannel> pendingChannel : pending) {
         CompletableFuture<DriverChannel> future = pendingChannel.toCompletableFuture();
         assert future.isDone();
         if (future.isCompletedExceptionally()) {
@@ -552,7 +831,7 @@ public class ChannelPool implements AsyncAutoCloseable {
             channel.forceClose();
           } else {
             LOG.debug("[{}] New channel added {}", logPrefix, channel);
-            if (channels[channel.getShardId()].size() < wantedCount) {
+            if (channels[channel.getShardId()].size() < wantedCount(channel.getShardId())) {
               addChannel(channel);
             } else {
               // TODO: buffer those channels up to some limit
@@ -563,9 +842,9 @@ public class ChannelPool implements AsyncAutoCloseable {
       }
       // If all channels failed, assume the keyspace is wrong
       invalidKeyspace =
-          invalidKeyspaceErrors[0] > 0 && invalidKeyspaceErrors[0] == pendingChannels.size();
+          invalidKeyspaceErrors[0] > 0 && invalidKeyspaceErrors[0] == pending.size();
 
-      pendingChannels.clear();
+      pending.clear();
 
       if (fatalError[0] != null) {
         Loggers.warnWithException(
@@ -590,9 +869,9 @@ public class ChannelPool implements AsyncAutoCloseable {
           "[{}] Reconnection attempt complete, {}/{} channels",
           logPrefix,
           currentCount,
-          channels.length * wantedCount);
+          totalWantedCount());
       // Stop reconnecting if we have the wanted count
-      return currentCount >= channels.length * wantedCount;
+      return currentCount >= totalWantedCount();
     }
 
     private void onChannelCloseStarted(DriverChannel channel) {
@@ -625,9 +904,7 @@ public class ChannelPool implements AsyncAutoCloseable {
     private void resize(NodeDistance newDistance) {
       assert adminExecutor.inEventLoop();
       distance = newDistance;
-      int newChannelCount = getConfiguredSize(newDistance);
-      int shardsCount = shardingInfo == null ? 1 : shardingInfo.getShardsCount();
-      newChannelCount = newChannelCount / shardsCount + (newChannelCount % shardsCount > 0 ? 1 : 0);
+      int newChannelCount = perShard(getConfiguredSize(newDistance));
       if (newChannelCount > wantedCount) {
         LOG.debug("[{}] Growing ({} => {} channels)", logPrefix, wantedCount, newChannelCount);
         wantedCount = newChannelCount;
@@ -644,19 +921,18 @@ public class ChannelPool implements AsyncAutoCloseable {
     private void shrinkIfTooManyChannels() {
       assert adminExecutor.inEventLoop();
       if (initialized) {
-        Set<DriverChannel> toRemove = Sets.newHashSet();
+        List<DriverChannel> toRemove = new ArrayList<>();
         for (int shardId = 0; shardId < channels.length; ++shardId) {
-          int extra = channels[shardId].size() - wantedCount;
+          int extra = channels[shardId].size() - wantedCount(shardId);
           if (extra > 0) {
             LOG.debug("[{}] Closing {} extra channels for shard {}", logPrefix, extra, shardId);
+            // Close the least busy channels, they have the fewest requests left to drain
             for (DriverChannel channel : channels[shardId]) {
               toRemove.add(channel);
-              if (--extra == 0) {
-                break;
-              }
             }
-            for (DriverChannel channel : toRemove) {
-              channels[channel.getShardId()].remove(channel);
+            toRemove.sort(Comparator.comparingInt(DriverChannel::getInFlight));
+            for (DriverChannel channel : toRemove.subList(0, extra)) {
+              channels[shardId].remove(channel);
               channel.close();
               eventBus.fire(ChannelEvent.channelClosed(node));
             }
@@ -706,7 +982,8 @@ public class ChannelPool implements AsyncAutoCloseable {
       }
 
       // pending channels were scheduled with the old keyspace name, ensure they eventually switch
-      for (CompletionStage<DriverChannel> channelFuture : pendingChannels) {
+      for (CompletionStage<DriverChannel> channelFuture :
+          Iterables.concat(pendingChannels, growingChannels)) {
         // errors are swallowed here, this is fine because a setkeyspace error will close the
         // channel, so it will eventually get reported
         channelFuture.thenAccept(channel -> channel.setKeyspace(newKeyspaceName));
@@ -732,6 +1009,14 @@ public class ChannelPool implements AsyncAutoCloseable {
       // If an attempt was in progress right now, it might open new channels but they will be
       // handled in onAllConnected
       reconnection.stop();
+      if (autoscalingTask != null) {
+        autoscalingTask.cancel(false);
+      }
+      if (waitQueues != null) {
+        for (ShardWaitQueue waitQueue : waitQueues) {
+          waitQueue.clear();
+        }
+      }
 
       eventBus.unregister(configListenerKey, ConfigChangeEvent.class);
 
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.pool;
+
+import com.datastax.oss.driver.internal.core.channel.DriverChannel;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.Locale;
+
+/**
+ * Picks the channel that will carry the next request among the channels of a {@link ChannelSet}.
+ *
+ * <p>This is called on the request path, so implementations must be thread-safe and cheap. They
+ * must also reserve a stream id on the channel they return, with {@link
+ * DriverChannel#preAcquireId()}.
+ *
+ * @see
+ *     com.datastax.oss.driver.api.core.config.DefaultDriverOption#CONNECTION_POOL_CHANNEL_SELECTION
+ */
+interface ChannelSelectionStrategy {
+
+  /**
+   * @param channels a snapshot of the channels of the set; it always contains at least two
+   *     elements, and must not be modified.
+   * @return the selected channel (on which a stream id was successfully pre-acquired), or null if
+   *     all channels are full.
+   */
+  @Nullable
+  DriverChannel select(@NonNull DriverChannel[] channels);
+
+  /**
+   * Returns the strategy matching a value of the {@code advanced.connection.pool.channel-selection}
+   * option.
+   *
+   * @throws IllegalArgumentException if the name is unknown.
+   */
+  static ChannelSelectionStrategy fromName(@NonNull String name) {
+    switch (name.toLowerCase(Locale.ROOT)) {
+      case "least-busy":
+        return LeastBusyChannelSelectionStrategy.INSTANCE;
+      case "power-of-two-choices":
+        return PowerOfTwoChoicesChannelSelectionStrategy.INSTANCE;
+      default:
+        throw new IllegalArgumentException(
+            String.format(
+                "Unknown channel selection strategy '%s' "
+                    + "(expected one of 'least-busy', 'power-of-two-choices')",
+                name));
+    }
+  }
+}
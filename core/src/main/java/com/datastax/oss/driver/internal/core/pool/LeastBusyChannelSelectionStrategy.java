@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.pool;
+
+import com.datastax.oss.driver.internal.core.channel.DriverChannel;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scans all channels and picks the one with the most available stream ids.
+ *
+ * <p>This gives the most even distribution, but costs a full scan per request, plus another one
+ * each time the pre-acquisition races with a concurrent caller.
+ */
+@ThreadSafe
+class LeastBusyChannelSelectionStrategy implements ChannelSelectionStrategy {
+
+  static final LeastBusyChannelSelectionStrategy INSTANCE = new LeastBusyChannelSelectionStrategy();
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(LeastBusyChannelSelectionStrategy.class);
+
+  /**
+   * The maximum number of iterations in the busy wait loop in {@link #select(DriverChannel[])}.
+   * This is a backstop to protect against thread starvation, in practice we've never observed more
+   * than 3 iterations in tests.
+   */
+  private static final int MAX_ITERATIONS = 50;
+
+  @Override
+  public DriverChannel select(@NonNull DriverChannel[] channels) {
+    for (int i = 0; i < MAX_ITERATIONS; i++) {
+      DriverChannel best = null;
+      int bestScore = 0;
+      for (DriverChannel channel : channels) {
+        int score = channel.getAvailableIds();
+        if (score > bestScore) {
+          bestScore = score;
+          best = channel;
+        }
+      }
+      if (best == null) {
+        return null;
+      } else if (best.preAcquireId()) {
+        return best;
+      }
+    }
+    LOG.trace("Could not select a channel after {} iterations", MAX_ITERATIONS);
+    return null;
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.pool;
+
+import com.datastax.oss.driver.internal.core.channel.DriverChannel;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.concurrent.ThreadLocalRandom;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Samples two random channels and picks the one with the most available stream ids ("power of two
+ * choices").
+ *
+ * <p>The cost is constant regardless of the number of channels, and because concurrent callers
+ * sample different pairs, they rarely race for the same channel. If both candidates are full, or
+ * the pre-acquisition keeps failing, this falls back to {@link LeastBusyChannelSelectionStrategy}
+ * so that a request is only rejected when all channels are actually full.
+ */
+@ThreadSafe
+class PowerOfTwoChoicesChannelSelectionStrategy implements ChannelSelectionStrategy {
+
+  static final PowerOfTwoChoicesChannelSelectionStrategy INSTANCE =
+      new PowerOfTwoChoicesChannelSelectionStrategy();
+
+  /** How many random pairs we try before falling back to a full scan. */
+  private static final int MAX_ATTEMPTS = 2;
+
+  @Override
+  public DriverChannel select(@NonNull DriverChannel[] channels) {
+    int length = channels.length;
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+      int i = random.nextInt(length);
+      // Pick a second index distinct from the first one
+      int j = random.nextInt(length - 1);
+      if (j >= i) {
+        j += 1;
+      }
+      DriverChannel first = channels[i];
+      DriverChannel second = channels[j];
+      int firstScore = first.getAvailableIds();
+      int secondScore = second.getAvailableIds();
+      if (firstScore < secondScore) {
+        DriverChannel tmpChannel = first;
+        first = second;
+        second = tmpChannel;
+        int tmpScore = firstScore;
+        firstScore = secondScore;
+        secondScore = tmpScore;
+      }
+      if (firstScore <= 0) {
+        // Both candidates are full, other channels might not be
+        break;
+      }
+      if (first.preAcquireId()) {
+        return first;
+      }
+      if (secondScore > 0 && second.preAcquireId()) {
+        return second;
+      }
+    }
+    return LeastBusyChannelSelectionStrategy.INSTANCE.select(channels);
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.pool;
+
+import com.datastax.oss.driver.internal.core.channel.DriverChannel;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.ScheduledFuture;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Bounded queue of requests waiting for a stream id on the channels of a shard.
+ *
+ * <p>When all the channels of the shard are busy, a request can wait here for a limited time
+ * instead of moving on to the next node. Each time a stream id is released on one of the channels,
+ * the oldest waiter is handed a channel on which an id was pre-acquired for it.
+ *
+ * <p>Waiters that time out are only marked as claimed: removing them from the middle of the queue
+ * would be O(n). They are skipped when polled, and purged in bulk once enough of them accumulated.
+ */
+@ThreadSafe
+class ShardWaitQueue {
+
+  private static final CompletionStage<DriverChannel> NO_CHANNEL =
+      CompletableFuture.completedFuture(null);
+
+  private static final AtomicIntegerFieldUpdater<Waiter> CLAIMED =
+      AtomicIntegerFieldUpdater.newUpdater(Waiter.class, "claimed");
+
+  private final ChannelSet channels;
+  private final int maxSize;
+  private final EventExecutor timeoutExecutor;
+  private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+  // The number of waiters that are not claimed yet. Tracked separately because
+  // ConcurrentLinkedQueue.size() is O(n), and the queue also holds expired waiters.
+  private final AtomicInteger size = new AtomicInteger();
+  // Approximate number of expired waiters left in the queue
+  private final AtomicInteger expired = new AtomicInteger();
+
+  ShardWaitQueue(ChannelSet channels, int maxSize, EventExecutor timeoutExecutor) {
+    this.channels = channels;
+    this.maxSize = maxSize;
+    this.timeoutExecutor = timeoutExecutor;
+  }
+
+  /**
+   * @return a future that completes with a channel on which a stream id was pre-acquired, or with
+   *     null if the queue is full or no id was released before the timeout.
+   */
+  CompletionStage<DriverChannel> enqueue(long timeoutNanos) {
+    while (true) {
+      int current = size.get();
+      if (current >= maxSize || timeoutNanos <= 0) {
+        return NO_CHANNEL;
+      } else if (size.compareAndSet(current, current + 1)) {
+        break;
+      }
+    }
+    Waiter waiter = new Waiter();
+    // Schedule before publishing, so that the timeout is always set when the waiter gets served
+    // (if it fires before the offer, the waiter is already claimed and will just be skipped)
+    waiter.timeout = timeoutExecutor.schedule(waiter, timeoutNanos, TimeUnit.NANOSECONDS);
+    waiters.offer(waiter);
+    // An id might have been released between the caller's failed attempt and now
+    serve();
+    return waiter;
+  }
+
+  /** Invoked on a channel's event loop each time one of its stream ids is released. */
+  void onStreamIdReleased(DriverChannel channel) {
+    if (size.get() > 0) {
+      // Don't serve inline: we're in the middle of processing a response
+      channel.eventLoop().execute(this::serve);
+    }
+  }
+
+  int size() {
+    return size.get();
+  }
+
+  /** Completes all pending waiters with null. */
+  void clear() {
+    Waiter waiter;
+    while ((waiter = waiters.poll()) != null) {
+      if (waiter.claim()) {
+        waiter.timeout.cancel(false);
+        waiter.complete(null);
+      }
+    }
+  }
+
+  private void serve() {
+    while (size.get() > 0) {
+      DriverChannel channel = channels.next();
+      if (channel == null) {
+        return;
+      }
+      boolean handedOver = false;
+      Waiter waiter;
+      while (!handedOver && (waiter = waiters.poll()) != null) {
+        // This fails if the waiter has expired, in that case try the next one
+        handedOver = waiter.claim();
+        if (handedOver) {
+          waiter.timeout.cancel(false);
+          waiter.complete(channel);
+        }
+      }
+      if (!handedOver) {
+        channel.cancelPreAcquireId();
+        return;
+      }
+    }
+  }
+
+  private class Waiter extends CompletableFuture<DriverChannel> implements Runnable {
+
+    private volatile ScheduledFuture<?> timeout;
+    // 1 once a thread has won the right to complete this waiter, see CLAIMED
+    volatile int claimed;
+
+    /** Whether the caller won the right to complete this waiter; if so, updates the size. */
+    boolean claim() {
+      if (CLAIMED.compareAndSet(this, 0, 1)) {
+        size.decrementAndGet();
+        return true;
+      }
+      return false;
+    }
+
+    boolean isClaimed() {
+      return claimed == 1;
+    }
+
+    @Override
+    public void run() {
+      // Leave the waiter in the queue, it will be skipped when polled
+      if (claim()) {
+        complete(null);
+        // If the queue is not served, expired waiters pile up: purge them regularly. This is
+        // O(n), but only happens once every maxSize expirations.
+        if (expired.incrementAndGet() > maxSize) {
+          expired.set(0);
+          waiters.removeIf(Waiter::isClaimed);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.metrics.DefaultNodeMetric;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.metrics.NodeMetricUpdater;
+import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
+import com.datastax.oss.protocol.internal.Compressor;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.netty.buffer.ByteBuf;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Decides, for a single connection, whether outgoing payloads should be compressed.
+ *
+ * <p>Payloads smaller than {@code min-size} are always sent uncompressed. In adaptive mode, the
+ * ratio achieved over the last {@code sample-size} compressed payloads is measured; if it is below
+ * {@code min-ratio}, the next {@code bypass-count} payloads are sent uncompressed, then a new
+ * sample is taken.
+ *
+ * <p>This is not thread-safe: an instance belongs to a single channel, and is only accessed from
+ * its event loop (by the outbound encoders).
+ */
+@NotThreadSafe
+public class AdaptiveCompression {
+
+  /**
+   * Returns the instance to use for a new connection, or {@code null} if compression is disabled,
+   * or if the configuration says that all payloads should be compressed unconditionally.
+   */
+  @Nullable
+  public static AdaptiveCompression newInstance(
+      @NonNull InternalDriverContext context,
+      @NonNull DriverExecutionProfile config,
+      @NonNull NodeMetricUpdater metricUpdater) {
+    Compressor<ByteBuf> compressor = context.getCompressor();
+    if (compressor == null || compressor.algorithm() == null) {
+      return null;
+    }
+    long minSize = config.getBytes(DefaultDriverOption.PROTOCOL_COMPRESSION_MIN_SIZE);
+    boolean adaptive = config.getBoolean(DefaultDriverOption.PROTOCOL_COMPRESSION_ADAPTIVE_ENABLED);
+    if (minSize <= 0
+        && !adaptive
+        && !metricUpdater.isEnabled(DefaultNodeMetric.COMPRESSION_RAW_BYTES, null)
+        && !metricUpdater.isEnabled(DefaultNodeMetric.COMPRESSION_COMPRESSED_BYTES, null)) {
+      return null;
+    }
+    return adaptive
+        ? new AdaptiveCompression(
+            minSize,
+            true,
+            config.getDouble(DefaultDriverOption.PROTOCOL_COMPRESSION_ADAPTIVE_MIN_RATIO),
+            config.getInt(DefaultDriverOption.PROTOCOL_COMPRESSION_ADAPTIVE_SAMPLE_SIZE),
+            config.getInt(DefaultDriverOption.PROTOCOL_COMPRESSION_ADAPTIVE_BYPASS_COUNT),
+            metricUpdater)
+        : new AdaptiveCompression(minSize, false, 0, 0, 0, metricUpdater);
+  }
+
+  private final long minSize;
+  private final boolean adaptive;
+  private final double minRatio;
+  private final int sampleSize;
+  private final int bypassCount;
+  private final NodeMetricUpdater metricUpdater;
+
+  private int sampled;
+  private long sampledRawBytes;
+  private long sampledCompressedBytes;
+  private int bypassRemaining;
+
+  @VisibleForTesting
+  AdaptiveCompression(
+      long minSize,
+      boolean adaptive,
+      double minRatio,
+      int sampleSize,
+      int bypassCount,
+      @NonNull NodeMetricUpdater metricUpdater) {
+    this.minSize = minSize;
+    this.adaptive = adaptive;
+    this.minRatio = minRatio;
+    this.sampleSize = Math.max(sampleSize, 1);
+    this.bypassCount = Math.max(bypassCount, 0);
+    this.metricUpdater = metricUpdater;
+  }
+
+  /**
+   * Whether the next payload should be compressed. If this returns true, the caller must then
+   * invoke {@link #onCompressed(int, int)}, otherwise {@link #onUncompressed(int)}.
+   */
+  public boolean shouldCompress(int rawLength) {
+    if (rawLength < minSize) {
+      return false;
+    }
+    if (bypassRemaining > 0) {
+      bypassRemaining -= 1;
+      return false;
+    }
+    return true;
+  }
+
+  public void onCompressed(int rawLength, int compressedLength) {
+    record(rawLength, compressedLength);
+    if (adaptive) {
+      sampled += 1;
+      sampledRawBytes += rawLength;
+      sampledCompressedBytes += compressedLength;
+      if (sampled >= sampleSize) {
+        if (sampledRawBytes < minRatio * sampledCompressedBytes) {
+          bypassRemaining = bypassCount;
+        }
+        sampled = 0;
+        sampledRawBytes = 0;
+        sampledCompressedBytes = 0;
+      }
+    }
+  }
+
+  public void onUncompressed(int rawLength) {
+    record(rawLength, rawLength);
+  }
+
+  /**
+   * Wraps a compressor to apply this instance's decisions in protocol v5 and above.
+   *
+   * <p>This relies on the fact that {@code SegmentCodec} sends a segment uncompressed if the
+   * compressed payload is not smaller: to bypass compression, we return the input as-is.
+   */
+  @NonNull
+  public Compressor<ByteBuf> wrap(@NonNull Compressor<ByteBuf> compressor) {
+    return new SegmentCompressor(compressor);
+  }
+
+  private void record(int rawLength, int sentLength) {
+    metricUpdater.incrementCounter(DefaultNodeMetric.COMPRESSION_RAW_BYTES, null, rawLength);
+    metricUpdater.incrementCounter(
+        DefaultNodeMetric.COMPRESSION_COMPRESSED_BYTES, null, sentLength);
+  }
+
+  private class SegmentCompressor implements Compressor<ByteBuf> {
+
+    private final Compressor<ByteBuf> delegate;
+
+    private SegmentCompressor(Compressor<ByteBuf> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public String algorithm() {
+      return delegate.algorithm();
+    }
+
+    @Override
+    public ByteBuf compressWithoutLength(ByteBuf uncompressed) {
+      int rawLength = uncompressed.readableBytes();
+      if (!shouldCompress(rawLength)) {
+        onUncompressed(rawLength);
+        // The codec will release this and write the original buffer
+        return uncompressed.retainedDuplicate();
+      }
+      ByteBuf compressed = delegate.compressWithoutLength(uncompressed);
+      // If compression made the payload bigger, the codec will write the original buffer
+      onCompressed(rawLength, Math.min(rawLength, compressed.readableBytes()));
+      return compressed;
+    }
+
+    @Override
+    public ByteBuf compress(ByteBuf uncompressed) {
+      return delegate.compress(uncompressed);
+    }
+
+    @Override
+    public ByteBuf decompress(ByteBuf compressed) {
+      return delegate.decompress(compressed);
+    }
+
+    @Override
+    public ByteBuf decompressWithoutLength(ByteBuf compressed, int uncompressedLength) {
+      return delegate.decompressWithoutLength(compressed, uncompressedLength);
+    }
+  }
+}
@@ -37,6 +37,8 @@ public class BuiltInCompressors {
         return new Lz4Compressor(context);
       case "snappy":
         return new SnappyCompressor(context);
+      case "zstd":
+        return new ZstdCompressor(context);
       case "none":
         return Compressor.none();
       default:
@@ -31,7 +31,7 @@ import java.util.function.BooleanSupplier;
 
 /**
  * Handles GraalVM substitutions for compressors: LZ4 is only supported if we can find the native
- * library in the classpath, and Snappy is never supported.
+ * library in the classpath, and Snappy and Zstd are never supported.
  *
  * <p>When a compressor is not supported, we delete its class, and modify {@link
  * BuiltInCompressors#newInstance(String, DriverContext)} to throw an error if the user attempts to
@@ -50,6 +50,9 @@ public class CompressorSubstitutions {
         case "snappy":
           throw new UnsupportedOperationException(
               "Snappy compression is not supported for native images");
+        case "zstd":
+          throw new UnsupportedOperationException(
+              "Zstd compression is not supported for native images");
         case "none":
           return Compressor.none();
         default:
@@ -72,6 +75,9 @@ public class CompressorSubstitutions {
         case "snappy":
           throw new UnsupportedOperationException(
               "Snappy compression is not supported for native images");
+        case "zstd":
+          throw new UnsupportedOperationException(
+              "Zstd compression is not supported for native images");
         case "none":
           return Compressor.none();
         default:
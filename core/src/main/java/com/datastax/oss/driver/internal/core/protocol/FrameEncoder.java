@@ -20,6 +20,8 @@ package com.datastax.oss.driver.internal.core.protocol;
 import com.datastax.oss.driver.api.core.connection.FrameTooLongException;
 import com.datastax.oss.protocol.internal.Frame;
 import com.datastax.oss.protocol.internal.FrameCodec;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
@@ -27,22 +29,66 @@ import io.netty.handler.codec.MessageToMessageEncoder;
 import java.util.List;
 import net.jcip.annotations.ThreadSafe;
 
+/**
+ * Encodes outgoing frames in protocol v4 and below.
+ *
+ * <p>This is sharable, unless an {@link AdaptiveCompression} is provided: the latter holds
+ * per-connection state, so a new encoder must be created for each channel.
+ */
 @ChannelHandler.Sharable
 @ThreadSafe
 public class FrameEncoder extends MessageToMessageEncoder<Frame> {
 
   private final FrameCodec<ByteBuf> frameCodec;
   private final int maxFrameLength;
+  private final FrameCodec<ByteBuf> uncompressedFrameCodec;
+  private final AdaptiveCompression compression;
 
   public FrameEncoder(FrameCodec<ByteBuf> frameCodec, int maxFrameLength) {
+    this(frameCodec, maxFrameLength, null, null);
+  }
+
+  /**
+   * @param uncompressedFrameCodec a codec that does not compress, used for the frames that {@code
+   *     compression} decides not to compress. Must be non-null if {@code compression} is.
+   */
+  public FrameEncoder(
+      FrameCodec<ByteBuf> frameCodec,
+      int maxFrameLength,
+      @Nullable FrameCodec<ByteBuf> uncompressedFrameCodec,
+      @Nullable AdaptiveCompression compression) {
     super(Frame.class);
     this.frameCodec = frameCodec;
     this.maxFrameLength = maxFrameLength;
+    this.uncompressedFrameCodec = uncompressedFrameCodec;
+    this.compression = compression;
+  }
+
+  @Nullable
+  public AdaptiveCompression getCompression() {
+    return compression;
   }
 
   @Override
   protected void encode(ChannelHandlerContext ctx, Frame frame, List<Object> out) throws Exception {
-    ByteBuf buffer = frameCodec.encode(frame);
+    ByteBuf buffer;
+    int opcode = frame.message.opcode;
+    if (compression == null
+        // The codec never compresses these
+        || opcode == ProtocolConstants.Opcode.STARTUP
+        || opcode == ProtocolConstants.Opcode.OPTIONS) {
+      buffer = frameCodec.encode(frame);
+    } else {
+      int bodyLength = frameCodec.encodedBodySize(frame);
+      if (compression.shouldCompress(bodyLength)) {
+        buffer = frameCodec.encode(frame);
+        compression.onCompressed(
+            bodyLength, buffer.readableBytes() - frameCodec.encodedHeaderSize(frame));
+      } else {
+        buffer = uncompressedFrameCodec.encode(frame);
+        compression.onUncompressed(bodyLength);
+      }
+    }
     int actualLength = buffer.readableBytes();
     if (actualLength > maxFrameLength) {
       throw new FrameTooLongException(
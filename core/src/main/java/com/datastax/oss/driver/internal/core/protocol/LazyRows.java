@@ -0,0 +1,312 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
+import com.datastax.oss.driver.shaded.guava.common.base.Preconditions;
+import com.datastax.oss.protocol.internal.response.result.Rows;
+import com.datastax.oss.protocol.internal.response.result.RowsMetadata;
+import io.netty.buffer.ByteBuf;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * A ROWS response whose cells are decoded on demand.
+ *
+ * <p>The rows section of the response is kept in its wire format: each cell is a 4-byte length
+ * (negative for null) followed by the contents. Rows are only delimited when they are polled from
+ * {@link #getData()}, and a cell is only decoded the first time it is accessed; it is then cached
+ * in the row, so that reading it again doesn't allocate anything.
+ *
+ * <p>The rows must be copied out of the frame, because the frame buffer is reused by Netty once it
+ * has been decoded, whereas the cells can outlive the page (e.g. {@code ResultSet.all()}, or a cell
+ * buffer kept by the client). They are copied in chunks of whole rows, of {@link #CHUNK_SIZE} bytes
+ * or less (unless a single row is larger), to avoid allocating huge arrays for large pages.
+ *
+ * <p>Compared to {@code DefaultRows}, which allocates a list and a buffer for every cell of the
+ * page when the frame is decoded, this greatly reduces the number of allocated objects for large
+ * pages.
+ */
+@NotThreadSafe
+public class LazyRows extends Rows {
+
+  /**
+   * The target size of each copied chunk. This is below the humongous allocation threshold of G1
+   * with its smallest region size (half of 1 MB).
+   */
+  @VisibleForTesting static final int CHUNK_SIZE = 256 * 1024;
+
+  private static final ByteBuffer NULL_CELL = ByteBuffer.allocate(0);
+
+  private final RowsMetadata metadata;
+  private final Queue<List<ByteBuffer>> data;
+
+  /**
+   * Copies the rows from a frame.
+   *
+   * @param source the frame, positioned at the beginning of the rows. All its remaining bytes are
+   *     consumed.
+   */
+  public static LazyRows copyOf(RowsMetadata metadata, int rowCount, ByteBuf source) {
+    int columnCount = metadata.columnCount;
+    int end = source.writerIndex();
+    List<Chunk> chunks = new ArrayList<>();
+    int chunkStart = source.readerIndex();
+    int chunkRows = 0;
+    int offset = chunkStart;
+    for (int row = 0; row < rowCount; row++) {
+      for (int column = 0; column < columnCount; column++) {
+        int length = source.getInt(offset);
+        offset = checkCellEnd(offset, length, end);
+      }
+      chunkRows += 1;
+      if (offset - chunkStart >= CHUNK_SIZE || row == rowCount - 1) {
+        byte[] bytes = new byte[offset - chunkStart];
+        source.getBytes(chunkStart, bytes);
+        chunks.add(new Chunk(bytes, chunkRows));
+        chunkStart = offset;
+        chunkRows = 0;
+      }
+    }
+    source.readerIndex(end);
+    return new LazyRows(metadata, rowCount, chunks.toArray(new Chunk[0]));
+  }
+
+  private LazyRows(RowsMetadata metadata, int rowCount, Chunk[] chunks) {
+    this.metadata = metadata;
+    this.data = new RowQueue(chunks, metadata.columnCount, rowCount);
+  }
+
+  @Override
+  public RowsMetadata getMetadata() {
+    return metadata;
+  }
+
+  /**
+   * The rows that haven't been consumed yet. Iterating doesn't consume rows, only {@link
+   * Queue#poll()} and {@link Queue#remove()} do; elements can't be added.
+   */
+  @Override
+  public Queue<List<ByteBuffer>> getData() {
+    return data;
+  }
+
+  @VisibleForTesting
+  int getChunkCount() {
+    return ((RowQueue) data).chunks.length;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("ROWS(%d x %d columns)", data.size(), metadata.columnCount);
+  }
+
+  private static int readInt(byte[] bytes, int offset) {
+    return (bytes[offset] & 0xFF) << 24
+        | (bytes[offset + 1] & 0xFF) << 16
+        | (bytes[offset + 2] & 0xFF) << 8
+        | (bytes[offset + 3] & 0xFF);
+  }
+
+  /** Returns the offset of the cell that follows the one at the given offset. */
+  private static int skipCell(byte[] bytes, int offset) {
+    return checkCellEnd(offset, readInt(bytes, offset), bytes.length);
+  }
+
+  private static int checkCellEnd(int offset, int length, int end) {
+    int next = offset + 4 + Math.max(length, 0);
+    if (next > end || next < offset) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Malformed ROWS response: cell length %d at offset %d exceeds the frame",
+              length, offset));
+    }
+    return next;
+  }
+
+  private static class Chunk {
+    private final byte[] bytes;
+    private final int rowCount;
+
+    private Chunk(byte[] bytes, int rowCount) {
+      this.bytes = bytes;
+      this.rowCount = rowCount;
+    }
+  }
+
+  /** The position of the next row in the page. */
+  private static class Cursor {
+    private final Chunk[] chunks;
+    private final int columnCount;
+    private int remaining;
+    private int chunkIndex;
+    private int rowInChunk;
+    private int position;
+
+    private Cursor(Chunk[] chunks, int columnCount, int remaining) {
+      this.chunks = chunks;
+      this.columnCount = columnCount;
+      this.remaining = remaining;
+    }
+
+    private Cursor(Cursor that) {
+      this(that.chunks, that.columnCount, that.remaining);
+      this.chunkIndex = that.chunkIndex;
+      this.rowInChunk = that.rowInChunk;
+      this.position = that.position;
+    }
+
+    private LazyRow current() {
+      return new LazyRow(chunks[chunkIndex].bytes, position, columnCount);
+    }
+
+    private LazyRow next() {
+      LazyRow row = current();
+      remaining -= 1;
+      if (++rowInChunk == chunks[chunkIndex].rowCount) {
+        chunkIndex += 1;
+        rowInChunk = 0;
+        position = 0;
+      } else {
+        position = row.end();
+      }
+      return row;
+    }
+  }
+
+  private static class RowQueue extends AbstractQueue<List<ByteBuffer>> {
+
+    private final Chunk[] chunks;
+    private final Cursor cursor;
+
+    private RowQueue(Chunk[] chunks, int columnCount, int rowCount) {
+      this.chunks = chunks;
+      this.cursor = new Cursor(chunks, columnCount, rowCount);
+    }
+
+    @Override
+    public int size() {
+      return cursor.remaining;
+    }
+
+    @Override
+    public boolean offer(List<ByteBuffer> row) {
+      throw new UnsupportedOperationException("Can't add rows to a decoded response");
+    }
+
+    @Override
+    public List<ByteBuffer> peek() {
+      return (cursor.remaining == 0) ? null : cursor.current();
+    }
+
+    @Override
+    public List<ByteBuffer> poll() {
+      return (cursor.remaining == 0) ? null : cursor.next();
+    }
+
+    @Override
+    public Iterator<List<ByteBuffer>> iterator() {
+      Cursor iteratorCursor = new Cursor(cursor);
+      return new Iterator<List<ByteBuffer>>() {
+        @Override
+        public boolean hasNext() {
+          return iteratorCursor.remaining > 0;
+        }
+
+        @Override
+        public List<ByteBuffer> next() {
+          if (iteratorCursor.remaining == 0) {
+            throw new NoSuchElementException();
+          }
+          return iteratorCursor.next();
+        }
+      };
+    }
+  }
+
+  private static class LazyRow extends AbstractList<ByteBuffer> {
+
+    private final byte[] bytes;
+    private final int start;
+    private final int columnCount;
+
+    // The decoded cells (NULL_CELL for null values), filled on demand.
+    private ByteBuffer[] cells;
+    // The furthest cell whose offset is known, so that reading the cells in order doesn't rescan
+    // the row from the start every time.
+    private int scanIndex;
+    private int scanOffset;
+    private int end = -1;
+
+    private LazyRow(byte[] bytes, int start, int columnCount) {
+      this.bytes = bytes;
+      this.start = start;
+      this.columnCount = columnCount;
+      this.scanOffset = start;
+    }
+
+    @Override
+    public ByteBuffer get(int index) {
+      Preconditions.checkElementIndex(index, columnCount);
+      if (cells == null) {
+        cells = new ByteBuffer[columnCount];
+      }
+      ByteBuffer cell = cells[index];
+      if (cell == null) {
+        int offset = offsetOf(index);
+        int length = readInt(bytes, offset);
+        cell = (length < 0) ? NULL_CELL : ByteBuffer.wrap(bytes, offset + 4, length).slice();
+        cells[index] = cell;
+      }
+      return (cell == NULL_CELL) ? null : cell;
+    }
+
+    @Override
+    public int size() {
+      return columnCount;
+    }
+
+    private int offsetOf(int index) {
+      if (index < scanIndex) {
+        scanIndex = 0;
+        scanOffset = start;
+      }
+      while (scanIndex < index) {
+        scanOffset = skipCell(bytes, scanOffset);
+        scanIndex += 1;
+      }
+      return scanOffset;
+    }
+
+    private int end() {
+      if (end < 0) {
+        int offset = start;
+        for (int i = 0; i < columnCount; i++) {
+          offset = skipCell(bytes, offset);
+        }
+        end = offset;
+      }
+      return end;
+    }
+  }
+}
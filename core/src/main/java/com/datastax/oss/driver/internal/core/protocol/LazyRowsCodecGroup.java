@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import com.datastax.dse.protocol.internal.DseProtocolConstants;
+import com.datastax.dse.protocol.internal.response.result.DseRowsMetadata;
+import com.datastax.oss.protocol.internal.FrameCodec;
+import com.datastax.oss.protocol.internal.Message;
+import com.datastax.oss.protocol.internal.PrimitiveCodec;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.response.result.RowsMetadata;
+import io.netty.buffer.ByteBuf;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Wraps the codecs of another group, in order to decode ROWS responses as {@link LazyRows}.
+ *
+ * <p>All other messages, including the other kinds of RESULT responses, are handled by the original
+ * codecs.
+ */
+@ThreadSafe
+public class LazyRowsCodecGroup implements FrameCodec.CodecGroup {
+
+  private final FrameCodec.CodecGroup delegate;
+
+  public LazyRowsCodecGroup(FrameCodec.CodecGroup delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public void registerCodecs(Registry registry) {
+    delegate.registerCodecs(
+        new Registry() {
+          @Override
+          public Registry addCodec(Message.Codec codec) {
+            addEncoder(codec);
+            return addDecoder(codec);
+          }
+
+          @Override
+          public Registry addEncoder(Message.Codec codec) {
+            registry.addEncoder(codec);
+            return this;
+          }
+
+          @Override
+          public Registry addDecoder(Message.Codec codec) {
+            registry.addDecoder(
+                (codec.opcode == ProtocolConstants.Opcode.RESULT) ? new ResultCodec(codec) : codec);
+            return this;
+          }
+        });
+  }
+
+  private static class ResultCodec extends Message.Codec {
+
+    private final Message.Codec delegate;
+
+    private ResultCodec(Message.Codec delegate) {
+      super(delegate.opcode, delegate.protocolVersion);
+      this.delegate = delegate;
+    }
+
+    @Override
+    public <B> void encode(B dest, Message message, PrimitiveCodec<B> encoder) {
+      delegate.encode(dest, message, encoder);
+    }
+
+    @Override
+    public int encodedSize(Message message) {
+      return delegate.encodedSize(message);
+    }
+
+    @Override
+    public <B> Message decode(B source, PrimitiveCodec<B> decoder) {
+      // The driver always decodes from Netty buffers. Peek at the kind without consuming it.
+      if (!(source instanceof ByteBuf)) {
+        return delegate.decode(source, decoder);
+      }
+      ByteBuf buffer = (ByteBuf) source;
+      if (buffer.getInt(buffer.readerIndex()) != ProtocolConstants.ResultKind.ROWS) {
+        return delegate.decode(source, decoder);
+      }
+      buffer.skipBytes(4);
+      RowsMetadata metadata =
+          (protocolVersion >= DseProtocolConstants.Version.DSE_V1)
+              ? DseRowsMetadata.decode(source, decoder, false, protocolVersion)
+              : RowsMetadata.decode(source, decoder, false, protocolVersion);
+      int rowCount = decoder.readInt(source);
+      // The rows extend to the end of the message.
+      return LazyRows.copyOf(metadata, rowCount, buffer);
+    }
+  }
+}
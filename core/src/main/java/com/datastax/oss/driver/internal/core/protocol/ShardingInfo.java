@@ -35,18 +35,29 @@ public class ShardingInfo implements NodeShardingInfo {
   private static final String SCYLLA_PARTITIONER = "SCYLLA_PARTITIONER";
   private static final String SCYLLA_SHARDING_ALGORITHM = "SCYLLA_SHARDING_ALGORITHM";
   private static final String SCYLLA_SHARDING_IGNORE_MSB = "SCYLLA_SHARDING_IGNORE_MSB";
+  private static final String SCYLLA_SHARD_AWARE_PORT = "SCYLLA_SHARD_AWARE_PORT";
+  private static final String SCYLLA_SHARD_AWARE_PORT_SSL = "SCYLLA_SHARD_AWARE_PORT_SSL";
 
   private final int shardsCount;
   private final String partitioner;
   private final String shardingAlgorithm;
   private final int shardingIgnoreMSB;
+  private final int shardAwarePort;
+  private final int shardAwarePortSsl;
 
   private ShardingInfo(
-      int shardsCount, String partitioner, String shardingAlgorithm, int shardingIgnoreMSB) {
+      int shardsCount,
+      String partitioner,
+      String shardingAlgorithm,
+      int shardingIgnoreMSB,
+      int shardAwarePort,
+      int shardAwarePortSsl) {
     this.shardsCount = shardsCount;
     this.partitioner = partitioner;
     this.shardingAlgorithm = shardingAlgorithm;
     this.shardingIgnoreMSB = shardingIgnoreMSB;
+    this.shardAwarePort = shardAwarePort;
+    this.shardAwarePortSsl = shardAwarePortSsl;
   }
 
   @Override
@@ -62,6 +73,16 @@ public class ShardingInfo implements NodeShardingInfo {
     return shardingAlgorithm;
   }
 
+  /**
+   * The port on which the node assigns incoming connections to shard {@code localPort %
+   * shardsCount}, or 0 if the node does not advertise one.
+   *
+   * @param ssl whether the port for encrypted connections is requested.
+   */
+  public int getShardAwarePort(boolean ssl) {
+    return ssl ? shardAwarePortSsl : shardAwarePort;
+  }
+
   @Override
   public int shardId(Token t) {
     if (!(t instanceof TokenLong64)) {
@@ -94,6 +115,8 @@ public class ShardingInfo implements NodeShardingInfo {
     String partitioner = parseString(params, SCYLLA_PARTITIONER);
     String shardingAlgorithm = parseString(params, SCYLLA_SHARDING_ALGORITHM);
     Integer shardingIgnoreMSB = parseInt(params, SCYLLA_SHARDING_IGNORE_MSB);
+    Integer shardAwarePort = parseInt(params, SCYLLA_SHARD_AWARE_PORT);
+    Integer shardAwarePortSsl = parseInt(params, SCYLLA_SHARD_AWARE_PORT_SSL);
     if (shardId == null
         || shardsCount == null
         || partitioner == null
@@ -104,7 +127,14 @@ public class ShardingInfo implements NodeShardingInfo {
       return null;
     }
     return new ConnectionShardingInfo(
-        shardId, new ShardingInfo(shardsCount, partitioner, shardingAlgorithm, shardingIgnoreMSB));
+        shardId,
+        new ShardingInfo(
+            shardsCount,
+            partitioner,
+            shardingAlgorithm,
+            shardingIgnoreMSB,
+            shardAwarePort == null ? 0 : shardAwarePort,
+            shardAwarePortSsl == null ? 0 : shardAwarePortSsl));
   }
 
   private static String parseString(Map<String, List<String>> params, String key) {
@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import static com.datastax.oss.driver.internal.core.util.Dependency.ZSTD;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.internal.core.util.DefaultDependencyChecker;
+import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdCompressCtx;
+import com.github.luben.zstd.ZstdDecompressCtx;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.concurrent.FastThreadLocal;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compresses frames (protocol v4 and below) or segments (protocol v5) with Zstandard.
+ *
+ * <p>Compression and decompression contexts are expensive to create, so each thread keeps its own
+ * pair, initialized with the configured level and optional dictionary.
+ */
+@ThreadSafe
+public class ZstdCompressor extends ByteBufCompressor {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ZstdCompressor.class);
+
+  private final FastThreadLocal<ZstdCompressCtx> compressContexts;
+  private final FastThreadLocal<ZstdDecompressCtx> decompressContexts;
+
+  public ZstdCompressor(DriverContext context) {
+    this(context.getSessionName(), context.getConfig().getDefaultProfile());
+  }
+
+  private ZstdCompressor(String sessionName, DriverExecutionProfile config) {
+    this(
+        sessionName,
+        config.getInt(DefaultDriverOption.PROTOCOL_ZSTD_LEVEL),
+        readDictionary(config));
+  }
+
+  @VisibleForTesting
+  ZstdCompressor(String sessionName, int level, @Nullable byte[] dictionary) {
+    if (DefaultDependencyChecker.isPresent(ZSTD)) {
+      if (level < Zstd.minCompressionLevel() || level > Zstd.maxCompressionLevel()) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Invalid zstd compression level %d (from configuration option %s), "
+                    + "expected a value between %d and %d",
+                level,
+                DefaultDriverOption.PROTOCOL_ZSTD_LEVEL.getPath(),
+                Zstd.minCompressionLevel(),
+                Zstd.maxCompressionLevel()));
+      }
+      LOG.info(
+          "[{}] Using zstd with level {}{}",
+          sessionName,
+          level,
+          dictionary == null ? "" : " and a " + dictionary.length + "-byte dictionary");
+      // Digested dictionaries are immutable and can be shared by all contexts
+      ZstdDictCompress compressDictionary =
+          (dictionary == null) ? null : new ZstdDictCompress(dictionary, level);
+      ZstdDictDecompress decompressDictionary =
+          (dictionary == null) ? null : new ZstdDictDecompress(dictionary);
+      this.compressContexts =
+          new FastThreadLocal<ZstdCompressCtx>() {
+            @Override
+            protected ZstdCompressCtx initialValue() {
+              ZstdCompressCtx ctx = new ZstdCompressCtx().setLevel(level);
+              return (compressDictionary == null) ? ctx : ctx.loadDict(compressDictionary);
+            }
+
+            @Override
+            protected void onRemoval(ZstdCompressCtx ctx) {
+              ctx.close();
+            }
+          };
+      this.decompressContexts =
+          new FastThreadLocal<ZstdDecompressCtx>() {
+            @Override
+            protected ZstdDecompressCtx initialValue() {
+              ZstdDecompressCtx ctx = new ZstdDecompressCtx();
+              return (decompressDictionary == null) ? ctx : ctx.loadDict(decompressDictionary);
+            }
+
+            @Override
+            protected void onRemoval(ZstdDecompressCtx ctx) {
+              ctx.close();
+            }
+          };
+    } else {
+      throw new IllegalStateException(
+          "Could not find the zstd-jni library on the classpath "
+              + "(the driver declares it as an optional dependency, "
+              + "so you need to declare it explicitly)");
+    }
+  }
+
+  @Override
+  public String algorithm() {
+    return "zstd";
+  }
+
+  @Override
+  protected ByteBuf compressDirect(ByteBuf input, boolean prependWithUncompressedLength) {
+    int maxCompressedLength = (int) Zstd.compressBound(input.readableBytes());
+    ByteBuf output =
+        input.alloc().directBuffer((prependWithUncompressedLength ? 4 : 0) + maxCompressedLength);
+    try {
+      ByteBuffer in = inputNioBuffer(input);
+      // Increase reader index.
+      input.readerIndex(input.writerIndex());
+
+      if (prependWithUncompressedLength) {
+        output.writeInt(in.remaining());
+      }
+
+      ByteBuffer out = outputNioBuffer(output);
+      int written =
+          compressContexts
+              .get()
+              .compressDirectByteBuffer(
+                  out, out.position(), out.remaining(), in, in.position(), in.remaining());
+      // Set the writer index so the amount of written bytes is reflected
+      output.writerIndex(output.writerIndex() + written);
+    } catch (Exception e) {
+      // release output buffer so we not leak and rethrow exception.
+      output.release();
+      throw e;
+    }
+    return output;
+  }
+
+  @Override
+  protected ByteBuf compressHeap(ByteBuf input, boolean prependWithUncompressedLength) {
+    int maxCompressedLength = (int) Zstd.compressBound(input.readableBytes());
+
+    // Not a direct buffer so use byte arrays...
+    int inOffset = input.arrayOffset() + input.readerIndex();
+    byte[] in = input.array();
+    int len = input.readableBytes();
+    // Increase reader index.
+    input.readerIndex(input.writerIndex());
+
+    // Allocate a heap buffer from the ByteBufAllocator as we may use a PooledByteBufAllocator and
+    // so can eliminate the overhead of allocate a new byte[].
+    ByteBuf output =
+        input.alloc().heapBuffer((prependWithUncompressedLength ? 4 : 0) + maxCompressedLength);
+    try {
+      if (prependWithUncompressedLength) {
+        output.writeInt(len);
+      }
+      // calculate the correct offset.
+      int offset = output.arrayOffset() + output.writerIndex();
+      byte[] out = output.array();
+      int written =
+          compressContexts
+              .get()
+              .compressByteArray(out, offset, output.writableBytes(), in, inOffset, len);
+
+      // Set the writer index so the amount of written bytes is reflected
+      output.writerIndex(output.writerIndex() + written);
+    } catch (Exception e) {
+      // release output buffer so we not leak and rethrow exception.
+      output.release();
+      throw e;
+    }
+    return output;
+  }
+
+  @Override
+  protected int readUncompressedLength(ByteBuf compressed) {
+    return compressed.readInt();
+  }
+
+  @Override
+  protected ByteBuf decompressDirect(ByteBuf input, int uncompressedLength) {
+    ByteBuffer in = inputNioBuffer(input);
+    // Increase reader index.
+    input.readerIndex(input.writerIndex());
+    ByteBuf output = input.alloc().directBuffer(uncompressedLength);
+    try {
+      ByteBuffer out = outputNioBuffer(output);
+      int read =
+          decompressContexts
+              .get()
+              .decompressDirectByteBuffer(
+                  out, out.position(), uncompressedLength, in, in.position(), in.remaining());
+      if (read != uncompressedLength) {
+        throw new IllegalArgumentException("Uncompressed lengths mismatch");
+      }
+
+      // Set the writer index so the amount of written bytes is reflected
+      output.writerIndex(output.writerIndex() + uncompressedLength);
+    } catch (Exception e) {
+      // release output buffer so we not leak and rethrow exception.
+      output.release();
+      throw e;
+    }
+    return output;
+  }
+
+  @Override
+  protected ByteBuf decompressHeap(ByteBuf input, int uncompressedLength) {
+    // Not a direct buffer so use byte arrays...
+    byte[] in = input.array();
+    int len = input.readableBytes();
+    int inOffset = input.arrayOffset() + input.readerIndex();
+    // Increase reader index.
+    input.readerIndex(input.writerIndex());
+
+    // Allocate a heap buffer from the ByteBufAllocator as we may use a PooledByteBufAllocator and
+    // so can eliminate the overhead of allocate a new byte[].
+    ByteBuf output = input.alloc().heapBuffer(uncompressedLength);
+    try {
+      int offset = output.arrayOffset() + output.writerIndex();
+      byte[] out = output.array();
+      int read =
+          decompressContexts
+              .get()
+              .decompressByteArray(out, offset, uncompressedLength, in, inOffset, len);
+      if (read != uncompressedLength) {
+        throw new IllegalArgumentException("Uncompressed lengths mismatch");
+      }
+
+      // Set the writer index so the amount of written bytes is reflected
+      output.writerIndex(output.writerIndex() + uncompressedLength);
+    } catch (Exception e) {
+      // release output buffer so we not leak and rethrow exception.
+      output.release();
+      throw e;
+    }
+    return output;
+  }
+
+  @Nullable
+  private static byte[] readDictionary(DriverExecutionProfile config) {
+    if (!config.isDefined(DefaultDriverOption.PROTOCOL_ZSTD_DICTIONARY)) {
+      return null;
+    }
+    String path = config.getString(DefaultDriverOption.PROTOCOL_ZSTD_DICTIONARY);
+    try {
+      return Files.readAllBytes(Paths.get(path));
+    } catch (IOException e) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Could not read zstd dictionary '%s' (from configuration option %s)",
+              path, DefaultDriverOption.PROTOCOL_ZSTD_DICTIONARY.getPath()),
+          e);
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.retry;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import java.util.concurrent.atomic.AtomicLong;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A session-wide budget for the extra attempts of requests, namely speculative executions and
+ * retries.
+ *
+ * <p>This is a token bucket: each primary request deposits a fraction of a token (the configured
+ * percentage divided by 100), and each extra attempt withdraws a whole token. Extra attempts are
+ * allowed as long as the bucket holds at least one token, so over time they can't exceed the
+ * configured percentage of primary requests. The bucket starts full, and holds at most {@code
+ * burst} tokens, which allows short bursts of extra attempts after a quiet period.
+ *
+ * <p>This prevents retries and speculative executions from multiplying the load on the cluster
+ * during a partial outage, which is exactly when it is the most fragile.
+ */
+@ThreadSafe
+public class RetryBudget {
+
+  // Use fixed-point arithmetic to handle fractions of tokens
+  private static final long TOKEN = 1000;
+
+  private final boolean enabled;
+  private final long deposit;
+  private final long capacity;
+  private final AtomicLong balance;
+
+  public RetryBudget(DriverContext context) {
+    DriverExecutionProfile config = context.getConfig().getDefaultProfile();
+    this.enabled = config.getBoolean(DefaultDriverOption.RETRY_BUDGET_ENABLED, false);
+    double percentage = config.getDouble(DefaultDriverOption.RETRY_BUDGET_PERCENTAGE, 10.0);
+    if (percentage < 0) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Invalid value for %s, must be positive or 0",
+              DefaultDriverOption.RETRY_BUDGET_PERCENTAGE.getPath()));
+    }
+    int burst = config.getInt(DefaultDriverOption.RETRY_BUDGET_BURST, 100);
+    if (burst < 1) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Invalid value for %s, must be at least 1",
+              DefaultDriverOption.RETRY_BUDGET_BURST.getPath()));
+    }
+    this.deposit = Math.round(percentage * TOKEN / 100);
+    this.capacity = burst * TOKEN;
+    this.balance = new AtomicLong(capacity);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /** Records that a primary (non-speculative, non-retry) request has started. */
+  public void onPrimaryRequest() {
+    if (enabled) {
+      balance.getAndUpdate(current -> Math.min(capacity, current + deposit));
+    }
+  }
+
+  /**
+   * Tries to withdraw a token for an extra attempt.
+   *
+   * @return whether the attempt is allowed.
+   */
+  public boolean tryAcquire() {
+    if (!enabled) {
+      return true;
+    }
+    while (true) {
+      long current = balance.get();
+      if (current < TOKEN) {
+        return false;
+      }
+      if (balance.compareAndSet(current, current - TOKEN)) {
+        return true;
+      }
+    }
+  }
+
+  /** The number of whole tokens currently available. */
+  public long getAvailableTokens() {
+    return balance.get() / TOKEN;
+  }
+}
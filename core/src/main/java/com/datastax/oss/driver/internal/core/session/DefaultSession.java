@@ -276,6 +276,31 @@ public class DefaultSession implements CqlSession {
     }
   }
 
+  /**
+   * Waits for a stream id on the node's pool, when {@link #getChannel(Node, String, Token,
+   * Integer)} returned null because all the channels to the target shard were busy.
+   *
+   * @return null if the pool doesn't support waiting (see {@link ChannelPool#nextWhenAvailable}).
+   */
+  @Nullable
+  public CompletionStage<DriverChannel> waitForChannel(
+      @NonNull Node node,
+      @NonNull String logPrefix,
+      @Nullable Token routingKey,
+      @Nullable Integer shardSuggestion,
+      long maxWaitNanos) {
+    ChannelPool pool = poolManager.getPools().get(node);
+    if (pool == null) {
+      return null;
+    }
+    CompletionStage<DriverChannel> channelFuture =
+        pool.nextWhenAvailable(routingKey, shardSuggestion, maxWaitNanos);
+    if (channelFuture != null) {
+      LOG.trace("[{}] All channels to {} are busy, waiting for a stream id", logPrefix, node);
+    }
+    return channelFuture;
+  }
+
   @NonNull
   public ConcurrentMap<ByteBuffer, RepreparePayload> getRepreparePayloads() {
     return poolManager.getRepreparePayloads();
@@ -412,6 +437,7 @@ public class DefaultSession implements CqlSession {
           .thenCompose(v -> metadataManager.refreshNodes())
           .thenCompose(v -> checkProtocolVersion())
           .thenCompose(v -> initialSchemaRefresh())
+          .thenCompose(v -> metadataManager.preloadTablets())
           .thenCompose(v -> initializePools(keyspace))
           .whenComplete(
               (v, error) -> {
@@ -0,0 +1,341 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.session.throttling;
+
+import com.datastax.oss.driver.api.core.RequestThrottlingException;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.servererrors.OverloadedException;
+import com.datastax.oss.driver.api.core.session.throttling.RequestThrottler;
+import com.datastax.oss.driver.api.core.session.throttling.Throttled;
+import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A request throttler that limits the number of concurrent requests, and adjusts that limit based
+ * on the latencies and timeouts that it observes.
+ *
+ * <p>The limit follows an AIMD (additive increase, multiplicative decrease) scheme:
+ *
+ * <ul>
+ *   <li>each request that completes faster than the latency threshold increases the limit by {@code
+ *       1 / limit} (roughly one more concurrent request per "round" of requests). This only happens
+ *       while at least half of the current limit is in use, otherwise the limit is not the
+ *       bottleneck;
+ *   <li>a request that times out, fails with an {@link OverloadedException}, or completes slower
+ *       than the latency threshold multiplies the limit by the backoff ratio. Only requests that
+ *       started after the previous decrease can cause a new one, so that a burst of slow responses
+ *       only counts once.
+ * </ul>
+ *
+ * The limit always stays between the configured minimum and maximum. Requests beyond the limit are
+ * enqueued, like with {@link ConcurrencyLimitingRequestThrottler}.
+ *
+ * <p>To activate this throttler, modify the {@code advanced.throttler} section in the driver
+ * configuration, for example:
+ *
+ * <pre>
+ * datastax-java-driver {
+ *   advanced.throttler {
+ *     class = AdaptiveConcurrencyLimitingRequestThrottler
+ *     min-concurrent-requests = 10
+ *     initial-concurrent-requests = 100
+ *     max-concurrent-requests = 10000
+ *     max-queue-size = 10000
+ *     latency-threshold = 200 milliseconds
+ *     backoff-ratio = 0.9
+ *   }
+ * }
+ * </pre>
+ *
+ * See {@code reference.conf} (in the manual or core driver JAR) for more details.
+ */
+@ThreadSafe
+public class AdaptiveConcurrencyLimitingRequestThrottler implements RequestThrottler {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(AdaptiveConcurrencyLimitingRequestThrottler.class);
+
+  private final String logPrefix;
+  private final NanoClock clock;
+  private final int minConcurrentRequests;
+  private final int maxConcurrentRequests;
+  private final int maxQueueSize;
+  private final long latencyThresholdNanos;
+  private final double backoffRatio;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  @GuardedBy("lock")
+  private double limit;
+
+  @GuardedBy("lock")
+  private long lastDecreaseNanos;
+
+  @GuardedBy("lock")
+  private int concurrentRequests;
+
+  // The start time of each active request
+  @GuardedBy("lock")
+  private final Map<Throttled, Long> startTimes = new IdentityHashMap<>();
+
+  @GuardedBy("lock")
+  private final Deque<Throttled> queue = new ArrayDeque<>();
+
+  @GuardedBy("lock")
+  private boolean closed;
+
+  public AdaptiveConcurrencyLimitingRequestThrottler(DriverContext context) {
+    this(context, System::nanoTime);
+  }
+
+  @VisibleForTesting
+  AdaptiveConcurrencyLimitingRequestThrottler(DriverContext context, NanoClock clock) {
+    this.logPrefix = context.getSessionName();
+    this.clock = clock;
+    DriverExecutionProfile config = context.getConfig().getDefaultProfile();
+    this.maxConcurrentRequests =
+        config.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_CONCURRENT_REQUESTS);
+    this.minConcurrentRequests =
+        config.getInt(
+            DefaultDriverOption.REQUEST_THROTTLER_MIN_CONCURRENT_REQUESTS,
+            Math.min(10, maxConcurrentRequests));
+    if (minConcurrentRequests < 1 || minConcurrentRequests > maxConcurrentRequests) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Invalid value for %s, must be between 1 and %s",
+              DefaultDriverOption.REQUEST_THROTTLER_MIN_CONCURRENT_REQUESTS.getPath(),
+              DefaultDriverOption.REQUEST_THROTTLER_MAX_CONCURRENT_REQUESTS.getPath()));
+    }
+    int initialConcurrentRequests =
+        config.getInt(DefaultDriverOption.REQUEST_THROTTLER_INITIAL_CONCURRENT_REQUESTS, 100);
+    this.limit =
+        Math.max(minConcurrentRequests, Math.min(maxConcurrentRequests, initialConcurrentRequests));
+    this.maxQueueSize = config.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_QUEUE_SIZE);
+    this.latencyThresholdNanos =
+        config
+            .getDuration(
+                DefaultDriverOption.REQUEST_THROTTLER_LATENCY_THRESHOLD, Duration.ofMillis(200))
+            .toNanos();
+    this.backoffRatio = config.getDouble(DefaultDriverOption.REQUEST_THROTTLER_BACKOFF_RATIO, 0.9);
+    if (backoffRatio <= 0 || backoffRatio >= 1) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Invalid value for %s, must be strictly between 0 and 1",
+              DefaultDriverOption.REQUEST_THROTTLER_BACKOFF_RATIO.getPath()));
+    }
+    this.lastDecreaseNanos = clock.nanoTime();
+    LOG.debug(
+        "[{}] Initializing with concurrency limit = {} (min = {}, max = {}), maxQueueSize = {}",
+        logPrefix,
+        (int) limit,
+        minConcurrentRequests,
+        maxConcurrentRequests,
+        maxQueueSize);
+  }
+
+  @Override
+  public void register(@NonNull Throttled request) {
+    lock.lock();
+    try {
+      if (closed) {
+        LOG.trace("[{}] Rejecting request after shutdown", logPrefix);
+        fail(request, "The session is shutting down");
+      } else if (queue.isEmpty() && concurrentRequests < (int) limit) {
+        // We have capacity for one more concurrent request
+        LOG.trace("[{}] Starting newly registered request", logPrefix);
+        start(request, false);
+      } else if (queue.size() < maxQueueSize) {
+        LOG.trace("[{}] Enqueuing request", logPrefix);
+        queue.add(request);
+      } else {
+        LOG.trace("[{}] Rejecting request because of full queue", logPrefix);
+        fail(
+            request,
+            String.format(
+                "The session has reached its maximum capacity "
+                    + "(concurrent requests: %d, queue size: %d)",
+                (int) limit, maxQueueSize));
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void signalSuccess(@NonNull Throttled request) {
+    lock.lock();
+    try {
+      Long startNanos = startTimes.remove(request);
+      if (startNanos != null) {
+        if (clock.nanoTime() - startNanos > latencyThresholdNanos) {
+          decreaseLimit(startNanos);
+        } else {
+          increaseLimit();
+        }
+      }
+      onRequestDone();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void signalError(@NonNull Throttled request, @NonNull Throwable error) {
+    lock.lock();
+    try {
+      Long startNanos = startTimes.remove(request);
+      // Other errors don't tell anything about the load of the cluster
+      if (startNanos != null && error instanceof OverloadedException) {
+        decreaseLimit(startNanos);
+      }
+      onRequestDone();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void signalTimeout(@NonNull Throttled request) {
+    lock.lock();
+    try {
+      if (!closed) {
+        if (queue.remove(request)) { // The request timed out before it was active
+          LOG.trace("[{}] Removing timed out request from the queue", logPrefix);
+        } else {
+          Long startNanos = startTimes.remove(request);
+          if (startNanos != null) {
+            decreaseLimit(startNanos);
+          }
+          onRequestDone();
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @SuppressWarnings("GuardedBy") // this method is only called with the lock held
+  private void start(Throttled request, boolean wasDelayed) {
+    assert lock.isHeldByCurrentThread();
+    concurrentRequests += 1;
+    startTimes.put(request, clock.nanoTime());
+    request.onThrottleReady(wasDelayed);
+  }
+
+  @SuppressWarnings("GuardedBy") // this method is only called with the lock held
+  private void increaseLimit() {
+    assert lock.isHeldByCurrentThread();
+    // Don't grow the limit if the application doesn't use it
+    if (concurrentRequests * 2 >= limit) {
+      limit = Math.min(maxConcurrentRequests, limit + 1 / limit);
+    }
+  }
+
+  @SuppressWarnings("GuardedBy") // this method is only called with the lock held
+  private void decreaseLimit(long startNanos) {
+    assert lock.isHeldByCurrentThread();
+    // Requests that were already running at the time of the last decrease were subject to the same
+    // conditions, don't penalize them again.
+    if (startNanos - lastDecreaseNanos >= 0) {
+      limit = Math.max(minConcurrentRequests, limit * backoffRatio);
+      lastDecreaseNanos = clock.nanoTime();
+      LOG.trace("[{}] Decreasing concurrency limit to {}", logPrefix, (int) limit);
+    }
+  }
+
+  @SuppressWarnings("GuardedBy") // this method is only called with the lock held
+  private void onRequestDone() {
+    assert lock.isHeldByCurrentThread();
+    if (!closed) {
+      concurrentRequests -= 1;
+      // The limit might have grown, so we can start more than one request
+      while (!queue.isEmpty() && concurrentRequests < (int) limit) {
+        LOG.trace("[{}] Starting dequeued request", logPrefix);
+        start(queue.poll(), true);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      closed = true;
+      LOG.debug("[{}] Rejecting {} queued requests after shutdown", logPrefix, queue.size());
+      for (Throttled request : queue) {
+        fail(request, "The session is shutting down");
+      }
+      startTimes.clear();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getQueueSize() {
+    lock.lock();
+    try {
+      return queue.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** The current concurrency limit. */
+  public int getConcurrencyLimit() {
+    lock.lock();
+    try {
+      return (int) limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @VisibleForTesting
+  int getConcurrentRequests() {
+    lock.lock();
+    try {
+      return concurrentRequests;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @VisibleForTesting
+  Deque<Throttled> getQueue() {
+    lock.lock();
+    try {
+      return queue;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static void fail(Throttled request, String message) {
+    request.onThrottleFailure(new RequestThrottlingException(message));
+  }
+}
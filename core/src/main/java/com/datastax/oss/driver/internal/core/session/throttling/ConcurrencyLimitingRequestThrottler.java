@@ -173,6 +173,10 @@ public class ConcurrencyLimitingRequestThrottler implements RequestThrottler {
     }
   }
 
+  public int getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
   public int getQueueSize() {
     lock.lock();
     try {
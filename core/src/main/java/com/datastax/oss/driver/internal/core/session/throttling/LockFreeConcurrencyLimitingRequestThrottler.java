@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.session.throttling;
+
+import com.datastax.oss.driver.api.core.RequestThrottlingException;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.session.throttling.RequestThrottler;
+import com.datastax.oss.driver.api.core.session.throttling.Throttled;
+import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A lock-free variant of {@link ConcurrencyLimitingRequestThrottler}.
+ *
+ * <p>It has the same semantics and configuration options, but never blocks the calling thread:
+ * permits are acquired with a compare-and-set on an atomic counter, and waiting requests are held
+ * in a non-blocking queue. It should be preferred when many threads register requests concurrently,
+ * and the lock of the default implementation becomes a point of contention.
+ *
+ * <p>To activate this throttler, modify the {@code advanced.throttler} section in the driver
+ * configuration, for example:
+ *
+ * <pre>
+ * datastax-java-driver {
+ *   advanced.throttler {
+ *     class = LockFreeConcurrencyLimitingRequestThrottler
+ *     max-concurrent-requests = 10000
+ *     max-queue-size = 10000
+ *   }
+ * }
+ * </pre>
+ *
+ * See {@code reference.conf} (in the manual or core driver JAR) for more details.
+ */
+@ThreadSafe
+public class LockFreeConcurrencyLimitingRequestThrottler implements RequestThrottler {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(LockFreeConcurrencyLimitingRequestThrottler.class);
+
+  private final String logPrefix;
+  private final int maxConcurrentRequests;
+  private final int maxQueueSize;
+
+  private final AtomicInteger concurrentRequests = new AtomicInteger();
+  // ConcurrentLinkedQueue.size() is O(n), so the size is tracked separately. It is incremented
+  // before an element is added, and decremented after it is removed, so it is never lower than the
+  // actual size.
+  private final AtomicInteger queueSize = new AtomicInteger();
+  private final Queue<Throttled> queue = new ConcurrentLinkedQueue<>();
+
+  private volatile boolean closed;
+
+  public LockFreeConcurrencyLimitingRequestThrottler(DriverContext context) {
+    this.logPrefix = context.getSessionName();
+    DriverExecutionProfile config = context.getConfig().getDefaultProfile();
+    this.maxConcurrentRequests =
+        config.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_CONCURRENT_REQUESTS);
+    this.maxQueueSize = config.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_QUEUE_SIZE);
+    LOG.debug(
+        "[{}] Initializing with maxConcurrentRequests = {}, maxQueueSize = {}",
+        logPrefix,
+        maxConcurrentRequests,
+        maxQueueSize);
+  }
+
+  @Override
+  public void register(@NonNull Throttled request) {
+    if (closed) {
+      LOG.trace("[{}] Rejecting request after shutdown", logPrefix);
+      fail(request, "The session is shutting down");
+    } else if (queueSize.get() == 0 && tryAcquirePermit()) {
+      // We have capacity for one more concurrent request
+      LOG.trace("[{}] Starting newly registered request", logPrefix);
+      request.onThrottleReady(false);
+    } else if (tryReserveQueueSlot()) {
+      LOG.trace("[{}] Enqueuing request", logPrefix);
+      queue.add(request);
+      if (closed) {
+        // close() might have drained the queue before we added to it
+        if (queue.remove(request)) {
+          queueSize.decrementAndGet();
+          fail(request, "The session is shutting down");
+        }
+      } else {
+        // All active requests might have completed between our capacity check and the insertion,
+        // in which case nobody else would dequeue us.
+        drain();
+      }
+    } else {
+      LOG.trace("[{}] Rejecting request because of full queue", logPrefix);
+      fail(
+          request,
+          String.format(
+              "The session has reached its maximum capacity "
+                  + "(concurrent requests: %d, queue size: %d)",
+              maxConcurrentRequests, maxQueueSize));
+    }
+  }
+
+  @Override
+  public void signalSuccess(@NonNull Throttled request) {
+    onRequestDone();
+  }
+
+  @Override
+  public void signalError(@NonNull Throttled request, @NonNull Throwable error) {
+    signalSuccess(request); // not treated differently
+  }
+
+  @Override
+  public void signalTimeout(@NonNull Throttled request) {
+    if (!closed) {
+      if (queue.remove(request)) { // The request timed out before it was active
+        LOG.trace("[{}] Removing timed out request from the queue", logPrefix);
+        queueSize.decrementAndGet();
+      } else {
+        onRequestDone();
+      }
+    }
+  }
+
+  private void onRequestDone() {
+    if (!closed) {
+      Throttled next = queue.poll();
+      if (next == null) {
+        concurrentRequests.decrementAndGet();
+        // A request might have been enqueued concurrently, after it saw no available permit
+        drain();
+      } else {
+        queueSize.decrementAndGet();
+        LOG.trace("[{}] Starting dequeued request", logPrefix);
+        next.onThrottleReady(true);
+        // don't touch concurrentRequests since we finished one but started another
+      }
+    }
+  }
+
+  /** Starts as many queued requests as the available permits allow. */
+  private void drain() {
+    while (!closed && queueSize.get() > 0 && tryAcquirePermit()) {
+      Throttled next = queue.poll();
+      if (next == null) {
+        // The element is not visible yet; its producer will call drain() after inserting it
+        concurrentRequests.decrementAndGet();
+        return;
+      }
+      queueSize.decrementAndGet();
+      LOG.trace("[{}] Starting dequeued request", logPrefix);
+      next.onThrottleReady(true);
+    }
+  }
+
+  private boolean tryAcquirePermit() {
+    while (true) {
+      int current = concurrentRequests.get();
+      if (current >= maxConcurrentRequests) {
+        return false;
+      }
+      if (concurrentRequests.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  private boolean tryReserveQueueSlot() {
+    while (true) {
+      int current = queueSize.get();
+      if (current >= maxQueueSize) {
+        return false;
+      }
+      if (queueSize.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    LOG.debug("[{}] Rejecting {} queued requests after shutdown", logPrefix, queueSize.get());
+    Throttled request;
+    while ((request = queue.poll()) != null) {
+      queueSize.decrementAndGet();
+      fail(request, "The session is shutting down");
+    }
+  }
+
+  public int getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
+  public int getQueueSize() {
+    return queueSize.get();
+  }
+
+  @VisibleForTesting
+  int getConcurrentRequests() {
+    return concurrentRequests.get();
+  }
+
+  @VisibleForTesting
+  Queue<Throttled> getQueue() {
+    return queue;
+  }
+
+  private static void fail(Throttled request, String message) {
+    request.onThrottleFailure(new RequestThrottlingException(message));
+  }
+}
@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.session.throttling;
+
+import com.datastax.oss.driver.api.core.RequestThrottlingException;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.session.throttling.RequestThrottler;
+import com.datastax.oss.driver.api.core.session.throttling.Throttled;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.netty.util.concurrent.EventExecutor;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A lock-free variant of {@link RateLimitingRequestThrottler}.
+ *
+ * <p>It has the same semantics and configuration options, but never blocks the calling thread:
+ * permits are refilled and acquired with compare-and-set operations on atomic counters, and waiting
+ * requests are held in a non-blocking queue, which is drained by a single task on the admin
+ * executor.
+ *
+ * <p>To activate this throttler, modify the {@code advanced.throttler} section in the driver
+ * configuration, for example:
+ *
+ * <pre>
+ * datastax-java-driver {
+ *   advanced.throttler {
+ *     class = LockFreeRateLimitingRequestThrottler
+ *     max-requests-per-second = 10000
+ *     max-queue-size = 10000
+ *     drain-interval = 10 milliseconds
+ *   }
+ * }
+ * </pre>
+ *
+ * See {@code reference.conf} (in the manual or core driver JAR) for more details.
+ */
+@ThreadSafe
+public class LockFreeRateLimitingRequestThrottler implements RequestThrottler {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(LockFreeRateLimitingRequestThrottler.class);
+
+  private final String logPrefix;
+  private final NanoClock clock;
+  private final int maxRequestsPerSecond;
+  private final int maxQueueSize;
+  private final long drainIntervalNanos;
+  private final EventExecutor scheduler;
+
+  private final AtomicLong lastUpdateNanos;
+  private final AtomicInteger storedPermits;
+  // ConcurrentLinkedQueue.size() is O(n), so the size is tracked separately. It is incremented
+  // before an element is added, and decremented after it is removed, so it is never lower than the
+  // actual size.
+  private final AtomicInteger queueSize = new AtomicInteger();
+  private final Queue<Throttled> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+  private volatile boolean closed;
+
+  @SuppressWarnings("unused")
+  public LockFreeRateLimitingRequestThrottler(DriverContext context) {
+    this(context, System::nanoTime);
+  }
+
+  @VisibleForTesting
+  LockFreeRateLimitingRequestThrottler(DriverContext context, NanoClock clock) {
+    this.logPrefix = context.getSessionName();
+    this.clock = clock;
+
+    DriverExecutionProfile config = context.getConfig().getDefaultProfile();
+
+    this.maxRequestsPerSecond =
+        config.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_REQUESTS_PER_SECOND);
+    this.maxQueueSize = config.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_QUEUE_SIZE);
+    Duration drainInterval =
+        config.getDuration(DefaultDriverOption.REQUEST_THROTTLER_DRAIN_INTERVAL);
+    this.drainIntervalNanos = drainInterval.toNanos();
+
+    this.lastUpdateNanos = new AtomicLong(clock.nanoTime());
+    // Start with one second worth of permits to avoid delaying initial requests
+    this.storedPermits = new AtomicInteger(maxRequestsPerSecond);
+
+    this.scheduler =
+        ((InternalDriverContext) context).getNettyOptions().adminEventExecutorGroup().next();
+
+    LOG.debug(
+        "[{}] Initializing with maxRequestsPerSecond = {}, maxQueueSize = {}, drainInterval = {}",
+        logPrefix,
+        maxRequestsPerSecond,
+        maxQueueSize,
+        drainInterval);
+  }
+
+  @Override
+  public void register(@NonNull Throttled request) {
+    long now = clock.nanoTime();
+    if (closed) {
+      LOG.trace("[{}] Rejecting request after shutdown", logPrefix);
+      fail(request, "The session is shutting down");
+    } else if (queueSize.get() == 0 && acquire(now, 1) == 1) {
+      LOG.trace("[{}] Starting newly registered request", logPrefix);
+      request.onThrottleReady(false);
+    } else if (tryReserveQueueSlot()) {
+      LOG.trace("[{}] Enqueuing request", logPrefix);
+      queue.add(request);
+      if (closed) {
+        // close() might have drained the queue before we added to it
+        if (queue.remove(request)) {
+          queueSize.decrementAndGet();
+          fail(request, "The session is shutting down");
+        }
+      } else {
+        scheduleDrain();
+      }
+    } else {
+      LOG.trace("[{}] Rejecting request because of full queue", logPrefix);
+      fail(
+          request,
+          String.format(
+              "The session has reached its maximum capacity " + "(requests/s: %d, queue size: %d)",
+              maxRequestsPerSecond, maxQueueSize));
+    }
+  }
+
+  private void scheduleDrain() {
+    if (drainScheduled.compareAndSet(false, true)) {
+      scheduler.schedule(this::drain, drainIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  // Runs periodically when the queue is not empty. It tries to dequeue as much as possible while
+  // staying under the target rate. If it does not completely drain the queue, it reschedules
+  // itself. There is at most one instance of this task pending at any time, so it is the only
+  // consumer of the queue (apart from timeouts and close()).
+  private void drain() {
+    assert scheduler.inEventLoop();
+    long now = clock.nanoTime();
+    if (closed) {
+      return;
+    }
+    int size = queueSize.get();
+    if (size > 0) {
+      int toDequeue = acquire(now, size);
+      LOG.trace("[{}] Dequeuing {}/{} elements", logPrefix, toDequeue, size);
+      int dequeued = 0;
+      Throttled request;
+      while (dequeued < toDequeue && (request = queue.poll()) != null) {
+        queueSize.decrementAndGet();
+        dequeued += 1;
+        LOG.trace("[{}] Starting dequeued request", logPrefix);
+        request.onThrottleReady(true);
+      }
+      if (dequeued < toDequeue) {
+        // Some requests timed out concurrently, give back the permits we didn't use
+        release(toDequeue - dequeued);
+      }
+    }
+    if (queueSize.get() > 0) {
+      LOG.trace(
+          "[{}] {} elements remaining in queue, rescheduling drain task",
+          logPrefix,
+          queueSize.get());
+      scheduler.schedule(this::drain, drainIntervalNanos, TimeUnit.NANOSECONDS);
+    } else {
+      drainScheduled.set(false);
+      // A request might have been enqueued after our check, but before the flag was cleared
+      if (queueSize.get() > 0) {
+        scheduleDrain();
+      }
+    }
+  }
+
+  @Override
+  public void signalSuccess(@NonNull Throttled request) {
+    // nothing to do
+  }
+
+  @Override
+  public void signalError(@NonNull Throttled request, @NonNull Throwable error) {
+    // nothing to do
+  }
+
+  @Override
+  public void signalTimeout(@NonNull Throttled request) {
+    if (!closed && queue.remove(request)) { // The request timed out before it was active
+      LOG.trace("[{}] Removing timed out request from the queue", logPrefix);
+      queueSize.decrementAndGet();
+    }
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    LOG.debug("[{}] Rejecting {} queued requests after shutdown", logPrefix, queueSize.get());
+    Throttled request;
+    while ((request = queue.poll()) != null) {
+      queueSize.decrementAndGet();
+      fail(request, "The session is shutting down");
+    }
+  }
+
+  private int acquire(long currentTimeNanos, int wantedPermits) {
+    refill(currentTimeNanos);
+    while (true) {
+      int current = storedPermits.get();
+      int returned = Math.min(current, wantedPermits);
+      if (returned == 0 || storedPermits.compareAndSet(current, current - returned)) {
+        return returned;
+      }
+    }
+  }
+
+  // Only the thread that successfully moves lastUpdateNanos forward gets to add the permits created
+  // during the elapsed interval, so that they are never counted twice.
+  private void refill(long currentTimeNanos) {
+    long last = lastUpdateNanos.get();
+    long elapsedNanos = currentTimeNanos - last;
+
+    if (elapsedNanos >= 1_000_000_000) {
+      // created more than the max, so whatever was stored, the sum will be capped to the max
+      if (lastUpdateNanos.compareAndSet(last, currentTimeNanos)) {
+        storedPermits.set(maxRequestsPerSecond);
+      }
+    } else if (elapsedNanos > 0) {
+      int createdPermits = (int) (elapsedNanos * maxRequestsPerSecond / 1_000_000_000);
+      // Only reset interval if we've generated permits, otherwise we might continually reset
+      // before we get the chance to generate anything.
+      if (createdPermits > 0 && lastUpdateNanos.compareAndSet(last, currentTimeNanos)) {
+        release(createdPermits);
+      }
+    }
+  }
+
+  private void release(int permits) {
+    storedPermits.accumulateAndGet(
+        permits, (current, added) -> Math.min(current + added, maxRequestsPerSecond));
+  }
+
+  private boolean tryReserveQueueSlot() {
+    while (true) {
+      int current = queueSize.get();
+      if (current >= maxQueueSize) {
+        return false;
+      }
+      if (queueSize.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  public int getQueueSize() {
+    return queueSize.get();
+  }
+
+  @VisibleForTesting
+  int getStoredPermits() {
+    return storedPermits.get();
+  }
+
+  @VisibleForTesting
+  Queue<Throttled> getQueue() {
+    return queue;
+  }
+
+  private static void fail(Throttled request, String message) {
+    request.onThrottleFailure(new RequestThrottlingException(message));
+  }
+}
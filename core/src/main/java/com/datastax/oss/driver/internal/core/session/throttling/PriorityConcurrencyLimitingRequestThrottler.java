@@ -0,0 +1,475 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.session.throttling;
+
+import com.datastax.oss.driver.api.core.RequestThrottlingException;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.session.throttling.RequestThrottler;
+import com.datastax.oss.driver.api.core.session.throttling.Throttled;
+import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A request throttler that limits the number of concurrent requests, and dispatches queued requests
+ * according to the priority class of their execution profile.
+ *
+ * <p>Each priority class has a weight, and its own queue bounded by {@code max-queue-size}. When an
+ * active request completes, the next request to start is picked with a smooth weighted round-robin
+ * among the non-empty queues: higher (heavier) classes go first, but lower classes still get a
+ * share of the dispatches proportional to their weight, so that they are never starved. Within a
+ * class, requests are dispatched in FIFO order.
+ *
+ * <p>To activate this throttler, modify the {@code advanced.throttler} section in the driver
+ * configuration, and assign classes in your execution profiles, for example:
+ *
+ * <pre>
+ * datastax-java-driver {
+ *   advanced.throttler {
+ *     class = PriorityConcurrencyLimitingRequestThrottler
+ *     max-concurrent-requests = 10000
+ *     max-queue-size = 10000
+ *     priority-weights { high = 8, normal = 4, low = 1 }
+ *     priority-class = normal
+ *   }
+ *   profiles {
+ *     user-reads { advanced.throttler.priority-class = high }
+ *     backfill { advanced.throttler.priority-class = low }
+ *   }
+ * }
+ * </pre>
+ *
+ * See {@code reference.conf} (in the manual or core driver JAR) for more details.
+ *
+ * <p>The session metrics report totals across all classes. Per-class statistics are only available
+ * through {@link #getQueueSize(String)} and {@link #getMeanWaitTime(String)}.
+ */
+@ThreadSafe
+public class PriorityConcurrencyLimitingRequestThrottler implements RequestThrottler {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(PriorityConcurrencyLimitingRequestThrottler.class);
+
+  @VisibleForTesting static final String DEFAULT_PRIORITY_CLASS = "normal";
+
+  @VisibleForTesting
+  static final Map<String, String> DEFAULT_PRIORITY_WEIGHTS =
+      ImmutableMap.of("high", "8", "normal", "4", "low", "1");
+
+  private final String logPrefix;
+  private final NanoClock clock;
+  private final int maxConcurrentRequests;
+  private final int maxQueueSize;
+  // Sorted by decreasing weight, this is also the order in which ties are broken
+  private final List<PriorityClass> classes;
+  private final Map<String, PriorityClass> classesByName;
+  private final PriorityClass defaultClass;
+  // The class of each profile, resolved on its first request
+  private final Map<String, PriorityClass> classesByProfile = new ConcurrentHashMap<>();
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  @GuardedBy("lock")
+  private int concurrentRequests;
+
+  @GuardedBy("lock")
+  private int queueSize;
+
+  @GuardedBy("lock")
+  private boolean closed;
+
+  @SuppressWarnings("unused")
+  public PriorityConcurrencyLimitingRequestThrottler(DriverContext context) {
+    this(context, System::nanoTime);
+  }
+
+  @VisibleForTesting
+  PriorityConcurrencyLimitingRequestThrottler(DriverContext context, NanoClock clock) {
+    this.logPrefix = context.getSessionName();
+    this.clock = clock;
+    DriverExecutionProfile config = context.getConfig().getDefaultProfile();
+    this.maxConcurrentRequests =
+        config.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_CONCURRENT_REQUESTS);
+    this.maxQueueSize = config.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_QUEUE_SIZE);
+
+    Map<String, String> weights =
+        config.getStringMap(
+            DefaultDriverOption.REQUEST_THROTTLER_PRIORITY_WEIGHTS, DEFAULT_PRIORITY_WEIGHTS);
+    if (weights.isEmpty()) {
+      throw new IllegalArgumentException(
+          String.format(
+              "%s must define at least one priority class",
+              DefaultDriverOption.REQUEST_THROTTLER_PRIORITY_WEIGHTS.getPath()));
+    }
+    List<PriorityClass> classes = new ArrayList<>(weights.size());
+    ImmutableMap.Builder<String, PriorityClass> classesByName = ImmutableMap.builder();
+    for (Map.Entry<String, String> entry : weights.entrySet()) {
+      PriorityClass priorityClass =
+          new PriorityClass(entry.getKey(), parseWeight(entry.getKey(), entry.getValue()));
+      classes.add(priorityClass);
+      classesByName.put(priorityClass.name, priorityClass);
+    }
+    classes.sort(
+        Comparator.comparingInt((PriorityClass c) -> c.weight)
+            .reversed()
+            .thenComparing(c -> c.name));
+    this.classes = ImmutableList.copyOf(classes);
+    this.classesByName = classesByName.build();
+    String defaultClassName =
+        config.getString(
+            DefaultDriverOption.REQUEST_THROTTLER_PRIORITY_CLASS, DEFAULT_PRIORITY_CLASS);
+    PriorityClass configuredDefault = this.classesByName.get(defaultClassName);
+    if (configuredDefault == null) {
+      // Requests from unknown classes must not compete with the known ones, use the lowest
+      configuredDefault = this.classes.get(this.classes.size() - 1);
+      LOG.warn(
+          "[{}] Unknown default priority class {}, using {} instead",
+          logPrefix,
+          defaultClassName,
+          configuredDefault.name);
+    }
+    this.defaultClass = configuredDefault;
+
+    LOG.debug(
+        "[{}] Initializing with maxConcurrentRequests = {}, maxQueueSize = {}, "
+            + "priority classes = {}, default class = {}",
+        logPrefix,
+        maxConcurrentRequests,
+        maxQueueSize,
+        this.classes,
+        defaultClass.name);
+  }
+
+  private static int parseWeight(String className, String value) {
+    int weight;
+    try {
+      weight = Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      weight = 0;
+    }
+    if (weight <= 0) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Invalid weight for priority class %s in %s: expected a strictly positive integer, "
+                  + "got '%s'",
+              className, DefaultDriverOption.REQUEST_THROTTLER_PRIORITY_WEIGHTS.getPath(), value));
+    }
+    return weight;
+  }
+
+  @Override
+  public void register(@NonNull Throttled request) {
+    PriorityClass priorityClass = resolveClass(request);
+    lock.lock();
+    try {
+      if (closed) {
+        LOG.trace("[{}] Rejecting request after shutdown", logPrefix);
+        fail(request, "The session is shutting down");
+      } else if (queueSize == 0 && concurrentRequests < maxConcurrentRequests) {
+        // We have capacity for one more concurrent request
+        LOG.trace("[{}] Starting newly registered request", logPrefix);
+        concurrentRequests += 1;
+        request.onThrottleReady(false);
+      } else if (priorityClass.queue.size() < maxQueueSize) {
+        LOG.trace("[{}] Enqueuing request with priority class {}", logPrefix, priorityClass.name);
+        priorityClass.queue.add(new QueuedRequest(request, clock.nanoTime()));
+        queueSize += 1;
+      } else {
+        LOG.trace(
+            "[{}] Rejecting request because of full queue for priority class {}",
+            logPrefix,
+            priorityClass.name);
+        fail(
+            request,
+            String.format(
+                "The session has reached its maximum capacity "
+                    + "(concurrent requests: %d, queue size: %d, priority class: %s)",
+                maxConcurrentRequests, maxQueueSize, priorityClass.name));
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private PriorityClass resolveClass(Throttled request) {
+    DriverExecutionProfile profile = request.getExecutionProfile();
+    if (profile == null) {
+      return defaultClass;
+    }
+    // Check without locking first, this is the common case
+    PriorityClass priorityClass = classesByProfile.get(profile.getName());
+    return (priorityClass != null)
+        ? priorityClass
+        : classesByProfile.computeIfAbsent(profile.getName(), name -> readClass(profile));
+  }
+
+  private PriorityClass readClass(DriverExecutionProfile profile) {
+    String name =
+        profile.getString(DefaultDriverOption.REQUEST_THROTTLER_PRIORITY_CLASS, defaultClass.name);
+    PriorityClass priorityClass = classesByName.get(name);
+    if (priorityClass == null) {
+      LOG.warn(
+          "[{}] Unknown priority class {} in profile {}, using {} instead",
+          logPrefix,
+          name,
+          profile.getName(),
+          defaultClass.name);
+      return defaultClass;
+    }
+    return priorityClass;
+  }
+
+  @Override
+  public void signalSuccess(@NonNull Throttled request) {
+    lock.lock();
+    try {
+      onRequestDone();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void signalError(@NonNull Throttled request, @NonNull Throwable error) {
+    signalSuccess(request); // not treated differently
+  }
+
+  @Override
+  public void signalTimeout(@NonNull Throttled request) {
+    lock.lock();
+    try {
+      if (!closed) {
+        if (removeQueued(request)) { // The request timed out before it was active
+          LOG.trace("[{}] Removing timed out request from the queue", logPrefix);
+        } else {
+          onRequestDone();
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @SuppressWarnings("GuardedBy") // this method is only called with the lock held
+  private boolean removeQueued(Throttled request) {
+    assert lock.isHeldByCurrentThread();
+    for (PriorityClass priorityClass : classes) {
+      Iterator<QueuedRequest> iterator = priorityClass.queue.iterator();
+      while (iterator.hasNext()) {
+        if (iterator.next().request == request) {
+          iterator.remove();
+          queueSize -= 1;
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  @SuppressWarnings("GuardedBy") // this method is only called with the lock held
+  private void onRequestDone() {
+    assert lock.isHeldByCurrentThread();
+    if (!closed) {
+      if (queueSize == 0) {
+        concurrentRequests -= 1;
+      } else {
+        PriorityClass priorityClass = nextClass();
+        QueuedRequest queued = priorityClass.queue.poll();
+        queueSize -= 1;
+        priorityClass.totalWaitNanos += clock.nanoTime() - queued.enqueuedNanos;
+        priorityClass.dequeuedCount += 1;
+        LOG.trace(
+            "[{}] Starting dequeued request with priority class {}", logPrefix, priorityClass.name);
+        queued.request.onThrottleReady(true);
+        // don't touch concurrentRequests since we finished one but started another
+      }
+    }
+  }
+
+  /**
+   * Picks the class of the next request to dispatch, with a smooth weighted round-robin: every
+   * non-empty class earns its weight, the richest one is picked and pays the sum of the weights.
+   * Over a round, each class is picked in proportion to its weight, and picks are interleaved
+   * instead of bursty.
+   */
+  @SuppressWarnings("GuardedBy") // this method is only called with the lock held
+  private PriorityClass nextClass() {
+    assert lock.isHeldByCurrentThread() && queueSize > 0;
+    PriorityClass next = null;
+    int totalWeight = 0;
+    for (PriorityClass priorityClass : classes) {
+      if (priorityClass.queue.isEmpty()) {
+        // Don't let idle classes accumulate credit
+        priorityClass.currentWeight = 0;
+      } else {
+        priorityClass.currentWeight += priorityClass.weight;
+        totalWeight += priorityClass.weight;
+        if (next == null || priorityClass.currentWeight > next.currentWeight) {
+          next = priorityClass;
+        }
+      }
+    }
+    assert next != null;
+    next.currentWeight -= totalWeight;
+    return next;
+  }
+
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      closed = true;
+      LOG.debug("[{}] Rejecting {} queued requests after shutdown", logPrefix, queueSize);
+      for (PriorityClass priorityClass : classes) {
+        for (QueuedRequest queued : priorityClass.queue) {
+          fail(queued.request, "The session is shutting down");
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
+  /** The total number of queued requests, across all priority classes. */
+  public int getQueueSize() {
+    lock.lock();
+    try {
+      return queueSize;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** The names of the priority classes, from the highest to the lowest. */
+  @NonNull
+  public List<String> getPriorityClasses() {
+    ImmutableList.Builder<String> names = ImmutableList.builder();
+    for (PriorityClass priorityClass : classes) {
+      names.add(priorityClass.name);
+    }
+    return names.build();
+  }
+
+  /**
+   * The number of queued requests in the given priority class.
+   *
+   * @throws IllegalArgumentException if the class does not exist.
+   */
+  public int getQueueSize(@NonNull String priorityClass) {
+    PriorityClass c = findClass(priorityClass);
+    lock.lock();
+    try {
+      return c.queue.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * The average time that the requests of the given priority class spent in the queue, among those
+   * that were enqueued and later started; {@link Duration#ZERO} if there are none yet.
+   *
+   * @throws IllegalArgumentException if the class does not exist.
+   */
+  @NonNull
+  public Duration getMeanWaitTime(@NonNull String priorityClass) {
+    PriorityClass c = findClass(priorityClass);
+    lock.lock();
+    try {
+      return (c.dequeuedCount == 0)
+          ? Duration.ZERO
+          : Duration.ofNanos(c.totalWaitNanos / c.dequeuedCount);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private PriorityClass findClass(String name) {
+    PriorityClass priorityClass = classesByName.get(name);
+    if (priorityClass == null) {
+      throw new IllegalArgumentException("Unknown priority class " + name);
+    }
+    return priorityClass;
+  }
+
+  @VisibleForTesting
+  int getConcurrentRequests() {
+    lock.lock();
+    try {
+      return concurrentRequests;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static void fail(Throttled request, String message) {
+    request.onThrottleFailure(new RequestThrottlingException(message));
+  }
+
+  private static class PriorityClass {
+    private final String name;
+    private final int weight;
+
+    // All mutable fields are guarded by the throttler's lock
+    private final Deque<QueuedRequest> queue = new ArrayDeque<>();
+    private int currentWeight;
+    private long totalWaitNanos;
+    private long dequeuedCount;
+
+    private PriorityClass(String name, int weight) {
+      this.name = name;
+      this.weight = weight;
+    }
+
+    @Override
+    public String toString() {
+      return name + "=" + weight;
+    }
+  }
+
+  private static class QueuedRequest {
+    private final Throttled request;
+    private final long enqueuedNanos;
+
+    private QueuedRequest(Throttled request, long enqueuedNanos) {
+      this.request = request;
+      this.enqueuedNanos = enqueuedNanos;
+    }
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.specex;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.session.Request;
+import com.datastax.oss.driver.api.core.specex.SpeculativeExecutionPolicy;
+import com.datastax.oss.driver.api.core.tracker.RequestTracker;
+import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
+import com.datastax.oss.driver.shaded.guava.common.collect.MapMaker;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A policy that schedules a configurable number of speculative executions, separated by a delay
+ * derived from the latencies recently observed for the node being queried.
+ *
+ * <p>The policy keeps an HdrHistogram of response times for each node (see {@link Recorder}), and
+ * uses a configurable percentile of that histogram as the delay: for example, with the 99th
+ * percentile, a speculative execution is started when the current node takes longer than 99% of its
+ * recent responses. The delay is clamped between a lower and an upper bound; the upper bound also
+ * applies while there is not enough data for the node.
+ *
+ * <p>To activate this policy, modify the {@code advanced.speculative-execution-policy} section in
+ * the driver configuration, for example:
+ *
+ * <pre>
+ * datastax-java-driver {
+ *   advanced.speculative-execution-policy {
+ *     class = PercentileSpeculativeExecutionPolicy
+ *     max-executions = 3
+ *     percentile = 99.0
+ *     min-delay = 1 millisecond
+ *     max-delay = 1 second
+ *   }
+ * }
+ * </pre>
+ *
+ * See {@code reference.conf} (in the manual or core driver JAR) for more details.
+ *
+ * <p>The policy collects latencies by acting as a {@link RequestTracker}; the driver registers it
+ * automatically. Note that the histograms are shared by all the requests of the session, regardless
+ * of their execution profile.
+ */
+@ThreadSafe
+public class PercentileSpeculativeExecutionPolicy
+    implements SpeculativeExecutionPolicy, RequestTracker {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(PercentileSpeculativeExecutionPolicy.class);
+
+  private final String logPrefix;
+  private final int maxExecutions;
+  private final double quantile;
+  private final long minDelayMillis;
+  private final long maxDelayMillis;
+  private final Duration highestLatency;
+  private final int significantDigits;
+  private final long refreshIntervalNanos;
+  private final int minMeasurements;
+
+  // Weak keys so that the histograms of nodes removed from the cluster can be collected
+  private final ConcurrentMap<Node, NodeLatencies> latencies = new MapMaker().weakKeys().makeMap();
+
+  public PercentileSpeculativeExecutionPolicy(DriverContext context, String profileName) {
+    this.logPrefix = context.getSessionName() + "|" + profileName;
+    DriverExecutionProfile config = context.getConfig().getProfile(profileName);
+    this.maxExecutions = config.getInt(DefaultDriverOption.SPECULATIVE_EXECUTION_MAX);
+    if (this.maxExecutions < 1) {
+      throw new IllegalArgumentException("Max must be at least 1");
+    }
+    double percentile =
+        config.getDouble(DefaultDriverOption.SPECULATIVE_EXECUTION_PERCENTILE, 99.0);
+    if (percentile <= 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile must be in the range ]0, 100]");
+    }
+    this.quantile = percentile / 100;
+    this.minDelayMillis =
+        config
+            .getDuration(DefaultDriverOption.SPECULATIVE_EXECUTION_MIN_DELAY, Duration.ofMillis(1))
+            .toMillis();
+    if (this.minDelayMillis < 0) {
+      throw new IllegalArgumentException("Min delay must be positive or 0");
+    }
+    this.maxDelayMillis =
+        config
+            .getDuration(DefaultDriverOption.SPECULATIVE_EXECUTION_MAX_DELAY, Duration.ofSeconds(1))
+            .toMillis();
+    if (this.maxDelayMillis < this.minDelayMillis) {
+      throw new IllegalArgumentException("Max delay must be greater than or equal to min delay");
+    }
+    this.highestLatency =
+        config.getDuration(
+            DefaultDriverOption.SPECULATIVE_EXECUTION_HIGHEST_LATENCY, Duration.ofSeconds(3));
+    this.significantDigits =
+        config.getInt(DefaultDriverOption.SPECULATIVE_EXECUTION_SIGNIFICANT_DIGITS, 3);
+    this.refreshIntervalNanos =
+        config
+            .getDuration(
+                DefaultDriverOption.SPECULATIVE_EXECUTION_REFRESH_INTERVAL, Duration.ofSeconds(10))
+            .toNanos();
+    this.minMeasurements =
+        config.getInt(DefaultDriverOption.SPECULATIVE_EXECUTION_MIN_MEASUREMENTS, 100);
+  }
+
+  @Override
+  public long nextExecution(
+      @NonNull Node node,
+      @Nullable @SuppressWarnings("unused") CqlIdentifier keyspace,
+      @NonNull @SuppressWarnings("unused") Request request,
+      int runningExecutions) {
+    assert runningExecutions >= 1;
+    return (runningExecutions < maxExecutions) ? getDelayMillis(node) : -1;
+  }
+
+  @VisibleForTesting
+  long getDelayMillis(@NonNull Node node) {
+    NodeLatencies nodeLatencies = latencies.get(node);
+    return (nodeLatencies == null) ? maxDelayMillis : nodeLatencies.getDelayMillis();
+  }
+
+  @Override
+  public void onNodeSuccess(
+      @NonNull Request request,
+      long latencyNanos,
+      @NonNull DriverExecutionProfile executionProfile,
+      @NonNull Node node,
+      @NonNull String requestLogPrefix) {
+    latencies.computeIfAbsent(node, NodeLatencies::new).record(latencyNanos);
+  }
+
+  @Override
+  public void close() {
+    latencies.clear();
+  }
+
+  private class NodeLatencies {
+
+    private final String nodeLogPrefix;
+    // Values are recorded in microseconds, which is precise enough and saves space
+    private final Recorder recorder;
+    private final AtomicLong nextRefreshNanos;
+
+    @GuardedBy("this")
+    private Histogram intervalHistogram;
+
+    // The delay only changes when the histogram is refreshed: cache it, so that the requests don't
+    // compute the percentile or contend on a lock.
+    private volatile long delayMillis = maxDelayMillis;
+
+    private NodeLatencies(Node node) {
+      this.nodeLogPrefix = logPrefix + "|" + node.getEndPoint();
+      this.recorder = new Recorder(highestLatency.toNanos() / 1000, significantDigits);
+      this.nextRefreshNanos = new AtomicLong(System.nanoTime() + refreshIntervalNanos);
+    }
+
+    private void record(long latencyNanos) {
+      try {
+        recorder.recordValue(latencyNanos / 1000);
+      } catch (ArrayIndexOutOfBoundsException e) {
+        LOG.warn(
+            "[{}] Recorded latency ({} ns) is out of bounds, discarding",
+            nodeLogPrefix,
+            latencyNanos);
+      }
+    }
+
+    private long getDelayMillis() {
+      long now = System.nanoTime();
+      long nextRefresh = nextRefreshNanos.get();
+      // Only one caller wins the CAS and refreshes, the others keep using the previous delay
+      if (now - nextRefresh >= 0
+          && nextRefreshNanos.compareAndSet(nextRefresh, now + refreshIntervalNanos)) {
+        refresh();
+      }
+      return delayMillis;
+    }
+
+    private synchronized void refresh() {
+      intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+      if (intervalHistogram.getTotalCount() < minMeasurements) {
+        delayMillis = maxDelayMillis;
+      } else {
+        long percentileMillis =
+            TimeUnit.MICROSECONDS.toMillis(intervalHistogram.getValueAtPercentile(quantile * 100));
+        delayMillis = Math.max(minDelayMillis, Math.min(maxDelayMillis, percentileMillis));
+      }
+    }
+  }
+}
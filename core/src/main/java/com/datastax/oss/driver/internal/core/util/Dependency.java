@@ -36,6 +36,7 @@ import java.util.List;
 public enum Dependency {
   SNAPPY("org.xerial.snappy.Snappy"),
   LZ4("net.jpountz.lz4.LZ4Compressor"),
+  ZSTD("com.github.luben.zstd.Zstd"),
   ESRI("com.esri.core.geometry.ogc.OGCGeometry"),
   TINKERPOP(
       // gremlin-core
@@ -49,6 +50,8 @@ public enum Dependency {
       // jackson-databind
       "com.fasterxml.jackson.databind.ObjectMapper"),
   DROPWIZARD("com.codahale.metrics.MetricRegistry"),
+  EPOLL("io.netty.channel.epoll.Epoll"),
+  IO_URING("io.netty.incubator.channel.uring.IOUring"),
   ;
 
   @SuppressWarnings("ImmutableEnumChecker")
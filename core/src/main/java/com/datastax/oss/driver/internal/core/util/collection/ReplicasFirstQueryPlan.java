@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.util.collection;
+
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.shaded.guava.common.collect.Iterators;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.AbstractQueue;
+import java.util.Collections;
+import java.util.Iterator;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A query plan that returns the given replicas first, then the other nodes of a live node snapshot
+ * in round-robin order.
+ *
+ * <p>The snapshot is shared, not copied: the non-replicas are picked from it lazily, starting at
+ * the non-replica designated by the round-robin amount, and skipping the replicas. This is
+ * equivalent to copying the snapshot, moving the replicas to the front and rotating the remaining
+ * nodes, but no node array needs to be allocated when the request succeeds on one of the replicas.
+ */
+@ThreadSafe
+public class ReplicasFirstQueryPlan extends AbstractQueue<Node> implements QueryPlan {
+
+  private final Object[] replicas;
+  private final int replicaCount;
+  private final Object[] nodes;
+  private final int rotation;
+
+  @GuardedBy("this")
+  private int polled;
+  // Index in nodes of the last non-replica returned, or -1 if none yet
+  @GuardedBy("this")
+  private int cursor = -1;
+
+  /**
+   * Creates a new instance.
+   *
+   * <p>For efficiency, there are no defensive copies: the arrays are used directly, and must not be
+   * modified afterwards. The declared type is {@code Object[]} but all elements must be instances
+   * of {@link Node}.
+   *
+   * @param replicas the replicas to return first, in order. They must all be present in {@code
+   *     nodes}.
+   * @param replicaCount the number of replicas at the beginning of {@code replicas}; the rest of
+   *     the array is ignored.
+   * @param nodes the live nodes, including the replicas.
+   * @param roundRobinAmount a positive number; the non-replicas are returned starting from the one
+   *     at this position (modulo their count) in {@code nodes}.
+   */
+  public ReplicasFirstQueryPlan(
+      @NonNull Object[] replicas, int replicaCount, @NonNull Object[] nodes, int roundRobinAmount) {
+    this.replicas = replicas;
+    this.replicaCount = replicaCount;
+    this.nodes = nodes;
+    int nonReplicaCount = nodes.length - replicaCount;
+    this.rotation = (nonReplicaCount >= 2) ? roundRobinAmount % nonReplicaCount : 0;
+  }
+
+  @Nullable
+  @Override
+  public synchronized Node poll() {
+    if (polled < replicaCount) {
+      return (Node) replicas[polled++];
+    }
+    if (polled >= nodes.length) {
+      return null;
+    }
+    cursor = nextNonReplica(cursor);
+    polled += 1;
+    return (Node) nodes[cursor];
+  }
+
+  @NonNull
+  @Override
+  public synchronized Iterator<Node> iterator() {
+    int remaining = nodes.length - polled;
+    if (remaining <= 0) {
+      return Collections.emptyIterator();
+    }
+    Node[] result = new Node[remaining];
+    int i = 0;
+    for (int r = polled; r < replicaCount; r++) {
+      result[i++] = (Node) replicas[r];
+    }
+    int c = cursor;
+    while (i < remaining) {
+      c = nextNonReplica(c);
+      result[i++] = (Node) nodes[c];
+    }
+    return Iterators.forArray(result);
+  }
+
+  @Override
+  public synchronized int size() {
+    return Math.max(nodes.length - polled, 0);
+  }
+
+  /**
+   * Returns the index in {@code nodes} of the non-replica that follows the one at {@code previous},
+   * wrapping around; or, if {@code previous} is -1, of the first non-replica to return.
+   */
+  private int nextNonReplica(int previous) {
+    if (previous < 0) {
+      // Skip the first `rotation` non-replicas
+      int toSkip = rotation;
+      for (int i = 0; ; i++) {
+        if (!isReplica(nodes[i])) {
+          if (toSkip == 0) {
+            return i;
+          }
+          toSkip -= 1;
+        }
+      }
+    }
+    int i = previous;
+    do {
+      i = (i + 1 == nodes.length) ? 0 : i + 1;
+    } while (isReplica(nodes[i]));
+    return i;
+  }
+
+  private boolean isReplica(Object node) {
+    // The replica array is typically tiny (the replication factor), a linear scan is cheaper than a
+    // set lookup
+    for (int i = 0; i < replicaCount; i++) {
+      if (replicas[i] == node) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -66,7 +66,8 @@ public class PromiseCombiner {
             aggregateFailure -> {
               if (aggregateFailure == null) {
                 aggregateFailure = future.cause();
-              } else {
+              } else if (aggregateFailure != future.cause()) {
+                // Parents may fail with the same exception (self-suppression is not permitted)
                 aggregateFailure.addSuppressed(future.cause());
               }
               return aggregateFailure;
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.api.core.specex;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.session.Request;
+import com.datastax.oss.driver.internal.core.specex.PercentileSpeculativeExecutionPolicy;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class PercentileSpeculativeExecutionPolicyTest {
+  @Mock private DriverContext context;
+  @Mock private DriverConfig config;
+  @Mock private DriverExecutionProfile defaultProfile;
+  @Mock private DriverExecutionProfile profile;
+  @Mock private Request request;
+  @Mock private Node node1;
+  @Mock private Node node2;
+
+  @Before
+  public void setup() {
+    when(context.getSessionName()).thenReturn("test");
+    when(context.getConfig()).thenReturn(config);
+    when(config.getProfile(DriverExecutionProfile.DEFAULT_NAME)).thenReturn(defaultProfile);
+    when(defaultProfile.getDuration(
+            DefaultDriverOption.SPECULATIVE_EXECUTION_HIGHEST_LATENCY, Duration.ofSeconds(3)))
+        .thenReturn(Duration.ofSeconds(3));
+    when(defaultProfile.getInt(DefaultDriverOption.SPECULATIVE_EXECUTION_SIGNIFICANT_DIGITS, 3))
+        .thenReturn(3);
+    // Refresh the histograms on every read, so that the tests don't have to wait
+    when(defaultProfile.getDuration(
+            DefaultDriverOption.SPECULATIVE_EXECUTION_REFRESH_INTERVAL, Duration.ofSeconds(10)))
+        .thenReturn(Duration.ZERO);
+  }
+
+  private void mockOptions(
+      int maxExecutions, double percentile, long minDelayMillis, long maxDelayMillis) {
+    when(defaultProfile.getInt(DefaultDriverOption.SPECULATIVE_EXECUTION_MAX))
+        .thenReturn(maxExecutions);
+    when(defaultProfile.getDouble(DefaultDriverOption.SPECULATIVE_EXECUTION_PERCENTILE, 99.0))
+        .thenReturn(percentile);
+    when(defaultProfile.getDuration(
+            DefaultDriverOption.SPECULATIVE_EXECUTION_MIN_DELAY, Duration.ofMillis(1)))
+        .thenReturn(Duration.ofMillis(minDelayMillis));
+    when(defaultProfile.getDuration(
+            DefaultDriverOption.SPECULATIVE_EXECUTION_MAX_DELAY, Duration.ofSeconds(1)))
+        .thenReturn(Duration.ofMillis(maxDelayMillis));
+    when(defaultProfile.getInt(DefaultDriverOption.SPECULATIVE_EXECUTION_MIN_MEASUREMENTS, 100))
+        .thenReturn(10);
+  }
+
+  private PercentileSpeculativeExecutionPolicy newPolicy() {
+    return new PercentileSpeculativeExecutionPolicy(context, DriverExecutionProfile.DEFAULT_NAME);
+  }
+
+  private void recordLatencies(
+      PercentileSpeculativeExecutionPolicy policy, Node node, long... latenciesMillis) {
+    for (long latencyMillis : latenciesMillis) {
+      policy.onNodeSuccess(
+          request, TimeUnit.MILLISECONDS.toNanos(latencyMillis), profile, node, "test");
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void should_fail_if_max_less_than_one() {
+    mockOptions(0, 99, 1, 1000);
+    newPolicy();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void should_fail_if_percentile_out_of_range() {
+    mockOptions(3, 101, 1, 1000);
+    newPolicy();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void should_fail_if_max_delay_lower_than_min_delay() {
+    mockOptions(3, 99, 100, 10);
+    newPolicy();
+  }
+
+  @Test
+  public void should_use_max_delay_until_enough_measurements() {
+    mockOptions(3, 99, 1, 1000);
+    PercentileSpeculativeExecutionPolicy policy = newPolicy();
+
+    // No data at all
+    assertThat(policy.nextExecution(node1, null, request, 1)).isEqualTo(1000);
+
+    // Less than the minimum number of measurements
+    recordLatencies(policy, node1, 5, 5, 5);
+    assertThat(policy.nextExecution(node1, null, request, 1)).isEqualTo(1000);
+  }
+
+  @Test
+  public void should_use_percentile_of_target_node() {
+    mockOptions(3, 90, 1, 1000);
+    PercentileSpeculativeExecutionPolicy policy = newPolicy();
+
+    recordLatencies(policy, node1, 10, 10, 10, 10, 10, 10, 10, 10, 10, 50);
+    recordLatencies(policy, node2, 100, 100, 100, 100, 100, 100, 100, 100, 100, 500);
+
+    assertThat(policy.nextExecution(node1, null, request, 1)).isEqualTo(10);
+    assertThat(policy.nextExecution(node2, null, request, 1)).isEqualTo(100);
+  }
+
+  @Test
+  public void should_clamp_delay() {
+    mockOptions(3, 99, 20, 200);
+    PercentileSpeculativeExecutionPolicy policy = newPolicy();
+
+    recordLatencies(policy, node1, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5);
+    recordLatencies(policy, node2, 800, 800, 800, 800, 800, 800, 800, 800, 800, 800);
+
+    assertThat(policy.nextExecution(node1, null, request, 1)).isEqualTo(20);
+    assertThat(policy.nextExecution(node2, null, request, 1)).isEqualTo(200);
+  }
+
+  @Test
+  public void should_keep_delay_until_next_refresh() {
+    when(defaultProfile.getDuration(
+            DefaultDriverOption.SPECULATIVE_EXECUTION_REFRESH_INTERVAL, Duration.ofSeconds(10)))
+        .thenReturn(Duration.ofHours(1));
+    mockOptions(3, 99, 1, 1000);
+    PercentileSpeculativeExecutionPolicy policy = newPolicy();
+
+    recordLatencies(policy, node1, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10);
+
+    // The histogram is not refreshed before the interval has elapsed
+    assertThat(policy.nextExecution(node1, null, request, 1)).isEqualTo(1000);
+  }
+
+  @Test
+  public void should_stop_at_max_executions() {
+    mockOptions(3, 99, 1, 1000);
+    PercentileSpeculativeExecutionPolicy policy = newPolicy();
+
+    assertThat(policy.nextExecution(node1, null, request, 1)).isEqualTo(1000);
+    assertThat(policy.nextExecution(node1, null, request, 2)).isEqualTo(1000);
+    assertThat(policy.nextExecution(node1, null, request, 3)).isNegative();
+  }
+}
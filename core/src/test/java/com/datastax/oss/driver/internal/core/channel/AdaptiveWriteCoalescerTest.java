@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.channel;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AdaptiveWriteCoalescerTest {
+
+  private DriverContext context;
+  private EmbeddedChannel channel;
+  private int flushCount;
+
+  @Before
+  public void setup() {
+    context = mock(DriverContext.class);
+    DriverConfig config = mock(DriverConfig.class);
+    DriverExecutionProfile defaultProfile = mock(DriverExecutionProfile.class);
+    when(context.getConfig()).thenReturn(config);
+    when(config.getDefaultProfile()).thenReturn(defaultProfile);
+    when(defaultProfile.getDuration(DefaultDriverOption.COALESCER_ADAPTIVE_MAX_INTERVAL))
+        .thenReturn(Duration.ofNanos(100_000));
+    when(defaultProfile.getInt(DefaultDriverOption.COALESCER_ADAPTIVE_MAX_MESSAGES)).thenReturn(3);
+    when(defaultProfile.getBytes(DefaultDriverOption.COALESCER_ADAPTIVE_MAX_BYTES))
+        .thenReturn(64L * 1024);
+
+    flushCount = 0;
+    channel =
+        new EmbeddedChannel(
+            new ChannelOutboundHandlerAdapter() {
+              @Override
+              public void flush(ChannelHandlerContext ctx) throws Exception {
+                flushCount += 1;
+                super.flush(ctx);
+              }
+            });
+  }
+
+  @Test
+  public void should_write_messages_in_order() {
+    AdaptiveWriteCoalescer coalescer = new AdaptiveWriteCoalescer(context);
+    List<ChannelFuture> futures = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      futures.add(coalescer.writeAndFlush(channel, "message" + i));
+    }
+    channel.runPendingTasks();
+
+    for (int i = 0; i < 10; i++) {
+      assertThat(futures.get(i)).isSuccess();
+      assertThat((String) channel.readOutbound()).isEqualTo("message" + i);
+    }
+    assertThat((Object) channel.readOutbound()).isNull();
+  }
+
+  @Test
+  public void should_flush_once_message_threshold_is_reached() {
+    AdaptiveWriteCoalescer coalescer = new AdaptiveWriteCoalescer(context);
+    for (int i = 0; i < 7; i++) {
+      coalescer.writeAndFlush(channel, "message" + i);
+    }
+    channel.runPendingTasks();
+
+    // After the 3rd and 6th messages, plus the final flush for the 7th
+    assertThat(flushCount).isEqualTo(3);
+  }
+
+  @Test
+  public void should_flush_once_per_run_under_threshold() {
+    AdaptiveWriteCoalescer coalescer = new AdaptiveWriteCoalescer(context);
+    coalescer.writeAndFlush(channel, "message0");
+    coalescer.writeAndFlush(channel, "message1");
+    channel.runPendingTasks();
+
+    assertThat(flushCount).isEqualTo(1);
+  }
+
+  @Test
+  public void should_reset_pending_count_between_runs() {
+    AdaptiveWriteCoalescer coalescer = new AdaptiveWriteCoalescer(context);
+    for (int run = 0; run < 3; run++) {
+      coalescer.writeAndFlush(channel, "message0");
+      coalescer.writeAndFlush(channel, "message1");
+      channel.runPendingTasks();
+    }
+
+    // Each run stays under the threshold, so it flushes exactly once
+    assertThat(flushCount).isEqualTo(3);
+    for (int i = 0; i < 6; i++) {
+      assertThat((String) channel.readOutbound()).isEqualTo("message" + (i % 2));
+    }
+  }
+
+  @Test
+  public void should_not_delay_under_light_load() {
+    assertThat(AdaptiveWriteCoalescer.rescheduleDelayNanos(0, 128, 100_000)).isEqualTo(0);
+    assertThat(AdaptiveWriteCoalescer.rescheduleDelayNanos(1, 128, 100_000)).isEqualTo(0);
+  }
+
+  @Test
+  public void should_increase_delay_with_write_rate() {
+    long low = AdaptiveWriteCoalescer.rescheduleDelayNanos(10, 128, 100_000);
+    long high = AdaptiveWriteCoalescer.rescheduleDelayNanos(100, 128, 100_000);
+    assertThat(low).isGreaterThan(0);
+    assertThat(high).isGreaterThan(low);
+    assertThat(AdaptiveWriteCoalescer.rescheduleDelayNanos(128, 128, 100_000)).isEqualTo(100_000);
+    assertThat(AdaptiveWriteCoalescer.rescheduleDelayNanos(1000, 128, 100_000)).isEqualTo(100_000);
+  }
+}
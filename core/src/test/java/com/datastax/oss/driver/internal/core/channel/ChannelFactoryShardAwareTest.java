@@ -0,0 +1,329 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.channel;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.DefaultProtocolVersion;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.metadata.EndPoint;
+import com.datastax.oss.driver.api.core.metadata.NodeState;
+import com.datastax.oss.driver.internal.core.context.EventBus;
+import com.datastax.oss.driver.internal.core.metadata.DefaultEndPoint;
+import com.datastax.oss.driver.internal.core.metadata.DefaultNode;
+import com.datastax.oss.driver.internal.core.metadata.NodeStateEvent;
+import com.datastax.oss.driver.internal.core.metadata.SniEndPoint;
+import com.datastax.oss.driver.internal.core.metrics.NoopNodeMetricUpdater;
+import com.datastax.oss.driver.internal.core.protocol.ShardingInfo;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Shard-aware connections only apply to TCP endpoints, so unlike the other channel factory tests,
+ * this one connects to real servers on the loopback interface. The tests only check which server
+ * accepted the connection, and from which local port; the channels are never initialized.
+ */
+public class ChannelFactoryShardAwareTest extends ChannelFactoryTestBase {
+
+  private static final int SHARDS_COUNT = 4;
+
+  private NioEventLoopGroup nioGroup;
+  private Channel regularServer;
+  private Channel shardAwareServer;
+  private final BlockingQueue<InetSocketAddress> regularConnections = new LinkedBlockingQueue<>();
+  private final BlockingQueue<InetSocketAddress> shardAwareConnections =
+      new LinkedBlockingQueue<>();
+  private ShardingInfo shardingInfo;
+
+  @Before
+  @Override
+  public void setup() throws InterruptedException {
+    super.setup();
+    when(defaultProfile.isDefined(DefaultDriverOption.PROTOCOL_VERSION)).thenReturn(true);
+    when(defaultProfile.getString(DefaultDriverOption.PROTOCOL_VERSION)).thenReturn("V4");
+    when(protocolVersionRegistry.fromName("V4")).thenReturn(DefaultProtocolVersion.V4);
+    when(defaultProfile.getBoolean(DefaultDriverOption.CONNECTION_ADVANCED_SHARD_AWARENESS_ENABLED))
+        .thenReturn(true);
+
+    nioGroup = new NioEventLoopGroup(1);
+    when(nettyOptions.ioEventLoopGroup()).thenReturn(nioGroup);
+    when(nettyOptions.channelClass()).thenAnswer((Answer<Object>) i -> NioSocketChannel.class);
+
+    regularServer = startServer(regularConnections);
+    shardAwareServer = startServer(shardAwareConnections);
+
+    shardingInfo = mock(ShardingInfo.class);
+    when(shardingInfo.getShardsCount()).thenReturn(SHARDS_COUNT);
+    when(shardingInfo.getShardAwarePort(false)).thenReturn(port(shardAwareServer));
+  }
+
+  @After
+  public void stopServers() {
+    regularServer.close();
+    shardAwareServer.close();
+    nioGroup.shutdownGracefully(0, 500, TimeUnit.MILLISECONDS).syncUninterruptibly();
+  }
+
+  @Test
+  public void should_connect_to_shard_aware_port_from_local_port_of_target_shard()
+      throws Exception {
+    // Given
+    int low = findFreePort();
+    mockPortRange(low, low + 3 * SHARDS_COUNT);
+    ChannelFactory factory = newChannelFactory(new ShardAwarePortAllocator(0));
+
+    // When
+    connect(factory, 2);
+
+    // Then
+    InetSocketAddress clientAddress = shardAwareConnections.poll(2, TimeUnit.SECONDS);
+    assertThat(clientAddress).isNotNull();
+    int localPort = clientAddress.getPort();
+    assertThat(localPort % SHARDS_COUNT).isEqualTo(2);
+    assertThat(localPort).isBetween(low, low + 3 * SHARDS_COUNT);
+    assertThat(regularConnections).isEmpty();
+  }
+
+  @Test
+  public void should_try_another_local_port_if_bind_fails() throws Exception {
+    try (ServerSocket busy = new ServerSocket(0)) {
+      // Given
+      int busyPort = busy.getLocalPort();
+      int shardId = busyPort % SHARDS_COUNT;
+      // Two candidates for the shard: the allocator tries the busy one first
+      mockPortRange(busyPort, busyPort + SHARDS_COUNT);
+      ChannelFactory factory = newChannelFactory(new ShardAwarePortAllocator(0));
+
+      // When
+      connect(factory, shardId);
+
+      // Then
+      InetSocketAddress clientAddress = shardAwareConnections.poll(2, TimeUnit.SECONDS);
+      assertThat(clientAddress).isNotNull();
+      assertThat(clientAddress.getPort()).isEqualTo(busyPort + SHARDS_COUNT);
+      assertThat(regularConnections).isEmpty();
+    }
+  }
+
+  @Test
+  public void should_fall_back_to_regular_port_if_no_local_port_can_be_bound() throws Exception {
+    try (ServerSocket busy = new ServerSocket(0)) {
+      // Given
+      int busyPort = busy.getLocalPort();
+      mockPortRange(busyPort, busyPort);
+      ChannelFactory factory = newChannelFactory(new ShardAwarePortAllocator(0));
+
+      // When
+      connect(factory, busyPort % SHARDS_COUNT);
+
+      // Then
+      assertThat(regularConnections.poll(2, TimeUnit.SECONDS)).isNotNull();
+      assertThat(shardAwareConnections).isEmpty();
+    }
+  }
+
+  @Test
+  public void should_fall_back_to_regular_port_if_shard_aware_port_refuses_connection()
+      throws Exception {
+    // Given
+    shardAwareServer.close().syncUninterruptibly();
+    int low = findFreePort();
+    mockPortRange(low, low + 3 * SHARDS_COUNT);
+    ChannelFactory factory = newChannelFactory(new ShardAwarePortAllocator(0));
+
+    // When
+    connect(factory, 1);
+
+    // Then
+    assertThat(regularConnections.poll(2, TimeUnit.SECONDS)).isNotNull();
+  }
+
+  @Test
+  public void should_not_try_shard_aware_port_again_once_refused() throws Exception {
+    // Given
+    shardAwareServer.close().syncUninterruptibly();
+    int low = findFreePort();
+    mockPortRange(low, low + 3 * SHARDS_COUNT);
+    ShardAwarePortAllocator portAllocator = spy(new ShardAwarePortAllocator(0));
+    ChannelFactory factory = newChannelFactory(portAllocator);
+    connect(factory, 1);
+    assertThat(regularConnections.poll(2, TimeUnit.SECONDS)).isNotNull();
+
+    // When
+    connect(factory, 2);
+
+    // Then
+    assertThat(regularConnections.poll(2, TimeUnit.SECONDS)).isNotNull();
+    verify(portAllocator, times(1)).next(anyInt(), anyInt(), anyInt(), anyInt());
+  }
+
+  @Test
+  public void should_try_shard_aware_port_again_after_retry_delay() throws Exception {
+    // Given
+    shardAwareServer.close().syncUninterruptibly();
+    int low = findFreePort();
+    mockPortRange(low, low + 3 * SHARDS_COUNT);
+    ChannelFactory factory = newChannelFactory(new ShardAwarePortAllocator(0), 0);
+    connect(factory, 1);
+    assertThat(regularConnections.poll(2, TimeUnit.SECONDS)).isNotNull();
+    restartShardAwareServer();
+
+    // When
+    connect(factory, 2);
+
+    // Then
+    InetSocketAddress clientAddress = shardAwareConnections.poll(2, TimeUnit.SECONDS);
+    assertThat(clientAddress).isNotNull();
+    assertThat(clientAddress.getPort() % SHARDS_COUNT).isEqualTo(2);
+    assertThat(regularConnections).isEmpty();
+  }
+
+  @Test
+  public void should_try_shard_aware_port_again_when_node_comes_back_up() throws Exception {
+    // Given
+    EventBus eventBus = new EventBus("test");
+    when(context.getEventBus()).thenReturn(eventBus);
+    shardAwareServer.close().syncUninterruptibly();
+    int low = findFreePort();
+    mockPortRange(low, low + 3 * SHARDS_COUNT);
+    ChannelFactory factory = newChannelFactory(new ShardAwarePortAllocator(0));
+    connect(factory, 1);
+    assertThat(regularConnections.poll(2, TimeUnit.SECONDS)).isNotNull();
+    restartShardAwareServer();
+
+    // When
+    DefaultNode node = mock(DefaultNode.class);
+    when(node.getEndPoint()).thenReturn(endPoint());
+    eventBus.fire(NodeStateEvent.changed(NodeState.DOWN, NodeState.UP, node));
+    connect(factory, 2);
+
+    // Then
+    assertThat(shardAwareConnections.poll(2, TimeUnit.SECONDS)).isNotNull();
+    assertThat(regularConnections).isEmpty();
+  }
+
+  @Test
+  public void should_use_regular_port_if_connecting_through_sni_proxy() throws Exception {
+    // Given
+    int low = findFreePort();
+    mockPortRange(low, low + 3 * SHARDS_COUNT);
+    ChannelFactory factory = newChannelFactory(new ShardAwarePortAllocator(0));
+
+    // When
+    connect(
+        factory,
+        new SniEndPoint(new InetSocketAddress("127.0.0.1", port(regularServer)), "host-id"),
+        1);
+
+    // Then
+    assertThat(regularConnections.poll(2, TimeUnit.SECONDS)).isNotNull();
+    assertThat(shardAwareConnections).isEmpty();
+  }
+
+  @Test
+  public void should_use_regular_port_if_shard_awareness_disabled() throws Exception {
+    // Given
+    when(defaultProfile.getBoolean(DefaultDriverOption.CONNECTION_ADVANCED_SHARD_AWARENESS_ENABLED))
+        .thenReturn(false);
+    ChannelFactory factory = newChannelFactory();
+
+    // When
+    connect(factory, 1);
+
+    // Then
+    assertThat(regularConnections.poll(2, TimeUnit.SECONDS)).isNotNull();
+    assertThat(shardAwareConnections).isEmpty();
+  }
+
+  private void connect(ChannelFactory factory, int shardId) {
+    connect(factory, endPoint(), shardId);
+  }
+
+  private EndPoint endPoint() {
+    return new DefaultEndPoint(new InetSocketAddress("127.0.0.1", port(regularServer)));
+  }
+
+  private void connect(ChannelFactory factory, EndPoint endPoint, int shardId) {
+    factory.connect(
+        endPoint,
+        shardingInfo,
+        shardId,
+        DriverChannelOptions.DEFAULT,
+        NoopNodeMetricUpdater.INSTANCE);
+  }
+
+  private void restartShardAwareServer() throws InterruptedException {
+    shardAwareServer = startServer(shardAwareConnections);
+    when(shardingInfo.getShardAwarePort(false)).thenReturn(port(shardAwareServer));
+  }
+
+  private void mockPortRange(int low, int high) {
+    when(defaultProfile.getInt(DefaultDriverOption.CONNECTION_ADVANCED_SHARD_AWARENESS_PORT_LOW))
+        .thenReturn(low);
+    when(defaultProfile.getInt(DefaultDriverOption.CONNECTION_ADVANCED_SHARD_AWARENESS_PORT_HIGH))
+        .thenReturn(high);
+  }
+
+  private Channel startServer(BlockingQueue<InetSocketAddress> connections)
+      throws InterruptedException {
+    return new ServerBootstrap()
+        .group(nioGroup)
+        .channel(NioServerSocketChannel.class)
+        .childHandler(
+            new ChannelInitializer<SocketChannel>() {
+              @Override
+              protected void initChannel(SocketChannel channel) {
+                // The client closes the channel right away (it can't initialize it), so record its
+                // address now
+                connections.offer(channel.remoteAddress());
+              }
+            })
+        .bind(new InetSocketAddress("127.0.0.1", 0))
+        .sync()
+        .channel();
+  }
+
+  private static int port(Channel server) {
+    return ((InetSocketAddress) server.localAddress()).getPort();
+  }
+
+  private static int findFreePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
@@ -219,7 +219,16 @@ public abstract class ChannelFactoryTestBase {
   }
 
   ChannelFactory newChannelFactory() {
-    return new TestChannelFactory(context);
+    return new TestChannelFactory(context, new ShardAwarePortAllocator());
+  }
+
+  ChannelFactory newChannelFactory(ShardAwarePortAllocator portAllocator) {
+    return new TestChannelFactory(context, portAllocator);
+  }
+
+  ChannelFactory newChannelFactory(
+      ShardAwarePortAllocator portAllocator, long shardAwarePortRetryDelayNanos) {
+    return new TestChannelFactory(context, portAllocator, shardAwarePortRetryDelayNanos);
   }
 
   // A simplified channel factory to use in the tests.
@@ -227,8 +236,16 @@ public abstract class ChannelFactoryTestBase {
   // Frame objects on the server side, which is simpler to test.
   private static class TestChannelFactory extends ChannelFactory {
 
-    private TestChannelFactory(InternalDriverContext internalDriverContext) {
-      super(internalDriverContext);
+    private TestChannelFactory(
+        InternalDriverContext internalDriverContext, ShardAwarePortAllocator portAllocator) {
+      super(internalDriverContext, portAllocator);
+    }
+
+    private TestChannelFactory(
+        InternalDriverContext internalDriverContext,
+        ShardAwarePortAllocator portAllocator,
+        long shardAwarePortRetryDelayNanos) {
+      super(internalDriverContext, portAllocator, shardAwarePortRetryDelayNanos);
     }
 
     @Override
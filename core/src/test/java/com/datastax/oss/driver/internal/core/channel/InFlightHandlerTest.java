@@ -60,6 +60,7 @@ public class InFlightHandlerTest extends ChannelHandlerTestBase {
     super.setup();
     MockitoAnnotations.initMocks(this);
     when(streamIds.preAcquire()).thenReturn(true);
+    when(streamIds.getMaxAvailableIds()).thenReturn(1024);
   }
 
   @Test
@@ -27,6 +27,7 @@ class MockResponseCallback implements ResponseCallback {
   private final Predicate<Frame> isLastResponse;
 
   volatile int streamId = -1;
+  private int inFlightStreamId = -1;
 
   MockResponseCallback() {
     this(f -> true);
@@ -56,6 +57,16 @@ class MockResponseCallback implements ResponseCallback {
     this.streamId = streamId;
   }
 
+  @Override
+  public void setInFlightStreamId(int streamId) {
+    this.inFlightStreamId = streamId;
+  }
+
+  @Override
+  public int getInFlightStreamId() {
+    return inFlightStreamId;
+  }
+
   Frame getLastResponse() {
     return (Frame) responses.poll();
   }
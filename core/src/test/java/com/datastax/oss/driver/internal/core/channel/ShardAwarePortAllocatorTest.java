@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.channel;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+public class ShardAwarePortAllocatorTest {
+
+  @Test
+  public void should_return_ports_that_map_to_requested_shard() {
+    ShardAwarePortAllocator allocator = new ShardAwarePortAllocator(0);
+    for (int shardId = 0; shardId < 12; shardId++) {
+      for (int i = 0; i < 100; i++) {
+        int port = allocator.next(10000, 65535, 12, shardId);
+        assertThat(port).isBetween(10000, 65535);
+        assertThat(port % 12).isEqualTo(shardId);
+      }
+    }
+  }
+
+  @Test
+  public void should_cycle_through_all_candidates_in_range() {
+    ShardAwarePortAllocator allocator = new ShardAwarePortAllocator(0);
+    // Ports of shard 1 in [10, 20] for 4 shards: 13, 17
+    Set<Integer> ports = new HashSet<>();
+    for (int i = 0; i < 4; i++) {
+      ports.add(allocator.next(10, 20, 4, 1));
+    }
+    assertThat(ports).containsOnly(13, 17);
+  }
+
+  @Test
+  public void should_include_range_bounds() {
+    ShardAwarePortAllocator allocator = new ShardAwarePortAllocator(0);
+    assertThat(allocator.next(12, 12, 4, 0)).isEqualTo(12);
+    assertThat(allocator.next(65532, 65535, 4, 3)).isEqualTo(65535);
+  }
+
+  @Test
+  public void should_not_overflow_when_cursor_wraps() {
+    ShardAwarePortAllocator allocator = new ShardAwarePortAllocator(Integer.MAX_VALUE);
+    for (int i = 0; i < 3; i++) {
+      int port = allocator.next(10000, 10100, 8, 5);
+      assertThat(port).isBetween(10000, 10100);
+      assertThat(port % 8).isEqualTo(5);
+    }
+  }
+
+  @Test
+  public void should_return_minus_one_when_no_port_available() {
+    ShardAwarePortAllocator allocator = new ShardAwarePortAllocator(0);
+    // range too small to contain a port for shard 3
+    assertThat(allocator.next(10000, 10002, 16, 3)).isEqualTo(-1);
+    // invalid ranges or shards
+    assertThat(allocator.next(20000, 10000, 16, 3)).isEqualTo(-1);
+    assertThat(allocator.next(0, 10000, 16, 3)).isEqualTo(-1);
+    assertThat(allocator.next(10000, 70000, 16, 3)).isEqualTo(-1);
+    assertThat(allocator.next(10000, 20000, 16, 16)).isEqualTo(-1);
+  }
+}
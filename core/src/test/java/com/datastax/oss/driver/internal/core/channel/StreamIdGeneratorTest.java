@@ -18,6 +18,7 @@
 package com.datastax.oss.driver.internal.core.channel;
 
 import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import org.junit.Test;
 
@@ -66,4 +67,31 @@ public class StreamIdGeneratorTest {
     assertThat(generator.acquire()).isEqualTo(7);
     assertThat(generator.preAcquire()).isFalse();
   }
+
+  @Test
+  public void should_fail_to_release_id_that_was_not_borrowed() {
+    StreamIdGenerator generator = new StreamIdGenerator(8);
+    assertThat(generator.preAcquire()).isTrue();
+    assertThat(generator.acquire()).isEqualTo(0);
+    generator.release(0);
+    assertThatThrownBy(() -> generator.release(0)).isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> generator.release(8)).isInstanceOf(IllegalStateException.class);
+    assertThat(generator.getAvailableIds()).isEqualTo(8);
+  }
+
+  @Test
+  public void should_reuse_ids_under_churn() {
+    StreamIdGenerator generator = new StreamIdGenerator(4);
+    for (int i = 0; i < 1000; i++) {
+      assertThat(generator.preAcquire()).isTrue();
+      assertThat(generator.preAcquire()).isTrue();
+      int id1 = generator.acquire();
+      int id2 = generator.acquire();
+      assertThat(id1).isNotEqualTo(id2).isBetween(0, 3);
+      assertThat(id2).isBetween(0, 3);
+      generator.release(id2);
+      generator.release(id1);
+    }
+    assertThat(generator.getAvailableIds()).isEqualTo(4);
+  }
 }
@@ -105,6 +105,8 @@ public class MapBasedDriverConfigLoaderTest {
         value = config.getInt(option);
       } else if (type.equals(GenericType.BOOLEAN)) {
         value = config.getBoolean(option);
+      } else if (type.equals(GenericType.DOUBLE)) {
+        value = config.getDouble(option);
       } else if (type.equals(GenericType.LONG)) {
         try {
           value = config.getLong(option);
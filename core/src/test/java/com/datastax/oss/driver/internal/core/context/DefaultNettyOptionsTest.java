@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assume.assumeFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import java.time.Duration;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DefaultNettyOptionsTest {
+
+  private InternalDriverContext context;
+  private DriverExecutionProfile defaultProfile;
+
+  @Before
+  public void setup() {
+    context = mock(InternalDriverContext.class);
+    DriverConfig config = mock(DriverConfig.class);
+    defaultProfile = mock(DriverExecutionProfile.class);
+    when(context.getConfig()).thenReturn(config);
+    when(context.getSessionName()).thenReturn("test");
+    when(config.getDefaultProfile()).thenReturn(defaultProfile);
+    when(defaultProfile.getInt(DefaultDriverOption.NETTY_IO_SIZE)).thenReturn(1);
+    when(defaultProfile.getInt(DefaultDriverOption.NETTY_ADMIN_SIZE)).thenReturn(1);
+    when(defaultProfile.getString(DefaultDriverOption.NETTY_IO_SHUTDOWN_UNIT))
+        .thenReturn("SECONDS");
+    when(defaultProfile.getString(DefaultDriverOption.NETTY_ADMIN_SHUTDOWN_UNIT))
+        .thenReturn("SECONDS");
+    when(defaultProfile.getDuration(DefaultDriverOption.NETTY_TIMER_TICK_DURATION))
+        .thenReturn(Duration.ofMillis(100));
+    when(defaultProfile.getInt(DefaultDriverOption.NETTY_TIMER_TICKS_PER_WHEEL)).thenReturn(8);
+  }
+
+  @Test
+  public void should_use_nio_when_configured() {
+    when(defaultProfile.getString(DefaultDriverOption.NETTY_IO_TRANSPORT)).thenReturn("nio");
+    DefaultNettyOptions options = new DefaultNettyOptions(context);
+    try {
+      assertThat(options.channelClass()).isEqualTo(NioSocketChannel.class);
+      assertThat(options.ioEventLoopGroup()).isInstanceOf(NioEventLoopGroup.class);
+    } finally {
+      options.onClose();
+    }
+  }
+
+  @Test
+  public void should_fall_back_to_nio_when_no_native_transport_available() {
+    assumeFalse(EpollTransport.isAvailable() || IoUringTransport.isAvailable());
+    when(defaultProfile.getString(DefaultDriverOption.NETTY_IO_TRANSPORT)).thenReturn("AUTO");
+    DefaultNettyOptions options = new DefaultNettyOptions(context);
+    try {
+      assertThat(options.channelClass()).isEqualTo(NioSocketChannel.class);
+    } finally {
+      options.onClose();
+    }
+  }
+
+  @Test
+  public void should_fail_if_native_transport_requested_but_unavailable() {
+    assumeFalse(EpollTransport.isAvailable());
+    when(defaultProfile.getString(DefaultDriverOption.NETTY_IO_TRANSPORT)).thenReturn("EPOLL");
+    assertThatThrownBy(() -> new DefaultNettyOptions(context))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  public void should_fail_if_transport_unknown() {
+    when(defaultProfile.getString(DefaultDriverOption.NETTY_IO_TRANSPORT)).thenReturn("kqueue");
+    assertThatThrownBy(() -> new DefaultNettyOptions(context))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("kqueue");
+  }
+}
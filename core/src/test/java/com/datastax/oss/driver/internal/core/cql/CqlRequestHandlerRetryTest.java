@@ -25,6 +25,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atMost;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -39,6 +40,7 @@ import com.datastax.oss.driver.api.core.cql.Row;
 import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.api.core.metrics.DefaultNodeMetric;
+import com.datastax.oss.driver.api.core.metrics.DefaultSessionMetric;
 import com.datastax.oss.driver.api.core.retry.RetryPolicy;
 import com.datastax.oss.driver.api.core.retry.RetryVerdict;
 import com.datastax.oss.driver.api.core.servererrors.BootstrappingException;
@@ -332,6 +334,46 @@ public class CqlRequestHandlerRetryTest extends CqlRequestHandlerTestBase {
     }
   }
 
+  @Test
+  @UseDataProvider("failureAndIdempotent")
+  public void should_rethrow_error_if_retry_budget_exhausted(
+      FailureScenario failureScenario, boolean defaultIdempotence, Statement<?> statement) {
+    RequestHandlerTestHarness.Builder harnessBuilder =
+        RequestHandlerTestHarness.builder()
+            .withDefaultIdempotence(defaultIdempotence)
+            .withRetryBudget(0, 1);
+    failureScenario.mockRequestError(harnessBuilder, node1);
+    harnessBuilder.withResponse(node2, defaultFrameOf(singleRow()));
+
+    try (RequestHandlerTestHarness harness = harnessBuilder.build()) {
+      failureScenario.mockRetryPolicyVerdict(
+          harness.getContext().getRetryPolicy(anyString()), RetryVerdict.RETRY_NEXT);
+      // Spend the only token
+      assertThat(harness.getContext().getRetryBudget().tryAcquire()).isTrue();
+
+      CompletionStage<AsyncResultSet> resultSetFuture =
+          new CqlRequestHandler(statement, harness.getSession(), harness.getContext(), "test")
+              .handle();
+
+      assertThatStage(resultSetFuture)
+          .isFailed(
+              error -> {
+                assertThat(error).isInstanceOf(failureScenario.expectedExceptionClass);
+
+                verify(nodeMetricUpdater1)
+                    .incrementCounter(
+                        failureScenario.errorMetric, DriverExecutionProfile.DEFAULT_NAME);
+                verify(nodeMetricUpdater1, never())
+                    .incrementCounter(
+                        DefaultNodeMetric.RETRIES, DriverExecutionProfile.DEFAULT_NAME);
+                verify(harness.getSession().getMetricUpdater())
+                    .incrementCounter(
+                        DefaultSessionMetric.RETRY_BUDGET_SUPPRESSED_RETRIES,
+                        DriverExecutionProfile.DEFAULT_NAME);
+              });
+    }
+  }
+
   @Test
   @UseDataProvider("failureAndNotIdempotent")
   public void should_rethrow_error_if_not_idempotent_and_error_unsafe_or_policy_rethrows(
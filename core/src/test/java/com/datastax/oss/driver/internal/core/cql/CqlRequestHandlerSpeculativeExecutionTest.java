@@ -22,6 +22,7 @@ import static com.datastax.oss.driver.Assertions.assertThatStage;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -33,6 +34,7 @@ import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
 import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.api.core.metrics.DefaultNodeMetric;
+import com.datastax.oss.driver.api.core.metrics.DefaultSessionMetric;
 import com.datastax.oss.driver.api.core.servererrors.BootstrappingException;
 import com.datastax.oss.driver.api.core.specex.SpeculativeExecutionPolicy;
 import com.datastax.oss.driver.internal.core.util.concurrent.CapturingTimer.CapturedTimeout;
@@ -133,6 +135,48 @@ public class CqlRequestHandlerSpeculativeExecutionTest extends CqlRequestHandler
     }
   }
 
+  @Test
+  @UseDataProvider("idempotentConfig")
+  public void should_not_start_execution_if_retry_budget_exhausted(
+      boolean defaultIdempotence, Statement<?> statement) throws Exception {
+    RequestHandlerTestHarness.Builder harnessBuilder =
+        RequestHandlerTestHarness.builder()
+            .withDefaultIdempotence(defaultIdempotence)
+            .withRetryBudget(0, 1);
+    PoolBehavior node1Behavior = harnessBuilder.customBehavior(node1);
+    PoolBehavior node2Behavior = harnessBuilder.customBehavior(node2);
+
+    try (RequestHandlerTestHarness harness = harnessBuilder.build()) {
+      SpeculativeExecutionPolicy speculativeExecutionPolicy =
+          harness.getContext().getSpeculativeExecutionPolicy(DriverExecutionProfile.DEFAULT_NAME);
+      long firstExecutionDelay = 100L;
+      when(speculativeExecutionPolicy.nextExecution(
+              any(Node.class), eq(null), eq(statement), eq(1)))
+          .thenReturn(firstExecutionDelay);
+      // Spend the only token
+      assertThat(harness.getContext().getRetryBudget().tryAcquire()).isTrue();
+
+      new CqlRequestHandler(statement, harness.getSession(), harness.getContext(), "test").handle();
+      node1Behavior.verifyWrite();
+      node1Behavior.setWriteSuccess();
+
+      harness.nextScheduledTimeout(); // Discard the timeout task
+
+      CapturedTimeout speculativeExecution1 = harness.nextScheduledTimeout();
+      speculativeExecution1.task().run(speculativeExecution1);
+      node2Behavior.verifyNoWrite();
+
+      verify(nodeMetricUpdater1, never())
+          .incrementCounter(
+              DefaultNodeMetric.SPECULATIVE_EXECUTIONS, DriverExecutionProfile.DEFAULT_NAME);
+      verify(harness.getSession().getMetricUpdater())
+          .incrementCounter(
+              DefaultSessionMetric.RETRY_BUDGET_SUPPRESSED_SPECULATIVE_EXECUTIONS,
+              DriverExecutionProfile.DEFAULT_NAME);
+      assertThat(harness.nextScheduledTimeout()).isNull();
+    }
+  }
+
   @Test
   @UseDataProvider("idempotentConfig")
   public void should_not_start_execution_if_result_complete(
@@ -55,6 +55,7 @@ import com.datastax.oss.driver.internal.core.metadata.LoadBalancingPolicyWrapper
 import com.datastax.oss.driver.internal.core.metadata.MetadataManager;
 import com.datastax.oss.driver.internal.core.metrics.SessionMetricUpdater;
 import com.datastax.oss.driver.internal.core.pool.ChannelPool;
+import com.datastax.oss.driver.internal.core.retry.RetryBudget;
 import com.datastax.oss.driver.internal.core.servererrors.DefaultWriteTypeRegistry;
 import com.datastax.oss.driver.internal.core.session.DefaultSession;
 import com.datastax.oss.driver.internal.core.session.throttling.PassThroughRequestThrottler;
@@ -189,6 +190,14 @@ public class RequestHandlerTestHarness implements AutoCloseable {
     when(context.getWriteTypeRegistry()).thenReturn(new DefaultWriteTypeRegistry());
 
     when(context.getRequestThrottler()).thenReturn(new PassThroughRequestThrottler(context));
+    when(defaultProfile.getBoolean(DefaultDriverOption.RETRY_BUDGET_ENABLED, false))
+        .thenReturn(builder.retryBudgetBurst > 0);
+    when(defaultProfile.getDouble(DefaultDriverOption.RETRY_BUDGET_PERCENTAGE, 10.0))
+        .thenReturn(builder.retryBudgetPercentage);
+    when(defaultProfile.getInt(DefaultDriverOption.RETRY_BUDGET_BURST, 100))
+        .thenReturn(Math.max(builder.retryBudgetBurst, 1));
+    RetryBudget retryBudget = new RetryBudget(context);
+    when(context.getRetryBudget()).thenReturn(retryBudget);
 
     when(context.getRequestTracker()).thenReturn(new NoopRequestTracker(context));
   }
@@ -223,6 +232,15 @@ public class RequestHandlerTestHarness implements AutoCloseable {
     private final List<PoolBehavior> poolBehaviors = new ArrayList<>();
     private boolean defaultIdempotence;
     private ProtocolVersion protocolVersion;
+    private double retryBudgetPercentage;
+    private int retryBudgetBurst;
+
+    /** Enables the retry budget with the given settings (it is disabled by default). */
+    public Builder withRetryBudget(double percentage, int burst) {
+      this.retryBudgetPercentage = percentage;
+      this.retryBudgetBurst = burst;
+      return this;
+    }
 
     /**
      * Sets the given node as the next one in the query plan; an empty pool will be simulated when
@@ -26,6 +26,7 @@ package com.datastax.oss.driver.internal.core.loadbalancing;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -84,22 +85,45 @@ public class BasicLoadBalancingPolicyDcFailoverTest extends BasicLoadBalancingPo
     when(tokenMap.getReplicas(KEYSPACE, null, ROUTING_KEY))
         .thenReturn(ImmutableSet.of(node2, node3, node5, node8));
 
-    // node 5 and 8 being in a remote DC, they don't get a boost for being a replica
+    // node 5 and 8 being in a remote DC, they come after local nodes, but before other remote nodes
     assertThat(policy.newQueryPlan(request, session))
-        .containsExactly(node2, node3, node1, node4, node5, node7, node8);
+        .containsExactly(node2, node3, node1, node5, node8, node4, node7);
     assertThat(policy.newQueryPlan(request, session))
-        .containsExactly(node2, node3, node1, node4, node5, node7, node8);
+        .containsExactly(node2, node3, node1, node5, node8, node4, node7);
     assertThat(policy.newQueryPlan(request, session))
-        .containsExactly(node2, node3, node1, node4, node5, node7, node8);
+        .containsExactly(node2, node3, node1, node5, node8, node4, node7);
 
-    // should shuffle replicas
-    verify(policy, times(3)).shuffleHead(any(), eq(2));
-    // should shuffle remote nodes
-    verify(policy, times(3)).shuffleHead(any(), eq(4));
+    // should shuffle local and remote replicas
+    verify(policy, times(6)).shuffleHead(any(), eq(2));
+    // should shuffle remaining remote nodes separately
+    verify(policy, never()).shuffleHead(any(), eq(4));
+    verify(policy, times(3)).shuffleInRange(any(), eq(2), eq(3));
     // No power of two choices with only two replicas
     verify(session, never()).getPools();
   }
 
+  @Test
+  @Override
+  public void should_keep_replica_order_for_lwt() {
+    given(lwtStatement.isLWT()).willReturn(true);
+    given(lwtStatement.getRoutingKeyspace()).willReturn(KEYSPACE);
+    given(lwtStatement.getRoutingKey()).willReturn(ROUTING_KEY);
+    given(tokenMap.getReplicas(KEYSPACE, null, ROUTING_KEY))
+        .willReturn(ImmutableSet.of(node8, node3, node1, node5));
+
+    // node 8 and 5 being in a remote DC, they come after local nodes, in the replica order
+    assertThat(policy.newQueryPlan(lwtStatement, session))
+        .containsExactly(node3, node1, node2, node8, node5, node4, node7);
+    assertThat(policy.newQueryPlan(lwtStatement, session))
+        .containsExactly(node3, node1, node2, node8, node5, node4, node7);
+
+    // should not shuffle replicas
+    verify(policy, never()).shuffleHead(any(), eq(2));
+    verify(policy, never()).shuffleHead(any(), eq(4));
+    // should shuffle remaining remote nodes
+    verify(policy, times(2)).shuffleInRange(any(), eq(2), eq(3));
+  }
+
   @Override
   protected void assertRoundRobinQueryPlans() {
     // nodes 4 to 9 being in a remote DC, they always appear after nodes 1, 2, 3
@@ -139,6 +163,11 @@ public class BasicLoadBalancingPolicyDcFailoverTest extends BasicLoadBalancingPo
               protected void shuffleHead(Object[] currentNodes, int headLength) {
                 // nothing (keep in same order)
               }
+
+              @Override
+              protected void shuffleInRange(Object[] currentNodes, int startIndex, int endIndex) {
+                // nothing (keep in same order)
+              }
             });
     Map<UUID, Node> nodes =
         ImmutableMap.<UUID, Node>builder()
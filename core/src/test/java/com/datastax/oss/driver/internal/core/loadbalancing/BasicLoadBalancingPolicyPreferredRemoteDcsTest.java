@@ -19,7 +19,9 @@ package com.datastax.oss.driver.internal.core.loadbalancing;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -98,6 +100,44 @@ public class BasicLoadBalancingPolicyPreferredRemoteDcsTest
     verify(session, never()).getPools();
   }
 
+  @Override
+  @Test
+  public void should_keep_replica_order_for_lwt() {
+    given(lwtStatement.isLWT()).willReturn(true);
+    given(lwtStatement.getRoutingKeyspace()).willReturn(KEYSPACE);
+    given(lwtStatement.getRoutingKey()).willReturn(ROUTING_KEY);
+    given(tokenMap.getReplicas(KEYSPACE, null, ROUTING_KEY))
+        .willReturn(ImmutableSet.of(node9, node3, node1));
+
+    // node 9 being in a remote DC, it doesn't get a boost for being a replica
+    assertThat(policy.newQueryPlan(lwtStatement, session))
+        .containsExactly(
+            node3, node1, node2, node4, node5, node9, node10, node6, node7, node12, node13);
+    assertThat(policy.newQueryPlan(lwtStatement, session))
+        .containsExactly(
+            node3, node1, node4, node5, node2, node9, node10, node6, node7, node12, node13);
+
+    // should not shuffle replicas
+    verify(policy, never()).shuffleHead(any(), eq(3));
+  }
+
+  @Test
+  public void should_prioritize_remote_replicas_within_each_remote_dc() {
+    when(request.getRoutingKeyspace()).thenReturn(KEYSPACE);
+    when(request.getRoutingKey()).thenReturn(ROUTING_KEY);
+    when(tokenMap.getReplicas(KEYSPACE, null, ROUTING_KEY))
+        .thenReturn(ImmutableSet.of(node7, node10, node13));
+
+    // remote DCs are still tried in order of preference, but replicas come first in each of them
+    assertThat(policy.newQueryPlan(request, session))
+        .containsExactly(
+            node1, node2, node3, node4, node5, node10, node9, node7, node6, node13, node12);
+
+    // single replica in each remote DC: nothing to shuffle
+    verify(policy, never()).shuffleHead(any(), eq(2));
+    verify(policy, never()).shuffleInRange(any(), anyInt(), anyInt());
+  }
+
   @Override
   protected void assertRoundRobinQueryPlans() {
     for (int i = 0; i < 3; i++) {
@@ -156,6 +196,11 @@ public class BasicLoadBalancingPolicyPreferredRemoteDcsTest
               protected void shuffleHead(Object[] currentNodes, int headLength) {
                 // nothing (keep in same order)
               }
+
+              @Override
+              protected void shuffleInRange(Object[] currentNodes, int startIndex, int endIndex) {
+                // nothing (keep in same order)
+              }
             });
     Map<UUID, Node> nodes =
         ImmutableMap.<UUID, Node>builder()
@@ -40,6 +40,7 @@ import static org.mockito.Mockito.when;
 
 import com.datastax.oss.driver.api.core.CqlIdentifier;
 import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.api.core.metadata.Metadata;
 import com.datastax.oss.driver.api.core.metadata.TokenMap;
 import com.datastax.oss.driver.api.core.metadata.token.Token;
@@ -66,6 +67,7 @@ public class BasicLoadBalancingPolicyQueryPlanTest extends LoadBalancingPolicyTe
   protected static final ByteBuffer ROUTING_KEY = Bytes.fromHexString("0xdeadbeef");
 
   @Mock protected Request request;
+  @Mock protected Statement<?> lwtStatement;
   @Mock protected DefaultSession session;
   @Mock protected Metadata metadata;
   @Mock protected TokenMap tokenMap;
@@ -265,6 +267,24 @@ public class BasicLoadBalancingPolicyQueryPlanTest extends LoadBalancingPolicyTe
     verify(session, never()).getPools();
   }
 
+  @Test
+  public void should_keep_replica_order_for_lwt() {
+    given(lwtStatement.isLWT()).willReturn(true);
+    given(lwtStatement.getRoutingKeyspace()).willReturn(KEYSPACE);
+    given(lwtStatement.getRoutingKey()).willReturn(ROUTING_KEY);
+    given(tokenMap.getReplicas(KEYSPACE, null, ROUTING_KEY))
+        .willReturn(ImmutableSet.of(node5, node1, node3));
+
+    // replicas always first in token map order, round-robin on the rest
+    assertThat(policy.newQueryPlan(lwtStatement, session))
+        .containsExactly(node5, node1, node3, node2, node4);
+    assertThat(policy.newQueryPlan(lwtStatement, session))
+        .containsExactly(node5, node1, node3, node4, node2);
+
+    verify(policy, never()).shuffleHead(any(), anyInt());
+    verify(session, never()).getPools();
+  }
+
   protected BasicLoadBalancingPolicy createAndInitPolicy() {
     // Use a subclass to disable shuffling, we just spy to make sure that the shuffling method was
     // called (makes tests easier)
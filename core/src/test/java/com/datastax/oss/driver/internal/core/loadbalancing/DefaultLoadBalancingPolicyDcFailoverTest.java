@@ -57,6 +57,9 @@ public class DefaultLoadBalancingPolicyDcFailoverTest
             new DefaultLoadBalancingPolicy(context, DEFAULT_NAME) {
               @Override
               protected void shuffleHead(Object[] array, int n) {}
+
+              @Override
+              protected void shuffleInRange(Object[] array, int start, int end) {}
             });
     Map<UUID, Node> nodes =
         ImmutableMap.<UUID, Node>builder()
@@ -33,7 +33,13 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.Tablet;
+import com.datastax.oss.driver.api.core.metadata.TabletMap;
+import com.datastax.oss.driver.api.core.metadata.token.Token;
+import com.datastax.oss.driver.internal.core.metadata.token.Murmur3Token;
 import com.datastax.oss.driver.internal.core.pool.ChannelPool;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
@@ -57,6 +63,8 @@ public class DefaultLoadBalancingPolicyQueryPlanTest extends BasicLoadBalancingP
   @Mock protected ChannelPool pool3;
   @Mock protected ChannelPool pool4;
   @Mock protected ChannelPool pool5;
+  @Mock protected TabletMap tabletMap;
+  @Mock protected Tablet tablet;
 
   long nanoTime;
   int diceRoll;
@@ -381,6 +389,86 @@ public class DefaultLoadBalancingPolicyQueryPlanTest extends BasicLoadBalancingP
     assertThat(plan2).containsExactly(node5, node3, node1, node4, node2);
   }
 
+  @Test
+  public void should_check_health_of_shard_owning_token() {
+    // Given
+    given(request.getRoutingKeyspace()).willReturn(KEYSPACE);
+    given(request.getRoutingKey()).willReturn(ROUTING_KEY);
+    given(tokenMap.getReplicas(KEYSPACE, null, ROUTING_KEY))
+        .willReturn(ImmutableSet.of(node1, node3, node5));
+    given(tokenMap.newToken(ROUTING_KEY)).willReturn(routingToken);
+    given(pool1.getShardCount()).willReturn(4);
+    given(pool3.getShardCount()).willReturn(4);
+    given(pool1.getShardId(routingToken)).willReturn(2);
+    given(pool3.getShardId(routingToken)).willReturn(1);
+    // node1 looks idle, but the shard that owns the token is busy
+    given(pool1.getInFlight()).willReturn(20);
+    given(pool1.getInFlight(2)).willReturn(20);
+    given(pool1.getAvailableIds(2)).willReturn(100);
+    // node3 is busy, but not on the shard that owns the token
+    given(pool3.getInFlight()).willReturn(100);
+    given(pool3.getInFlight(1)).willReturn(0);
+
+    // When
+    Queue<Node> plan = dsePolicy.newQueryPlan(request, session);
+
+    // Then
+    // node1 is moved to the back of the replicas
+    assertThat(plan).containsExactly(node3, node5, node1, node2, node4);
+    then(pool3).should(never()).getInFlight();
+    // the request is only resolved once, and the key hashed at most once
+    then(request).should(times(1)).getRoutingKey();
+    then(tokenMap).should(times(1)).newToken(ROUTING_KEY);
+  }
+
+  @Test
+  public void should_compare_in_flight_requests_on_tablet_shards() {
+    // Given
+    CqlIdentifier table = CqlIdentifier.fromInternal("tbl");
+    Token token = new Murmur3Token(42);
+    given(request.getRoutingKeyspace()).willReturn(KEYSPACE);
+    given(request.getRoutingTable()).willReturn(table);
+    given(request.getRoutingToken()).willReturn(token);
+    given(metadata.getTabletMap()).willReturn(tabletMap);
+    given(tabletMap.getTablet(KEYSPACE, table, 42L)).willReturn(tablet);
+    given(tablet.getReplicaNodes()).willReturn(ImmutableSet.of(node1, node3, node5));
+    given(tablet.getShardForNode(node1)).willReturn(3);
+    given(tablet.getShardForNode(node3)).willReturn(1);
+    given(pool1.getShardCount()).willReturn(4);
+    given(pool3.getShardCount()).willReturn(4);
+    given(pool1.getInFlight(3)).willReturn(5);
+    given(pool1.getAvailableIds(3)).willReturn(100);
+    given(pool3.getInFlight(1)).willReturn(0);
+
+    // When
+    Queue<Node> plan = dsePolicy.newQueryPlan(request, session);
+
+    // Then
+    // the replica with the least loaded shard goes first
+    assertThat(plan).containsExactly(node3, node1, node5, node2, node4);
+    then(pool1).should(never()).getShardId(any());
+  }
+
+  @Test
+  public void should_consider_shard_without_available_ids_as_busy() {
+    // Given
+    given(request.getRoutingKeyspace()).willReturn(KEYSPACE);
+    given(request.getRoutingKey()).willReturn(ROUTING_KEY);
+    given(tokenMap.getReplicas(KEYSPACE, null, ROUTING_KEY))
+        .willReturn(ImmutableSet.of(node1, node3, node5));
+    given(tokenMap.newToken(ROUTING_KEY)).willReturn(routingToken);
+    given(pool1.getShardCount()).willReturn(4);
+    given(pool1.getShardId(routingToken)).willReturn(2);
+    given(pool1.getInFlight(2)).willReturn(1);
+    given(pool1.getAvailableIds(2)).willReturn(0);
+
+    // When
+    Queue<Node> plan = dsePolicy.newQueryPlan(request, session);
+
+    // Then
+    assertThat(plan).containsExactly(node3, node5, node1, node2, node4);
+  }
+
   @Override
   protected DefaultLoadBalancingPolicy createAndInitPolicy() {
     DefaultLoadBalancingPolicy policy =
@@ -412,4 +500,52 @@ public class DefaultLoadBalancingPolicyQueryPlanTest extends BasicLoadBalancingP
         distanceReporter);
     return policy;
   }
+
+  @Test
+  public void should_not_reorder_lwt_replicas_by_health() {
+    // Given
+    given(lwtStatement.isLWT()).willReturn(true);
+    given(lwtStatement.getRoutingKeyspace()).willReturn(KEYSPACE);
+    given(lwtStatement.getRoutingKey()).willReturn(ROUTING_KEY);
+    given(tokenMap.getReplicas(KEYSPACE, null, ROUTING_KEY))
+        .willReturn(ImmutableSet.of(node5, node3, node1));
+    dsePolicy.upTimes.put(node5, T2); // newly up primary replica
+    given(pool5.getInFlight()).willReturn(100); // and busy
+
+    // When
+    Queue<Node> plan1 = dsePolicy.newQueryPlan(lwtStatement, session);
+    Queue<Node> plan2 = dsePolicy.newQueryPlan(lwtStatement, session);
+
+    // Then
+    assertThat(plan1).containsExactly(node5, node3, node1, node2, node4);
+    assertThat(plan2).containsExactly(node5, node3, node1, node4, node2);
+
+    then(dsePolicy).should(never()).shuffleHead(any(), anyInt());
+    then(dsePolicy).should(never()).nanoTime();
+    then(dsePolicy).should(never()).diceRoll1d4();
+    then(session).should(never()).getPools();
+  }
+
+  @Test
+  public void should_route_lwt_as_regular_request_when_deterministic_routing_disabled() {
+    // Given
+    given(
+            defaultProfile.getBoolean(
+                DefaultDriverOption.LOAD_BALANCING_POLICY_LWT_DETERMINISTIC_ROUTING, false))
+        .willReturn(false);
+    dsePolicy = createAndInitPolicy();
+    given(lwtStatement.isLWT()).willReturn(true);
+    given(lwtStatement.getRoutingKeyspace()).willReturn(KEYSPACE);
+    given(lwtStatement.getRoutingKey()).willReturn(ROUTING_KEY);
+    given(tokenMap.getReplicas(KEYSPACE, null, ROUTING_KEY))
+        .willReturn(ImmutableSet.of(node5, node3));
+
+    // When
+    Queue<Node> plan = dsePolicy.newQueryPlan(lwtStatement, session);
+
+    // Then
+    // shuffling is disabled in tests, replicas come in the order of the live nodes
+    assertThat(plan).containsExactly(node3, node5, node1, node2, node4);
+    then(dsePolicy).should().shuffleHead(any(), anyInt());
+  }
 }
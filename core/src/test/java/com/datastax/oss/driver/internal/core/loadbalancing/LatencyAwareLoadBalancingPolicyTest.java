@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.loadbalancing;
+
+import static com.datastax.oss.driver.api.core.config.DriverExecutionProfile.DEFAULT_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.BDDMockito.given;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.session.Request;
+import com.datastax.oss.driver.internal.core.session.DefaultSession;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import com.datastax.oss.protocol.internal.util.Bytes;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class LatencyAwareLoadBalancingPolicyTest extends LoadBalancingPolicyTestBase {
+
+  private static final CqlIdentifier KEYSPACE = CqlIdentifier.fromInternal("ks");
+  private static final ByteBuffer ROUTING_KEY = Bytes.fromHexString("0xdeadbeef");
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final long SCALE = TimeUnit.MILLISECONDS.toNanos(100);
+  private static final long RETRY_PERIOD = TimeUnit.SECONDS.toNanos(10);
+
+  @Mock private Request request;
+  @Mock private DefaultSession session;
+  @Mock private Metadata metadata;
+  @Mock private TokenMap tokenMap;
+
+  private LatencyAwareLoadBalancingPolicy policy;
+  private long nanoTime;
+
+  @Before
+  @Override
+  public void setup() {
+    super.setup();
+    given(
+            defaultProfile.getDouble(
+                DefaultDriverOption.LOAD_BALANCING_LATENCY_AWARENESS_EXCLUSION_THRESHOLD, 2.0))
+        .willReturn(2.0);
+    given(
+            defaultProfile.getDuration(
+                DefaultDriverOption.LOAD_BALANCING_LATENCY_AWARENESS_SCALE, Duration.ofMillis(100)))
+        .willReturn(Duration.ofNanos(SCALE));
+    given(
+            defaultProfile.getDuration(
+                DefaultDriverOption.LOAD_BALANCING_LATENCY_AWARENESS_RETRY_PERIOD,
+                Duration.ofSeconds(10)))
+        .willReturn(Duration.ofNanos(RETRY_PERIOD));
+    given(
+            defaultProfile.getInt(
+                DefaultDriverOption.LOAD_BALANCING_LATENCY_AWARENESS_MIN_MEASUREMENTS, 50))
+        .willReturn(2);
+    given(metadataManager.getContactPoints()).willReturn(ImmutableSet.of(node1));
+    given(metadataManager.getMetadata()).willReturn(metadata);
+    given(metadata.getTokenMap()).willAnswer(invocation -> Optional.of(tokenMap));
+    given(session.getPools()).willReturn(ImmutableMap.of());
+    given(request.getRoutingKeyspace()).willReturn(KEYSPACE);
+    given(request.getRoutingKey()).willReturn(ROUTING_KEY);
+    given(tokenMap.getReplicas(KEYSPACE, null, ROUTING_KEY))
+        .willReturn(ImmutableSet.of(node1, node2, node3));
+
+    nanoTime = 0;
+    policy =
+        new LatencyAwareLoadBalancingPolicy(context, DEFAULT_NAME) {
+          @Override
+          protected long nanoTime() {
+            return nanoTime;
+          }
+
+          @Override
+          protected void shuffleHead(Object[] currentNodes, int headLength) {
+            // nothing (keep in same order)
+          }
+
+          @Override
+          protected void shuffleInRange(Object[] currentNodes, int startIndex, int endIndex) {
+            // nothing (keep in same order)
+          }
+        };
+    policy.init(
+        ImmutableMap.of(
+            UUID.randomUUID(), node1,
+            UUID.randomUUID(), node2,
+            UUID.randomUUID(), node3,
+            UUID.randomUUID(), node4,
+            UUID.randomUUID(), node5),
+        distanceReporter);
+  }
+
+  @Test
+  public void should_not_penalize_replicas_before_minimum_measurements() {
+    // Given
+    record(node1, SLOW);
+    record(node2, FAST);
+    record(node3, FAST);
+
+    // When
+    Object[] plan = policy.newQueryPlan(request, session).toArray();
+
+    // Then
+    assertThat(plan).containsExactly(node1, node2, node3, node4, node5);
+  }
+
+  @Test
+  public void should_move_slow_replicas_after_fast_ones() {
+    // Given
+    for (int i = 0; i < 2; i++) {
+      record(node1, SLOW);
+      record(node2, FAST);
+      record(node3, FAST);
+    }
+
+    // When
+    Object[] plan = policy.newQueryPlan(request, session).toArray();
+
+    // Then
+    // node1 stays before non-replicas
+    assertThat(plan).containsExactly(node2, node3, node1, node4, node5);
+  }
+
+  @Test
+  public void should_not_penalize_replicas_within_threshold() {
+    // Given
+    for (int i = 0; i < 2; i++) {
+      record(node1, 2 * FAST);
+      record(node2, FAST);
+      record(node3, FAST);
+    }
+
+    // When
+    Object[] plan = policy.newQueryPlan(request, session).toArray();
+
+    // Then
+    assertThat(plan).containsExactly(node1, node2, node3, node4, node5);
+  }
+
+  @Test
+  public void should_retry_slow_replica_after_retry_period() {
+    // Given
+    should_move_slow_replicas_after_fast_ones();
+    nanoTime += RETRY_PERIOD / 2;
+    record(node2, FAST);
+    record(node3, FAST);
+    assertThat(policy.newQueryPlan(request, session).toArray())
+        .containsExactly(node2, node3, node1, node5, node4);
+
+    // When
+    nanoTime += RETRY_PERIOD / 2 + 1;
+    record(node2, FAST);
+    record(node3, FAST);
+
+    // Then
+    // node1's latest measurement is too old
+    assertThat(policy.newQueryPlan(request, session).toArray())
+        .containsExactly(node1, node2, node3, node4, node5);
+  }
+
+  @Test
+  public void should_compute_exponentially_weighted_average() {
+    // Given
+    record(node1, FAST);
+    record(node1, FAST);
+    assertThat(policy.getAverageLatency(node1, nanoTime)).isEqualTo(FAST);
+
+    // When
+    // one scale later, the previous average weighs ln(2)
+    nanoTime += SCALE;
+    policy.onNodeSuccess(request, SLOW, defaultProfile, node1, "test");
+
+    // Then
+    double previousWeight = Math.log(2);
+    assertThat((double) policy.getAverageLatency(node1, nanoTime))
+        .isCloseTo((1 - previousWeight) * SLOW + previousWeight * FAST, within(1.0));
+  }
+
+  @Test
+  public void should_reset_latencies_when_node_comes_back_up() {
+    // Given
+    record(node1, FAST);
+    record(node1, FAST);
+    assertThat(policy.getAverageLatency(node1, nanoTime)).isEqualTo(FAST);
+
+    // When
+    policy.onDown(node1);
+    policy.onUp(node1);
+
+    // Then
+    assertThat(policy.getAverageLatency(node1, nanoTime)).isEqualTo(-1);
+  }
+
+  private void record(Node node, long latencyNanos) {
+    nanoTime += 1;
+    policy.onNodeSuccess(request, latencyNanos, defaultProfile, node, "test");
+  }
+}
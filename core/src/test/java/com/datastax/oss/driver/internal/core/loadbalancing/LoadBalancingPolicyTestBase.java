@@ -74,6 +74,9 @@ public abstract class LoadBalancingPolicyTestBase {
         .thenReturn("dc1");
     when(defaultProfile.getBoolean(DefaultDriverOption.LOAD_BALANCING_POLICY_SLOW_AVOIDANCE, true))
         .thenReturn(true);
+    when(defaultProfile.getBoolean(
+            DefaultDriverOption.LOAD_BALANCING_POLICY_LWT_DETERMINISTIC_ROUTING, false))
+        .thenReturn(true);
     when(defaultProfile.getInt(
             DefaultDriverOption.LOAD_BALANCING_DC_FAILOVER_MAX_NODES_PER_REMOTE_DC))
         .thenReturn(0);
@@ -53,6 +53,22 @@ public class DcAgnosticNodeSetTest {
     assertThat(set.dc("irrelevant")).contains(node1, node2);
   }
 
+  @Test
+  public void should_return_snapshot_of_all_nodes() {
+    DcAgnosticNodeSet set = new DcAgnosticNodeSet();
+    assertThat(set.snapshot(null)).isEmpty();
+    Node node1 = mock(Node.class);
+    set.add(node1);
+    Node node2 = mock(Node.class);
+    set.add(node2);
+    Object[] snapshot = set.snapshot(null);
+    assertThat(snapshot).containsExactly(node1, node2);
+    assertThat(set.snapshot("irrelevant")).isSameAs(snapshot);
+    set.remove(node1);
+    assertThat(set.snapshot(null)).containsExactly(node2);
+    assertThat(snapshot).containsExactly(node1, node2);
+  }
+
   @Test
   public void should_return_empty_dcs() {
     DcAgnosticNodeSet set = new DcAgnosticNodeSet();
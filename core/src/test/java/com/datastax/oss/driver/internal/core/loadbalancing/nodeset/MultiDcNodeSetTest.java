@@ -75,6 +75,26 @@ public class MultiDcNodeSetTest {
     assertThat(set.dcs()).contains("dc1", "dc2");
   }
 
+  @Test
+  public void should_return_snapshot_of_nodes_in_dc() {
+    MultiDcNodeSet set = new MultiDcNodeSet();
+    Node node1 = mockNode("dc1");
+    set.add(node1);
+    Node node2 = mockNode("dc1");
+    set.add(node2);
+    Node node3 = mockNode("dc2");
+    set.add(node3);
+    Object[] snapshot = set.snapshot("dc1");
+    assertThat(snapshot).containsExactly(node1, node2);
+    assertThat(set.snapshot("dc1")).isSameAs(snapshot);
+    assertThat(set.snapshot("dc2")).containsExactly(node3);
+    assertThat(set.snapshot("dc3")).isEmpty();
+    assertThat(set.snapshot(null)).isEmpty();
+    set.remove(node1);
+    assertThat(set.snapshot("dc1")).containsExactly(node2);
+    assertThat(snapshot).containsExactly(node1, node2);
+  }
+
   private Node mockNode(String dc) {
     Node node = mock(Node.class);
     when(node.getDatacenter()).thenReturn(dc);
@@ -65,6 +65,24 @@ public class SingleDcNodeSetTest {
     assertThat(set.dcs()).contains("dc1");
   }
 
+  @Test
+  public void should_return_snapshot_of_nodes_if_local_dc() {
+    SingleDcNodeSet set = new SingleDcNodeSet("dc1");
+    assertThat(set.snapshot("dc1")).isEmpty();
+    Node node1 = mockNode("dc1");
+    set.add(node1);
+    Node node2 = mockNode("dc1");
+    set.add(node2);
+    Object[] snapshot = set.snapshot("dc1");
+    assertThat(snapshot).containsExactly(node1, node2);
+    assertThat(set.snapshot("dc1")).isSameAs(snapshot);
+    assertThat(set.snapshot("dc2")).isEmpty();
+    assertThat(set.snapshot(null)).isEmpty();
+    set.remove(node1);
+    assertThat(set.snapshot("dc1")).containsExactly(node2);
+    assertThat(snapshot).containsExactly(node1, node2);
+  }
+
   private Node mockNode(String dc) {
     Node node = mock(Node.class);
     when(node.getDatacenter()).thenReturn(dc);
@@ -28,6 +28,8 @@ import com.datastax.oss.driver.internal.core.channel.ChannelFactory;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
 import com.datastax.oss.driver.internal.core.metadata.token.DefaultReplicationStrategyFactory;
 import com.datastax.oss.driver.internal.core.metadata.token.Murmur3TokenFactory;
+import com.datastax.oss.driver.internal.core.metrics.MetricsFactory;
+import com.datastax.oss.driver.internal.core.metrics.SessionMetricUpdater;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
 import java.util.Collections;
@@ -57,10 +59,14 @@ public class DefaultMetadataTokenMapTest {
 
   @Mock private InternalDriverContext context;
   @Mock private ChannelFactory channelFactory;
+  @Mock private MetricsFactory metricsFactory;
+  @Mock private SessionMetricUpdater sessionMetricUpdater;
 
   @Before
   public void setup() {
     when(context.getChannelFactory()).thenReturn(channelFactory);
+    when(context.getMetricsFactory()).thenReturn(metricsFactory);
+    when(metricsFactory.getSessionUpdater()).thenReturn(sessionMetricUpdater);
     DefaultReplicationStrategyFactory replicationStrategyFactory =
         new DefaultReplicationStrategyFactory(context);
     when(context.getReplicationStrategyFactory()).thenReturn(replicationStrategyFactory);
@@ -7,6 +7,7 @@ import com.datastax.oss.driver.api.core.metadata.KeyspaceTableNamePair;
 import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.api.core.metadata.Tablet;
 import com.datastax.oss.driver.api.core.metadata.TabletMap;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -112,4 +113,168 @@ public class DefaultTabletMapTest {
     Assert.assertEquals(result.getShardForNode(node1), 1);
     Assert.assertEquals(result.getShardForNode(node2), 2);
   }
+
+  @Test
+  public void should_find_tablet_owning_token() {
+    TabletMap tabletMap = DefaultTabletMap.emptyMap();
+    CqlIdentifier ks = CqlIdentifier.fromCql("ks");
+    CqlIdentifier tab = CqlIdentifier.fromCql("tab");
+    // Add out of order, with a hole between 30 and 40
+    Tablet tablet1 =
+        new DefaultTabletMap.DefaultTablet(20, 30, Collections.emptySet(), Collections.emptyMap());
+    Tablet tablet2 =
+        new DefaultTabletMap.DefaultTablet(
+            Long.MIN_VALUE, 10, Collections.emptySet(), Collections.emptyMap());
+    Tablet tablet3 =
+        new DefaultTabletMap.DefaultTablet(10, 20, Collections.emptySet(), Collections.emptyMap());
+    Tablet tablet4 =
+        new DefaultTabletMap.DefaultTablet(
+            40, Long.MAX_VALUE, Collections.emptySet(), Collections.emptyMap());
+    tabletMap.addTablet(ks, tab, tablet1);
+    tabletMap.addTablet(ks, tab, tablet2);
+    tabletMap.addTablet(ks, tab, tablet3);
+    tabletMap.addTablet(ks, tab, tablet4);
+
+    Assert.assertEquals(tabletMap.getTablet(ks, tab, Long.MIN_VALUE), null);
+    Assert.assertEquals(tabletMap.getTablet(ks, tab, Long.MIN_VALUE + 1), tablet2);
+    Assert.assertEquals(tabletMap.getTablet(ks, tab, 10), tablet2);
+    Assert.assertEquals(tabletMap.getTablet(ks, tab, 11), tablet3);
+    Assert.assertEquals(tabletMap.getTablet(ks, tab, 25), tablet1);
+    Assert.assertEquals(tabletMap.getTablet(ks, tab, 30), tablet1);
+    Assert.assertEquals(tabletMap.getTablet(ks, tab, 35), null);
+    Assert.assertEquals(tabletMap.getTablet(ks, tab, 40), null);
+    Assert.assertEquals(tabletMap.getTablet(ks, tab, Long.MAX_VALUE), tablet4);
+    Assert.assertEquals(tabletMap.getTablet(ks, CqlIdentifier.fromCql("tab2"), 25), null);
+    Assert.assertEquals(tabletMap.getTablet(CqlIdentifier.fromCql("ks2"), tab, 25), null);
+  }
+
+  @Test
+  public void should_replace_tablet_with_same_range() {
+    Node node1 = mock(DefaultNode.class);
+    Node node2 = mock(DefaultNode.class);
+    TabletMap tabletMap = DefaultTabletMap.emptyMap();
+    CqlIdentifier ks = CqlIdentifier.fromCql("ks");
+    CqlIdentifier tab = CqlIdentifier.fromCql("tab");
+    Tablet tablet1 =
+        new DefaultTabletMap.DefaultTablet(
+            0, 10, Collections.singleton(node1), Collections.singletonMap(node1, 1));
+    Tablet tablet2 =
+        new DefaultTabletMap.DefaultTablet(
+            0, 10, Collections.singleton(node2), Collections.singletonMap(node2, 2));
+    tabletMap.addTablet(ks, tab, tablet1);
+    Map<KeyspaceTableNamePair, ? extends Set<Tablet>> snapshot = tabletMap.getMapping();
+
+    tabletMap.addTablet(ks, tab, tablet2);
+
+    Assert.assertEquals(tabletMap.getTablet(ks, tab, 5), tablet2);
+    Assert.assertEquals(tabletMap.getMapping().get(new KeyspaceTableNamePair(ks, tab)).size(), 1);
+    // Previously returned mappings are not affected
+    Assert.assertTrue(snapshot.get(new KeyspaceTableNamePair(ks, tab)).contains(tablet1));
+  }
+
+  @Test
+  public void should_replace_all_tablets_of_table() {
+    DefaultTabletMap tabletMap = DefaultTabletMap.emptyMap();
+    CqlIdentifier ks = CqlIdentifier.fromCql("ks");
+    CqlIdentifier tab = CqlIdentifier.fromCql("tab");
+    tabletMap.addTablet(
+        ks,
+        tab,
+        new DefaultTabletMap.DefaultTablet(0, 100, Collections.emptySet(), Collections.emptyMap()));
+    Tablet tablet1 =
+        new DefaultTabletMap.DefaultTablet(
+            Long.MIN_VALUE, 50, Collections.emptySet(), Collections.emptyMap());
+    Tablet tablet2 =
+        new DefaultTabletMap.DefaultTablet(
+            50, Long.MAX_VALUE, Collections.emptySet(), Collections.emptyMap());
+
+    tabletMap.replaceTablets(ks, tab, Arrays.asList(tablet2, tablet1));
+
+    Assert.assertEquals(tabletMap.getMapping().get(new KeyspaceTableNamePair(ks, tab)).size(), 2);
+    Assert.assertEquals(tabletMap.getTablet(ks, tab, -1000), tablet1);
+    Assert.assertEquals(tabletMap.getTablet(ks, tab, 50), tablet1);
+    Assert.assertEquals(tabletMap.getTablet(ks, tab, 51), tablet2);
+  }
+
+  @Test
+  public void should_remove_tablets_of_removed_nodes() {
+    Node node1 = mock(DefaultNode.class);
+    Node node2 = mock(DefaultNode.class);
+    DefaultTabletMap tabletMap = DefaultTabletMap.emptyMap();
+    CqlIdentifier ks = CqlIdentifier.fromCql("ks");
+    CqlIdentifier tab = CqlIdentifier.fromCql("tab");
+    Tablet tablet1 =
+        new DefaultTabletMap.DefaultTablet(
+            Long.MIN_VALUE, 0, Collections.singleton(node1), Collections.singletonMap(node1, 1));
+    Tablet tablet2 =
+        new DefaultTabletMap.DefaultTablet(
+            0, 100, Collections.singleton(node2), Collections.singletonMap(node2, 1));
+    Tablet tablet3 =
+        new DefaultTabletMap.DefaultTablet(
+            100, Long.MAX_VALUE, Collections.singleton(node1), Collections.singletonMap(node1, 2));
+    tabletMap.replaceTablets(ks, tab, Arrays.asList(tablet1, tablet2, tablet3));
+    Assert.assertEquals(tabletMap.size(), 3);
+
+    tabletMap.removeNodes(Collections.singleton(node2));
+
+    Assert.assertEquals(tabletMap.size(), 2);
+    Assert.assertEquals(tabletMap.getTablet(ks, tab, -5), tablet1);
+    Assert.assertNull(tabletMap.getTablet(ks, tab, 50));
+    Assert.assertEquals(tabletMap.getTablet(ks, tab, 500), tablet3);
+  }
+
+  @Test
+  public void should_remove_tablets_of_dropped_table_and_keyspace() {
+    DefaultTabletMap tabletMap = DefaultTabletMap.emptyMap();
+    CqlIdentifier ks1 = CqlIdentifier.fromCql("ks1");
+    CqlIdentifier ks2 = CqlIdentifier.fromCql("ks2");
+    CqlIdentifier tab1 = CqlIdentifier.fromCql("tab1");
+    CqlIdentifier tab2 = CqlIdentifier.fromCql("tab2");
+    Tablet tablet =
+        new DefaultTabletMap.DefaultTablet(
+            Long.MIN_VALUE, Long.MAX_VALUE, Collections.emptySet(), Collections.emptyMap());
+    tabletMap.addTablet(ks1, tab1, tablet);
+    tabletMap.addTablet(ks1, tab2, tablet);
+    tabletMap.addTablet(ks2, tab1, tablet);
+    Assert.assertEquals(tabletMap.size(), 3);
+
+    tabletMap.removeTable(ks1, tab1);
+
+    Assert.assertEquals(tabletMap.size(), 2);
+    Assert.assertNull(tabletMap.getTablet(ks1, tab1, 0));
+    Assert.assertEquals(tabletMap.getTablet(ks1, tab2, 0), tablet);
+
+    tabletMap.removeKeyspace(ks1);
+
+    Assert.assertEquals(tabletMap.size(), 1);
+    Assert.assertNull(tabletMap.getTablet(ks1, tab2, 0));
+    Assert.assertEquals(tabletMap.getTablet(ks2, tab1, 0), tablet);
+  }
+
+  @Test
+  public void should_find_tables_replicated_on_node() {
+    Node node1 = mock(DefaultNode.class);
+    Node node2 = mock(DefaultNode.class);
+    DefaultTabletMap tabletMap = DefaultTabletMap.emptyMap();
+    CqlIdentifier ks = CqlIdentifier.fromCql("ks");
+    CqlIdentifier tab1 = CqlIdentifier.fromCql("tab1");
+    CqlIdentifier tab2 = CqlIdentifier.fromCql("tab2");
+    tabletMap.addTablet(
+        ks,
+        tab1,
+        new DefaultTabletMap.DefaultTablet(
+            0, 100, Collections.singleton(node1), Collections.singletonMap(node1, 1)));
+    tabletMap.addTablet(
+        ks,
+        tab2,
+        new DefaultTabletMap.DefaultTablet(
+            0, 100, Collections.singleton(node2), Collections.singletonMap(node2, 1)));
+
+    Assert.assertEquals(
+        tabletMap.getTablesReplicatedOn(node1),
+        Collections.singleton(new KeyspaceTableNamePair(ks, tab1)));
+    Assert.assertEquals(
+        tabletMap.getTablesReplicatedOn(node2),
+        Collections.singleton(new KeyspaceTableNamePair(ks, tab2)));
+  }
 }
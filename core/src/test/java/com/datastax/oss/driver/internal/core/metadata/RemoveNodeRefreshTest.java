@@ -20,6 +20,8 @@ package com.datastax.oss.driver.internal.core.metadata;
 import static com.datastax.oss.driver.Assertions.assertThat;
 import static org.mockito.Mockito.when;
 
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.metadata.TabletMap;
 import com.datastax.oss.driver.internal.core.channel.ChannelFactory;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
 import com.datastax.oss.driver.internal.core.metrics.MetricsFactory;
@@ -83,4 +85,38 @@ public class RemoveNodeRefreshTest {
     assertThat(result.newMetadata.getNodes()).containsOnlyKeys(node1.getHostId());
     assertThat(result.events).isEmpty();
   }
+
+  @Test
+  public void should_remove_tablets_of_removed_node() {
+    // Given
+    CqlIdentifier ks = CqlIdentifier.fromCql("ks");
+    CqlIdentifier tab = CqlIdentifier.fromCql("tab");
+    DefaultTabletMap tabletMap = DefaultTabletMap.emptyMap();
+    tabletMap.addTablet(
+        ks,
+        tab,
+        new DefaultTabletMap.DefaultTablet(
+            Long.MIN_VALUE, 0, Collections.singleton(node1), Collections.singletonMap(node1, 0)));
+    tabletMap.addTablet(
+        ks,
+        tab,
+        new DefaultTabletMap.DefaultTablet(
+            0, Long.MAX_VALUE, Collections.singleton(node2), Collections.singletonMap(node2, 0)));
+    DefaultMetadata oldMetadata =
+        new DefaultMetadata(
+            ImmutableMap.of(node1.getHostId(), node1, node2.getHostId(), node2),
+            Collections.emptyMap(),
+            null,
+            null,
+            tabletMap);
+    RemoveNodeRefresh refresh = new RemoveNodeRefresh(node2.getBroadcastRpcAddress().get());
+
+    // When
+    MetadataRefresh.Result result = refresh.compute(oldMetadata, false, context);
+
+    // Then
+    TabletMap newTabletMap = result.newMetadata.getTabletMap();
+    assertThat(newTabletMap.getTablet(ks, tab, -10)).isNotNull();
+    assertThat(newTabletMap.getTablet(ks, tab, 10)).isNull();
+  }
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.metadata;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.metadata.KeyspaceTableNamePair;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.Tablet;
+import com.datastax.oss.driver.api.core.metadata.TabletMap;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import java.util.Collections;
+import org.junit.Test;
+
+public class ReplaceTabletsRefreshTest {
+
+  private static final CqlIdentifier KS = CqlIdentifier.fromInternal("ks");
+  private static final CqlIdentifier TAB = CqlIdentifier.fromInternal("tab");
+  private static final KeyspaceTableNamePair KEY = new KeyspaceTableNamePair(KS, TAB);
+
+  private final Node node1 = mock(DefaultNode.class);
+  private final Node node2 = mock(DefaultNode.class);
+
+  @Test
+  public void should_replace_tablets() {
+    DefaultMetadata metadata = DefaultMetadata.EMPTY.withTabletMap(DefaultTabletMap.emptyMap());
+    metadata.getTabletMap().addTablet(KS, TAB, tablet(-100, 100, node1));
+    Tablet tablet1 = tablet(Long.MIN_VALUE, 0, node2);
+    Tablet tablet2 = tablet(0, Long.MAX_VALUE, node2);
+
+    new ReplaceTabletsRefresh(ImmutableMap.of(KEY, ImmutableList.of(tablet1, tablet2)))
+        .compute(metadata, false, mock(InternalDriverContext.class));
+
+    TabletMap tabletMap = metadata.getTabletMap();
+    assertThat(tabletMap.getTablet(KS, TAB, -50)).isEqualTo(tablet1);
+    assertThat(tabletMap.getTablet(KS, TAB, 50)).isEqualTo(tablet2);
+  }
+
+  @Test
+  public void should_keep_tablets_received_during_load() {
+    DefaultMetadata metadata = DefaultMetadata.EMPTY.withTabletMap(DefaultTabletMap.emptyMap());
+    Tablet snapshotTablet1 = tablet(Long.MIN_VALUE, 0, node1);
+    Tablet snapshotTablet2 = tablet(0, Long.MAX_VALUE, node1);
+    // The tablet was migrated while system.tablets was being read
+    Tablet newerTablet = tablet(0, Long.MAX_VALUE, node2);
+    metadata.getTabletMap().addTablet(KS, TAB, newerTablet);
+
+    new ReplaceTabletsRefresh(
+            ImmutableMap.of(KEY, ImmutableList.of(snapshotTablet1, snapshotTablet2)),
+            ImmutableMap.of(KEY, ImmutableList.of(newerTablet)))
+        .compute(metadata, false, mock(InternalDriverContext.class));
+
+    TabletMap tabletMap = metadata.getTabletMap();
+    assertThat(tabletMap.getTablet(KS, TAB, -50)).isEqualTo(snapshotTablet1);
+    assertThat(tabletMap.getTablet(KS, TAB, 50)).isEqualTo(newerTablet);
+  }
+
+  private static Tablet tablet(long firstToken, long lastToken, Node replica) {
+    return new DefaultTabletMap.DefaultTablet(
+        firstToken,
+        lastToken,
+        Collections.singleton(replica),
+        Collections.singletonMap(replica, 0));
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.metadata;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.data.TupleValue;
+import com.datastax.oss.driver.api.core.metadata.KeyspaceTableNamePair;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.Tablet;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.TupleType;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.driver.internal.core.adminrequest.AdminRow;
+import com.datastax.oss.driver.internal.core.channel.DriverChannel;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.Test;
+
+public class TabletsLoaderTest {
+
+  private static final TupleType REPLICA_TYPE = DataTypes.tupleOf(DataTypes.UUID, DataTypes.INT);
+
+  private final UUID hostId1 = UUID.randomUUID();
+  private final UUID hostId2 = UUID.randomUUID();
+  private final Node node1 = mock(DefaultNode.class);
+  private final Node node2 = mock(DefaultNode.class);
+  private final Map<UUID, Node> nodes = ImmutableMap.of(hostId1, node1, hostId2, node2);
+
+  @Test
+  public void should_build_contiguous_tablets_for_included_tables() {
+    TabletsLoader loader = newLoader("ks1", "ks2.tab1");
+    // Rows of a table are not necessarily consecutive or sorted
+    loader.addRow(row("ks1", "tab", 0, replicas(hostId1, 3)));
+    loader.addRow(row("ks2", "tab1", 100, replicas(hostId2, 1)));
+    loader.addRow(row("ks2", "tab2", 100, replicas(hostId2, 1)));
+    loader.addRow(row("ks1", "tab", Long.MAX_VALUE, replicas(hostId2, 4, hostId1, 5)));
+    loader.addRow(row("ks1", "tab", -100, replicas(hostId1, 2)));
+    loader.addRow(row("ks3", "tab", 100, replicas(hostId1, 1)));
+
+    Map<KeyspaceTableNamePair, List<Tablet>> tablets = loader.buildTablets();
+
+    assertThat(tablets).hasSize(2);
+    List<Tablet> ks1Tablets = tablets.get(pair("ks1", "tab"));
+    assertThat(ks1Tablets).hasSize(3);
+    assertTablet(ks1Tablets.get(0), Long.MIN_VALUE, -100);
+    assertTablet(ks1Tablets.get(1), -100, 0);
+    assertTablet(ks1Tablets.get(2), 0, Long.MAX_VALUE);
+    assertThat(ks1Tablets.get(0).getReplicaNodes()).containsExactly(node1);
+    assertThat(ks1Tablets.get(0).getShardForNode(node1)).isEqualTo(2);
+    // Replica order is preserved
+    assertThat(ks1Tablets.get(2).getReplicaNodes()).containsExactly(node2, node1);
+    assertThat(ks1Tablets.get(2).getShardForNode(node2)).isEqualTo(4);
+
+    List<Tablet> ks2Tablets = tablets.get(pair("ks2", "tab1"));
+    assertThat(ks2Tablets).hasSize(1);
+    assertTablet(ks2Tablets.get(0), Long.MIN_VALUE, 100);
+  }
+
+  @Test
+  public void should_ignore_unknown_hosts() {
+    TabletsLoader loader = newLoader("ks");
+    loader.addRow(row("ks", "tab", 0, replicas(UUID.randomUUID(), 1, hostId2, 2)));
+
+    List<Tablet> tablets = loader.buildTablets().get(pair("ks", "tab"));
+
+    assertThat(tablets).hasSize(1);
+    assertThat(tablets.get(0).getReplicaNodes()).containsExactly(node2);
+  }
+
+  @Test
+  public void should_restrict_filter_to_given_tables() {
+    TabletsLoader.Filter filter = new TabletsLoader.Filter(ImmutableList.of("ks1", "ks2.tab1"));
+
+    TabletsLoader.Filter restricted =
+        filter.restrictTo(
+            ImmutableList.of(pair("ks1", "tab"), pair("ks2", "tab1"), pair("ks2", "tab2")));
+
+    assertThat(restricted.includes("ks1", "tab")).isTrue();
+    assertThat(restricted.includes("ks1", "other")).isFalse();
+    assertThat(restricted.includes("ks2", "tab1")).isTrue();
+    assertThat(restricted.includes("ks2", "tab2")).isFalse();
+    assertThat(restricted.getKeyspaces()).containsOnly("ks1", "ks2");
+
+    assertThat(filter.restrictTo(ImmutableList.of(pair("ks3", "tab"))).isEmpty()).isTrue();
+  }
+
+  @Test
+  public void should_find_ids_of_included_tables() {
+    UUID id1 = UUID.randomUUID();
+    UUID id2 = UUID.randomUUID();
+    KeyspaceMetadata ks1 = keyspace("ks1", table("tab1", id1), table("tab2", id2));
+    KeyspaceMetadata ks2 = keyspace("ks2", table("tab1", UUID.randomUUID()));
+    TabletsLoader.Filter filter = new TabletsLoader.Filter(ImmutableList.of("ks1.tab2", "ks3"));
+
+    List<UUID> ids = filter.findTableIds(ImmutableMap.of(ks1.getName(), ks1, ks2.getName(), ks2));
+
+    assertThat(ids).containsExactly(id2);
+  }
+
+  private static KeyspaceMetadata keyspace(String name, TableMetadata... tables) {
+    KeyspaceMetadata keyspace = mock(KeyspaceMetadata.class);
+    when(keyspace.getName()).thenReturn(CqlIdentifier.fromInternal(name));
+    ImmutableMap.Builder<CqlIdentifier, TableMetadata> builder = ImmutableMap.builder();
+    for (TableMetadata table : tables) {
+      builder.put(table.getName(), table);
+    }
+    when(keyspace.getTables()).thenReturn(builder.build());
+    return keyspace;
+  }
+
+  private static TableMetadata table(String name, UUID id) {
+    TableMetadata table = mock(TableMetadata.class);
+    when(table.getName()).thenReturn(CqlIdentifier.fromInternal(name));
+    when(table.getId()).thenReturn(Optional.of(id));
+    return table;
+  }
+
+  private TabletsLoader newLoader(String... filter) {
+    return new TabletsLoader(
+        mock(DriverChannel.class),
+        new TabletsLoader.Filter(ImmutableList.copyOf(filter)),
+        null,
+        nodes,
+        Duration.ofSeconds(1),
+        100,
+        "test");
+  }
+
+  private static AdminRow row(
+      String keyspace, String table, long lastToken, List<TupleValue> replicas) {
+    AdminRow row = mock(AdminRow.class);
+    when(row.getString("keyspace_name")).thenReturn(keyspace);
+    when(row.getString("table_name")).thenReturn(table);
+    when(row.get("last_token", TypeCodecs.BIGINT)).thenReturn(lastToken);
+    when(row.get("replicas", TabletsLoader.REPLICAS_CODEC)).thenReturn(replicas);
+    return row;
+  }
+
+  private static List<TupleValue> replicas(Object... hostIdsAndShards) {
+    ImmutableList.Builder<TupleValue> builder = ImmutableList.builder();
+    for (int i = 0; i < hostIdsAndShards.length; i += 2) {
+      builder.add(REPLICA_TYPE.newValue(hostIdsAndShards[i], hostIdsAndShards[i + 1]));
+    }
+    return builder.build();
+  }
+
+  private static KeyspaceTableNamePair pair(String keyspace, String table) {
+    return new KeyspaceTableNamePair(
+        CqlIdentifier.fromInternal(keyspace), CqlIdentifier.fromInternal(table));
+  }
+
+  private static void assertTablet(Tablet tablet, long firstToken, long lastToken) {
+    assertThat(tablet.getFirstToken()).isEqualTo(firstToken);
+    assertThat(tablet.getLastToken()).isEqualTo(lastToken);
+  }
+}
@@ -30,13 +30,18 @@ import com.datastax.oss.driver.api.core.metadata.token.TokenRange;
 import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
 import com.datastax.oss.driver.internal.core.metadata.DefaultNode;
+import com.datastax.oss.driver.internal.core.metadata.token.RingWalkingReplicationStrategy.RingWalker;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -171,6 +176,37 @@ public class DefaultTokenMapTest {
     assertThat(tokenMap.getReplicas(KS2, ROUTING_KEY41)).containsOnly(node1);
   }
 
+  @Test
+  public void should_use_primitive_ring_for_murmur3() {
+    // Given
+    Node node1 = mockNode(DC1, RACK1, ImmutableSet.of(TOKEN1));
+    Node node2 = mockNode(DC2, RACK2, ImmutableSet.of(TOKEN2));
+    Node node3 = mockNode(DC1, RACK1, ImmutableSet.of(TOKEN3));
+    Node node4 = mockNode(DC2, RACK2, ImmutableSet.of(TOKEN4));
+    List<Node> nodes = ImmutableList.of(node1, node2, node3, node4);
+    List<KeyspaceMetadata> keyspaces = ImmutableList.of(mockKeyspace(KS2, REPLICATE_ON_DC1));
+
+    // When
+    DefaultTokenMap tokenMap =
+        DefaultTokenMap.build(nodes, keyspaces, TOKEN_FACTORY, replicationStrategyFactory, "test");
+
+    // Then
+    assertThat(tokenMap.keyspaceMaps.get(REPLICATE_ON_DC1))
+        .isInstanceOf(KeyspaceTokenMap.Murmur3KeyspaceTokenMap.class);
+    // Ring tokens belong to the range they end
+    assertThat(tokenMap.getReplicas(KS2, TOKEN_FACTORY.parse(TOKEN1))).containsOnly(node1);
+    assertThat(tokenMap.getReplicas(KS2, TOKEN_FACTORY.parse(TOKEN2))).containsOnly(node3);
+    // Before the first token and after the last token wrap around to the first range
+    assertThat(tokenMap.getReplicas(KS2, TOKEN_FACTORY.minToken())).containsOnly(node1);
+    assertThat(tokenMap.getReplicas(KS2, new Murmur3Token(Long.MAX_VALUE))).containsOnly(node1);
+    // Identical replica sets are shared
+    assertThat(tokenMap.getReplicas(KS2, ROUTING_KEY12))
+        .isSameAs(tokenMap.getReplicas(KS2, ROUTING_KEY23));
+    // An explicit Murmur3 partitioner gives the same results
+    assertThat(tokenMap.getReplicas(KS2, new Murmur3TokenFactory(), ROUTING_KEY34))
+        .containsOnly(node1);
+  }
+
   @Test
   public void should_refresh_when_keyspace_replication_has_not_changed() {
     // Given
@@ -359,6 +395,94 @@ public class DefaultTokenMapTest {
         .containsEntry(KS2, REPLICATE_ON_BOTH_DCS);
   }
 
+  @Test
+  public void should_rebuild_only_around_changed_tokens() {
+    // Given
+    Random random = new Random(42);
+    List<Node> nodes = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      nodes.add(
+          mockNode((i % 2 == 0) ? DC1 : DC2, (i % 3 == 0) ? RACK1 : RACK2, randomTokens(random)));
+    }
+    Map<String, String> simpleReplication =
+        ImmutableMap.of(
+            "class", "org.apache.cassandra.locator.SimpleStrategy", "replication_factor", "3");
+    Map<String, String> ntsReplication =
+        ImmutableMap.of(
+            "class", "org.apache.cassandra.locator.NetworkTopologyStrategy", DC1, "2", DC2, "2");
+    List<KeyspaceMetadata> keyspaces =
+        ImmutableList.of(mockKeyspace(KS1, simpleReplication), mockKeyspace(KS2, ntsReplication));
+    AtomicInteger walks = new AtomicInteger();
+    ReplicationStrategyFactory countingFactory =
+        config -> {
+          ReplicationStrategy strategy = replicationStrategyFactory.newInstance(config);
+          return (strategy instanceof SimpleReplicationStrategy)
+              ? new SimpleReplicationStrategy(new ReplicationFactor(3)) {
+                @Override
+                RingWalker newWalker(Map<Token, Node> tokenToPrimary, List<Token> ring) {
+                  RingWalker walker = super.newWalker(tokenToPrimary, ring);
+                  return new RingWalker() {
+                    @Override
+                    public Object getRingData() {
+                      return walker.getRingData();
+                    }
+
+                    @Override
+                    public int walk(int index, CanonicalNodeSetBuilder replicas) {
+                      walks.incrementAndGet();
+                      return walker.walk(index, replicas);
+                    }
+                  };
+                }
+              }
+              : strategy;
+        };
+    List<Node> oldNodes = nodes.subList(0, 11);
+    DefaultTokenMap oldTokenMap =
+        DefaultTokenMap.build(oldNodes, keyspaces, TOKEN_FACTORY, countingFactory, "test");
+    assertThat(walks.get()).isEqualTo(11 * 16);
+
+    // When
+    walks.set(0);
+    DefaultTokenMap newTokenMap = oldTokenMap.rebuild(nodes, keyspaces, countingFactory);
+
+    // Then
+    assertThat(walks.get()).isGreaterThan(0).isLessThan(12 * 16);
+    assertSameReplicas(
+        newTokenMap,
+        DefaultTokenMap.build(nodes, keyspaces, TOKEN_FACTORY, replicationStrategyFactory, "test"));
+
+    // When
+    List<Node> remainingNodes = new ArrayList<>(nodes);
+    remainingNodes.remove(3);
+    DefaultTokenMap newerTokenMap =
+        newTokenMap.rebuild(remainingNodes, keyspaces, replicationStrategyFactory);
+
+    // Then
+    assertSameReplicas(
+        newerTokenMap,
+        DefaultTokenMap.build(
+            remainingNodes, keyspaces, TOKEN_FACTORY, replicationStrategyFactory, "test"));
+  }
+
+  private static void assertSameReplicas(DefaultTokenMap actual, DefaultTokenMap expected) {
+    assertThat(actual.getTokenRanges()).isEqualTo(expected.getTokenRanges());
+    for (TokenRange range : expected.getTokenRanges()) {
+      for (CqlIdentifier keyspace : ImmutableList.of(KS1, KS2)) {
+        assertThat(actual.getReplicas(keyspace, range))
+            .containsExactlyElementsOf(expected.getReplicas(keyspace, range));
+      }
+    }
+  }
+
+  private static Set<String> randomTokens(Random random) {
+    Set<String> tokens = new HashSet<>();
+    while (tokens.size() < 16) {
+      tokens.add(Long.toString(random.nextLong()));
+    }
+    return tokens;
+  }
+
   private DefaultNode mockNode(String dc, String rack, Set<String> tokens) {
     DefaultNode node = mock(DefaultNode.class);
     when(node.getDatacenter()).thenReturn(dc);
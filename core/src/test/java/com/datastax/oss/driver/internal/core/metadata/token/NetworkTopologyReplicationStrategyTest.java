@@ -33,6 +33,7 @@ import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.api.core.metadata.token.Token;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import com.datastax.oss.driver.shaded.guava.common.collect.Lists;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -667,6 +668,63 @@ public class NetworkTopologyReplicationStrategyTest {
     return count.get();
   }
 
+  /**
+   * 12 tokens, 6 nodes with 2 tokens each (vnodes) in 2 DCs with 2 racks, RF = 3 in DC1 and 2 in
+   * DC2.
+   *
+   * <p>The replicas of a DC must come out in ring order (primary replica first), whatever the
+   * iteration order of the token map: lightweight transactions rely on it to pick the same
+   * coordinator on every client.
+   */
+  @Test
+  public void should_keep_dc_replicas_in_ring_order_with_vnodes() {
+    // Given
+    List<Token> ring =
+        ImmutableList.of(
+            TOKEN01, TOKEN02, TOKEN03, TOKEN04, TOKEN05, TOKEN06, TOKEN07, TOKEN08, TOKEN09,
+            TOKEN10, TOKEN11, TOKEN12);
+    locate(node1, DC1, RACK11);
+    locate(node2, DC1, RACK12);
+    locate(node3, DC1, RACK11);
+    locate(node4, DC2, RACK21);
+    locate(node5, DC2, RACK22);
+    locate(node6, DC2, RACK21);
+    Map<Token, Node> tokenToPrimary =
+        ImmutableMap.<Token, Node>builder()
+            .put(TOKEN01, node1)
+            .put(TOKEN02, node4)
+            .put(TOKEN03, node2)
+            .put(TOKEN04, node5)
+            .put(TOKEN05, node3)
+            .put(TOKEN06, node6)
+            .put(TOKEN07, node2)
+            .put(TOKEN08, node1)
+            .put(TOKEN09, node6)
+            .put(TOKEN10, node3)
+            .put(TOKEN11, node5)
+            .put(TOKEN12, node4)
+            .build();
+    Map<Token, Node> reversedTokenToPrimary =
+        ImmutableMap.copyOf(Lists.reverse(ImmutableList.copyOf(tokenToPrimary.entrySet())));
+    ReplicationStrategy strategy =
+        new NetworkTopologyReplicationStrategy(ImmutableMap.of(DC1, "3", DC2, "2"), "test");
+
+    // When
+    Map<Token, Set<Node>> replicasByToken = strategy.computeReplicasByToken(tokenToPrimary, ring);
+    Map<Token, Set<Node>> replicasByTokenReversed =
+        strategy.computeReplicasByToken(reversedTokenToPrimary, ring);
+
+    // Then
+    assertThat(replicasByToken.get(TOKEN01)).containsExactly(node1, node4, node2, node5, node3);
+    assertThat(replicasByToken.get(TOKEN07)).containsExactly(node2, node1, node6, node3, node5);
+    // node3 is skipped until a node of the other rack is found
+    assertThat(replicasByToken.get(TOKEN08)).containsExactly(node1, node6, node5, node2, node3);
+    for (Token token : ring) {
+      assertThat(replicasByTokenReversed.get(token))
+          .containsExactlyElementsOf(replicasByToken.get(token));
+    }
+  }
+
   private void locate(Node node, String dc, String rack) {
     when(node.getDatacenter()).thenReturn(dc);
     when(node.getRack()).thenReturn(rack);
@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.pool;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static com.datastax.oss.driver.Assertions.assertThatStage;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.loadbalancing.NodeDistance;
+import com.datastax.oss.driver.internal.core.channel.ChannelEvent;
+import com.datastax.oss.driver.internal.core.channel.DriverChannel;
+import com.datastax.oss.driver.internal.core.channel.DriverChannelOptions;
+import com.datastax.oss.driver.internal.core.channel.MockChannelFactoryHelper;
+import com.datastax.oss.driver.internal.core.protocol.ShardingInfo;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+public class ChannelPoolAutoscalingTest extends ChannelPoolTestBase {
+
+  @Before
+  @Override
+  public void setup() {
+    super.setup();
+    when(defaultProfile.getInt(DefaultDriverOption.CONNECTION_POOL_LOCAL_SIZE)).thenReturn(2);
+    when(defaultProfile.getBoolean(DefaultDriverOption.CONNECTION_POOL_AUTOSCALING_ENABLED))
+        .thenReturn(true);
+    // Don't let the periodic task interfere, the tests trigger the checks manually
+    when(defaultProfile.getDuration(DefaultDriverOption.CONNECTION_POOL_AUTOSCALING_INTERVAL))
+        .thenReturn(Duration.ofDays(1));
+    when(defaultProfile.getInt(DefaultDriverOption.CONNECTION_POOL_AUTOSCALING_MAX_SIZE))
+        .thenReturn(3);
+    when(defaultProfile.getInt(DefaultDriverOption.CONNECTION_POOL_AUTOSCALING_HIGH_WATER_MARK))
+        .thenReturn(10);
+    when(defaultProfile.getInt(DefaultDriverOption.CONNECTION_POOL_AUTOSCALING_LOW_WATER_MARK))
+        .thenReturn(2);
+    when(defaultProfile.getDuration(DefaultDriverOption.CONNECTION_POOL_AUTOSCALING_COOL_DOWN))
+        .thenReturn(Duration.ZERO);
+  }
+
+  @Test
+  public void should_grow_under_load_and_shrink_after_cool_down() throws Exception {
+    DriverChannel channel1 = newMockDriverChannel(1);
+    DriverChannel channel2 = newMockDriverChannel(2);
+    DriverChannel channel3 = newMockDriverChannel(3);
+    MockChannelFactoryHelper factoryHelper =
+        MockChannelFactoryHelper.builder(channelFactory)
+            // init
+            .success(node, channel1)
+            .success(node, channel2)
+            // growth
+            .success(node, channel3)
+            .build();
+    InOrder inOrder = inOrder(eventBus);
+
+    CompletionStage<ChannelPool> poolFuture =
+        ChannelPool.init(node, null, NodeDistance.LOCAL, context, "test");
+
+    factoryHelper.waitForCalls(node, 2);
+    inOrder.verify(eventBus, VERIFY_TIMEOUT.times(2)).fire(ChannelEvent.channelOpened(node));
+    assertThatStage(poolFuture).isSuccess();
+    ChannelPool pool = poolFuture.toCompletableFuture().get();
+    assertThat(pool.channels[0]).containsOnly(channel1, channel2);
+
+    // Average in-flight reaches the high-water mark
+    when(channel1.getInFlight()).thenReturn(12);
+    when(channel2.getInFlight()).thenReturn(10);
+    pool.autoscale();
+
+    factoryHelper.waitForCalls(node, 1);
+    inOrder.verify(eventBus, VERIFY_TIMEOUT).fire(ChannelEvent.channelOpened(node));
+    await()
+        .untilAsserted(
+            () -> assertThat(pool.channels[0]).containsOnly(channel1, channel2, channel3));
+
+    // Still loaded, but we've reached the maximum size
+    when(channel3.getInFlight()).thenReturn(11);
+    pool.autoscale();
+
+    // Load goes down: the first check starts the cool-down, the second one shrinks
+    when(channel1.getInFlight()).thenReturn(1);
+    when(channel2.getInFlight()).thenReturn(0);
+    when(channel3.getInFlight()).thenReturn(1);
+    pool.autoscale();
+    pool.autoscale();
+
+    inOrder.verify(eventBus, VERIFY_TIMEOUT).fire(ChannelEvent.channelClosed(node));
+    // The least busy channel is the one that gets closed
+    await().untilAsserted(() -> assertThat(pool.channels[0]).containsOnly(channel1, channel3));
+    verify(channel2).close();
+
+    // Never shrinks below the configured size
+    pool.autoscale();
+    pool.autoscale();
+    await().untilAsserted(() -> assertThat(pool.channels[0].size()).isEqualTo(2));
+
+    factoryHelper.verifyNoMoreCalls();
+  }
+
+  @Test
+  public void should_not_reconnect_nor_retry_when_growth_fails() throws Exception {
+    DriverChannel channel1 = newMockDriverChannel(1);
+    DriverChannel channel2 = newMockDriverChannel(2);
+    DriverChannel channel3 = newMockDriverChannel(3);
+    MockChannelFactoryHelper factoryHelper =
+        MockChannelFactoryHelper.builder(channelFactory)
+            // init
+            .success(node, channel1)
+            .success(node, channel2)
+            // first growth
+            .failure(node, "mock channel init failure")
+            // second growth
+            .success(node, channel3)
+            .build();
+
+    CompletionStage<ChannelPool> poolFuture =
+        ChannelPool.init(node, null, NodeDistance.LOCAL, context, "test");
+
+    factoryHelper.waitForCalls(node, 2);
+    assertThatStage(poolFuture).isSuccess();
+    ChannelPool pool = poolFuture.toCompletableFuture().get();
+
+    when(channel1.getInFlight()).thenReturn(10);
+    when(channel2.getInFlight()).thenReturn(10);
+    pool.autoscale();
+
+    factoryHelper.waitForCalls(node, 1);
+    // The node is healthy, it is not reported as reconnecting
+    verify(eventBus, never()).fire(ChannelEvent.reconnectionStarted(node));
+    verify(reconnectionSchedule, never()).nextDelay();
+    await().untilAsserted(() -> assertThat(pool.channels[0]).containsOnly(channel1, channel2));
+
+    // Still loaded: a later check tries again (the first one might run before the failure was
+    // processed, extra checks do nothing once the channel is added)
+    await()
+        .untilAsserted(
+            () -> {
+              pool.autoscale();
+              assertThat(pool.channels[0]).containsOnly(channel1, channel2, channel3);
+            });
+    factoryHelper.waitForCalls(node, 1);
+    verify(eventBus, never()).fire(ChannelEvent.reconnectionStarted(node));
+
+    factoryHelper.verifyNoMoreCalls();
+  }
+
+  @Test
+  public void should_not_grow_under_low_water_mark() throws Exception {
+    DriverChannel channel1 = newMockDriverChannel(1);
+    DriverChannel channel2 = newMockDriverChannel(2);
+    MockChannelFactoryHelper factoryHelper =
+        MockChannelFactoryHelper.builder(channelFactory)
+            .success(node, channel1)
+            .success(node, channel2)
+            .build();
+
+    CompletionStage<ChannelPool> poolFuture =
+        ChannelPool.init(node, null, NodeDistance.LOCAL, context, "test");
+
+    factoryHelper.waitForCalls(node, 2);
+    assertThatStage(poolFuture).isSuccess();
+    ChannelPool pool = poolFuture.toCompletableFuture().get();
+
+    when(channel1.getInFlight()).thenReturn(9);
+    when(channel2.getInFlight()).thenReturn(9);
+    pool.autoscale();
+    pool.autoscale();
+
+    await().untilAsserted(() -> assertThat(pool.channels[0]).containsOnly(channel1, channel2));
+    factoryHelper.verifyNoMoreCalls();
+  }
+
+  @Test
+  public void should_grow_on_node_with_more_shards_than_max_size() throws Exception {
+    // 1 connection per shard, and up to 3 per shard when loaded
+    int shardsCount = 8;
+    when(defaultProfile.getInt(DefaultDriverOption.CONNECTION_POOL_LOCAL_SIZE))
+        .thenReturn(shardsCount);
+    ShardingInfo shardingInfo = mock(ShardingInfo.class);
+    when(shardingInfo.getShardsCount()).thenReturn(shardsCount);
+
+    DriverChannel[] initialChannels = new DriverChannel[shardsCount];
+    for (int shardId = 0; shardId < shardsCount; shardId++) {
+      initialChannels[shardId] = newMockDriverChannel(shardId);
+      when(initialChannels[shardId].getShardId()).thenReturn(shardId);
+      when(initialChannels[shardId].getShardingInfo()).thenReturn(shardingInfo);
+    }
+    DriverChannel extraChannel = newMockDriverChannel(shardsCount);
+    when(extraChannel.getShardId()).thenReturn(3);
+    // The first channel lands on an arbitrary shard, the other ones target theirs explicitly
+    when(channelFactory.connect(eq(node), any(DriverChannelOptions.class)))
+        .thenReturn(CompletableFuture.completedFuture(initialChannels[0]));
+    for (int shardId = 1; shardId < shardsCount; shardId++) {
+      when(channelFactory.connect(
+              eq(node), eq(shardingInfo), eq(shardId), any(DriverChannelOptions.class)))
+          .thenReturn(CompletableFuture.completedFuture(initialChannels[shardId]));
+    }
+    when(channelFactory.connect(eq(node), eq(shardingInfo), eq(3), any(DriverChannelOptions.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(initialChannels[3]),
+            CompletableFuture.completedFuture(extraChannel));
+
+    CompletionStage<ChannelPool> poolFuture =
+        ChannelPool.init(node, null, NodeDistance.LOCAL, context, "test");
+
+    assertThatStage(poolFuture).isSuccess();
+    ChannelPool pool = poolFuture.toCompletableFuture().get();
+    for (int shardId = 0; shardId < shardsCount; shardId++) {
+      assertThat(pool.channels[shardId]).containsOnly(initialChannels[shardId]);
+    }
+
+    // Only shard 3 is loaded
+    when(initialChannels[3].getInFlight()).thenReturn(10);
+    pool.autoscale();
+
+    verify(channelFactory, VERIFY_TIMEOUT.times(2))
+        .connect(eq(node), eq(shardingInfo), eq(3), any(DriverChannelOptions.class));
+    await()
+        .untilAsserted(
+            () -> assertThat(pool.channels[3]).containsOnly(initialChannels[3], extraChannel));
+    for (int shardId = 0; shardId < shardsCount; shardId++) {
+      if (shardId != 3) {
+        assertThat(pool.channels[shardId]).containsOnly(initialChannels[shardId]);
+      }
+    }
+  }
+}
@@ -26,8 +26,12 @@ package com.datastax.oss.driver.internal.core.pool;
 import static com.datastax.oss.driver.Assertions.assertThat;
 import static com.datastax.oss.driver.Assertions.assertThatStage;
 import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -38,8 +42,10 @@ import com.datastax.oss.driver.api.core.metrics.DefaultNodeMetric;
 import com.datastax.oss.driver.internal.core.channel.ChannelEvent;
 import com.datastax.oss.driver.internal.core.channel.ClusterNameMismatchException;
 import com.datastax.oss.driver.internal.core.channel.DriverChannel;
+import com.datastax.oss.driver.internal.core.channel.DriverChannelOptions;
 import com.datastax.oss.driver.internal.core.channel.MockChannelFactoryHelper;
 import com.datastax.oss.driver.internal.core.metadata.TopologyEvent;
+import com.datastax.oss.driver.internal.core.protocol.ShardingInfo;
 import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
@@ -74,6 +80,49 @@ public class ChannelPoolInitTest extends ChannelPoolTestBase {
     factoryHelper.verifyNoMoreCalls();
   }
 
+  @Test
+  public void should_open_channels_for_missing_shards() throws Exception {
+    // 4 shards, 2 channels per shard
+    int shardsCount = 4;
+    when(defaultProfile.getInt(DefaultDriverOption.CONNECTION_POOL_LOCAL_SIZE)).thenReturn(8);
+    ShardingInfo shardingInfo = mock(ShardingInfo.class);
+    when(shardingInfo.getShardsCount()).thenReturn(shardsCount);
+
+    DriverChannel[][] shardChannels = new DriverChannel[shardsCount][2];
+    for (int shardId = 0; shardId < shardsCount; shardId++) {
+      for (int i = 0; i < 2; i++) {
+        DriverChannel channel = newMockDriverChannel(shardId * 2 + i);
+        when(channel.getShardId()).thenReturn(shardId);
+        when(channel.getShardingInfo()).thenReturn(shardingInfo);
+        shardChannels[shardId][i] = channel;
+      }
+    }
+    // The initial channel lands on an arbitrary shard
+    when(channelFactory.connect(eq(node), any(DriverChannelOptions.class)))
+        .thenReturn(CompletableFuture.completedFuture(shardChannels[2][0]));
+    for (int shardId = 0; shardId < shardsCount; shardId++) {
+      when(channelFactory.connect(
+              eq(node), eq(shardingInfo), eq(shardId), any(DriverChannelOptions.class)))
+          .thenReturn(
+              CompletableFuture.completedFuture(shardChannels[shardId][(shardId == 2) ? 1 : 0]),
+              CompletableFuture.completedFuture(shardChannels[shardId][1]));
+    }
+
+    CompletionStage<ChannelPool> poolFuture =
+        ChannelPool.init(node, null, NodeDistance.LOCAL, context, "test");
+
+    assertThatStage(poolFuture).isSuccess();
+    ChannelPool pool = poolFuture.toCompletableFuture().get();
+    // Each shard is targeted for the channels it is missing
+    verify(channelFactory).connect(eq(node), any(DriverChannelOptions.class));
+    for (int shardId = 0; shardId < shardsCount; shardId++) {
+      verify(channelFactory, times((shardId == 2) ? 1 : 2))
+          .connect(eq(node), eq(shardingInfo), eq(shardId), any(DriverChannelOptions.class));
+      assertThat(pool.channels[shardId]).containsOnly(shardChannels[shardId]);
+    }
+    verify(eventBus, VERIFY_TIMEOUT.times(8)).fire(ChannelEvent.channelOpened(node));
+  }
+
   @Test
   public void should_initialize_when_all_channels_fail() throws Exception {
     when(defaultProfile.getInt(DefaultDriverOption.CONNECTION_POOL_LOCAL_SIZE)).thenReturn(3);
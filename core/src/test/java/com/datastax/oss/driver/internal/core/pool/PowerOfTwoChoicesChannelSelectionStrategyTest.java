@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.pool;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.internal.core.channel.DriverChannel;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class PowerOfTwoChoicesChannelSelectionStrategyTest {
+
+  @Mock private DriverChannel channel1, channel2;
+  private ChannelSet set;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    set = new ChannelSet(PowerOfTwoChoicesChannelSelectionStrategy.INSTANCE);
+  }
+
+  @Test
+  public void should_pick_least_busy_of_two_channels() {
+    // Given
+    when(channel1.getAvailableIds()).thenReturn(2);
+    when(channel2.getAvailableIds()).thenReturn(12);
+    when(channel1.preAcquireId()).thenReturn(true);
+    when(channel2.preAcquireId()).thenReturn(true);
+
+    // When
+    set.add(channel1);
+    set.add(channel2);
+
+    // Then
+    // with only two channels, both are always sampled
+    for (int i = 0; i < 10; i++) {
+      assertThat(set.next()).isEqualTo(channel2);
+    }
+  }
+
+  @Test
+  public void should_try_other_candidate_if_acquisition_fails() {
+    // Given
+    when(channel1.getAvailableIds()).thenReturn(2);
+    when(channel2.getAvailableIds()).thenReturn(12);
+    when(channel1.preAcquireId()).thenReturn(true);
+    when(channel2.preAcquireId()).thenReturn(false);
+
+    // When
+    set.add(channel1);
+    set.add(channel2);
+
+    // Then
+    assertThat(set.next()).isEqualTo(channel1);
+  }
+
+  @Test
+  public void should_fall_back_to_full_scan_if_samples_are_full() {
+    // Given
+    DriverChannel[] channels = new DriverChannel[100];
+    for (int i = 0; i < channels.length; i++) {
+      channels[i] = mock(DriverChannel.class);
+      when(channels[i].getAvailableIds()).thenReturn(0);
+      set.add(channels[i]);
+    }
+    DriverChannel available = channels[42];
+    when(available.getAvailableIds()).thenReturn(1);
+    when(available.preAcquireId()).thenReturn(true);
+
+    // Then
+    assertThat(set.next()).isEqualTo(available);
+  }
+
+  @Test
+  public void should_return_null_when_all_full() {
+    // Given
+    when(channel1.getAvailableIds()).thenReturn(0);
+    when(channel2.getAvailableIds()).thenReturn(0);
+
+    // When
+    set.add(channel1);
+    set.add(channel2);
+
+    // Then
+    assertThat(set.next()).isNull();
+  }
+
+  @Test
+  public void should_parse_strategy_names() {
+    assertThat(ChannelSelectionStrategy.fromName("least-busy"))
+        .isSameAs(LeastBusyChannelSelectionStrategy.INSTANCE);
+    assertThat(ChannelSelectionStrategy.fromName("Power-Of-Two-Choices"))
+        .isSameAs(PowerOfTwoChoicesChannelSelectionStrategy.INSTANCE);
+    assertThatThrownBy(() -> ChannelSelectionStrategy.fromName("round-robin"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("round-robin");
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.pool;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static com.datastax.oss.driver.Assertions.assertThatStage;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.internal.core.channel.DriverChannel;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoop;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ShardWaitQueueTest {
+
+  private DefaultEventLoopGroup eventLoopGroup;
+  private EventLoop eventLoop;
+  private DriverChannel channel1, channel2;
+  private ChannelSet channels;
+
+  @Before
+  public void setup() {
+    eventLoopGroup = new DefaultEventLoopGroup(1);
+    eventLoop = eventLoopGroup.next();
+    channel1 = mockChannel();
+    channel2 = mockChannel();
+    channels = new ChannelSet();
+    channels.add(channel1);
+    channels.add(channel2);
+  }
+
+  @After
+  public void teardown() {
+    eventLoopGroup.shutdownGracefully(100, 200, TimeUnit.MILLISECONDS);
+  }
+
+  @Test
+  public void should_hand_over_channel_when_stream_id_released() {
+    // Given
+    ShardWaitQueue queue = new ShardWaitQueue(channels, 10, eventLoop);
+    CompletionStage<DriverChannel> waiter1 = queue.enqueue(TimeUnit.SECONDS.toNanos(10));
+    CompletionStage<DriverChannel> waiter2 = queue.enqueue(TimeUnit.SECONDS.toNanos(10));
+    assertThat(queue.size()).isEqualTo(2);
+    assertThat(waiter1.toCompletableFuture()).isNotDone();
+
+    // When
+    when(channel2.getAvailableIds()).thenReturn(1);
+    when(channel2.preAcquireId()).thenReturn(true);
+    queue.onStreamIdReleased(channel2);
+
+    // Then
+    // Both waiters are served in order, as long as ids can be pre-acquired
+    assertThatStage(waiter1).isSuccess(c -> assertThat(c).isSameAs(channel2));
+    assertThatStage(waiter2).isSuccess(c -> assertThat(c).isSameAs(channel2));
+    assertThat(queue.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void should_complete_with_null_on_timeout() {
+    // Given
+    ShardWaitQueue queue = new ShardWaitQueue(channels, 10, eventLoop);
+
+    // When
+    CompletionStage<DriverChannel> waiter = queue.enqueue(TimeUnit.MILLISECONDS.toNanos(10));
+
+    // Then
+    assertThatStage(waiter).isSuccess(c -> assertThat(c).isNull());
+    assertThat(queue.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void should_skip_expired_waiters() {
+    // Given
+    ShardWaitQueue queue = new ShardWaitQueue(channels, 10, eventLoop);
+    CompletionStage<DriverChannel> expired = queue.enqueue(TimeUnit.MILLISECONDS.toNanos(10));
+    CompletionStage<DriverChannel> waiter = queue.enqueue(TimeUnit.SECONDS.toNanos(10));
+    assertThatStage(expired).isSuccess(c -> assertThat(c).isNull());
+    assertThat(queue.size()).isEqualTo(1);
+
+    // When
+    when(channel1.getAvailableIds()).thenReturn(1);
+    when(channel1.preAcquireId()).thenReturn(true, false);
+    queue.onStreamIdReleased(channel1);
+
+    // Then
+    assertThatStage(waiter).isSuccess(c -> assertThat(c).isSameAs(channel1));
+    assertThat(queue.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void should_accept_new_waiters_after_many_expirations() {
+    // Given
+    ShardWaitQueue queue = new ShardWaitQueue(channels, 2, eventLoop);
+    for (int i = 0; i < 10; i++) {
+      CompletionStage<DriverChannel> expired = queue.enqueue(TimeUnit.MILLISECONDS.toNanos(1));
+      assertThatStage(expired).isSuccess(c -> assertThat(c).isNull());
+    }
+    assertThat(queue.size()).isEqualTo(0);
+
+    // When
+    CompletionStage<DriverChannel> waiter = queue.enqueue(TimeUnit.SECONDS.toNanos(10));
+    when(channel2.getAvailableIds()).thenReturn(1);
+    when(channel2.preAcquireId()).thenReturn(true, false);
+    queue.onStreamIdReleased(channel2);
+
+    // Then
+    assertThatStage(waiter).isSuccess(c -> assertThat(c).isSameAs(channel2));
+  }
+
+  @Test
+  public void should_not_wait_when_full() {
+    // Given
+    ShardWaitQueue queue = new ShardWaitQueue(channels, 1, eventLoop);
+    CompletionStage<DriverChannel> waiter1 = queue.enqueue(TimeUnit.SECONDS.toNanos(10));
+
+    // When
+    CompletionStage<DriverChannel> waiter2 = queue.enqueue(TimeUnit.SECONDS.toNanos(10));
+
+    // Then
+    assertThat(waiter1.toCompletableFuture()).isNotDone();
+    assertThatStage(waiter2).isSuccess(c -> assertThat(c).isNull());
+    assertThat(queue.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void should_not_wait_without_time_left() {
+    ShardWaitQueue queue = new ShardWaitQueue(channels, 10, eventLoop);
+    assertThatStage(queue.enqueue(0)).isSuccess(c -> assertThat(c).isNull());
+    assertThat(queue.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void should_not_acquire_id_if_nobody_waiting() {
+    // Given
+    ShardWaitQueue queue = new ShardWaitQueue(channels, 10, eventLoop);
+    when(channel1.getAvailableIds()).thenReturn(1);
+    when(channel1.preAcquireId()).thenReturn(true);
+
+    // When
+    queue.onStreamIdReleased(channel1);
+
+    // Then
+    verify(channel1, never()).preAcquireId();
+    verify(channel1, never()).cancelPreAcquireId();
+  }
+
+  @Test
+  public void should_complete_waiters_with_null_when_cleared() {
+    // Given
+    ShardWaitQueue queue = new ShardWaitQueue(channels, 10, eventLoop);
+    CompletionStage<DriverChannel> waiter = queue.enqueue(TimeUnit.SECONDS.toNanos(10));
+
+    // When
+    queue.clear();
+
+    // Then
+    assertThatStage(waiter).isSuccess(c -> assertThat(c).isNull());
+    assertThat(queue.size()).isEqualTo(0);
+  }
+
+  private DriverChannel mockChannel() {
+    DriverChannel channel = mock(DriverChannel.class);
+    when(channel.eventLoop()).thenReturn(eventLoop);
+    return channel;
+  }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+import com.datastax.oss.driver.api.core.metrics.DefaultNodeMetric;
+import com.datastax.oss.driver.internal.core.channel.ChannelHandlerTestBase;
+import com.datastax.oss.driver.internal.core.metrics.NodeMetricUpdater;
+import com.datastax.oss.protocol.internal.Compressor;
+import com.datastax.oss.protocol.internal.Frame;
+import com.datastax.oss.protocol.internal.FrameCodec;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.Segment;
+import com.datastax.oss.protocol.internal.SegmentCodec;
+import com.datastax.oss.protocol.internal.request.Query;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AdaptiveCompressionTest extends ChannelHandlerTestBase {
+
+  @Mock private NodeMetricUpdater metricUpdater;
+
+  private ByteBufPrimitiveCodec primitiveCodec;
+
+  @Before
+  @Override
+  public void setup() {
+    super.setup();
+    primitiveCodec = new ByteBufPrimitiveCodec(ByteBufAllocator.DEFAULT);
+  }
+
+  @Test
+  public void should_not_compress_payloads_below_min_size() {
+    AdaptiveCompression compression = new AdaptiveCompression(100, false, 0, 0, 0, metricUpdater);
+    assertThat(compression.shouldCompress(99)).isFalse();
+    assertThat(compression.shouldCompress(100)).isTrue();
+  }
+
+  @Test
+  public void should_bypass_compression_when_ratio_is_too_low_then_sample_again() {
+    AdaptiveCompression compression = new AdaptiveCompression(0, true, 1.5, 2, 3, metricUpdater);
+
+    // Ratio 1.25 over the sample
+    compression.onCompressed(100, 80);
+    assertThat(compression.shouldCompress(100)).isTrue();
+    compression.onCompressed(100, 80);
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(compression.shouldCompress(100)).isFalse();
+      compression.onUncompressed(100);
+    }
+    // New sample, ratio 2
+    assertThat(compression.shouldCompress(100)).isTrue();
+    compression.onCompressed(100, 50);
+    compression.onCompressed(100, 50);
+    assertThat(compression.shouldCompress(100)).isTrue();
+  }
+
+  @Test
+  public void should_record_raw_and_compressed_bytes() {
+    AdaptiveCompression compression = new AdaptiveCompression(0, false, 0, 0, 0, metricUpdater);
+    compression.onCompressed(100, 40);
+    compression.onUncompressed(10);
+
+    verify(metricUpdater).incrementCounter(DefaultNodeMetric.COMPRESSION_RAW_BYTES, null, 100);
+    verify(metricUpdater)
+        .incrementCounter(DefaultNodeMetric.COMPRESSION_COMPRESSED_BYTES, null, 40);
+    verify(metricUpdater).incrementCounter(DefaultNodeMetric.COMPRESSION_RAW_BYTES, null, 10);
+    verify(metricUpdater)
+        .incrementCounter(DefaultNodeMetric.COMPRESSION_COMPRESSED_BYTES, null, 10);
+  }
+
+  @Test
+  public void should_only_set_compressed_flag_on_frames_above_min_size() {
+    AdaptiveCompression compression = new AdaptiveCompression(64, false, 0, 0, 0, metricUpdater);
+    channel
+        .pipeline()
+        .addLast(
+            new FrameEncoder(
+                FrameCodec.defaultClient(primitiveCodec, new HalvingCompressor()),
+                1024,
+                FrameCodec.defaultClient(primitiveCodec, Compressor.none()),
+                compression));
+
+    channel.writeOutbound(query("SELECT * FROM foo"));
+    channel.writeOutbound(query("SELECT * FROM foo WHERE k = 'a somewhat longer string literal'"));
+
+    assertThat(readFlags()).isEqualTo(0);
+    assertThat(readFlags()).isEqualTo(ProtocolConstants.FrameFlag.COMPRESSED);
+  }
+
+  @Test
+  public void should_send_segment_uncompressed_when_bypassing() {
+    AdaptiveCompression compression = new AdaptiveCompression(64, false, 0, 0, 0, metricUpdater);
+    SegmentCodec<ByteBuf> segmentCodec =
+        new SegmentCodec<>(primitiveCodec, compression.wrap(new HalvingCompressor()));
+
+    SegmentCodec.Header small = encodeSegment(segmentCodec, 32);
+    assertThat(small.payloadLength).isEqualTo(32);
+    // 0 means "not compressed"
+    assertThat(small.uncompressedPayloadLength).isEqualTo(0);
+
+    SegmentCodec.Header large = encodeSegment(segmentCodec, 128);
+    assertThat(large.payloadLength).isEqualTo(64);
+    assertThat(large.uncompressedPayloadLength).isEqualTo(128);
+  }
+
+  private Frame query(String cql) {
+    return Frame.forRequest(4, 1, false, Frame.NO_PAYLOAD, new Query(cql));
+  }
+
+  private int readFlags() {
+    ByteBuf buffer = channel.readOutbound();
+    try {
+      return buffer.getByte(1);
+    } finally {
+      buffer.release();
+    }
+  }
+
+  private SegmentCodec.Header encodeSegment(SegmentCodec<ByteBuf> segmentCodec, int length) {
+    ByteBuf payload = ByteBufAllocator.DEFAULT.buffer(length).writeZero(length);
+    List<Object> out = new ArrayList<>();
+    segmentCodec.encode(new Segment<>(payload, true), out);
+    ByteBuf header = (ByteBuf) out.get(0);
+    try {
+      return segmentCodec.decodeHeader(header);
+    } catch (Exception e) {
+      throw new AssertionError(e);
+    } finally {
+      for (Object o : out) {
+        ((ByteBuf) o).release();
+      }
+    }
+  }
+
+  /** A fake algorithm that keeps the first half of the input. */
+  private static class HalvingCompressor extends ByteBufCompressor {
+
+    @Override
+    public String algorithm() {
+      return "halving";
+    }
+
+    @Override
+    protected ByteBuf compressDirect(ByteBuf input, boolean prependWithUncompressedLength) {
+      return compressHeap(input, prependWithUncompressedLength);
+    }
+
+    @Override
+    protected ByteBuf compressHeap(ByteBuf input, boolean prependWithUncompressedLength) {
+      int length = input.readableBytes();
+      ByteBuf output = ByteBufAllocator.DEFAULT.buffer();
+      if (prependWithUncompressedLength) {
+        output.writeInt(length);
+      }
+      return output.writeBytes(input, input.readerIndex(), length / 2);
+    }
+
+    @Override
+    protected int readUncompressedLength(ByteBuf compressed) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected ByteBuf decompressDirect(ByteBuf input, int uncompressedLength) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected ByteBuf decompressHeap(ByteBuf input, int uncompressedLength) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
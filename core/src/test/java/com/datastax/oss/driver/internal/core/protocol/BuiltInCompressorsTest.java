@@ -19,8 +19,12 @@ package com.datastax.oss.driver.internal.core.protocol;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
 
 import com.datastax.oss.driver.TestDataProviders;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.context.DriverContext;
 import com.datastax.oss.protocol.internal.NoopCompressor;
 import com.tngtech.java.junit.dataprovider.DataProviderRunner;
@@ -36,10 +40,15 @@ import org.mockito.MockitoAnnotations;
 public class BuiltInCompressorsTest {
 
   @Mock private DriverContext context;
+  @Mock private DriverConfig config;
+  @Mock private DriverExecutionProfile defaultProfile;
 
   @Before
   public void setUp() {
     MockitoAnnotations.initMocks(this);
+    when(context.getConfig()).thenReturn(config);
+    when(config.getDefaultProfile()).thenReturn(defaultProfile);
+    when(defaultProfile.getInt(DefaultDriverOption.PROTOCOL_ZSTD_LEVEL)).thenReturn(3);
   }
 
   @Test
@@ -51,11 +60,15 @@ public class BuiltInCompressorsTest {
       assertThat(BuiltInCompressors.newInstance("lz4", context)).isInstanceOf(Lz4Compressor.class);
       assertThat(BuiltInCompressors.newInstance("snappy", context))
           .isInstanceOf(SnappyCompressor.class);
+      assertThat(BuiltInCompressors.newInstance("zstd", context))
+          .isInstanceOf(ZstdCompressor.class);
       assertThat(BuiltInCompressors.newInstance("none", context))
           .isInstanceOf(NoopCompressor.class);
       assertThat(BuiltInCompressors.newInstance("LZ4", context)).isInstanceOf(Lz4Compressor.class);
       assertThat(BuiltInCompressors.newInstance("SNAPPY", context))
           .isInstanceOf(SnappyCompressor.class);
+      assertThat(BuiltInCompressors.newInstance("ZSTD", context))
+          .isInstanceOf(ZstdCompressor.class);
       assertThat(BuiltInCompressors.newInstance("NONE", context))
           .isInstanceOf(NoopCompressor.class);
     } finally {
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.datastax.dse.protocol.internal.ProtocolV4ClientCodecsForDse;
+import com.datastax.oss.protocol.internal.Compressor;
+import com.datastax.oss.protocol.internal.Frame;
+import com.datastax.oss.protocol.internal.FrameCodec;
+import com.datastax.oss.protocol.internal.Message;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.response.result.ColumnSpec;
+import com.datastax.oss.protocol.internal.response.result.DefaultRows;
+import com.datastax.oss.protocol.internal.response.result.RawType;
+import com.datastax.oss.protocol.internal.response.result.Rows;
+import com.datastax.oss.protocol.internal.response.result.RowsMetadata;
+import com.datastax.oss.protocol.internal.response.result.Void;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import org.junit.Test;
+
+public class LazyRowsTest {
+
+  private static final ByteBufPrimitiveCodec PRIMITIVE_CODEC =
+      new ByteBufPrimitiveCodec(ByteBufAllocator.DEFAULT);
+  private static final FrameCodec<ByteBuf> SERVER_CODEC =
+      FrameCodec.defaultServer(PRIMITIVE_CODEC, Compressor.none());
+  private static final FrameCodec<ByteBuf> CLIENT_CODEC =
+      new FrameCodec<>(
+          PRIMITIVE_CODEC,
+          Compressor.none(),
+          new LazyRowsCodecGroup(new ProtocolV4ClientCodecsForDse()));
+
+  @Test
+  public void should_decode_rows_lazily() {
+    Rows rows = roundTrip(rows(row("a", "b"), row(null, "d"), row("e", null)));
+
+    assertThat(rows).isInstanceOf(LazyRows.class);
+    assertThat(rows.getMetadata().columnCount).isEqualTo(2);
+    Queue<List<ByteBuffer>> data = rows.getData();
+    assertThat(data).hasSize(3);
+
+    assertThat(decode(data.poll())).containsExactly("a", "b");
+    assertThat(data).hasSize(2);
+    assertThat(decode(data.poll())).containsExactly(null, "d");
+    assertThat(decode(data.poll())).containsExactly("e", null);
+    assertThat(data.poll()).isNull();
+    assertThat(data).isEmpty();
+  }
+
+  @Test
+  public void should_iterate_without_consuming() {
+    Rows rows = roundTrip(rows(row("a", "b"), row("c", "d")));
+    Queue<List<ByteBuffer>> data = rows.getData();
+
+    List<List<String>> iterated = new ArrayList<>();
+    for (List<ByteBuffer> row : data) {
+      iterated.add(decode(row));
+    }
+    assertThat(iterated).containsExactly(Arrays.asList("a", "b"), Arrays.asList("c", "d"));
+    assertThat(data).hasSize(2);
+    assertThat(decode(data.peek())).containsExactly("a", "b");
+    assertThat(data).hasSize(2);
+  }
+
+  @Test
+  public void should_access_cells_in_any_order() {
+    List<ByteBuffer> row = roundTrip(rows(row("a", "bb", "ccc"))).getData().poll();
+
+    assertThat(row).hasSize(3);
+    assertThat(decode(row.get(2))).isEqualTo("ccc");
+    assertThat(decode(row.get(0))).isEqualTo("a");
+    assertThat(decode(row.get(1))).isEqualTo("bb");
+    assertThatThrownBy(() -> row.get(3)).isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+  @Test
+  public void should_cache_decoded_cells() {
+    List<ByteBuffer> row = roundTrip(rows(row("a", null))).getData().poll();
+
+    ByteBuffer cell = row.get(0);
+    assertThat(row.get(0)).isSameAs(cell);
+    assertThat(row.get(1)).isNull();
+    assertThat(row.get(1)).isNull();
+  }
+
+  @Test
+  public void should_split_large_pages_in_chunks_of_whole_rows() {
+    // Each row is a bit more than 1 KB, so the page spans several chunks
+    char[] chars = new char[1024];
+    List<List<ByteBuffer>> expected = new ArrayList<>();
+    int rowCount = 2 * LazyRows.CHUNK_SIZE / 1024 + 10;
+    for (int i = 0; i < rowCount; i++) {
+      Arrays.fill(chars, (char) ('a' + i % 26));
+      expected.add(row(Integer.toString(i), new String(chars)));
+    }
+    @SuppressWarnings("unchecked")
+    List<ByteBuffer>[] rowArray = expected.toArray(new List[0]);
+    Rows rows = roundTrip(rows(rowArray));
+
+    assertThat(((LazyRows) rows).getChunkCount()).isEqualTo(3);
+    Queue<List<ByteBuffer>> data = rows.getData();
+    int iterated = 0;
+    for (List<ByteBuffer> row : data) {
+      assertThat(decode(row.get(0))).isEqualTo(Integer.toString(iterated));
+      iterated += 1;
+    }
+    assertThat(iterated).isEqualTo(rowCount);
+    for (int i = 0; i < rowCount; i++) {
+      List<ByteBuffer> row = data.poll();
+      assertThat(decode(row.get(0))).isEqualTo(Integer.toString(i));
+      assertThat(decode(row.get(1)))
+          .hasSize(1024)
+          .startsWith(String.valueOf((char) ('a' + i % 26)));
+    }
+    assertThat(data.poll()).isNull();
+  }
+
+  @Test
+  public void should_not_allow_adding_rows() {
+    Queue<List<ByteBuffer>> data = roundTrip(rows(row("a"))).getData();
+    assertThatThrownBy(() -> data.add(Collections.emptyList()))
+        .isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  public void should_decode_other_results_with_original_codec() {
+    assertThat(roundTrip(Void.INSTANCE)).isInstanceOf(Void.class);
+  }
+
+  private static Rows roundTrip(DefaultRows rows) {
+    return (Rows) roundTrip((Message) rows);
+  }
+
+  private static Message roundTrip(Message message) {
+    ByteBuf encoded =
+        SERVER_CODEC.encode(
+            Frame.forResponse(4, 1, null, Frame.NO_PAYLOAD, Collections.emptyList(), message));
+    try {
+      return CLIENT_CODEC.decode(encoded).message;
+    } finally {
+      encoded.release();
+    }
+  }
+
+  @SafeVarargs
+  private static DefaultRows rows(List<ByteBuffer>... rows) {
+    int columnCount = rows[0].size();
+    List<ColumnSpec> specs = new ArrayList<>();
+    for (int i = 0; i < columnCount; i++) {
+      specs.add(
+          new ColumnSpec(
+              "ks",
+              "table",
+              "c" + i,
+              i,
+              RawType.PRIMITIVES.get(ProtocolConstants.DataType.VARCHAR)));
+    }
+    return new DefaultRows(
+        new RowsMetadata(specs, null, new int[0], null), new ArrayDeque<>(Arrays.asList(rows)));
+  }
+
+  private static List<ByteBuffer> row(String... values) {
+    List<ByteBuffer> row = new ArrayList<>();
+    for (String value : values) {
+      row.add(value == null ? null : ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8)));
+    }
+    return row;
+  }
+
+  private static List<String> decode(List<ByteBuffer> row) {
+    List<String> values = new ArrayList<>();
+    for (ByteBuffer cell : row) {
+      values.add(decode(cell));
+    }
+    return values;
+  }
+
+  private static String decode(ByteBuffer cell) {
+    return (cell == null) ? null : StandardCharsets.UTF_8.decode(cell).toString();
+  }
+}
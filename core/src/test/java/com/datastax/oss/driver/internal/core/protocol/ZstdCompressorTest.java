@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.datastax.oss.driver.shaded.guava.common.base.Strings;
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+import com.tngtech.java.junit.dataprovider.UseDataProvider;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(DataProviderRunner.class)
+public class ZstdCompressorTest {
+
+  private static final byte[] PAYLOAD =
+      Strings.repeat("The quick brown fox jumps over the lazy dog. ", 100)
+          .getBytes(StandardCharsets.UTF_8);
+
+  @DataProvider
+  public static Object[][] bufferTypes() {
+    // direct input, with dictionary
+    return new Object[][] {{true, false}, {false, false}, {true, true}, {false, true}};
+  }
+
+  @Test
+  @UseDataProvider("bufferTypes")
+  public void should_compress_and_decompress_with_length(boolean direct, boolean dictionary) {
+    ZstdCompressor compressor = newCompressor(dictionary);
+    ByteBuf input = newBuffer(direct, PAYLOAD);
+    ByteBuf compressed = compressor.compress(input);
+    try {
+      assertThat(input.isReadable()).isFalse();
+      assertThat(compressed.readableBytes()).isLessThan(PAYLOAD.length);
+      ByteBuf decompressed = compressor.decompress(compressed);
+      try {
+        assertThat(ByteBufUtil.getBytes(decompressed)).isEqualTo(PAYLOAD);
+      } finally {
+        decompressed.release();
+      }
+    } finally {
+      input.release();
+      compressed.release();
+    }
+  }
+
+  @Test
+  @UseDataProvider("bufferTypes")
+  public void should_compress_and_decompress_without_length(boolean direct, boolean dictionary) {
+    // This is how protocol v5 segments are compressed
+    ZstdCompressor compressor = newCompressor(dictionary);
+    ByteBuf input = newBuffer(direct, PAYLOAD);
+    ByteBuf compressed = compressor.compressWithoutLength(input);
+    try {
+      ByteBuf decompressed = compressor.decompressWithoutLength(compressed, PAYLOAD.length);
+      try {
+        assertThat(ByteBufUtil.getBytes(decompressed)).isEqualTo(PAYLOAD);
+      } finally {
+        decompressed.release();
+      }
+    } finally {
+      input.release();
+      compressed.release();
+    }
+  }
+
+  @Test
+  public void should_fail_if_uncompressed_length_does_not_match() {
+    ZstdCompressor compressor = newCompressor(false);
+    ByteBuf input = newBuffer(false, PAYLOAD);
+    ByteBuf compressed = compressor.compressWithoutLength(input);
+    try {
+      assertThatThrownBy(
+              () -> compressor.decompressWithoutLength(compressed, PAYLOAD.length + 1).release())
+          .isInstanceOf(IllegalArgumentException.class);
+    } finally {
+      input.release();
+      compressed.release();
+    }
+  }
+
+  @Test
+  public void should_reject_invalid_level() {
+    assertThatThrownBy(() -> new ZstdCompressor("test", 100, null))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Invalid zstd compression level 100");
+  }
+
+  private static ZstdCompressor newCompressor(boolean dictionary) {
+    return new ZstdCompressor(
+        "test", 3, dictionary ? "quick brown fox lazy dog".getBytes(StandardCharsets.UTF_8) : null);
+  }
+
+  private static ByteBuf newBuffer(boolean direct, byte[] contents) {
+    ByteBuf buffer =
+        direct
+            ? ByteBufAllocator.DEFAULT.directBuffer(contents.length)
+            : ByteBufAllocator.DEFAULT.heapBuffer(contents.length);
+    return buffer.writeBytes(contents);
+  }
+}
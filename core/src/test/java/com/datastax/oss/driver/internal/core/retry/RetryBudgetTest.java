@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.retry;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RetryBudgetTest {
+
+  @Mock private DriverContext context;
+  @Mock private DriverConfig config;
+  @Mock private DriverExecutionProfile defaultProfile;
+
+  @Before
+  public void setup() {
+    when(context.getConfig()).thenReturn(config);
+    when(config.getDefaultProfile()).thenReturn(defaultProfile);
+  }
+
+  private void mockOptions(boolean enabled, double percentage, int burst) {
+    when(defaultProfile.getBoolean(DefaultDriverOption.RETRY_BUDGET_ENABLED, false))
+        .thenReturn(enabled);
+    when(defaultProfile.getDouble(DefaultDriverOption.RETRY_BUDGET_PERCENTAGE, 10.0))
+        .thenReturn(percentage);
+    when(defaultProfile.getInt(DefaultDriverOption.RETRY_BUDGET_BURST, 100)).thenReturn(burst);
+  }
+
+  @Test
+  public void should_always_allow_when_disabled() {
+    mockOptions(false, 10.0, 1);
+    RetryBudget budget = new RetryBudget(context);
+    for (int i = 0; i < 10; i++) {
+      assertThat(budget.tryAcquire()).isTrue();
+    }
+  }
+
+  @Test
+  public void should_start_full_and_allow_burst() {
+    mockOptions(true, 10.0, 3);
+    RetryBudget budget = new RetryBudget(context);
+    assertThat(budget.getAvailableTokens()).isEqualTo(3);
+    assertThat(budget.tryAcquire()).isTrue();
+    assertThat(budget.tryAcquire()).isTrue();
+    assertThat(budget.tryAcquire()).isTrue();
+    assertThat(budget.tryAcquire()).isFalse();
+  }
+
+  @Test
+  public void should_replenish_with_primary_requests() {
+    mockOptions(true, 10.0, 1);
+    RetryBudget budget = new RetryBudget(context);
+    assertThat(budget.tryAcquire()).isTrue();
+
+    // 10% => one extra attempt every 10 primary requests
+    for (int i = 0; i < 9; i++) {
+      budget.onPrimaryRequest();
+    }
+    assertThat(budget.tryAcquire()).isFalse();
+    budget.onPrimaryRequest();
+    assertThat(budget.tryAcquire()).isTrue();
+    assertThat(budget.tryAcquire()).isFalse();
+  }
+
+  @Test
+  public void should_not_exceed_burst() {
+    mockOptions(true, 50.0, 2);
+    RetryBudget budget = new RetryBudget(context);
+    for (int i = 0; i < 100; i++) {
+      budget.onPrimaryRequest();
+    }
+    assertThat(budget.getAvailableTokens()).isEqualTo(2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void should_fail_if_burst_less_than_one() {
+    mockOptions(true, 10.0, 0);
+    new RetryBudget(context);
+  }
+}
@@ -132,6 +132,7 @@ public class DefaultSessionPoolsTest {
     when(metadataManager.refreshNodes()).thenReturn(CompletableFuture.completedFuture(null));
     when(metadataManager.refreshSchema(null, false, true))
         .thenReturn(CompletableFuture.completedFuture(null));
+    when(metadataManager.preloadTablets()).thenReturn(CompletableFuture.completedFuture(null));
     when(context.getMetadataManager()).thenReturn(metadataManager);
 
     when(topologyMonitor.init()).thenReturn(CompletableFuture.completedFuture(null));
@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.session.throttling;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static com.datastax.oss.driver.Assertions.assertThatStage;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.RequestThrottlingException;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.servererrors.OverloadedException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AdaptiveConcurrencyLimitingRequestThrottlerTest {
+
+  private static final long ONE_MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+  @Mock private DriverContext context;
+  @Mock private DriverConfig config;
+  @Mock private DriverExecutionProfile defaultProfile;
+
+  private final SettableNanoClock clock = new SettableNanoClock();
+  private AdaptiveConcurrencyLimitingRequestThrottler throttler;
+
+  @Before
+  public void setup() {
+    when(context.getConfig()).thenReturn(config);
+    when(config.getDefaultProfile()).thenReturn(defaultProfile);
+
+    when(defaultProfile.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_CONCURRENT_REQUESTS))
+        .thenReturn(10);
+    when(defaultProfile.getInt(DefaultDriverOption.REQUEST_THROTTLER_MIN_CONCURRENT_REQUESTS, 10))
+        .thenReturn(2);
+    when(defaultProfile.getInt(
+            DefaultDriverOption.REQUEST_THROTTLER_INITIAL_CONCURRENT_REQUESTS, 100))
+        .thenReturn(4);
+    when(defaultProfile.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_QUEUE_SIZE))
+        .thenReturn(10);
+    when(defaultProfile.getDuration(
+            DefaultDriverOption.REQUEST_THROTTLER_LATENCY_THRESHOLD, Duration.ofMillis(200)))
+        .thenReturn(Duration.ofMillis(100));
+    when(defaultProfile.getDouble(DefaultDriverOption.REQUEST_THROTTLER_BACKOFF_RATIO, 0.9))
+        .thenReturn(0.75);
+
+    throttler = new AdaptiveConcurrencyLimitingRequestThrottler(context, clock);
+  }
+
+  private Deque<MockThrottled> register(int count) {
+    Deque<MockThrottled> requests = new ArrayDeque<>();
+    for (int i = 0; i < count; i++) {
+      MockThrottled request = new MockThrottled();
+      throttler.register(request);
+      requests.add(request);
+    }
+    return requests;
+  }
+
+  @Test
+  public void should_enqueue_when_over_initial_limit() {
+    // When
+    Deque<MockThrottled> requests = register(5);
+
+    // Then
+    assertThat(throttler.getConcurrencyLimit()).isEqualTo(4);
+    assertThat(throttler.getConcurrentRequests()).isEqualTo(4);
+    assertThatStage(requests.getLast().started).isNotDone();
+    assertThat(throttler.getQueue()).containsExactly(requests.getLast());
+  }
+
+  @Test
+  public void should_increase_limit_when_requests_are_fast() {
+    // Given
+    Deque<MockThrottled> active = register(4);
+
+    // When
+    for (int i = 0; i < 5; i++) {
+      clock.add(ONE_MILLISECOND);
+      throttler.signalSuccess(active.poll());
+      active.addAll(register(1));
+    }
+
+    // Then
+    assertThat(throttler.getConcurrencyLimit()).isEqualTo(5);
+    // The new capacity is available immediately
+    MockThrottled incoming = new MockThrottled();
+    throttler.register(incoming);
+    assertThatStage(incoming.started).isSuccess(wasDelayed -> assertThat(wasDelayed).isFalse());
+  }
+
+  @Test
+  public void should_not_increase_limit_when_mostly_unused() {
+    for (int i = 0; i < 20; i++) {
+      MockThrottled request = register(1).poll();
+      clock.add(ONE_MILLISECOND);
+      throttler.signalSuccess(request);
+    }
+    assertThat(throttler.getConcurrencyLimit()).isEqualTo(4);
+  }
+
+  @Test
+  public void should_decrease_limit_once_per_round_when_requests_time_out() {
+    // Given
+    Deque<MockThrottled> active = register(4);
+    clock.add(ONE_MILLISECOND);
+
+    // When
+    throttler.signalTimeout(active.poll());
+    // Then
+    assertThat(throttler.getConcurrencyLimit()).isEqualTo(3);
+
+    // When: a request that started before the decrease times out
+    throttler.signalTimeout(active.poll());
+    // Then
+    assertThat(throttler.getConcurrencyLimit()).isEqualTo(3);
+
+    // When: a request that started after the decrease times out
+    MockThrottled incoming = register(1).poll();
+    assertThatStage(incoming.started).isSuccess();
+    clock.add(ONE_MILLISECOND);
+    throttler.signalTimeout(incoming);
+    // Then
+    assertThat(throttler.getConcurrencyLimit()).isEqualTo(2);
+  }
+
+  @Test
+  public void should_decrease_limit_when_request_is_slow() {
+    MockThrottled request = register(1).poll();
+    clock.add(150 * ONE_MILLISECOND);
+    throttler.signalSuccess(request);
+    assertThat(throttler.getConcurrencyLimit()).isEqualTo(3);
+  }
+
+  @Test
+  public void should_decrease_limit_when_coordinator_is_overloaded() {
+    MockThrottled request = register(1).poll();
+    clock.add(ONE_MILLISECOND);
+    throttler.signalError(request, new OverloadedException(mock(Node.class)));
+    assertThat(throttler.getConcurrencyLimit()).isEqualTo(3);
+  }
+
+  @Test
+  public void should_not_change_limit_on_other_errors() {
+    Deque<MockThrottled> active = register(4);
+    clock.add(ONE_MILLISECOND);
+    throttler.signalError(active.poll(), new RuntimeException("mock error"));
+    assertThat(throttler.getConcurrencyLimit()).isEqualTo(4);
+    assertThat(throttler.getConcurrentRequests()).isEqualTo(3);
+  }
+
+  @Test
+  public void should_not_go_below_min_limit() {
+    for (int i = 0; i < 10; i++) {
+      MockThrottled request = register(1).poll();
+      clock.add(ONE_MILLISECOND);
+      throttler.signalTimeout(request);
+    }
+    assertThat(throttler.getConcurrencyLimit()).isEqualTo(2);
+  }
+
+  @Test
+  public void should_not_dequeue_when_limit_decreases() {
+    // Given
+    Deque<MockThrottled> requests = register(5);
+    MockThrottled queued = requests.getLast();
+    clock.add(ONE_MILLISECOND);
+
+    // When
+    throttler.signalTimeout(requests.poll());
+
+    // Then
+    assertThat(throttler.getConcurrencyLimit()).isEqualTo(3);
+    assertThat(throttler.getConcurrentRequests()).isEqualTo(3);
+    assertThatStage(queued.started).isNotDone();
+
+    // When
+    throttler.signalSuccess(requests.poll());
+
+    // Then
+    assertThatStage(queued.started).isSuccess(wasDelayed -> assertThat(wasDelayed).isTrue());
+    assertThat(throttler.getConcurrentRequests()).isEqualTo(3);
+    assertThat(throttler.getQueue()).isEmpty();
+  }
+
+  @Test
+  public void should_remove_timed_out_request_from_queue() {
+    // Given
+    Deque<MockThrottled> requests = register(5);
+    MockThrottled queued = requests.getLast();
+
+    // When
+    throttler.signalTimeout(queued);
+
+    // Then
+    assertThat(throttler.getQueue()).isEmpty();
+    assertThat(throttler.getConcurrentRequests()).isEqualTo(4);
+    assertThat(throttler.getConcurrencyLimit()).isEqualTo(4);
+  }
+
+  @Test
+  public void should_reject_enqueued_when_closing() {
+    // Given
+    Deque<MockThrottled> requests = register(6);
+
+    // When
+    throttler.close();
+
+    // Then
+    for (int i = 0; i < 4; i++) {
+      assertThatStage(requests.poll().started).isSuccess();
+    }
+    for (MockThrottled request : requests) {
+      assertThatStage(request.started)
+          .isFailed(error -> assertThat(error).isInstanceOf(RequestThrottlingException.class));
+    }
+
+    // When
+    MockThrottled request = new MockThrottled();
+    throttler.register(request);
+
+    // Then
+    assertThatStage(request.started)
+        .isFailed(error -> assertThat(error).isInstanceOf(RequestThrottlingException.class));
+  }
+}
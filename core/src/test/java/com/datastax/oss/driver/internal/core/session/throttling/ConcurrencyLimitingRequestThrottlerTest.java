@@ -26,8 +26,10 @@ import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverConfig;
 import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.session.throttling.RequestThrottler;
 import com.datastax.oss.driver.api.core.session.throttling.Throttled;
 import com.datastax.oss.driver.shaded.guava.common.collect.Lists;
+import java.util.Collection;
 import java.util.List;
 import java.util.function.Consumer;
 import org.junit.Before;
@@ -43,7 +45,7 @@ public class ConcurrencyLimitingRequestThrottlerTest {
   @Mock private DriverConfig config;
   @Mock private DriverExecutionProfile defaultProfile;
 
-  private ConcurrencyLimitingRequestThrottler throttler;
+  protected RequestThrottler throttler;
 
   @Before
   public void setup() {
@@ -55,7 +57,20 @@ public class ConcurrencyLimitingRequestThrottlerTest {
     when(defaultProfile.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_QUEUE_SIZE))
         .thenReturn(10);
 
-    throttler = new ConcurrencyLimitingRequestThrottler(context);
+    throttler = newThrottler(context);
+  }
+
+  /** Overridden to run the same tests against other implementations. */
+  protected RequestThrottler newThrottler(DriverContext context) {
+    return new ConcurrencyLimitingRequestThrottler(context);
+  }
+
+  protected int getConcurrentRequests() {
+    return ((ConcurrencyLimitingRequestThrottler) throttler).getConcurrentRequests();
+  }
+
+  protected Collection<Throttled> getQueue() {
+    return ((ConcurrencyLimitingRequestThrottler) throttler).getQueue();
   }
 
   @Test
@@ -68,8 +83,8 @@ public class ConcurrencyLimitingRequestThrottlerTest {
 
     // Then
     assertThatStage(request.started).isSuccess(wasDelayed -> assertThat(wasDelayed).isFalse());
-    assertThat(throttler.getConcurrentRequests()).isEqualTo(1);
-    assertThat(throttler.getQueue()).isEmpty();
+    assertThat(getConcurrentRequests()).isEqualTo(1);
+    assertThat(getQueue()).isEmpty();
   }
 
   @Test
@@ -97,20 +112,20 @@ public class ConcurrencyLimitingRequestThrottlerTest {
     for (int i = 0; i < 4; i++) { // fill to capacity
       throttler.register(new MockThrottled());
     }
-    assertThat(throttler.getConcurrentRequests()).isEqualTo(5);
-    assertThat(throttler.getQueue()).isEmpty();
+    assertThat(getConcurrentRequests()).isEqualTo(5);
+    assertThat(getQueue()).isEmpty();
 
     // When
     completeCallback.accept(first);
-    assertThat(throttler.getConcurrentRequests()).isEqualTo(4);
-    assertThat(throttler.getQueue()).isEmpty();
+    assertThat(getConcurrentRequests()).isEqualTo(4);
+    assertThat(getQueue()).isEmpty();
     MockThrottled incoming = new MockThrottled();
     throttler.register(incoming);
 
     // Then
     assertThatStage(incoming.started).isSuccess(wasDelayed -> assertThat(wasDelayed).isFalse());
-    assertThat(throttler.getConcurrentRequests()).isEqualTo(5);
-    assertThat(throttler.getQueue()).isEmpty();
+    assertThat(getConcurrentRequests()).isEqualTo(5);
+    assertThat(getQueue()).isEmpty();
   }
 
   @Test
@@ -119,8 +134,8 @@ public class ConcurrencyLimitingRequestThrottlerTest {
     for (int i = 0; i < 5; i++) {
       throttler.register(new MockThrottled());
     }
-    assertThat(throttler.getConcurrentRequests()).isEqualTo(5);
-    assertThat(throttler.getQueue()).isEmpty();
+    assertThat(getConcurrentRequests()).isEqualTo(5);
+    assertThat(getQueue()).isEmpty();
 
     // When
     MockThrottled incoming = new MockThrottled();
@@ -128,8 +143,8 @@ public class ConcurrencyLimitingRequestThrottlerTest {
 
     // Then
     assertThatStage(incoming.started).isNotDone();
-    assertThat(throttler.getConcurrentRequests()).isEqualTo(5);
-    assertThat(throttler.getQueue()).containsExactly(incoming);
+    assertThat(getConcurrentRequests()).isEqualTo(5);
+    assertThat(getQueue()).containsExactly(incoming);
   }
 
   @Test
@@ -166,8 +181,8 @@ public class ConcurrencyLimitingRequestThrottlerTest {
 
     // Then
     assertThatStage(incoming.started).isSuccess(wasDelayed -> assertThat(wasDelayed).isTrue());
-    assertThat(throttler.getConcurrentRequests()).isEqualTo(5);
-    assertThat(throttler.getQueue()).isEmpty();
+    assertThat(getConcurrentRequests()).isEqualTo(5);
+    assertThat(getQueue()).isEmpty();
   }
 
   @Test
@@ -176,8 +191,8 @@ public class ConcurrencyLimitingRequestThrottlerTest {
     for (int i = 0; i < 15; i++) {
       throttler.register(new MockThrottled());
     }
-    assertThat(throttler.getConcurrentRequests()).isEqualTo(5);
-    assertThat(throttler.getQueue()).hasSize(10);
+    assertThat(getConcurrentRequests()).isEqualTo(5);
+    assertThat(getQueue()).hasSize(10);
 
     // When
     MockThrottled incoming = new MockThrottled();
@@ -204,8 +219,8 @@ public class ConcurrencyLimitingRequestThrottlerTest {
 
     // Then
     assertThatStage(queued2.started).isNotDone();
-    assertThat(throttler.getConcurrentRequests()).isEqualTo(5);
-    assertThat(throttler.getQueue()).hasSize(1);
+    assertThat(getConcurrentRequests()).isEqualTo(5);
+    assertThat(getQueue()).hasSize(1);
   }
 
   @Test
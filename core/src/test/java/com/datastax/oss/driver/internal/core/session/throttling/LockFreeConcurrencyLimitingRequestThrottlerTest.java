@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.session.throttling;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.session.throttling.RequestThrottler;
+import com.datastax.oss.driver.api.core.session.throttling.Throttled;
+import com.datastax.oss.driver.shaded.guava.common.collect.Lists;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+/** Runs the tests of the lock-based implementation, plus a contention test. */
+public class LockFreeConcurrencyLimitingRequestThrottlerTest
+    extends ConcurrencyLimitingRequestThrottlerTest {
+
+  @Override
+  protected RequestThrottler newThrottler(DriverContext context) {
+    return new LockFreeConcurrencyLimitingRequestThrottler(context);
+  }
+
+  @Override
+  protected int getConcurrentRequests() {
+    return ((LockFreeConcurrencyLimitingRequestThrottler) throttler).getConcurrentRequests();
+  }
+
+  @Override
+  protected Collection<Throttled> getQueue() {
+    return ((LockFreeConcurrencyLimitingRequestThrottler) throttler).getQueue();
+  }
+
+  @Test
+  public void should_not_exceed_limit_nor_lose_requests_under_contention() throws Exception {
+    // Given
+    int threadCount = 8; // less than max-concurrent-requests + max-queue-size, so never rejected
+    int requestsPerThread = 1000;
+    AtomicInteger active = new AtomicInteger();
+    AtomicInteger maxActive = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    List<Future<?>> futures = Lists.newArrayList();
+
+    // When
+    try {
+      for (int i = 0; i < threadCount; i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int j = 0; j < requestsPerThread; j++) {
+                    MockThrottled request = new MockThrottled();
+                    throttler.register(request);
+                    request.started.toCompletableFuture().get(10, TimeUnit.SECONDS);
+                    maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    active.decrementAndGet();
+                    throttler.signalSuccess(request);
+                  }
+                  return null;
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // Then
+    assertThat(maxActive.get()).isLessThanOrEqualTo(5);
+    assertThat(getConcurrentRequests()).isEqualTo(0);
+    assertThat(((LockFreeConcurrencyLimitingRequestThrottler) throttler).getQueueSize())
+        .isEqualTo(0);
+    assertThat(getQueue()).isEmpty();
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.session.throttling;
+
+import com.datastax.oss.driver.api.core.session.throttling.RequestThrottler;
+import com.datastax.oss.driver.api.core.session.throttling.Throttled;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import java.util.Collection;
+
+/** Runs the tests of the lock-based implementation. */
+public class LockFreeRateLimitingRequestThrottlerTest extends RateLimitingRequestThrottlerTest {
+
+  @Override
+  protected RequestThrottler newThrottler(InternalDriverContext context, NanoClock clock) {
+    return new LockFreeRateLimitingRequestThrottler(context, clock);
+  }
+
+  @Override
+  protected int getStoredPermits() {
+    return ((LockFreeRateLimitingRequestThrottler) throttler).getStoredPermits();
+  }
+
+  @Override
+  protected Collection<Throttled> getQueue() {
+    return ((LockFreeRateLimitingRequestThrottler) throttler).getQueue();
+  }
+}
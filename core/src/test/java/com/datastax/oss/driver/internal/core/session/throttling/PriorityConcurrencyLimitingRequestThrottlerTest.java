@@ -0,0 +1,359 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.session.throttling;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static com.datastax.oss.driver.Assertions.assertThatStage;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.RequestThrottlingException;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import com.datastax.oss.driver.shaded.guava.common.collect.Lists;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class PriorityConcurrencyLimitingRequestThrottlerTest {
+
+  private static final long ONE_HUNDRED_MILLISECONDS =
+      TimeUnit.NANOSECONDS.convert(100, TimeUnit.MILLISECONDS);
+
+  @Mock private DriverContext context;
+  @Mock private DriverConfig config;
+  @Mock private DriverExecutionProfile defaultProfile;
+  @Mock private DriverExecutionProfile highProfile;
+  @Mock private DriverExecutionProfile lowProfile;
+  @Mock private DriverExecutionProfile unknownProfile;
+
+  private SettableNanoClock clock = new SettableNanoClock();
+
+  private PriorityConcurrencyLimitingRequestThrottler throttler;
+
+  @Before
+  public void setup() {
+    when(context.getConfig()).thenReturn(config);
+    when(config.getDefaultProfile()).thenReturn(defaultProfile);
+    when(defaultProfile.getName()).thenReturn(DriverExecutionProfile.DEFAULT_NAME);
+    when(highProfile.getName()).thenReturn("high");
+    when(lowProfile.getName()).thenReturn("low");
+    when(unknownProfile.getName()).thenReturn("unknown");
+
+    when(defaultProfile.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_CONCURRENT_REQUESTS))
+        .thenReturn(5);
+    when(defaultProfile.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_QUEUE_SIZE))
+        .thenReturn(10);
+    when(defaultProfile.getStringMap(
+            DefaultDriverOption.REQUEST_THROTTLER_PRIORITY_WEIGHTS,
+            PriorityConcurrencyLimitingRequestThrottler.DEFAULT_PRIORITY_WEIGHTS))
+        .thenReturn(PriorityConcurrencyLimitingRequestThrottler.DEFAULT_PRIORITY_WEIGHTS);
+    when(defaultProfile.getString(DefaultDriverOption.REQUEST_THROTTLER_PRIORITY_CLASS, "normal"))
+        .thenReturn("normal");
+    when(highProfile.getString(DefaultDriverOption.REQUEST_THROTTLER_PRIORITY_CLASS, "normal"))
+        .thenReturn("high");
+    when(lowProfile.getString(DefaultDriverOption.REQUEST_THROTTLER_PRIORITY_CLASS, "normal"))
+        .thenReturn("low");
+    when(unknownProfile.getString(DefaultDriverOption.REQUEST_THROTTLER_PRIORITY_CLASS, "normal"))
+        .thenReturn("unknown");
+
+    throttler = new PriorityConcurrencyLimitingRequestThrottler(context, clock);
+  }
+
+  @Test
+  public void should_order_classes_by_decreasing_weight() {
+    assertThat(throttler.getPriorityClasses()).containsExactly("high", "normal", "low");
+  }
+
+  @Test
+  public void should_start_immediately_when_under_capacity() {
+    // Given
+    MockThrottled request = new ProfiledThrottled(lowProfile);
+
+    // When
+    throttler.register(request);
+
+    // Then
+    assertThatStage(request.started).isSuccess(wasDelayed -> assertThat(wasDelayed).isFalse());
+    assertThat(throttler.getConcurrentRequests()).isEqualTo(1);
+    assertThat(throttler.getQueueSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void should_dispatch_higher_classes_first() {
+    // Given
+    fillToCapacity();
+    MockThrottled low = new ProfiledThrottled(lowProfile);
+    throttler.register(low);
+    MockThrottled normal = new ProfiledThrottled(defaultProfile);
+    throttler.register(normal);
+    MockThrottled high = new ProfiledThrottled(highProfile);
+    throttler.register(high);
+    assertThat(throttler.getQueueSize()).isEqualTo(3);
+
+    // When
+    throttler.signalSuccess(new MockThrottled());
+
+    // Then
+    assertThatStage(high.started).isSuccess(wasDelayed -> assertThat(wasDelayed).isTrue());
+    assertThatStage(normal.started).isNotDone();
+    assertThatStage(low.started).isNotDone();
+
+    // When
+    throttler.signalSuccess(high);
+
+    // Then
+    assertThatStage(normal.started).isSuccess(wasDelayed -> assertThat(wasDelayed).isTrue());
+    assertThatStage(low.started).isNotDone();
+
+    // When
+    throttler.signalSuccess(normal);
+
+    // Then
+    assertThatStage(low.started).isSuccess(wasDelayed -> assertThat(wasDelayed).isTrue());
+    assertThat(throttler.getConcurrentRequests()).isEqualTo(5);
+    assertThat(throttler.getQueueSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void should_not_starve_lower_classes() {
+    // Given
+    fillToCapacity();
+    List<MockThrottled> lows = Lists.newArrayList();
+    List<MockThrottled> highs = Lists.newArrayList();
+    for (int i = 0; i < 10; i++) {
+      MockThrottled low = new ProfiledThrottled(lowProfile);
+      throttler.register(low);
+      lows.add(low);
+      MockThrottled high = new ProfiledThrottled(highProfile);
+      throttler.register(high);
+      highs.add(high);
+    }
+
+    // When
+    // one round of the weighted round-robin: 8 (high) + 1 (low)
+    for (int i = 0; i < 9; i++) {
+      throttler.signalSuccess(new MockThrottled());
+    }
+
+    // Then
+    assertThat(countStarted(highs)).isEqualTo(8);
+    assertThat(countStarted(lows)).isEqualTo(1);
+    assertThatStage(lows.get(0).started).isSuccess();
+    assertThat(throttler.getQueueSize("high")).isEqualTo(2);
+    assertThat(throttler.getQueueSize("low")).isEqualTo(9);
+  }
+
+  @Test
+  public void should_use_default_class_for_requests_without_profile() {
+    // Given
+    fillToCapacity();
+    MockThrottled low = new ProfiledThrottled(lowProfile);
+    throttler.register(low);
+    MockThrottled noProfile = new MockThrottled();
+    throttler.register(noProfile);
+
+    // Then
+    assertThat(throttler.getQueueSize("normal")).isEqualTo(1);
+
+    // When
+    throttler.signalSuccess(new MockThrottled());
+
+    // Then
+    assertThatStage(noProfile.started).isSuccess(wasDelayed -> assertThat(wasDelayed).isTrue());
+    assertThatStage(low.started).isNotDone();
+  }
+
+  @Test
+  public void should_use_default_class_for_unknown_class() {
+    // Given
+    fillToCapacity();
+
+    // When
+    throttler.register(new ProfiledThrottled(unknownProfile));
+
+    // Then
+    assertThat(throttler.getQueueSize("normal")).isEqualTo(1);
+  }
+
+  @Test
+  public void should_read_class_once_per_profile() {
+    // When
+    throttler.register(new ProfiledThrottled(highProfile));
+    throttler.register(new ProfiledThrottled(highProfile));
+    throttler.register(new ProfiledThrottled(lowProfile));
+
+    // Then
+    verify(highProfile).getString(DefaultDriverOption.REQUEST_THROTTLER_PRIORITY_CLASS, "normal");
+    verify(lowProfile).getString(DefaultDriverOption.REQUEST_THROTTLER_PRIORITY_CLASS, "normal");
+  }
+
+  @Test
+  public void should_reject_when_class_queue_is_full() {
+    // Given
+    fillToCapacity();
+    for (int i = 0; i < 10; i++) {
+      throttler.register(new ProfiledThrottled(lowProfile));
+    }
+    assertThat(throttler.getQueueSize("low")).isEqualTo(10);
+
+    // When
+    MockThrottled low = new ProfiledThrottled(lowProfile);
+    throttler.register(low);
+    MockThrottled high = new ProfiledThrottled(highProfile);
+    throttler.register(high);
+
+    // Then
+    assertThatStage(low.started)
+        .isFailed(error -> assertThat(error).isInstanceOf(RequestThrottlingException.class));
+    assertThatStage(high.started).isNotDone();
+    assertThat(throttler.getQueueSize("high")).isEqualTo(1);
+    assertThat(throttler.getQueueSize()).isEqualTo(11);
+  }
+
+  @Test
+  public void should_remove_timed_out_request_from_queue() {
+    // Given
+    fillToCapacity();
+    MockThrottled queued1 = new ProfiledThrottled(highProfile);
+    throttler.register(queued1);
+    MockThrottled queued2 = new ProfiledThrottled(lowProfile);
+    throttler.register(queued2);
+
+    // When
+    throttler.signalTimeout(queued1);
+
+    // Then
+    assertThat(throttler.getQueueSize("high")).isEqualTo(0);
+    assertThat(throttler.getQueueSize()).isEqualTo(1);
+    assertThat(throttler.getConcurrentRequests()).isEqualTo(5);
+
+    // When
+    throttler.signalSuccess(new MockThrottled());
+
+    // Then
+    assertThatStage(queued1.started).isNotDone();
+    assertThatStage(queued2.started).isSuccess(wasDelayed -> assertThat(wasDelayed).isTrue());
+  }
+
+  @Test
+  public void should_report_mean_wait_time_per_class() {
+    // Given
+    fillToCapacity();
+    throttler.register(new ProfiledThrottled(highProfile));
+    clock.add(ONE_HUNDRED_MILLISECONDS);
+    throttler.register(new ProfiledThrottled(highProfile));
+    throttler.register(new ProfiledThrottled(lowProfile));
+
+    // When
+    clock.add(2 * ONE_HUNDRED_MILLISECONDS);
+    throttler.signalSuccess(new MockThrottled());
+    throttler.signalSuccess(new MockThrottled());
+
+    // Then
+    // waited 300 and 200 milliseconds
+    assertThat(throttler.getMeanWaitTime("high")).isEqualTo(Duration.ofMillis(250));
+    // still queued, not accounted yet
+    assertThat(throttler.getMeanWaitTime("low")).isEqualTo(Duration.ZERO);
+    assertThat(throttler.getQueueSize("low")).isEqualTo(1);
+  }
+
+  @Test
+  public void should_fail_on_unknown_class_in_accessors() {
+    assertThatThrownBy(() -> throttler.getQueueSize("unknown"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void should_fail_on_invalid_weight() {
+    // Given
+    when(defaultProfile.getStringMap(
+            DefaultDriverOption.REQUEST_THROTTLER_PRIORITY_WEIGHTS,
+            PriorityConcurrencyLimitingRequestThrottler.DEFAULT_PRIORITY_WEIGHTS))
+        .thenReturn(ImmutableMap.of("high", "8", "low", "0"));
+
+    // Then
+    assertThatThrownBy(() -> new PriorityConcurrencyLimitingRequestThrottler(context, clock))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Invalid weight for priority class low");
+  }
+
+  @Test
+  public void should_reject_enqueued_when_closing() {
+    // Given
+    fillToCapacity();
+    List<MockThrottled> enqueued = Lists.newArrayList();
+    for (int i = 0; i < 10; i++) {
+      MockThrottled request = new ProfiledThrottled((i % 2 == 0) ? highProfile : lowProfile);
+      throttler.register(request);
+      assertThatStage(request.started).isNotDone();
+      enqueued.add(request);
+    }
+
+    // When
+    throttler.close();
+
+    // Then
+    for (MockThrottled request : enqueued) {
+      assertThatStage(request.started)
+          .isFailed(error -> assertThat(error).isInstanceOf(RequestThrottlingException.class));
+    }
+
+    // When
+    MockThrottled request = new MockThrottled();
+    throttler.register(request);
+
+    // Then
+    assertThatStage(request.started)
+        .isFailed(error -> assertThat(error).isInstanceOf(RequestThrottlingException.class));
+  }
+
+  private void fillToCapacity() {
+    for (int i = 0; i < 5; i++) {
+      throttler.register(new MockThrottled());
+    }
+    assertThat(throttler.getConcurrentRequests()).isEqualTo(5);
+  }
+
+  private static long countStarted(List<MockThrottled> requests) {
+    return requests.stream().filter(r -> r.started.toCompletableFuture().isDone()).count();
+  }
+
+  private static class ProfiledThrottled extends MockThrottled {
+    private final DriverExecutionProfile profile;
+
+    private ProfiledThrottled(DriverExecutionProfile profile) {
+      this.profile = profile;
+    }
+
+    @Override
+    public DriverExecutionProfile getExecutionProfile() {
+      return profile;
+    }
+  }
+}
@@ -25,12 +25,15 @@ import com.datastax.oss.driver.api.core.RequestThrottlingException;
 import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverConfig;
 import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.session.throttling.RequestThrottler;
+import com.datastax.oss.driver.api.core.session.throttling.Throttled;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
 import com.datastax.oss.driver.internal.core.context.NettyOptions;
 import com.datastax.oss.driver.internal.core.util.concurrent.ScheduledTaskCapturingEventLoop;
 import com.datastax.oss.driver.shaded.guava.common.collect.Lists;
 import io.netty.channel.EventLoopGroup;
 import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import org.junit.Before;
@@ -61,7 +64,7 @@ public class RateLimitingRequestThrottlerTest {
   private ScheduledTaskCapturingEventLoop adminExecutor;
   private SettableNanoClock clock = new SettableNanoClock();
 
-  private RateLimitingRequestThrottler throttler;
+  protected RequestThrottler throttler;
 
   @Before
   public void setup() {
@@ -83,7 +86,20 @@ public class RateLimitingRequestThrottlerTest {
     adminExecutor = new ScheduledTaskCapturingEventLoop(adminGroup);
     when(adminGroup.next()).thenReturn(adminExecutor);
 
-    throttler = new RateLimitingRequestThrottler(context, clock);
+    throttler = newThrottler(context, clock);
+  }
+
+  /** Overridden to run the same tests against other implementations. */
+  protected RequestThrottler newThrottler(InternalDriverContext context, NanoClock clock) {
+    return new RateLimitingRequestThrottler(context, clock);
+  }
+
+  protected int getStoredPermits() {
+    return ((RateLimitingRequestThrottler) throttler).getStoredPermits();
+  }
+
+  protected Collection<Throttled> getQueue() {
+    return ((RateLimitingRequestThrottler) throttler).getQueue();
   }
 
   /** Note: the throttler starts with 1 second worth of permits, so at t=0 we have 5 available. */
@@ -97,8 +113,8 @@ public class RateLimitingRequestThrottlerTest {
 
     // Then
     assertThatStage(request.started).isSuccess(wasDelayed -> assertThat(wasDelayed).isFalse());
-    assertThat(throttler.getStoredPermits()).isEqualTo(4);
-    assertThat(throttler.getQueue()).isEmpty();
+    assertThat(getStoredPermits()).isEqualTo(4);
+    assertThat(getQueue()).isEmpty();
   }
 
   @Test
@@ -107,7 +123,7 @@ public class RateLimitingRequestThrottlerTest {
     for (int i = 0; i < 5; i++) {
       throttler.register(new MockThrottled());
     }
-    assertThat(throttler.getStoredPermits()).isEqualTo(0);
+    assertThat(getStoredPermits()).isEqualTo(0);
 
     // When
     clock.add(TWO_HUNDRED_MILLISECONDS);
@@ -116,8 +132,8 @@ public class RateLimitingRequestThrottlerTest {
 
     // Then
     assertThatStage(request.started).isSuccess(wasDelayed -> assertThat(wasDelayed).isFalse());
-    assertThat(throttler.getStoredPermits()).isEqualTo(0);
-    assertThat(throttler.getQueue()).isEmpty();
+    assertThat(getStoredPermits()).isEqualTo(0);
+    assertThat(getQueue()).isEmpty();
   }
 
   @Test
@@ -126,7 +142,7 @@ public class RateLimitingRequestThrottlerTest {
     for (int i = 0; i < 5; i++) {
       throttler.register(new MockThrottled());
     }
-    assertThat(throttler.getStoredPermits()).isEqualTo(0);
+    assertThat(getStoredPermits()).isEqualTo(0);
 
     // When
     // (do not advance time)
@@ -135,8 +151,8 @@ public class RateLimitingRequestThrottlerTest {
 
     // Then
     assertThatStage(request.started).isNotDone();
-    assertThat(throttler.getStoredPermits()).isEqualTo(0);
-    assertThat(throttler.getQueue()).containsExactly(request);
+    assertThat(getStoredPermits()).isEqualTo(0);
+    assertThat(getQueue()).containsExactly(request);
 
     ScheduledTaskCapturingEventLoop.CapturedTask<?> task = adminExecutor.nextTask();
     assertThat(task).isNotNull();
@@ -149,8 +165,8 @@ public class RateLimitingRequestThrottlerTest {
     for (int i = 0; i < 15; i++) {
       throttler.register(new MockThrottled());
     }
-    assertThat(throttler.getStoredPermits()).isEqualTo(0);
-    assertThat(throttler.getQueue()).hasSize(10);
+    assertThat(getStoredPermits()).isEqualTo(0);
+    assertThat(getQueue()).hasSize(10);
 
     // When
     clock.add(TWO_HUNDRED_MILLISECONDS); // even if time has passed, queued items have priority
@@ -178,8 +194,8 @@ public class RateLimitingRequestThrottlerTest {
 
     // Then
     assertThatStage(queued2.started).isNotDone();
-    assertThat(throttler.getStoredPermits()).isEqualTo(0);
-    assertThat(throttler.getQueue()).containsExactly(queued2);
+    assertThat(getStoredPermits()).isEqualTo(0);
+    assertThat(getQueue()).containsExactly(queued2);
   }
 
   @Test
@@ -195,8 +211,8 @@ public class RateLimitingRequestThrottlerTest {
     MockThrottled queued2 = new MockThrottled();
     throttler.register(queued2);
     assertThatStage(queued2.started).isNotDone();
-    assertThat(throttler.getStoredPermits()).isEqualTo(0);
-    assertThat(throttler.getQueue()).hasSize(2);
+    assertThat(getStoredPermits()).isEqualTo(0);
+    assertThat(getQueue()).hasSize(2);
 
     ScheduledTaskCapturingEventLoop.CapturedTask<?> task = adminExecutor.nextTask();
     assertThat(task).isNotNull();
@@ -207,8 +223,8 @@ public class RateLimitingRequestThrottlerTest {
     task.run();
 
     // Then
-    assertThat(throttler.getStoredPermits()).isEqualTo(0);
-    assertThat(throttler.getQueue()).containsExactly(queued1, queued2);
+    assertThat(getStoredPermits()).isEqualTo(0);
+    assertThat(getQueue()).containsExactly(queued1, queued2);
     // task reschedules itself since it did not empty the queue
     task = adminExecutor.nextTask();
     assertThat(task).isNotNull();
@@ -221,8 +237,8 @@ public class RateLimitingRequestThrottlerTest {
     // Then
     assertThatStage(queued1.started).isSuccess(wasDelayed -> assertThat(wasDelayed).isTrue());
     assertThatStage(queued2.started).isNotDone();
-    assertThat(throttler.getStoredPermits()).isEqualTo(0);
-    assertThat(throttler.getQueue()).containsExactly(queued2);
+    assertThat(getStoredPermits()).isEqualTo(0);
+    assertThat(getQueue()).containsExactly(queued2);
     // task reschedules itself since it did not empty the queue
     task = adminExecutor.nextTask();
     assertThat(task).isNotNull();
@@ -234,8 +250,8 @@ public class RateLimitingRequestThrottlerTest {
 
     // Then
     assertThatStage(queued2.started).isSuccess(wasDelayed -> assertThat(wasDelayed).isTrue());
-    assertThat(throttler.getStoredPermits()).isEqualTo(0);
-    assertThat(throttler.getQueue()).isEmpty();
+    assertThat(getStoredPermits()).isEqualTo(0);
+    assertThat(getQueue()).isEmpty();
     assertThat(adminExecutor.nextTask()).isNull();
   }
 
@@ -245,7 +261,7 @@ public class RateLimitingRequestThrottlerTest {
     for (int i = 0; i < 5; i++) {
       throttler.register(new MockThrottled());
     }
-    assertThat(throttler.getStoredPermits()).isEqualTo(0);
+    assertThat(getStoredPermits()).isEqualTo(0);
 
     // When
     clock.add(TWO_SECONDS); // should store at most 1 second worth of permits
@@ -253,7 +269,7 @@ public class RateLimitingRequestThrottlerTest {
     // Then
     // acquire to trigger the throttler to update its permits
     throttler.register(new MockThrottled());
-    assertThat(throttler.getStoredPermits()).isEqualTo(4);
+    assertThat(getStoredPermits()).isEqualTo(4);
   }
 
   /**
@@ -267,7 +283,7 @@ public class RateLimitingRequestThrottlerTest {
     for (int i = 0; i < 5; i++) {
       throttler.register(new MockThrottled());
     }
-    assertThat(throttler.getStoredPermits()).isEqualTo(0);
+    assertThat(getStoredPermits()).isEqualTo(0);
 
     // When
     clock.add(ONE_HUNDRED_MILLISECONDS);
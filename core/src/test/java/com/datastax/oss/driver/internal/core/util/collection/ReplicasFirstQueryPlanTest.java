@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2024 ScyllaDB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.util.collection;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.internal.core.util.ArrayUtils;
+import java.util.Arrays;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReplicasFirstQueryPlanTest extends QueryPlanTestBase {
+
+  @Mock private Node node1;
+  @Mock private Node node2;
+  @Mock private Node node3;
+  @Mock private Node node4;
+  @Mock private Node node5;
+
+  @Override
+  protected QueryPlan newQueryPlan(Node... nodes) {
+    // the first node is the only replica
+    Object[] replicas = nodes.length == 0 ? new Object[0] : new Object[] {nodes[0]};
+    return new ReplicasFirstQueryPlan(replicas, replicas.length, nodes, 0);
+  }
+
+  @Test
+  public void should_return_replicas_first_then_rotate_other_nodes() {
+    Object[] nodes = {node1, node2, node3, node4, node5};
+    Object[] replicas = {node4, node2};
+
+    assertThat(new ReplicasFirstQueryPlan(replicas, 2, nodes, 0))
+        .containsExactly(node4, node2, node1, node3, node5);
+    assertThat(new ReplicasFirstQueryPlan(replicas, 2, nodes, 1))
+        .containsExactly(node4, node2, node3, node5, node1);
+    assertThat(new ReplicasFirstQueryPlan(replicas, 2, nodes, 2))
+        .containsExactly(node4, node2, node5, node1, node3);
+    assertThat(new ReplicasFirstQueryPlan(replicas, 2, nodes, 3))
+        .containsExactly(node4, node2, node1, node3, node5);
+  }
+
+  @Test
+  public void should_ignore_extra_slots_in_replica_array() {
+    Object[] nodes = {node1, node2, node3};
+    Object[] replicas = {node3, null, null};
+
+    QueryPlan plan = new ReplicasFirstQueryPlan(replicas, 1, nodes, 1);
+
+    assertThat(plan.size()).isEqualTo(3);
+    assertThat(plan).containsExactly(node3, node2, node1);
+  }
+
+  @Test
+  public void should_not_modify_node_snapshot() {
+    Object[] nodes = {node1, node2, node3, node4, node5};
+    Object[] copy = nodes.clone();
+
+    QueryPlan plan = new ReplicasFirstQueryPlan(new Object[] {node5}, 1, nodes, 3);
+    while (plan.poll() != null) {
+      // drain
+    }
+
+    assertThat(nodes).containsExactly(copy);
+  }
+
+  @Test
+  public void should_match_eager_rotation() {
+    Object[] nodes = {node1, node2, node3, node4, node5};
+    Object[] replicas = {node2, node5};
+    for (int amount = 0; amount < 10; amount++) {
+      // what the load balancing policies used to compute: replicas first, then rotate the rest
+      Object[] expected = {node2, node5, node1, node3, node4};
+      ArrayUtils.rotate(expected, 2, 3, amount);
+
+      assertThat(new ReplicasFirstQueryPlan(replicas, 2, nodes, amount))
+          .containsExactly(Arrays.copyOf(expected, expected.length, Node[].class));
+    }
+  }
+}
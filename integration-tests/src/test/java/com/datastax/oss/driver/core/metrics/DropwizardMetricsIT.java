@@ -104,6 +104,10 @@ public class DropwizardMetricsIT extends MetricsITBase {
           assertThat(m).isInstanceOf(Gauge.class);
           assertThat((Long) ((Gauge<?>) m).getValue()).isOne();
           break;
+        case TABLET_MAP_SIZE:
+          assertThat(m).isInstanceOf(Gauge.class);
+          assertThat((Integer) ((Gauge<?>) m).getValue()).isGreaterThanOrEqualTo(0);
+          break;
         case BYTES_SENT:
         case BYTES_RECEIVED:
           assertThat(m).isInstanceOf(Meter.class);
@@ -111,14 +115,21 @@ public class DropwizardMetricsIT extends MetricsITBase {
           break;
         case CQL_CLIENT_TIMEOUTS:
         case THROTTLING_ERRORS:
+        case RETRY_BUDGET_SUPPRESSED_RETRIES:
+        case RETRY_BUDGET_SUPPRESSED_SPECULATIVE_EXECUTIONS:
           assertThat(m).isInstanceOf(Counter.class);
           assertThat(((Counter) m).getCount()).isZero();
           break;
+        case TOKEN_MAP_REBUILD:
+          assertThat(m).isInstanceOf(Timer.class);
+          assertThat(((Timer) m).getCount()).isGreaterThanOrEqualTo(0);
+          break;
         case THROTTLING_DELAY:
           assertThat(m).isInstanceOf(Timer.class);
           assertThat(((Timer) m).getCount()).isZero();
           break;
         case THROTTLING_QUEUE_SIZE:
+        case THROTTLING_CONCURRENCY_LIMIT:
           assertThat(m).isInstanceOf(Gauge.class);
           assertThat((Integer) ((Gauge<?>) m).getValue()).isZero();
           break;
@@ -170,6 +181,8 @@ public class DropwizardMetricsIT extends MetricsITBase {
           case SPECULATIVE_EXECUTIONS:
           case CONNECTION_INIT_ERRORS:
           case AUTHENTICATION_ERRORS:
+          case COMPRESSION_RAW_BYTES:
+          case COMPRESSION_COMPRESSED_BYTES:
             assertThat(m).isInstanceOf(Counter.class);
             assertThat(((Counter) m).getCount()).isZero();
             break;
@@ -181,6 +194,7 @@ public class DropwizardMetricsIT extends MetricsITBase {
           case AVAILABLE_STREAMS:
           case IN_FLIGHT:
           case ORPHANED_STREAMS:
+          case WAIT_QUEUE_DEPTH:
             assertThat(m).isInstanceOf(Gauge.class);
             break;
         }
@@ -97,6 +97,10 @@ public class MicrometerMetricsIT extends MetricsITBase {
           assertThat(m).isInstanceOf(Gauge.class);
           assertThat(((Gauge) m).value()).isOne();
           break;
+        case TABLET_MAP_SIZE:
+          assertThat(m).isInstanceOf(Gauge.class);
+          assertThat(((Gauge) m).value()).isGreaterThanOrEqualTo(0);
+          break;
         case BYTES_SENT:
         case BYTES_RECEIVED:
           assertThat(m).isInstanceOf(Counter.class);
@@ -104,14 +108,21 @@ public class MicrometerMetricsIT extends MetricsITBase {
           break;
         case CQL_CLIENT_TIMEOUTS:
         case THROTTLING_ERRORS:
+        case RETRY_BUDGET_SUPPRESSED_RETRIES:
+        case RETRY_BUDGET_SUPPRESSED_SPECULATIVE_EXECUTIONS:
           assertThat(m).isInstanceOf(Counter.class);
           assertThat(((Counter) m).count()).isZero();
           break;
+        case TOKEN_MAP_REBUILD:
+          assertThat(m).isInstanceOf(Timer.class);
+          assertThat(((Timer) m).count()).isGreaterThanOrEqualTo(0);
+          break;
         case THROTTLING_DELAY:
           assertThat(m).isInstanceOf(Timer.class);
           assertThat(((Timer) m).count()).isZero();
           break;
         case THROTTLING_QUEUE_SIZE:
+        case THROTTLING_CONCURRENCY_LIMIT:
           assertThat(m).isInstanceOf(Gauge.class);
           assertThat(((Gauge) m).value()).isZero();
           break;
@@ -156,6 +167,8 @@ public class MicrometerMetricsIT extends MetricsITBase {
           case SPECULATIVE_EXECUTIONS:
           case CONNECTION_INIT_ERRORS:
           case AUTHENTICATION_ERRORS:
+          case COMPRESSION_RAW_BYTES:
+          case COMPRESSION_COMPRESSED_BYTES:
             assertThat(m).isInstanceOf(Counter.class);
             assertThat(((Counter) m).count()).isZero();
             break;
@@ -167,6 +180,7 @@ public class MicrometerMetricsIT extends MetricsITBase {
           case AVAILABLE_STREAMS:
           case IN_FLIGHT:
           case ORPHANED_STREAMS:
+          case WAIT_QUEUE_DEPTH:
             assertThat(m).isInstanceOf(Gauge.class);
             break;
         }
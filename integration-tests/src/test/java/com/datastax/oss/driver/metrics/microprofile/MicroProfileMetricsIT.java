@@ -100,6 +100,10 @@ public class MicroProfileMetricsIT extends MetricsITBase {
           assertThat(m).isInstanceOf(Gauge.class);
           assertThat((Long) ((Gauge<?>) m).getValue()).isOne();
           break;
+        case TABLET_MAP_SIZE:
+          assertThat(m).isInstanceOf(Gauge.class);
+          assertThat((Integer) ((Gauge<?>) m).getValue()).isGreaterThanOrEqualTo(0);
+          break;
         case BYTES_SENT:
         case BYTES_RECEIVED:
           assertThat(m).isInstanceOf(Meter.class);
@@ -107,14 +111,21 @@ public class MicroProfileMetricsIT extends MetricsITBase {
           break;
         case CQL_CLIENT_TIMEOUTS:
         case THROTTLING_ERRORS:
+        case RETRY_BUDGET_SUPPRESSED_RETRIES:
+        case RETRY_BUDGET_SUPPRESSED_SPECULATIVE_EXECUTIONS:
           assertThat(m).isInstanceOf(Counter.class);
           assertThat(((Counter) m).getCount()).isZero();
           break;
+        case TOKEN_MAP_REBUILD:
+          assertThat(m).isInstanceOf(Timer.class);
+          assertThat(((Timer) m).getCount()).isGreaterThanOrEqualTo(0);
+          break;
         case THROTTLING_DELAY:
           assertThat(m).isInstanceOf(Timer.class);
           assertThat(((Timer) m).getCount()).isZero();
           break;
         case THROTTLING_QUEUE_SIZE:
+        case THROTTLING_CONCURRENCY_LIMIT:
           assertThat(m).isInstanceOf(Gauge.class);
           assertThat((Integer) ((Gauge<?>) m).getValue()).isZero();
           break;
@@ -160,6 +171,8 @@ public class MicroProfileMetricsIT extends MetricsITBase {
           case SPECULATIVE_EXECUTIONS:
           case CONNECTION_INIT_ERRORS:
           case AUTHENTICATION_ERRORS:
+          case COMPRESSION_RAW_BYTES:
+          case COMPRESSION_COMPRESSED_BYTES:
             assertThat(m).isInstanceOf(Counter.class);
             assertThat(((Counter) m).getCount()).isZero();
             break;
@@ -171,6 +184,7 @@ public class MicroProfileMetricsIT extends MetricsITBase {
           case AVAILABLE_STREAMS:
           case IN_FLIGHT:
           case ORPHANED_STREAMS:
+          case WAIT_QUEUE_DEPTH:
             assertThat(m).isInstanceOf(Gauge.class);
             break;
         }
@@ -53,6 +53,7 @@ public class MicrometerNodeMetricUpdater extends MicrometerMetricUpdater<NodeMet
     initializeGauge(DefaultNodeMetric.AVAILABLE_STREAMS, profile, () -> availableStreamIds(node));
     initializeGauge(DefaultNodeMetric.IN_FLIGHT, profile, () -> inFlightRequests(node));
     initializeGauge(DefaultNodeMetric.ORPHANED_STREAMS, profile, () -> orphanedStreamIds(node));
+    initializeGauge(DefaultNodeMetric.WAIT_QUEUE_DEPTH, profile, () -> waitQueueDepth(node));
 
     initializeCounter(DefaultNodeMetric.UNSENT_REQUESTS, profile);
     initializeCounter(DefaultNodeMetric.ABORTED_REQUESTS, profile);
@@ -75,6 +76,8 @@ public class MicrometerNodeMetricUpdater extends MicrometerMetricUpdater<NodeMet
     initializeCounter(DefaultNodeMetric.SPECULATIVE_EXECUTIONS, profile);
     initializeCounter(DefaultNodeMetric.CONNECTION_INIT_ERRORS, profile);
     initializeCounter(DefaultNodeMetric.AUTHENTICATION_ERRORS, profile);
+    initializeCounter(DefaultNodeMetric.COMPRESSION_RAW_BYTES, profile);
+    initializeCounter(DefaultNodeMetric.COMPRESSION_COMPRESSED_BYTES, profile);
 
     initializeTimer(DefaultNodeMetric.CQL_MESSAGES, profile);
     initializeTimer(DseNodeMetric.GRAPH_MESSAGES, profile);
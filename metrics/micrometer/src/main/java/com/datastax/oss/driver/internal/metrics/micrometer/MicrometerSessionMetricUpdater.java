@@ -44,15 +44,23 @@ public class MicrometerSessionMetricUpdater extends MicrometerMetricUpdater<Sess
 
     initializeGauge(DefaultSessionMetric.CONNECTED_NODES, profile, this::connectedNodes);
     initializeGauge(DefaultSessionMetric.THROTTLING_QUEUE_SIZE, profile, this::throttlingQueueSize);
+    initializeGauge(
+        DefaultSessionMetric.THROTTLING_CONCURRENCY_LIMIT,
+        profile,
+        this::throttlingConcurrencyLimit);
     initializeGauge(
         DefaultSessionMetric.CQL_PREPARED_CACHE_SIZE, profile, this::preparedStatementCacheSize);
+    initializeGauge(DefaultSessionMetric.TABLET_MAP_SIZE, profile, this::tabletMapSize);
 
     initializeCounter(DefaultSessionMetric.CQL_CLIENT_TIMEOUTS, profile);
     initializeCounter(DefaultSessionMetric.THROTTLING_ERRORS, profile);
+    initializeCounter(DefaultSessionMetric.RETRY_BUDGET_SUPPRESSED_RETRIES, profile);
+    initializeCounter(DefaultSessionMetric.RETRY_BUDGET_SUPPRESSED_SPECULATIVE_EXECUTIONS, profile);
     initializeCounter(DseSessionMetric.GRAPH_CLIENT_TIMEOUTS, profile);
 
     initializeTimer(DefaultSessionMetric.CQL_REQUESTS, profile);
     initializeTimer(DefaultSessionMetric.THROTTLING_DELAY, profile);
+    initializeTimer(DefaultSessionMetric.TOKEN_MAP_REBUILD, profile);
     initializeTimer(DseSessionMetric.CONTINUOUS_CQL_REQUESTS, profile);
     initializeTimer(DseSessionMetric.GRAPH_REQUESTS, profile);
   }
@@ -104,6 +112,27 @@ public class MicrometerSessionMetricUpdater extends MicrometerMetricUpdater<Sess
 
       configurePercentilesPublishIfDefined(
           builder, profile, DefaultDriverOption.METRICS_SESSION_THROTTLING_PUBLISH_PERCENTILES);
+    } else if (metric == DefaultSessionMetric.TOKEN_MAP_REBUILD) {
+      builder
+          .minimumExpectedValue(
+              profile.getDuration(DefaultDriverOption.METRICS_SESSION_TOKEN_MAP_REBUILD_LOWEST))
+          .maximumExpectedValue(
+              profile.getDuration(DefaultDriverOption.METRICS_SESSION_TOKEN_MAP_REBUILD_HIGHEST))
+          .serviceLevelObjectives(
+              profile.isDefined(DefaultDriverOption.METRICS_SESSION_TOKEN_MAP_REBUILD_SLO)
+                  ? profile
+                      .getDurationList(DefaultDriverOption.METRICS_SESSION_TOKEN_MAP_REBUILD_SLO)
+                      .toArray(new Duration[0])
+                  : null)
+          .percentilePrecision(
+              profile.isDefined(DefaultDriverOption.METRICS_SESSION_TOKEN_MAP_REBUILD_DIGITS)
+                  ? profile.getInt(DefaultDriverOption.METRICS_SESSION_TOKEN_MAP_REBUILD_DIGITS)
+                  : null);
+
+      configurePercentilesPublishIfDefined(
+          builder,
+          profile,
+          DefaultDriverOption.METRICS_SESSION_TOKEN_MAP_REBUILD_PUBLISH_PERCENTILES);
     } else if (metric == DseSessionMetric.CONTINUOUS_CQL_REQUESTS) {
       builder
           .minimumExpectedValue(
@@ -49,6 +49,7 @@ public class MicroProfileNodeMetricUpdater extends MicroProfileMetricUpdater<Nod
     initializeGauge(DefaultNodeMetric.AVAILABLE_STREAMS, profile, () -> availableStreamIds(node));
     initializeGauge(DefaultNodeMetric.IN_FLIGHT, profile, () -> inFlightRequests(node));
     initializeGauge(DefaultNodeMetric.ORPHANED_STREAMS, profile, () -> orphanedStreamIds(node));
+    initializeGauge(DefaultNodeMetric.WAIT_QUEUE_DEPTH, profile, () -> waitQueueDepth(node));
 
     initializeCounter(DefaultNodeMetric.UNSENT_REQUESTS, profile);
     initializeCounter(DefaultNodeMetric.ABORTED_REQUESTS, profile);
@@ -71,6 +72,8 @@ public class MicroProfileNodeMetricUpdater extends MicroProfileMetricUpdater<Nod
     initializeCounter(DefaultNodeMetric.SPECULATIVE_EXECUTIONS, profile);
     initializeCounter(DefaultNodeMetric.CONNECTION_INIT_ERRORS, profile);
     initializeCounter(DefaultNodeMetric.AUTHENTICATION_ERRORS, profile);
+    initializeCounter(DefaultNodeMetric.COMPRESSION_RAW_BYTES, profile);
+    initializeCounter(DefaultNodeMetric.COMPRESSION_COMPRESSED_BYTES, profile);
 
     initializeTimer(DefaultNodeMetric.CQL_MESSAGES, profile);
     initializeTimer(DseNodeMetric.GRAPH_MESSAGES, profile);
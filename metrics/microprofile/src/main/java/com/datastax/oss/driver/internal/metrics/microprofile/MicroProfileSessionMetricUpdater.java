@@ -40,15 +40,23 @@ public class MicroProfileSessionMetricUpdater extends MicroProfileMetricUpdater<
 
     initializeGauge(DefaultSessionMetric.CONNECTED_NODES, profile, this::connectedNodes);
     initializeGauge(DefaultSessionMetric.THROTTLING_QUEUE_SIZE, profile, this::throttlingQueueSize);
+    initializeGauge(
+        DefaultSessionMetric.THROTTLING_CONCURRENCY_LIMIT,
+        profile,
+        this::throttlingConcurrencyLimit);
     initializeGauge(
         DefaultSessionMetric.CQL_PREPARED_CACHE_SIZE, profile, this::preparedStatementCacheSize);
+    initializeGauge(DefaultSessionMetric.TABLET_MAP_SIZE, profile, this::tabletMapSize);
 
     initializeCounter(DefaultSessionMetric.CQL_CLIENT_TIMEOUTS, profile);
     initializeCounter(DefaultSessionMetric.THROTTLING_ERRORS, profile);
+    initializeCounter(DefaultSessionMetric.RETRY_BUDGET_SUPPRESSED_RETRIES, profile);
+    initializeCounter(DefaultSessionMetric.RETRY_BUDGET_SUPPRESSED_SPECULATIVE_EXECUTIONS, profile);
     initializeCounter(DseSessionMetric.GRAPH_CLIENT_TIMEOUTS, profile);
 
     initializeTimer(DefaultSessionMetric.CQL_REQUESTS, profile);
     initializeTimer(DefaultSessionMetric.THROTTLING_DELAY, profile);
+    initializeTimer(DefaultSessionMetric.TOKEN_MAP_REBUILD, profile);
     initializeTimer(DseSessionMetric.CONTINUOUS_CQL_REQUESTS, profile);
     initializeTimer(DseSessionMetric.GRAPH_REQUESTS, profile);
   }